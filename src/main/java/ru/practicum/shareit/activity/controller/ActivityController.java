@@ -0,0 +1,23 @@
+package ru.practicum.shareit.activity.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.practicum.shareit.activity.service.ActivityStreamHub;
+
+@RestController
+@RequiredArgsConstructor
+@RequestMapping(path = "/events")
+public class ActivityController {
+
+    private final ActivityStreamHub activityStreamHub;
+
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream(@RequestHeader("X-Sharer-User-Id") Long userId) {
+        return activityStreamHub.subscribe(userId);
+    }
+}
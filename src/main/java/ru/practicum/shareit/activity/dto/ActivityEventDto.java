@@ -0,0 +1,28 @@
+package ru.practicum.shareit.activity.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ActivityEventDto {
+
+    private Type type;
+    private Long bookingId;
+    private Long itemId;
+    private Long requestId;
+    private LocalDateTime created;
+
+    public enum Type {
+        BOOKING_CREATED,
+        BOOKING_APPROVED,
+        BOOKING_REJECTED,
+        REQUEST_ITEM_ADDED,
+        // буфер соединения переполнился и старые события отброшены: клиенту стоит перечитать списки
+        EVENTS_DROPPED
+    }
+}
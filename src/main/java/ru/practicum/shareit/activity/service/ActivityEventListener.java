@@ -0,0 +1,53 @@
+package ru.practicum.shareit.activity.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ru.practicum.shareit.activity.dto.ActivityEventDto;
+import ru.practicum.shareit.booking.event.BookingChangedEvent;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.request.event.ItemRequestChangedEvent;
+import ru.practicum.shareit.request.repository.ItemRequestRepository;
+
+import java.time.LocalDateTime;
+
+@Component
+@RequiredArgsConstructor
+public class ActivityEventListener {
+
+    private final ActivityStreamHub activityStreamHub;
+    private final ItemRequestRepository itemRequestRepository;
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookingChanged(BookingChangedEvent event) {
+        if (!activityStreamHub.hasConnections()) {
+            return;
+        }
+        Booking booking = event.getBooking();
+        ActivityEventDto activity = new ActivityEventDto(toActivityType(event.getType()), booking.getId(),
+                booking.getItem().getId(), null, LocalDateTime.now());
+        activityStreamHub.publish(booking.getBooker().getId(), activity);
+        activityStreamHub.publish(booking.getOwner().getId(), activity);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onItemRequestChanged(ItemRequestChangedEvent event) {
+        if (event.getType() != ItemRequestChangedEvent.Type.ITEM_ADDED || !activityStreamHub.hasConnections()) {
+            return;
+        }
+        itemRequestRepository.findById(event.getRequestId()).ifPresent(request ->
+                activityStreamHub.publish(request.getRequester().getId(), new ActivityEventDto(
+                        ActivityEventDto.Type.REQUEST_ITEM_ADDED, null, null, request.getId(), LocalDateTime.now())));
+    }
+
+    private static ActivityEventDto.Type toActivityType(BookingChangedEvent.Type type) {
+        switch (type) {
+            case CREATED:
+                return ActivityEventDto.Type.BOOKING_CREATED;
+            case APPROVED:
+                return ActivityEventDto.Type.BOOKING_APPROVED;
+            default:
+                return ActivityEventDto.Type.BOOKING_REJECTED;
+        }
+    }
+}
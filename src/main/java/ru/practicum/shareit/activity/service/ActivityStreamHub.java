@@ -0,0 +1,320 @@
+package ru.practicum.shareit.activity.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.practicum.shareit.activity.dto.ActivityEventDto;
+import ru.practicum.shareit.exception.UserNotFoundException;
+import ru.practicum.shareit.util.IdentityCache;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Slf4j
+@Component
+public class ActivityStreamHub {
+
+    private final IdentityCache identityCache;
+    private final Map<Long, Set<Connection>> connections = new ConcurrentHashMap<>();
+    private final AtomicInteger connectionCount = new AtomicInteger();
+    private final ThreadPoolExecutor sender;
+    private final ScheduledThreadPoolExecutor watchdog;
+    private final Counter delivered;
+    private final Counter dropped;
+    private final Counter stalled;
+    private final int bufferSize;
+    private final Duration timeout;
+    private final Duration sendTimeout;
+    private final int maxStalledSenders;
+    private int stalledSenders;
+
+    public ActivityStreamHub(IdentityCache identityCache, MeterRegistry meterRegistry,
+                             @Value("${shareit.activity.buffer-size:64}") int bufferSize,
+                             @Value("${shareit.activity.timeout:30m}") Duration timeout,
+                             @Value("${shareit.activity.sender-threads:4}") int senderThreads,
+                             @Value("${shareit.activity.send-timeout:5s}") Duration sendTimeout,
+                             @Value("${shareit.activity.max-stalled-senders:16}") int maxStalledSenders) {
+        this.identityCache = identityCache;
+        this.bufferSize = bufferSize;
+        this.timeout = timeout;
+        this.sendTimeout = sendTimeout;
+        this.maxStalledSenders = maxStalledSenders;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.sender = new ThreadPoolExecutor(senderThreads, senderThreads, 0, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "activity-sender-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.watchdog = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "activity-watchdog");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.watchdog.setRemoveOnCancelPolicy(true);
+        this.delivered = Counter.builder("shareit.activity.events").register(meterRegistry);
+        this.dropped = Counter.builder("shareit.activity.dropped").register(meterRegistry);
+        this.stalled = Counter.builder("shareit.activity.stalled").register(meterRegistry);
+        Gauge.builder("shareit.activity.connections", connectionCount, AtomicInteger::get).register(meterRegistry);
+        Gauge.builder("shareit.activity.senders", sender, ThreadPoolExecutor::getPoolSize).register(meterRegistry);
+    }
+
+    public SseEmitter subscribe(Long userId) {
+        if (!identityCache.userExists(userId)) {
+            throw new UserNotFoundException();
+        }
+        SseEmitter emitter = createEmitter(timeout.toMillis());
+        Connection connection = new Connection(userId, emitter);
+        emitter.onCompletion(() -> remove(connection));
+        emitter.onTimeout(() -> remove(connection));
+        emitter.onError(e -> remove(connection));
+        // набор пользователя меняется только внутри compute, чтобы не добавить соединение в уже удалённый набор
+        connections.compute(userId, (key, userConnections) -> {
+            Set<Connection> updated = userConnections != null ? userConnections : ConcurrentHashMap.newKeySet();
+            updated.add(connection);
+            return updated;
+        });
+        connectionCount.incrementAndGet();
+        return emitter;
+    }
+
+    public boolean hasConnections() {
+        return connectionCount.get() > 0;
+    }
+
+    public int getConnectionCount() {
+        return connectionCount.get();
+    }
+
+    public void publish(Long userId, ActivityEventDto event) {
+        Set<Connection> userConnections = connections.get(userId);
+        if (userConnections == null) {
+            return;
+        }
+        for (Connection connection : userConnections) {
+            if (!connection.offer(event, bufferSize)) {
+                dropped.increment();
+            }
+            schedule(connection);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.activity.heartbeat-interval:30000}")
+    public void heartbeat() {
+        for (Set<Connection> userConnections : connections.values()) {
+            for (Connection connection : userConnections) {
+                connection.requestHeartbeat();
+                schedule(connection);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        sender.shutdownNow();
+        watchdog.shutdownNow();
+        connections.values().forEach(userConnections -> userConnections.forEach(connection ->
+                connection.emitter.complete()));
+    }
+
+    protected SseEmitter createEmitter(long timeoutMillis) {
+        return new SseEmitter(timeoutMillis);
+    }
+
+    private void schedule(Connection connection) {
+        if (!connection.scheduled.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            sender.execute(() -> drain(connection));
+        } catch (RejectedExecutionException e) {
+            connection.scheduled.set(false);
+        }
+    }
+
+    // отправка идёт в одном потоке на соединение, поэтому emitter не пишется параллельно
+    private void drain(Connection connection) {
+        while (true) {
+            Pending pending = connection.poll();
+            if (pending.isEmpty()) {
+                connection.scheduled.set(false);
+                // событие могло прийти между poll и сбросом флага
+                if (!connection.hasPending() || !connection.scheduled.compareAndSet(false, true)) {
+                    return;
+                }
+                continue;
+            }
+            for (ActivityEventDto event : pending.events) {
+                if (!send(connection, SseEmitter.event()
+                        .name(event.getType().name())
+                        .data(event, MediaType.APPLICATION_JSON))) {
+                    return;
+                }
+                delivered.increment();
+            }
+            if (pending.heartbeat && pending.events.isEmpty()
+                    && !send(connection, SseEmitter.event().comment("ping"))) {
+                return;
+            }
+        }
+    }
+
+    // запись в сокет блокирующая: зависшая отправка снимает соединение, а пул получает замену потоку,
+    // но не больше max-stalled-senders, чтобы медленные клиенты не превратились в поток на соединение
+    private boolean send(Connection connection, SseEmitter.SseEventBuilder event) {
+        AtomicBoolean finished = new AtomicBoolean();
+        AtomicBoolean grown = new AtomicBoolean();
+        ScheduledFuture<?> watch = watchdog.schedule(() -> {
+            if (stall(finished, grown)) {
+                log.debug("Activity stream of user {} is stalled", connection.userId);
+                stalled.increment();
+                remove(connection);
+            }
+        }, sendTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        boolean sent;
+        try {
+            connection.emitter.send(event);
+            sent = true;
+        } catch (IOException | IllegalStateException e) {
+            log.debug("Activity stream of user {} is closed", connection.userId);
+            sent = false;
+        }
+        watch.cancel(false);
+        if (finished.compareAndSet(false, true)) {
+            if (!sent) {
+                remove(connection);
+                connection.scheduled.set(false);
+            }
+            return sent;
+        }
+        // emitter держит свой монитор на всё время записи, поэтому завершить его можно только после её возврата
+        releaseStalled(grown);
+        connection.emitter.completeWithError(new IOException("Activity stream send timed out"));
+        return false;
+    }
+
+    private synchronized boolean stall(AtomicBoolean finished, AtomicBoolean grown) {
+        if (!finished.compareAndSet(false, true)) {
+            return false;
+        }
+        if (stalledSenders < maxStalledSenders) {
+            stalledSenders++;
+            sender.setMaximumPoolSize(sender.getMaximumPoolSize() + 1);
+            sender.setCorePoolSize(sender.getCorePoolSize() + 1);
+            grown.set(true);
+        }
+        return true;
+    }
+
+    private synchronized void releaseStalled(AtomicBoolean grown) {
+        if (!grown.get()) {
+            return;
+        }
+        stalledSenders--;
+        sender.setCorePoolSize(sender.getCorePoolSize() - 1);
+        sender.setMaximumPoolSize(sender.getMaximumPoolSize() - 1);
+    }
+
+    private void remove(Connection connection) {
+        connections.computeIfPresent(connection.userId, (key, userConnections) -> {
+            if (userConnections.remove(connection)) {
+                connectionCount.decrementAndGet();
+            }
+            return userConnections.isEmpty() ? null : userConnections;
+        });
+    }
+
+    private static class Connection {
+
+        private final Long userId;
+        private final SseEmitter emitter;
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private ArrayDeque<ActivityEventDto> buffer;
+        private boolean overflowed;
+        private boolean heartbeat;
+
+        Connection(Long userId, SseEmitter emitter) {
+            this.userId = userId;
+            this.emitter = emitter;
+        }
+
+        synchronized boolean offer(ActivityEventDto event, int capacity) {
+            if (buffer == null) {
+                buffer = new ArrayDeque<>();
+            }
+            boolean accepted = true;
+            if (buffer.size() >= capacity) {
+                buffer.poll();
+                overflowed = true;
+                accepted = false;
+            }
+            buffer.add(event);
+            return accepted;
+        }
+
+        synchronized void requestHeartbeat() {
+            heartbeat = true;
+        }
+
+        synchronized boolean hasPending() {
+            return heartbeat || buffer != null;
+        }
+
+        synchronized Pending poll() {
+            List<ActivityEventDto> events;
+            if (buffer == null) {
+                events = Collections.emptyList();
+            } else {
+                events = new ArrayList<>(buffer.size() + 1);
+                if (overflowed) {
+                    events.add(new ActivityEventDto(ActivityEventDto.Type.EVENTS_DROPPED, null, null, null,
+                            LocalDateTime.now()));
+                }
+                events.addAll(buffer);
+            }
+            Pending pending = new Pending(events, heartbeat);
+            buffer = null;
+            overflowed = false;
+            heartbeat = false;
+            return pending;
+        }
+    }
+
+    private static class Pending {
+
+        private final List<ActivityEventDto> events;
+        private final boolean heartbeat;
+
+        Pending(List<ActivityEventDto> events, boolean heartbeat) {
+            this.events = events;
+            this.heartbeat = heartbeat;
+        }
+
+        boolean isEmpty() {
+            return events.isEmpty() && !heartbeat;
+        }
+    }
+}
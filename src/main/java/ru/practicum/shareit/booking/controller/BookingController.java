@@ -1,14 +1,19 @@
 package ru.practicum.shareit.booking.controller;
 
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingMapper;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingState;
 import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.util.CountEstimateCache;
+import ru.practicum.shareit.util.CursorUtil;
 import ru.practicum.shareit.util.PageableUtil;
 
 import javax.validation.Valid;
@@ -47,23 +52,60 @@ public class BookingController {
     }
 
     @GetMapping
-    public List<BookingDto> getAllBookingsByBooker(@RequestHeader("X-Sharer-User-Id") Long userId,
+    public ResponseEntity<List<BookingDto>> getAllBookingsByBooker(@RequestHeader("X-Sharer-User-Id") Long userId,
                                                    @RequestParam(required = false, defaultValue = "ALL") String state,
                                                    @PositiveOrZero @RequestParam(defaultValue = "0") int from,
-                                                   @Positive @RequestParam(defaultValue = "10") int size) {
-        Sort sort = (state.equals("CURRENT")) ? Sort.by(Sort.Direction.ASC, "id") : Sort.by(Sort.Direction.DESC, "id");
+                                                   @Positive @RequestParam(defaultValue = "10") int size,
+                                                   @RequestParam(required = false) String after,
+                                                   @RequestParam(defaultValue = "false") boolean total) {
+        BookingState bookingState = BookingState.from(state);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (total) {
+            response.header(CountEstimateCache.TOTAL_COUNT_HEADER,
+                    String.valueOf(bookingService.countBookingsByBooker(userId, bookingState)));
+        }
+        Sort sort = bookingState == BookingState.CURRENT
+                ? Sort.by(Sort.Direction.ASC, "id")
+                : Sort.by(Sort.Direction.DESC, "id");
+        if (after != null) {
+            return withNextCursor(response, bookingService.getAllBookingsByBookerAfter(userId, bookingState,
+                    CursorUtil.decode(after), PageRequest.of(0, size, sort)));
+        }
         Pageable pageable = PageableUtil.createPageable(from, size, sort);
-        Page<BookingDto> pageResult = bookingService.getAllBookingsByBooker(userId, state, pageable);
-        return pageResult.getContent();
+        Slice<BookingDto> pageResult = bookingService.getAllBookingsByBooker(userId, bookingState, pageable);
+        return withNextCursor(response, pageResult);
     }
 
     @GetMapping("/owner")
-    public List<BookingDto> getAllBookingsByOwner(@RequestHeader("X-Sharer-User-Id") Long ownerId,
+    public ResponseEntity<List<BookingDto>> getAllBookingsByOwner(@RequestHeader("X-Sharer-User-Id") Long ownerId,
                                                   @RequestParam(required = false, defaultValue = "ALL") String state,
                                                   @PositiveOrZero @RequestParam(defaultValue = "0") int from,
-                                                  @Positive @RequestParam(defaultValue = "10") int size) {
-        Pageable pageable = PageableUtil.createPageable(from, size, Sort.by(Sort.Direction.DESC, "id"));
-        Page<BookingDto> pageResult = bookingService.getAllBookingsByOwner(ownerId, state, pageable);
-        return pageResult.getContent();
+                                                  @Positive @RequestParam(defaultValue = "10") int size,
+                                                  @RequestParam(required = false) String after,
+                                                  @RequestParam(defaultValue = "false") boolean total) {
+        BookingState bookingState = BookingState.from(state);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (total) {
+            response.header(CountEstimateCache.TOTAL_COUNT_HEADER,
+                    String.valueOf(bookingService.countBookingsByOwner(ownerId, bookingState)));
+        }
+        Sort sort = Sort.by(Sort.Direction.DESC, "id");
+        if (after != null) {
+            return withNextCursor(response, bookingService.getAllBookingsByOwnerAfter(ownerId, bookingState,
+                    CursorUtil.decode(after), PageRequest.of(0, size, sort)));
+        }
+        Pageable pageable = PageableUtil.createPageable(from, size, sort);
+        Slice<BookingDto> pageResult = bookingService.getAllBookingsByOwner(ownerId, bookingState, pageable);
+        return withNextCursor(response, pageResult);
+    }
+
+    private ResponseEntity<List<BookingDto>> withNextCursor(ResponseEntity.BodyBuilder response,
+                                                            Slice<BookingDto> bookings) {
+        List<BookingDto> content = bookings.getContent();
+        if (bookings.hasNext() && content.get(content.size() - 1).getId() != null) {
+            response.header(CursorUtil.NEXT_CURSOR_HEADER,
+                    CursorUtil.encode(content.get(content.size() - 1).getId()));
+        }
+        return response.body(content);
     }
 }
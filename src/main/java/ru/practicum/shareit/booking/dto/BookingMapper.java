@@ -5,6 +5,7 @@ import org.springframework.stereotype.Component;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.Status;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.model.BookingSnapshot;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.model.User;
@@ -37,6 +38,30 @@ public class BookingMapper {
         return dto;
     }
 
+    public BookingDto toBookingDto(BookingSnapshot snapshot, Item item) {
+        if (snapshot == null) {
+            return null;
+        }
+        BookingDto dto = new BookingDto();
+        dto.setId(snapshot.getBookingId());
+        ItemDto itemDto = new ItemDto();
+        itemDto.setId(item.getId());
+        itemDto.setName(item.getName());
+        itemDto.setAvailable(item.getAvailable());
+        itemDto.setOwnerId(item.getOwner().getId());
+        dto.setItemId(item.getId());
+        dto.setItem(itemDto);
+        dto.setOwnerId(item.getOwner().getId());
+        dto.setBookerId(snapshot.getBookerId());
+        UserDto bookerDto = new UserDto();
+        bookerDto.setId(snapshot.getBookerId());
+        dto.setBooker(bookerDto);
+        dto.setStart(snapshot.getStart());
+        dto.setEnd(snapshot.getEnd());
+        dto.setStatus(Status.APPROVED);
+        return dto;
+    }
+
     public Booking toBooking(BookingDto bookingDto, User owner, Item item, User booker) {
         if (bookingDto == null) {
             return null;
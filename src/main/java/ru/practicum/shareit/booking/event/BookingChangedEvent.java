@@ -0,0 +1,17 @@
+package ru.practicum.shareit.booking.event;
+
+import lombok.Value;
+import ru.practicum.shareit.booking.model.Booking;
+
+@Value
+public class BookingChangedEvent {
+
+    Booking booking;
+    Type type;
+
+    public enum Type {
+        CREATED,
+        APPROVED,
+        REJECTED
+    }
+}
@@ -13,10 +13,22 @@ import java.time.LocalDateTime;
 @Data
 @Entity
 @Table(name = "bookings")
+@NamedEntityGraph(name = Booking.DETAILS_GRAPH,
+        attributeNodes = {
+                @NamedAttributeNode(value = "item", subgraph = "item"),
+                @NamedAttributeNode("owner"),
+                @NamedAttributeNode("booker")
+        },
+        subgraphs = @NamedSubgraph(name = "item", attributeNodes = {
+                @NamedAttributeNode("owner"),
+                @NamedAttributeNode("request")
+        }))
 @NoArgsConstructor
 @AllArgsConstructor
 public class Booking {
 
+    public static final String DETAILS_GRAPH = "Booking.details";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     Long id;
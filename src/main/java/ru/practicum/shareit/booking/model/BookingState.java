@@ -0,0 +1,20 @@
+package ru.practicum.shareit.booking.model;
+
+import java.util.Locale;
+
+public enum BookingState {
+    ALL,
+    CURRENT,
+    PAST,
+    FUTURE,
+    WAITING,
+    REJECTED;
+
+    public static BookingState from(String state) {
+        try {
+            return valueOf(state.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown state: " + state);
+        }
+    }
+}
@@ -1,40 +1,58 @@
 package ru.practicum.shareit.booking.repository;
 
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.Status;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
-public interface BookingRepository extends JpaRepository<Booking, Long> {
-
-    Page<Booking> findAllByBookerId(Long bookerI, Pageable pageable);
-
-    Page<Booking> findAllByBookerIdAndStatus(Long bookerId, Status status, Pageable pageable);
-
-    Page<Booking> findAllByBookerIdAndEndBefore(Long bookerId, LocalDateTime now, Pageable pageable);
-
-    Page<Booking> findAllByBookerIdAndStartAfter(Long bookerId, LocalDateTime now, Pageable pageable);
-
-    Page<Booking> findAllByBookerIdAndStartBeforeAndEndAfter(Long bookerId, LocalDateTime start, LocalDateTime end,
-                                                             Pageable pageable);
-
-    Page<Booking> findAllByOwnerId(Long userId, Pageable pageable);
-
-    Page<Booking> findAllByOwnerIdAndStatus(Long ownerId, Status status, Pageable pageable);
-
-    Page<Booking> findAllByOwnerIdAndEndBefore(Long ownerId, LocalDateTime now, Pageable pageable);
-
-    Page<Booking> findAllByOwnerIdAndStartAfter(Long ownerId, LocalDateTime now, Pageable pageable);
-
-    Page<Booking> findAllByOwnerIdAndStartBeforeAndEndAfter(Long ownerId, LocalDateTime start, LocalDateTime end,
-                                                            Pageable pageable);
-
-    List<Booking> findByItemIdAndEndAfterAndStartBefore(Long itemId, LocalDateTime start, LocalDateTime end);
+public interface BookingRepository extends JpaRepository<Booking, Long>, BookingStateRepository {
+
+    boolean existsByItemIdAndStatusInAndEndAfterAndStartBefore(Long itemId, Collection<Status> statuses,
+                                                              LocalDateTime start, LocalDateTime end);
+
+    List<BookingIntervalView> findAllByItemIdAndStatusInAndEndAfterAndStartBeforeOrderByStartAsc(
+            Long itemId, Collection<Status> statuses, LocalDateTime start, LocalDateTime end);
+
+    List<BookingIntervalView> findAllByItemIdAndStatusInAndEndAfter(Long itemId, Collection<Status> statuses,
+                                                                    LocalDateTime end);
+
+    @Query("SELECT b.id AS id, b.item.id AS itemId, b.start AS start, b.end AS end FROM Booking b " +
+            "WHERE b.status IN :statuses AND b.end > :end AND b.id > :afterId ORDER BY b.id")
+    List<BookingSlotView> findSlotViews(@Param("statuses") Collection<Status> statuses,
+                                        @Param("end") LocalDateTime end,
+                                        @Param("afterId") Long afterId,
+                                        Pageable pageable);
+
+    @Query("SELECT DISTINCT b.item.id FROM Booking b WHERE b.item.id IN :itemIds AND b.status IN :statuses " +
+            "AND b.start < :end AND b.end > :start")
+    List<Long> findBookedItemIds(@Param("itemIds") Collection<Long> itemIds,
+                                 @Param("statuses") Collection<Status> statuses,
+                                 @Param("start") LocalDateTime start,
+                                 @Param("end") LocalDateTime end);
+
+    @EntityGraph(Booking.DETAILS_GRAPH)
+    @Query("SELECT b FROM Booking b WHERE b.item.id IN :itemIds AND b.status = :status AND b.start < :now " +
+            "AND b.end = (SELECT MAX(l.end) FROM Booking l " +
+            "WHERE l.item = b.item AND l.status = :status AND l.start < :now)")
+    List<Booking> findLastBookingsByItemIds(@Param("itemIds") Collection<Long> itemIds,
+                                            @Param("status") Status status,
+                                            @Param("now") LocalDateTime now);
+
+    @EntityGraph(Booking.DETAILS_GRAPH)
+    @Query("SELECT b FROM Booking b WHERE b.item.id IN :itemIds AND b.status = :status AND b.start > :now " +
+            "AND b.start = (SELECT MIN(n.start) FROM Booking n " +
+            "WHERE n.item = b.item AND n.status = :status AND n.start > :now)")
+    List<Booking> findNextBookingsByItemIds(@Param("itemIds") Collection<Long> itemIds,
+                                            @Param("status") Status status,
+                                            @Param("now") LocalDateTime now);
 
     Optional<Booking> findFirstByItemIdAndStatusAndStartBeforeOrderByEndDesc(Long itemId, Status status, LocalDateTime end);
 
@@ -0,0 +1,14 @@
+package ru.practicum.shareit.booking.repository;
+
+import java.time.LocalDateTime;
+
+public interface BookingSlotView {
+
+    Long getId();
+
+    Long getItemId();
+
+    LocalDateTime getStart();
+
+    LocalDateTime getEnd();
+}
@@ -0,0 +1,33 @@
+package ru.practicum.shareit.booking.repository;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingState;
+
+import java.time.LocalDateTime;
+
+public interface BookingStateRepository {
+
+    Slice<Booking> findByState(Party party, Long userId, BookingState state, LocalDateTime now, Pageable pageable);
+
+    Slice<Booking> findByStateAfter(Party party, Long userId, BookingState state, LocalDateTime now, Long afterId,
+                                    Pageable pageable);
+
+    long countByState(Party party, Long userId, BookingState state, LocalDateTime now);
+
+    enum Party {
+        BOOKER("b.booker.id"),
+        OWNER("b.owner.id");
+
+        private final String path;
+
+        Party(String path) {
+            this.path = path;
+        }
+
+        String getPath() {
+            return path;
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package ru.practicum.shareit.booking.repository;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingState;
+import ru.practicum.shareit.booking.model.Status;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.TypedQuery;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class BookingStateRepositoryImpl implements BookingStateRepository {
+
+    private static final String FETCH_GRAPH = "javax.persistence.fetchgraph";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Slice<Booking> findByState(Party party, Long userId, BookingState state, LocalDateTime now,
+                                      Pageable pageable) {
+        Map<String, Object> parameters = new HashMap<>();
+        String jpql = QueryUtils.applySorting("SELECT b FROM Booking b " + where(party, userId, state, now, parameters),
+                pageable.getSort(), "b");
+        return toSlice(withDetails(bind(entityManager.createQuery(jpql, Booking.class), parameters))
+                .setFirstResult((int) pageable.getOffset()), pageable);
+    }
+
+    @Override
+    public Slice<Booking> findByStateAfter(Party party, Long userId, BookingState state, LocalDateTime now,
+                                          Long afterId, Pageable pageable) {
+        Map<String, Object> parameters = new HashMap<>();
+        Sort.Order order = pageable.getSort().getOrderFor("id");
+        String seek = order != null && order.isAscending() ? "AND b.id > :afterId " : "AND b.id < :afterId ";
+        parameters.put("afterId", afterId);
+        String jpql = QueryUtils.applySorting("SELECT b FROM Booking b " + where(party, userId, state, now, parameters)
+                + seek, pageable.getSort(), "b");
+        return toSlice(withDetails(bind(entityManager.createQuery(jpql, Booking.class), parameters)), pageable);
+    }
+
+    @Override
+    public long countByState(Party party, Long userId, BookingState state, LocalDateTime now) {
+        Map<String, Object> parameters = new HashMap<>();
+        String jpql = "SELECT COUNT(b) FROM Booking b " + where(party, userId, state, now, parameters);
+        return bind(entityManager.createQuery(jpql, Long.class), parameters).getSingleResult();
+    }
+
+    private static String where(Party party, Long userId, BookingState state, LocalDateTime now,
+                                Map<String, Object> parameters) {
+        StringBuilder where = new StringBuilder("WHERE ").append(party.getPath()).append(" = :userId ");
+        parameters.put("userId", userId);
+        switch (state) {
+            case ALL:
+                break;
+            case WAITING:
+                where.append("AND b.status = :status ");
+                parameters.put("status", Status.WAITING);
+                break;
+            case REJECTED:
+                where.append("AND b.status = :status ");
+                parameters.put("status", Status.REJECTED);
+                break;
+            case PAST:
+                where.append("AND b.end < :now ");
+                parameters.put("now", now);
+                break;
+            case FUTURE:
+                where.append("AND b.start > :now ");
+                parameters.put("now", now);
+                break;
+            case CURRENT:
+                where.append("AND b.start < :now AND b.end > :now ");
+                parameters.put("now", now);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown state: " + state);
+        }
+        return where.toString();
+    }
+
+    // лишняя запись показывает, есть ли следующая страница
+    private static Slice<Booking> toSlice(TypedQuery<Booking> query, Pageable pageable) {
+        List<Booking> bookings = query.setMaxResults(pageable.getPageSize() + 1).getResultList();
+        boolean hasNext = bookings.size() > pageable.getPageSize();
+        return new SliceImpl<>(hasNext ? bookings.subList(0, pageable.getPageSize()) : bookings, pageable, hasNext);
+    }
+
+    private TypedQuery<Booking> withDetails(TypedQuery<Booking> query) {
+        return query.setHint(FETCH_GRAPH, entityManager.getEntityGraph(Booking.DETAILS_GRAPH));
+    }
+
+    private static <T> TypedQuery<T> bind(TypedQuery<T> query, Map<String, Object> parameters) {
+        parameters.forEach(query::setParameter);
+        return query;
+    }
+}
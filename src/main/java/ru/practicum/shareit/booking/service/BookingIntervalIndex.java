@@ -0,0 +1,197 @@
+package ru.practicum.shareit.booking.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ru.practicum.shareit.booking.event.BookingChangedEvent;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.Status;
+import ru.practicum.shareit.booking.repository.BookingIntervalView;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class BookingIntervalIndex {
+
+    public static final Set<Status> ACTIVE_STATUSES = Collections.unmodifiableSet(EnumSet.of(Status.WAITING, Status.APPROVED));
+
+    private final BookingRepository bookingRepository;
+    private final Map<Long, ItemIntervals> intervalsByItem = new ConcurrentHashMap<>();
+
+    @Value("${shareit.booking.overlap-index.reconcile:false}")
+    private boolean reconcile;
+
+    public boolean hasOverlap(Long itemId, LocalDateTime start, LocalDateTime end) {
+        // загрузка идёт под блокировкой ключа, поэтому onBookingChanged не потеряет бронирование,
+        // закоммиченное во время чтения из базы
+        ItemIntervals intervals = intervalsByItem.computeIfAbsent(itemId, this::load);
+        if (start.isBefore(intervals.getCoveredFrom())) {
+            return existsInRepository(itemId, start, end);
+        }
+        boolean overlaps = intervals.overlaps(start, end);
+        if (reconcile) {
+            boolean expected = existsInRepository(itemId, start, end);
+            if (overlaps != expected) {
+                log.warn("Booking interval index is out of sync for item {}: index={}, repository={}",
+                        itemId, overlaps, expected);
+                intervalsByItem.remove(itemId);
+                return expected;
+            }
+        }
+        return overlaps;
+    }
+
+    // должен отработать раньше снятия блокировки ItemBookingLock в afterCompletion
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookingChanged(BookingChangedEvent event) {
+        Booking booking = event.getBooking();
+        Long itemId = booking.getItem().getId();
+        if (ACTIVE_STATUSES.contains(booking.getStatus())) {
+            intervalsByItem.computeIfPresent(itemId, (id, intervals) ->
+                    intervals.add(booking.getId(), booking.getStart(), booking.getEnd(), LocalDateTime.now()));
+        } else {
+            intervalsByItem.computeIfPresent(itemId,
+                    (id, intervals) -> intervals.remove(booking.getId()).size() > 0 ? intervals : null);
+        }
+    }
+
+    public void evict(Long itemId) {
+        intervalsByItem.remove(itemId);
+    }
+
+    public void setReconcile(boolean reconcile) {
+        this.reconcile = reconcile;
+    }
+
+    private boolean existsInRepository(Long itemId, LocalDateTime start, LocalDateTime end) {
+        return bookingRepository.existsByItemIdAndStatusInAndEndAfterAndStartBefore(itemId, ACTIVE_STATUSES,
+                start, end);
+    }
+
+    private ItemIntervals load(Long itemId) {
+        LocalDateTime loadedAt = LocalDateTime.now();
+        ItemIntervals intervals = new ItemIntervals(loadedAt);
+        for (BookingIntervalView view : bookingRepository.findAllByItemIdAndStatusInAndEndAfter(itemId,
+                ACTIVE_STATUSES, loadedAt)) {
+            intervals.add(view.getId(), view.getStart(), view.getEnd(), loadedAt);
+        }
+        log.debug("Loaded {} active booking intervals for item {}", intervals.size(), itemId);
+        return intervals;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    static class Interval {
+        private final Long bookingId;
+        private final LocalDateTime start;
+        private final LocalDateTime end;
+    }
+
+    static class ItemIntervals {
+
+        private final List<Interval> intervals = new ArrayList<>();
+        private final List<LocalDateTime> maxEnds = new ArrayList<>();
+        private LocalDateTime coveredFrom;
+
+        ItemIntervals(LocalDateTime loadedAt) {
+            this.coveredFrom = loadedAt;
+        }
+
+        synchronized LocalDateTime getCoveredFrom() {
+            return coveredFrom;
+        }
+
+        synchronized int size() {
+            return intervals.size();
+        }
+
+        synchronized boolean overlaps(LocalDateTime start, LocalDateTime end) {
+            int count = countStartingBefore(end);
+            return count > 0 && maxEnds.get(count - 1).isAfter(start);
+        }
+
+        synchronized ItemIntervals add(Long bookingId, LocalDateTime start, LocalDateTime end, LocalDateTime now) {
+            trim(now);
+            if (!end.isAfter(now) || indexOf(bookingId) >= 0) {
+                return this;
+            }
+            int position = countStartingBefore(start);
+            intervals.add(position, new Interval(bookingId, start, end));
+            rebuildMaxEnds(position);
+            return this;
+        }
+
+        synchronized ItemIntervals remove(Long bookingId) {
+            int position = indexOf(bookingId);
+            if (position >= 0) {
+                intervals.remove(position);
+                maxEnds.remove(maxEnds.size() - 1);
+                rebuildMaxEnds(position);
+            }
+            return this;
+        }
+
+        // закончившееся бронирование не пересекается с окнами, начинающимися позже now
+        private void trim(LocalDateTime now) {
+            if (!now.isAfter(coveredFrom)) {
+                return;
+            }
+            coveredFrom = now;
+            if (intervals.removeIf(interval -> !interval.getEnd().isAfter(now))) {
+                maxEnds.clear();
+                rebuildMaxEnds(0);
+            }
+        }
+
+        private int countStartingBefore(LocalDateTime moment) {
+            int low = 0;
+            int high = intervals.size();
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (intervals.get(middle).getStart().isBefore(moment)) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+
+        private int indexOf(Long bookingId) {
+            for (int i = 0; i < intervals.size(); i++) {
+                if (intervals.get(i).getBookingId().equals(bookingId)) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        private void rebuildMaxEnds(int from) {
+            while (maxEnds.size() < intervals.size()) {
+                maxEnds.add(null);
+            }
+            for (int i = from; i < intervals.size(); i++) {
+                LocalDateTime end = intervals.get(i).getEnd();
+                LocalDateTime previous = i > 0 ? maxEnds.get(i - 1) : null;
+                maxEnds.set(i, previous != null && previous.isAfter(end) ? previous : end);
+            }
+        }
+    }
+}
@@ -1,9 +1,12 @@
 package ru.practicum.shareit.booking.service;
 
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingState;
+
+import java.util.List;
 
 public interface BookingService {
 
@@ -11,9 +14,17 @@ public interface BookingService {
 
     Booking getBookingById(Long bookingId, Long userId);
 
-    Page<BookingDto> getAllBookingsByBooker(Long bookerId, String state, Pageable pageable);
+    Slice<BookingDto> getAllBookingsByBooker(Long bookerId, BookingState state, Pageable pageable);
+
+    Slice<BookingDto> getAllBookingsByOwner(Long ownerId, BookingState state, Pageable pageable);
+
+    long countBookingsByBooker(Long bookerId, BookingState state);
+
+    long countBookingsByOwner(Long ownerId, BookingState state);
+
+    Slice<BookingDto> getAllBookingsByBookerAfter(Long bookerId, BookingState state, Long afterId, Pageable pageable);
 
-    Page<BookingDto> getAllBookingsByOwner(Long ownerId, String state, Pageable pageable);
+    Slice<BookingDto> getAllBookingsByOwnerAfter(Long ownerId, BookingState state, Long afterId, Pageable pageable);
 
     Booking approveBooking(Long bookingId, Long ownerId, boolean approved);
 }
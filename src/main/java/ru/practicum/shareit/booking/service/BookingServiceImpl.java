@@ -2,33 +2,54 @@ package ru.practicum.shareit.booking.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.Page;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingMapper;
+import ru.practicum.shareit.booking.event.BookingChangedEvent;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingState;
 import ru.practicum.shareit.booking.model.Status;
 import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.repository.BookingStateRepository.Party;
 import ru.practicum.shareit.exception.*;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemRepository;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.util.CountEstimateCache;
+import ru.practicum.shareit.util.DatabasePlatform;
+import ru.practicum.shareit.util.IdentityCache;
 
+import java.sql.SQLException;
 import java.time.LocalDateTime;
-import java.util.List;
+import java.util.Locale;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class BookingServiceImpl implements BookingService {
 
+    private static final String EXCLUSION_VIOLATION = "23P01";
+
     private final BookingRepository bookingRepository;
     private final BookingMapper bookingMapper;
     private final UserRepository userRepository;
     private final ItemRepository itemRepository;
+    private final BookingIntervalIndex bookingIntervalIndex;
+    private final ItemBookingLock itemBookingLock;
+    private final ApplicationEventPublisher eventPublisher;
+    private final DatabasePlatform databasePlatform;
+    private final CountEstimateCache countEstimateCache;
+    private final IdentityCache identityCache;
+
+    @Value("${shareit.booking.exclusion-constraint.enabled:false}")
+    private boolean exclusionConstraint;
 
     @Transactional
     @Override
@@ -47,18 +68,57 @@ public class BookingServiceImpl implements BookingService {
             log.info("Owner cannot book their own item");
             throw new UnauthorizedAccessException();
         }
-        List<Booking> overlappingBookings = bookingRepository.findByItemIdAndEndAfterAndStartBefore(
-                booking.getItem().getId(), booking.getStart(), booking.getEnd());
-        if (!overlappingBookings.isEmpty()) {
-            log.info("Item has overlapping bookings");
-            throw new OverlappingBookingsException("Item has overlapping bookings");
-        }
         booking.setItem(item);
         booking.setOwner(owner);
         booking.setBooker(booker);
+        Booking savedBooking = exclusionConstraint && databasePlatform.isPostgres()
+                ? saveGuardedByConstraint(booking)
+                : saveGuardedByIndex(booking);
+        eventPublisher.publishEvent(new BookingChangedEvent(savedBooking, BookingChangedEvent.Type.CREATED));
+        return savedBooking;
+    }
+
+    private Booking saveGuardedByIndex(Booking booking) {
+        Long itemId = booking.getItem().getId();
+        itemBookingLock.lock(itemId);
+        if (hasOverlap(itemId, booking.getStart(), booking.getEnd())) {
+            log.info("Item has overlapping bookings");
+            throw new OverlappingBookingsException("Item has overlapping bookings");
+        }
         return bookingRepository.save(booking);
     }
 
+    private boolean hasOverlap(Long itemId, LocalDateTime start, LocalDateTime end) {
+        // индекс узла не видит бронирования других узлов, поэтому под блокировкой в базе проверяет база
+        if (itemBookingLock.isDatabaseLock()) {
+            return bookingRepository.existsByItemIdAndStatusInAndEndAfterAndStartBefore(itemId,
+                    BookingIntervalIndex.ACTIVE_STATUSES, start, end);
+        }
+        return bookingIntervalIndex.hasOverlap(itemId, start, end);
+    }
+
+    private Booking saveGuardedByConstraint(Booking booking) {
+        try {
+            return bookingRepository.save(booking);
+        } catch (DataIntegrityViolationException e) {
+            if (!isExclusionViolation(e)) {
+                throw e;
+            }
+            log.info("Item has overlapping bookings");
+            throw new OverlappingBookingsException("Item has overlapping bookings");
+        }
+    }
+
+    private boolean isExclusionViolation(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLException && EXCLUSION_VIOLATION.equals(((SQLException) cause).getSQLState())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Transactional
     @Override
     public Booking approveBooking(Long bookingId, Long ownerId, boolean approved) {
         Booking booking = bookingRepository.findById(bookingId)
@@ -70,7 +130,10 @@ public class BookingServiceImpl implements BookingService {
             throw new IllegalStateException("Only bookings in the WAITING status can be approved or rejected.");
         }
         booking.setStatus(approved ? Status.APPROVED : Status.REJECTED);
-        return bookingRepository.save(booking);
+        Booking savedBooking = bookingRepository.save(booking);
+        eventPublisher.publishEvent(new BookingChangedEvent(savedBooking,
+                approved ? BookingChangedEvent.Type.APPROVED : BookingChangedEvent.Type.REJECTED));
+        return savedBooking;
     }
 
     public Booking getBookingById(Long bookingId, Long userId) {
@@ -83,62 +146,57 @@ public class BookingServiceImpl implements BookingService {
     }
 
     @Override
-    public Page<BookingDto> getAllBookingsByBooker(Long bookerId, String state, Pageable pageable) {
-        if (!userRepository.existsById(bookerId)) {
-            throw new UserNotFoundException();
-        }
-        LocalDateTime now = LocalDateTime.now();
-        switch (state.toUpperCase()) {
-            case "ALL":
-                return bookingRepository.findAllByBookerId(bookerId, pageable)
-                        .map(bookingMapper::toBookingDto);
-            case "WAITING":
-                return bookingRepository.findAllByBookerIdAndStatus(bookerId, Status.WAITING, pageable)
-                        .map(bookingMapper::toBookingDto);
-            case "REJECTED":
-                return bookingRepository.findAllByBookerIdAndStatus(bookerId, Status.REJECTED, pageable)
-                        .map(bookingMapper::toBookingDto);
-            case "PAST":
-                return bookingRepository.findAllByBookerIdAndEndBefore(bookerId, now, pageable)
-                        .map(bookingMapper::toBookingDto);
-            case "FUTURE":
-                return bookingRepository.findAllByBookerIdAndStartAfter(bookerId, now, pageable)
-                        .map(bookingMapper::toBookingDto);
-            case "CURRENT":
-                return bookingRepository.findAllByBookerIdAndStartBeforeAndEndAfter(bookerId, now, now, pageable)
-                        .map(bookingMapper::toBookingDto);
-            default:
-                throw new IllegalArgumentException("Unknown state: " + state);
-        }
+    public Slice<BookingDto> getAllBookingsByBooker(Long bookerId, BookingState state, Pageable pageable) {
+        return getBookings(Party.BOOKER, bookerId, state, pageable);
+    }
+
+    @Override
+    public Slice<BookingDto> getAllBookingsByOwner(Long ownerId, BookingState state, Pageable pageable) {
+        return getBookings(Party.OWNER, ownerId, state, pageable);
+    }
+
+    @Override
+    public long countBookingsByBooker(Long bookerId, BookingState state) {
+        return countBookings(Party.BOOKER, bookerId, state);
+    }
+
+    @Override
+    public long countBookingsByOwner(Long ownerId, BookingState state) {
+        return countBookings(Party.OWNER, ownerId, state);
+    }
+
+    @Override
+    public Slice<BookingDto> getAllBookingsByBookerAfter(Long bookerId, BookingState state, Long afterId,
+                                                         Pageable pageable) {
+        return getBookingsAfter(Party.BOOKER, bookerId, state, afterId, pageable);
     }
 
     @Override
-    public Page<BookingDto> getAllBookingsByOwner(Long ownerId, String state, Pageable pageable) {
-        if (!userRepository.existsById(ownerId)) {
+    public Slice<BookingDto> getAllBookingsByOwnerAfter(Long ownerId, BookingState state, Long afterId,
+                                                        Pageable pageable) {
+        return getBookingsAfter(Party.OWNER, ownerId, state, afterId, pageable);
+    }
+
+    private Slice<BookingDto> getBookings(Party party, Long userId, BookingState state, Pageable pageable) {
+        if (!identityCache.userExists(userId)) {
             throw new UserNotFoundException();
         }
-        LocalDateTime now = LocalDateTime.now();
-        switch (state.toUpperCase()) {
-            case "ALL":
-                return bookingRepository.findAllByOwnerId(ownerId, pageable)
-                        .map(bookingMapper::toBookingDto);
-            case "WAITING":
-                return bookingRepository.findAllByOwnerIdAndStatus(ownerId, Status.WAITING, pageable)
-                        .map(bookingMapper::toBookingDto);
-            case "REJECTED":
-                return bookingRepository.findAllByOwnerIdAndStatus(ownerId, Status.REJECTED, pageable)
-                        .map(bookingMapper::toBookingDto);
-            case "PAST":
-                return bookingRepository.findAllByOwnerIdAndEndBefore(ownerId, now, pageable)
-                        .map(bookingMapper::toBookingDto);
-            case "FUTURE":
-                return bookingRepository.findAllByOwnerIdAndStartAfter(ownerId, now, pageable)
-                        .map(bookingMapper::toBookingDto);
-            case "CURRENT":
-                return bookingRepository.findAllByOwnerIdAndStartBeforeAndEndAfter(ownerId, now, now, pageable)
-                        .map(bookingMapper::toBookingDto);
-            default:
-                throw new IllegalArgumentException("Unknown state: " + state);
+        return bookingRepository.findByState(party, userId, state, LocalDateTime.now(), pageable)
+                .map(bookingMapper::toBookingDto);
+    }
+
+    private Slice<BookingDto> getBookingsAfter(Party party, Long userId, BookingState state, Long afterId,
+                                               Pageable pageable) {
+        if (!identityCache.userExists(userId)) {
+            throw new UserNotFoundException();
         }
+        return bookingRepository.findByStateAfter(party, userId, state, LocalDateTime.now(), afterId, pageable)
+                .map(bookingMapper::toBookingDto);
+    }
+
+    private long countBookings(Party party, Long userId, BookingState state) {
+        String key = "bookings:" + party.name().toLowerCase(Locale.ROOT) + ":" + userId + ":" + state;
+        return countEstimateCache.get(key,
+                () -> bookingRepository.countByState(party, userId, state, LocalDateTime.now()));
     }
 }
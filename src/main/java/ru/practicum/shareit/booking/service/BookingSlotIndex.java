@@ -0,0 +1,306 @@
+package ru.practicum.shareit.booking.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ru.practicum.shareit.booking.event.BookingChangedEvent;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.repository.BookingIntervalView;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.repository.BookingSlotView;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Component
+public class BookingSlotIndex {
+
+    private static final long SLOT_SECONDS = 3600;
+    private static final int MAX_RELOAD_ATTEMPTS = 3;
+
+    private final BookingRepository bookingRepository;
+    private final Map<Long, ItemSlots> slotsByItem = new HashMap<>();
+    private final Set<Long> changedDuringBuild = new HashSet<>();
+    private final Map<Long, List<PendingReload>> pendingReloads = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Timer queryTimer;
+    private LocalDateTime loadedAt;
+    private boolean building;
+    private volatile boolean ready;
+
+    @Value("${shareit.booking.slot-index.enabled:false}")
+    private boolean enabled;
+
+    @Value("${shareit.booking.slot-index.batch-size:1000}")
+    private int batchSize;
+
+    public BookingSlotIndex(BookingRepository bookingRepository, MeterRegistry meterRegistry) {
+        this.bookingRepository = bookingRepository;
+        this.queryTimer = Timer.builder("shareit.booking.slot-index.query")
+                .description("Time to find free items among the candidates")
+                .register(meterRegistry);
+        Gauge.builder("shareit.booking.slot-index.items", this, index -> index.read(index.slotsByItem::size))
+                .register(meterRegistry);
+        Gauge.builder("shareit.booking.slot-index.bytes", this, BookingSlotIndex::getFootprintBytes)
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void build() {
+        if (!enabled) {
+            return;
+        }
+        LocalDateTime buildStarted = LocalDateTime.now();
+        write(() -> {
+            slotsByItem.clear();
+            changedDuringBuild.clear();
+            pendingReloads.values().forEach(pending -> pending.forEach(reload -> reload.stale = true));
+            loadedAt = buildStarted;
+            building = true;
+            ready = false;
+        });
+        try {
+            long afterId = 0;
+            List<BookingSlotView> batch;
+            do {
+                batch = bookingRepository.findSlotViews(BookingIntervalIndex.ACTIVE_STATUSES, buildStarted, afterId,
+                        PageRequest.of(0, batchSize));
+                List<BookingSlotView> loaded = batch;
+                write(() -> loaded.forEach(view -> slotsFor(view.getItemId()).add(view.getStart(), view.getEnd())));
+                if (!batch.isEmpty()) {
+                    afterId = batch.get(batch.size() - 1).getId();
+                }
+            } while (batch.size() == batchSize);
+            // отменённое во время построения бронирование могло попасть в уже прочитанную пачку
+            List<Long> changed = new ArrayList<>();
+            write(() -> changed.addAll(changedDuringBuild));
+            changed.forEach(this::reload);
+            write(() -> {
+                slotsByItem.values().forEach(ItemSlots::optimize);
+                changedDuringBuild.clear();
+                building = false;
+                ready = true;
+                log.info("BookingSlotIndex built: {} items, {} bytes", slotsByItem.size(), footprint());
+            });
+        } catch (DataAccessException e) {
+            log.error("Could not build BookingSlotIndex, falling back to the database", e);
+            write(() -> building = false);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookingChanged(BookingChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        Booking booking = event.getBooking();
+        Long itemId = booking.getItem().getId();
+        boolean active = BookingIntervalIndex.ACTIVE_STATUSES.contains(booking.getStatus());
+        write(() -> {
+            if (building) {
+                changedDuringBuild.add(itemId);
+            }
+            if (active) {
+                ItemSlots slots = slotsFor(itemId);
+                slots.add(booking.getStart(), booking.getEnd());
+                slots.optimize();
+            }
+        });
+        if (!active && read(() -> slotsByItem.containsKey(itemId))) {
+            // биты — объединение всех бронирований вещи, поэтому снять одно можно только пересборкой
+            reload(itemId);
+        }
+    }
+
+    public List<Long> findFree(Collection<Long> itemIds, LocalDateTime start, LocalDateTime end) {
+        return queryTimer.record(() -> {
+            List<Long> unknown = new ArrayList<>();
+            Set<Long> busy = new HashSet<>();
+            read(() -> {
+                if (!ready || start.isBefore(loadedAt)) {
+                    unknown.addAll(itemIds);
+                    return null;
+                }
+                int first = floorSlot(start);
+                int last = ceilSlot(end);
+                int interiorFirst = ceilSlot(start);
+                int interiorLast = floorSlot(end);
+                for (Long itemId : itemIds) {
+                    ItemSlots slots = slotsByItem.get(itemId);
+                    if (slots == null || !slots.touched.intersects(first, last)) {
+                        continue;
+                    }
+                    if (slots.covered.intersects(first, last)
+                            || interiorFirst < interiorLast && slots.touched.intersects(interiorFirst, interiorLast)) {
+                        busy.add(itemId);
+                    } else {
+                        unknown.add(itemId);
+                    }
+                }
+                return null;
+            });
+            if (!unknown.isEmpty()) {
+                busy.addAll(bookingRepository.findBookedItemIds(unknown, BookingIntervalIndex.ACTIVE_STATUSES,
+                        start, end));
+            }
+            return itemIds.stream()
+                    .filter(itemId -> !busy.contains(itemId))
+                    .collect(Collectors.toList());
+        });
+    }
+
+    public long getFootprintBytes() {
+        return read(this::footprint);
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    private long footprint() {
+        return slotsByItem.values().stream()
+                .mapToLong(ItemSlots::sizeInBytes)
+                .sum();
+    }
+
+    // запрос к базе идёт вне блокировки, чтобы поиск свободных вещей не ждал его; результат подменяет биты,
+    // только если вещь за это время не менялась, иначе загрузка повторяется
+    private void reload(Long itemId) {
+        for (int attempt = 0; attempt < MAX_RELOAD_ATTEMPTS; attempt++) {
+            PendingReload pending = new PendingReload();
+            write(() -> {
+                pending.since = loadedAt;
+                pendingReloads.computeIfAbsent(itemId, id -> new ArrayList<>()).add(pending);
+            });
+            ItemSlots slots = load(itemId, pending.since);
+            write(() -> {
+                List<PendingReload> forItem = pendingReloads.get(itemId);
+                forItem.remove(pending);
+                if (forItem.isEmpty()) {
+                    pendingReloads.remove(itemId);
+                }
+                if (!pending.stale) {
+                    replace(itemId, slots);
+                }
+            });
+            if (!pending.stale) {
+                return;
+            }
+        }
+        log.warn("Item {} kept changing during reload, reloading it under the lock", itemId);
+        write(() -> replace(itemId, load(itemId, loadedAt)));
+    }
+
+    private ItemSlots load(Long itemId, LocalDateTime since) {
+        ItemSlots slots = new ItemSlots();
+        for (BookingIntervalView view : bookingRepository.findAllByItemIdAndStatusInAndEndAfter(itemId,
+                BookingIntervalIndex.ACTIVE_STATUSES, since)) {
+            slots.add(view.getStart(), view.getEnd());
+        }
+        slots.optimize();
+        return slots;
+    }
+
+    private void replace(Long itemId, ItemSlots slots) {
+        markChanged(itemId);
+        if (slots.touched.isEmpty()) {
+            slotsByItem.remove(itemId);
+        } else {
+            slotsByItem.put(itemId, slots);
+        }
+    }
+
+    private ItemSlots slotsFor(Long itemId) {
+        markChanged(itemId);
+        return slotsByItem.computeIfAbsent(itemId, id -> new ItemSlots());
+    }
+
+    private void markChanged(Long itemId) {
+        List<PendingReload> pending = pendingReloads.get(itemId);
+        if (pending != null) {
+            pending.forEach(reload -> reload.stale = true);
+        }
+    }
+
+    static int floorSlot(LocalDateTime moment) {
+        return (int) Math.floorDiv(moment.toEpochSecond(ZoneOffset.UTC), SLOT_SECONDS);
+    }
+
+    static int ceilSlot(LocalDateTime moment) {
+        return (int) -Math.floorDiv(-moment.toEpochSecond(ZoneOffset.UTC), SLOT_SECONDS);
+    }
+
+    private <T> T read(Supplier<T> action) {
+        lock.readLock().lock();
+        try {
+            return action.get();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void write(Runnable action) {
+        lock.writeLock().lock();
+        try {
+            action.run();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static class PendingReload {
+
+        private LocalDateTime since;
+        private boolean stale;
+    }
+
+    static class ItemSlots {
+
+        private final RoaringBitmap touched = new RoaringBitmap();
+        private final RoaringBitmap covered = new RoaringBitmap();
+
+        void add(LocalDateTime start, LocalDateTime end) {
+            touched.add((long) floorSlot(start), (long) ceilSlot(end));
+            int coveredFirst = ceilSlot(start);
+            int coveredLast = floorSlot(end);
+            if (coveredFirst < coveredLast) {
+                covered.add((long) coveredFirst, (long) coveredLast);
+            }
+        }
+
+        void optimize() {
+            touched.runOptimize();
+            covered.runOptimize();
+        }
+
+        long sizeInBytes() {
+            return touched.getLongSizeInBytes() + covered.getLongSizeInBytes();
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package ru.practicum.shareit.booking.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.util.DatabasePlatform;
+
+import javax.persistence.EntityManager;
+import java.util.concurrent.locks.ReentrantLock;
+
+@Slf4j
+@Component
+public class ItemBookingLock {
+
+    private static final int STRIPES = 1024;
+
+    private final ReentrantLock[] stripes = new ReentrantLock[STRIPES];
+    private final EntityManager entityManager;
+    private final DatabasePlatform databasePlatform;
+
+    @Value("${shareit.booking.lock.database:false}")
+    private boolean databaseLock;
+
+    public ItemBookingLock(EntityManager entityManager, DatabasePlatform databasePlatform) {
+        this.entityManager = entityManager;
+        this.databasePlatform = databasePlatform;
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+
+    public void lock(Long itemId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Item booking lock requires an active transaction");
+        }
+        ReentrantLock stripe = stripeFor(itemId);
+        stripe.lock();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                stripe.unlock();
+            }
+        });
+        if (databaseLock) {
+            lockInDatabase(itemId);
+        }
+    }
+
+    private void lockInDatabase(Long itemId) {
+        if (databasePlatform.isPostgres()) {
+            entityManager.createNativeQuery("SELECT 1 FROM pg_advisory_xact_lock(:itemId)")
+                    .setParameter("itemId", itemId)
+                    .getSingleResult();
+        } else {
+            entityManager.createNativeQuery("SELECT id FROM items WHERE id = :itemId FOR UPDATE")
+                    .setParameter("itemId", itemId)
+                    .getResultList();
+        }
+        log.debug("Acquired database booking lock for item {}", itemId);
+    }
+
+    public boolean isDatabaseLock() {
+        return databaseLock;
+    }
+
+    private ReentrantLock stripeFor(Long itemId) {
+        long hash = itemId * 0x9E3779B97F4A7C15L;
+        return stripes[(int) (hash >>> 54) & (STRIPES - 1)];
+    }
+}
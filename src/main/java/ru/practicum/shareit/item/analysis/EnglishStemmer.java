@@ -0,0 +1,343 @@
+package ru.practicum.shareit.item.analysis;
+
+import java.util.Arrays;
+
+final class EnglishStemmer {
+
+    private final char[] b;
+    // k - конец текущего слова, j - граница основы для найденного окончания
+    private int k;
+    private int j;
+
+    private EnglishStemmer(String word) {
+        this.b = Arrays.copyOf(word.toCharArray(), word.length() + 1);
+        this.k = word.length() - 1;
+    }
+
+    static String stem(String word) {
+        if (word.length() <= 2) {
+            return word;
+        }
+        EnglishStemmer stemmer = new EnglishStemmer(word);
+        stemmer.step1ab();
+        if (stemmer.k > 0) {
+            stemmer.step1c();
+            stemmer.step2();
+            stemmer.step3();
+            stemmer.step4();
+            stemmer.step5();
+        }
+        return new String(stemmer.b, 0, stemmer.k + 1);
+    }
+
+    private boolean isConsonant(int i) {
+        switch (b[i]) {
+            case 'a':
+            case 'e':
+            case 'i':
+            case 'o':
+            case 'u':
+                return false;
+            case 'y':
+                return i == 0 || !isConsonant(i - 1);
+            default:
+                return true;
+        }
+    }
+
+    // число последовательностей "гласные + согласные" в b[0..j]
+    private int measure() {
+        int n = 0;
+        int i = 0;
+        while (true) {
+            if (i > j) {
+                return n;
+            }
+            if (!isConsonant(i)) {
+                break;
+            }
+            i++;
+        }
+        i++;
+        while (true) {
+            while (true) {
+                if (i > j) {
+                    return n;
+                }
+                if (isConsonant(i)) {
+                    break;
+                }
+                i++;
+            }
+            i++;
+            n++;
+            while (true) {
+                if (i > j) {
+                    return n;
+                }
+                if (!isConsonant(i)) {
+                    break;
+                }
+                i++;
+            }
+            i++;
+        }
+    }
+
+    private boolean vowelInStem() {
+        for (int i = 0; i <= j; i++) {
+            if (!isConsonant(i)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean doubleConsonant(int i) {
+        return i >= 1 && b[i] == b[i - 1] && isConsonant(i);
+    }
+
+    private boolean consonantVowelConsonant(int i) {
+        if (i < 2 || !isConsonant(i) || isConsonant(i - 1) || !isConsonant(i - 2)) {
+            return false;
+        }
+        char c = b[i];
+        return c != 'w' && c != 'x' && c != 'y';
+    }
+
+    private boolean ends(String suffix) {
+        int length = suffix.length();
+        int offset = k - length + 1;
+        if (offset < 0) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (b[offset + i] != suffix.charAt(i)) {
+                return false;
+            }
+        }
+        j = k - length;
+        return true;
+    }
+
+    private void setTo(String suffix) {
+        for (int i = 0; i < suffix.length(); i++) {
+            b[j + 1 + i] = suffix.charAt(i);
+        }
+        k = j + suffix.length();
+    }
+
+    private void replace(String suffix) {
+        if (measure() > 0) {
+            setTo(suffix);
+        }
+    }
+
+    private void step1ab() {
+        if (b[k] == 's') {
+            if (ends("sses")) {
+                k -= 2;
+            } else if (ends("ies")) {
+                setTo("i");
+            } else if (b[k - 1] != 's') {
+                k--;
+            }
+        }
+        if (ends("eed")) {
+            if (measure() > 0) {
+                k--;
+            }
+        } else if ((ends("ed") || ends("ing")) && vowelInStem()) {
+            k = j;
+            if (ends("at")) {
+                setTo("ate");
+            } else if (ends("bl")) {
+                setTo("ble");
+            } else if (ends("iz")) {
+                setTo("ize");
+            } else if (doubleConsonant(k)) {
+                char c = b[k];
+                if (c != 'l' && c != 's' && c != 'z') {
+                    k--;
+                }
+            } else {
+                j = k;
+                if (measure() == 1 && consonantVowelConsonant(k)) {
+                    setTo("e");
+                }
+            }
+        }
+    }
+
+    private void step1c() {
+        if (ends("y") && vowelInStem()) {
+            b[k] = 'i';
+        }
+    }
+
+    private void step2() {
+        switch (b[k - 1]) {
+            case 'a':
+                if (ends("ational")) {
+                    replace("ate");
+                } else if (ends("tional")) {
+                    replace("tion");
+                }
+                break;
+            case 'c':
+                if (ends("enci")) {
+                    replace("ence");
+                } else if (ends("anci")) {
+                    replace("ance");
+                }
+                break;
+            case 'e':
+                if (ends("izer")) {
+                    replace("ize");
+                }
+                break;
+            case 'l':
+                if (ends("bli")) {
+                    replace("ble");
+                } else if (ends("alli")) {
+                    replace("al");
+                } else if (ends("entli")) {
+                    replace("ent");
+                } else if (ends("eli")) {
+                    replace("e");
+                } else if (ends("ousli")) {
+                    replace("ous");
+                }
+                break;
+            case 'o':
+                if (ends("ization")) {
+                    replace("ize");
+                } else if (ends("ation")) {
+                    replace("ate");
+                } else if (ends("ator")) {
+                    replace("ate");
+                }
+                break;
+            case 's':
+                if (ends("alism")) {
+                    replace("al");
+                } else if (ends("iveness")) {
+                    replace("ive");
+                } else if (ends("fulness")) {
+                    replace("ful");
+                } else if (ends("ousness")) {
+                    replace("ous");
+                }
+                break;
+            case 't':
+                if (ends("aliti")) {
+                    replace("al");
+                } else if (ends("iviti")) {
+                    replace("ive");
+                } else if (ends("biliti")) {
+                    replace("ble");
+                }
+                break;
+            case 'g':
+                if (ends("logi")) {
+                    replace("log");
+                }
+                break;
+            default:
+                break;
+        }
+    }
+
+    private void step3() {
+        switch (b[k]) {
+            case 'e':
+                if (ends("icate")) {
+                    replace("ic");
+                } else if (ends("ative")) {
+                    replace("");
+                } else if (ends("alize")) {
+                    replace("al");
+                }
+                break;
+            case 'i':
+                if (ends("iciti")) {
+                    replace("ic");
+                }
+                break;
+            case 'l':
+                if (ends("ical")) {
+                    replace("ic");
+                } else if (ends("ful")) {
+                    replace("");
+                }
+                break;
+            case 's':
+                if (ends("ness")) {
+                    replace("");
+                }
+                break;
+            default:
+                break;
+        }
+    }
+
+    private void step4() {
+        boolean found;
+        switch (b[k - 1]) {
+            case 'a':
+                found = ends("al");
+                break;
+            case 'c':
+                found = ends("ance") || ends("ence");
+                break;
+            case 'e':
+                found = ends("er");
+                break;
+            case 'i':
+                found = ends("ic");
+                break;
+            case 'l':
+                found = ends("able") || ends("ible");
+                break;
+            case 'n':
+                found = ends("ant") || ends("ement") || ends("ment") || ends("ent");
+                break;
+            case 'o':
+                found = ends("ion") && j >= 0 && (b[j] == 's' || b[j] == 't') || ends("ou");
+                break;
+            case 's':
+                found = ends("ism");
+                break;
+            case 't':
+                found = ends("ate") || ends("iti");
+                break;
+            case 'u':
+                found = ends("ous");
+                break;
+            case 'v':
+                found = ends("ive");
+                break;
+            case 'z':
+                found = ends("ize");
+                break;
+            default:
+                found = false;
+        }
+        if (found && measure() > 1) {
+            k = j;
+        }
+    }
+
+    private void step5() {
+        j = k;
+        if (b[k] == 'e') {
+            int m = measure();
+            if (m > 1 || m == 1 && !consonantVowelConsonant(k - 1)) {
+                k--;
+            }
+        }
+        if (b[k] == 'l' && doubleConsonant(k) && measure() > 1) {
+            k--;
+        }
+    }
+}
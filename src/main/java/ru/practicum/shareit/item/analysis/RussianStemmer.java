@@ -0,0 +1,66 @@
+package ru.practicum.shareit.item.analysis;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+final class RussianStemmer {
+
+    private static final Pattern RV = Pattern.compile("^(.*?[аеиоуыэюя])(.*)$");
+    private static final Pattern PERFECTIVE_GERUND = Pattern.compile(
+            "((ив|ивши|ившись|ыв|ывши|ывшись)|((?<=[ая])(в|вши|вшись)))$");
+    private static final Pattern REFLEXIVE = Pattern.compile("(с[яь])$");
+    private static final Pattern ADJECTIVE = Pattern.compile(
+            "(ее|ие|ые|ое|ими|ыми|ей|ий|ый|ой|ем|им|ым|ом|его|ого|ему|ому|их|ых|ую|юю|ая|яя|ою|ею)$");
+    private static final Pattern PARTICIPLE = Pattern.compile("((ивш|ывш|ующ)|((?<=[ая])(ем|нн|вш|ющ|щ)))$");
+    private static final Pattern VERB = Pattern.compile(
+            "((ила|ыла|ена|ейте|уйте|ите|или|ыли|ей|уй|ил|ыл|им|ым|ен|ило|ыло|ено|ят|ует|уют|ит|ыт|ены|ить|ыть"
+                    + "|ишь|ую|ю)|((?<=[ая])(ла|на|ете|йте|ли|й|л|ем|н|ло|но|ет|ют|ны|ть|ешь|нно)))$");
+    private static final Pattern NOUN = Pattern.compile(
+            "(а|ев|ов|ие|ье|е|иями|ями|ами|еи|ии|и|ией|ей|ой|ий|й|иям|ям|ием|ем|ам|ом|о|у|ах|иях|ях|ы|ь|ию|ью|ю"
+                    + "|ия|ья|я)$");
+    private static final Pattern I = Pattern.compile("и$");
+    private static final Pattern DERIVATIONAL_REGION = Pattern.compile(".*[^аеиоуыэюя]+[аеиоуыэюя].*ость?$");
+    private static final Pattern DERIVATIONAL = Pattern.compile("ость?$");
+    private static final Pattern SUPERLATIVE = Pattern.compile("(ейше|ейш)$");
+    private static final Pattern SOFT_SIGN = Pattern.compile("ь$");
+    private static final Pattern DOUBLE_N = Pattern.compile("нн$");
+
+    private RussianStemmer() {
+    }
+
+    static String stem(String word) {
+        Matcher matcher = RV.matcher(word);
+        if (!matcher.matches()) {
+            return word;
+        }
+        String rv = matcher.group(2);
+        String stripped = strip(PERFECTIVE_GERUND, rv);
+        if (stripped.equals(rv)) {
+            rv = strip(REFLEXIVE, rv);
+            stripped = strip(ADJECTIVE, rv);
+            if (!stripped.equals(rv)) {
+                rv = strip(PARTICIPLE, stripped);
+            } else {
+                stripped = strip(VERB, rv);
+                rv = stripped.equals(rv) ? strip(NOUN, rv) : stripped;
+            }
+        } else {
+            rv = stripped;
+        }
+        rv = strip(I, rv);
+        if (DERIVATIONAL_REGION.matcher(rv).matches()) {
+            rv = strip(DERIVATIONAL, rv);
+        }
+        stripped = strip(SOFT_SIGN, rv);
+        if (stripped.equals(rv)) {
+            rv = DOUBLE_N.matcher(strip(SUPERLATIVE, rv)).replaceFirst("н");
+        } else {
+            rv = stripped;
+        }
+        return matcher.group(1) + rv;
+    }
+
+    private static String strip(Pattern ending, String text) {
+        return ending.matcher(text).replaceFirst("");
+    }
+}
@@ -0,0 +1,33 @@
+package ru.practicum.shareit.item.analysis;
+
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+@Order(2)
+@Component
+public class StemmingFilter implements TokenFilter {
+
+    @Override
+    public String filter(String token) {
+        boolean cyrillic = false;
+        boolean latin = false;
+        for (int i = 0; i < token.length(); i++) {
+            char c = token.charAt(i);
+            if (Character.isDigit(c)) {
+                return token;
+            }
+            if (Character.UnicodeBlock.of(c) == Character.UnicodeBlock.CYRILLIC) {
+                cyrillic = true;
+            } else if (c >= 'a' && c <= 'z') {
+                latin = true;
+            }
+        }
+        if (cyrillic && !latin) {
+            return RussianStemmer.stem(token);
+        }
+        if (latin && !cyrillic) {
+            return EnglishStemmer.stem(token);
+        }
+        return token;
+    }
+}
@@ -0,0 +1,26 @@
+package ru.practicum.shareit.item.analysis;
+
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+
+@Order(1)
+@Component
+public class StopWordFilter implements TokenFilter {
+
+    private static final Set<String> STOP_WORDS = Set.of(
+            "и", "в", "во", "не", "что", "он", "на", "я", "с", "со", "как", "а", "то", "все", "она", "так",
+            "его", "но", "да", "ты", "к", "у", "же", "вы", "за", "бы", "по", "только", "ее", "мне", "было",
+            "вот", "от", "меня", "еще", "нет", "о", "из", "ему", "когда", "даже", "ну", "ли", "если", "уже",
+            "или", "ни", "быть", "был", "него", "до", "вас", "для", "мы", "без", "под", "при", "над", "об",
+            "это", "этот", "эта", "эти", "их", "чем", "где", "есть", "тот", "там", "тут", "через",
+            "a", "an", "and", "are", "as", "at", "be", "but", "by", "for", "if", "in", "into", "is", "it",
+            "no", "not", "of", "on", "or", "such", "that", "the", "their", "then", "there", "these", "they",
+            "this", "to", "was", "will", "with");
+
+    @Override
+    public String filter(String token) {
+        return STOP_WORDS.contains(token) ? null : token;
+    }
+}
@@ -0,0 +1,37 @@
+package ru.practicum.shareit.item.analysis;
+
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+@Component
+public class TextAnalyzer {
+
+    private static final Pattern TOKEN_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private final List<TokenFilter> filters;
+
+    public TextAnalyzer(List<TokenFilter> filters) {
+        this.filters = List.copyOf(filters);
+    }
+
+    public List<String> analyze(String text) {
+        List<String> terms = new ArrayList<>();
+        if (text == null) {
+            return terms;
+        }
+        for (String token : TOKEN_SEPARATOR.split(text.toLowerCase(Locale.ROOT))) {
+            String term = token.replace('ё', 'е');
+            for (int i = 0; i < filters.size() && term != null && !term.isEmpty(); i++) {
+                term = filters.get(i).filter(term);
+            }
+            if (term != null && !term.isEmpty()) {
+                terms.add(term);
+            }
+        }
+        return terms;
+    }
+}
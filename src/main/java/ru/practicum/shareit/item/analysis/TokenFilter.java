@@ -0,0 +1,7 @@
+package ru.practicum.shareit.item.analysis;
+
+public interface TokenFilter {
+
+    // null отбрасывает токен
+    String filter(String token);
+}
@@ -2,21 +2,29 @@ package ru.practicum.shareit.item.controller;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.FreeSlotDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemMapper;
 import ru.practicum.shareit.item.dto.ItemPatchDto;
+import ru.practicum.shareit.item.dto.ItemSearchFilter;
+import ru.practicum.shareit.item.dto.ItemSearchResultDto;
+import ru.practicum.shareit.item.dto.ItemSuggestionDto;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.util.CountEstimateCache;
 import ru.practicum.shareit.util.PageableUtil;
 
 import javax.validation.Valid;
 import javax.validation.constraints.Positive;
 import javax.validation.constraints.PositiveOrZero;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Slf4j
@@ -47,22 +55,82 @@ public class ItemController {
         return itemService.getItemById(itemId, userId);
     }
 
+    @GetMapping("/{itemId}/availability")
+    public List<FreeSlotDto> getFreeSlots(@PathVariable long itemId,
+                                          @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                                          LocalDateTime from,
+                                          @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                                          LocalDateTime to) {
+        return itemService.getFreeSlots(itemId, from, to);
+    }
+
     @GetMapping
-    public List<ItemDto> getAllItemsByOwner(@PositiveOrZero @RequestParam(defaultValue = "0") int from,
-                                            @Positive @RequestParam(defaultValue = "10") int size,
-                                            @RequestHeader("X-Sharer-User-Id") Long userId) {
+    public ResponseEntity<List<ItemDto>> getAllItemsByOwner(@PositiveOrZero @RequestParam(defaultValue = "0") int from,
+                                                            @Positive @RequestParam(defaultValue = "10") int size,
+                                                            @RequestHeader("X-Sharer-User-Id") Long userId,
+                                                            @RequestParam(defaultValue = "false") boolean total) {
         Pageable pageable = PageableUtil.createPageable(from, size, Sort.by("name").descending());
-        Page<ItemDto> pageResult = itemService.getAllItemsWithBookingDetails(userId, pageable);
-        return pageResult.getContent();
+        Slice<ItemDto> pageResult = itemService.getAllItemsWithBookingDetails(userId, pageable);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (total) {
+            response.header(CountEstimateCache.TOTAL_COUNT_HEADER,
+                    String.valueOf(itemService.countItemsByOwner(userId)));
+        }
+        return response.body(pageResult.getContent());
     }
 
     @GetMapping("/search")
-    public List<ItemDto> getItemsBySubstring(@RequestParam String text,
-                                             @PositiveOrZero @RequestParam(defaultValue = "0") int from,
-                                             @Positive @RequestParam(defaultValue = "10") int size) {
+    public ResponseEntity<List<ItemDto>> getItemsBySubstring(@RequestParam String text,
+                                                             @PositiveOrZero @RequestParam(defaultValue = "0") int from,
+                                                             @Positive @RequestParam(defaultValue = "10") int size,
+                                                             @RequestParam(defaultValue = "false") boolean total,
+                                                             @RequestParam(defaultValue = "false") boolean fuzzy,
+                                                             @RequestParam(defaultValue = "false") boolean stemmed,
+                                                             ItemSearchFilter filter) {
+        if ((fuzzy || stemmed) && filter.hasConditions()) {
+            throw new IllegalArgumentException("Filters cannot be combined with fuzzy or stemmed search.");
+        }
         Pageable pageable = PageableUtil.createPageable(from, size, Sort.by("id").ascending());
-        Page<ItemDto> pageResult = itemService.getItemsBySubstring(text, pageable);
-        return pageResult.getContent();
+        Slice<ItemDto> pageResult;
+        if (fuzzy) {
+            pageResult = itemService.getItemsByFuzzyText(text, pageable);
+        } else if (stemmed) {
+            pageResult = itemService.getItemsByStemmedText(text, pageable);
+        } else if (filter.hasConditions()) {
+            pageResult = itemService.getItemsByFilter(text, filter, pageable);
+        } else {
+            pageResult = itemService.getItemsBySubstring(text, pageable);
+        }
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (total) {
+            long count;
+            if (fuzzy) {
+                count = itemService.countItemsByFuzzyText(text);
+            } else if (stemmed) {
+                count = itemService.countItemsByStemmedText(text);
+            } else if (filter.hasConditions()) {
+                count = itemService.countItemsByFilter(text, filter);
+            } else {
+                count = itemService.countItemsBySubstring(text);
+            }
+            response.header(CountEstimateCache.TOTAL_COUNT_HEADER, String.valueOf(count));
+        }
+        return response.body(pageResult.getContent());
+    }
+
+    @GetMapping(value = "/search", params = "facets=true")
+    public ItemSearchResultDto searchItemsWithFacets(@RequestParam String text,
+                                                     @PositiveOrZero @RequestParam(defaultValue = "0") int from,
+                                                     @Positive @RequestParam(defaultValue = "10") int size,
+                                                     ItemSearchFilter filter) {
+        Pageable pageable = PageableUtil.createPageable(from, size, Sort.by("id").ascending());
+        return itemService.searchItemsWithFacets(text, filter, pageable);
+    }
+
+    @GetMapping("/suggest")
+    public List<ItemSuggestionDto> suggestItems(@RequestParam String prefix,
+                                                @Positive @RequestParam(defaultValue = "10") int size) {
+        return itemService.suggestItems(prefix, size);
     }
 
     @PostMapping("/{itemId}/comment")
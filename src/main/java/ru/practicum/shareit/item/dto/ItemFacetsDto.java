@@ -0,0 +1,18 @@
+package ru.practicum.shareit.item.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ItemFacetsDto {
+    private long total;
+    private List<FacetCountDto> owners = new ArrayList<>();
+    private List<FacetCountDto> hasRequest = new ArrayList<>();
+    private List<FacetCountDto> created = new ArrayList<>();
+}
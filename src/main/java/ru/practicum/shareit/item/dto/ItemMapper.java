@@ -4,6 +4,7 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.RequestItemView;
 import ru.practicum.shareit.user.model.User;
 
 import java.util.ArrayList;
@@ -27,6 +28,20 @@ public class ItemMapper {
         return dto;
     }
 
+    public ItemDto toRequestItemDto(RequestItemView view) {
+        if (view == null) {
+            return null;
+        }
+        ItemDto dto = new ItemDto();
+        dto.setId(view.getId());
+        dto.setName(view.getName());
+        dto.setDescription(view.getDescription());
+        dto.setAvailable(view.getAvailable());
+        dto.setOwnerId(view.getOwnerId());
+        dto.setRequestId(view.getRequestId());
+        return dto;
+    }
+
     public ItemDto toItemDto(Item item, BookingDto lastBooking, BookingDto nextBooking, List<CommentDto> comments) {
         if (item == null) {
             return null;
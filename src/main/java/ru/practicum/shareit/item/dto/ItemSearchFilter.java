@@ -0,0 +1,40 @@
+package ru.practicum.shareit.item.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ItemSearchFilter {
+    private Long ownerId;
+    private Boolean hasRequest;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime createdFrom;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime createdTo;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime start;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime end;
+
+    public boolean hasConditions() {
+        return hasItemConditions() || hasWindow();
+    }
+
+    public boolean hasItemConditions() {
+        return ownerId != null || hasRequest != null || createdFrom != null || createdTo != null;
+    }
+
+    public boolean hasWindow() {
+        return start != null || end != null;
+    }
+}
@@ -0,0 +1,17 @@
+package ru.practicum.shareit.item.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ItemSearchResultDto {
+    private List<ItemDto> items = new ArrayList<>();
+    private boolean hasNext;
+    private ItemFacetsDto facets;
+}
@@ -0,0 +1,16 @@
+package ru.practicum.shareit.item.event;
+
+import lombok.Value;
+
+@Value
+public class ItemChangedEvent {
+
+    Long itemId;
+    Type type;
+
+    public enum Type {
+        CREATED,
+        UPDATED,
+        COMMENTED
+    }
+}
@@ -0,0 +1,23 @@
+package ru.practicum.shareit.item.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.Embeddable;
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Embeddable
+public class BookingSnapshot {
+
+    private Long bookingId;
+
+    private Long bookerId;
+
+    private LocalDateTime start;
+
+    private LocalDateTime end;
+}
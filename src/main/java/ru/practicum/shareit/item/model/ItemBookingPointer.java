@@ -0,0 +1,50 @@
+package ru.practicum.shareit.item.model;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@Entity
+@Table(name = "item_booking_pointers")
+public class ItemBookingPointer {
+
+    @Id
+    @Column(name = "item_id")
+    private Long itemId;
+
+    @Embedded
+    @AttributeOverrides({
+            @AttributeOverride(name = "bookingId", column = @Column(name = "last_booking_id")),
+            @AttributeOverride(name = "bookerId", column = @Column(name = "last_booker_id")),
+            @AttributeOverride(name = "start", column = @Column(name = "last_start")),
+            @AttributeOverride(name = "end", column = @Column(name = "last_end"))
+    })
+    private BookingSnapshot lastBooking;
+
+    @Embedded
+    @AttributeOverrides({
+            @AttributeOverride(name = "bookingId", column = @Column(name = "next_booking_id")),
+            @AttributeOverride(name = "bookerId", column = @Column(name = "next_booker_id")),
+            @AttributeOverride(name = "start", column = @Column(name = "next_start")),
+            @AttributeOverride(name = "end", column = @Column(name = "next_end"))
+    })
+    private BookingSnapshot nextBooking;
+
+    @Column(name = "valid_until")
+    private LocalDateTime validUntil;
+
+    @Version
+    private Long version;
+
+    public ItemBookingPointer(Long itemId) {
+        this.itemId = itemId;
+    }
+
+    public boolean isStaleAt(LocalDateTime moment) {
+        return validUntil != null && !moment.isBefore(validUntil);
+    }
+}
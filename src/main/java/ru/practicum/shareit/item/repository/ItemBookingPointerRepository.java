@@ -0,0 +1,25 @@
+package ru.practicum.shareit.item.repository;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import ru.practicum.shareit.item.model.ItemBookingPointer;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface ItemBookingPointerRepository extends JpaRepository<ItemBookingPointer, Long> {
+
+    @Query("SELECT p.itemId FROM ItemBookingPointer p WHERE p.validUntil <= :now ORDER BY p.validUntil")
+    List<Long> findExpiredItemIds(@Param("now") LocalDateTime now, Pageable pageable);
+
+    @Query("SELECT i.id FROM Item i WHERE NOT EXISTS " +
+            "(SELECT p.itemId FROM ItemBookingPointer p WHERE p.itemId = i.id) ORDER BY i.id")
+    List<Long> findItemIdsWithoutPointers(Pageable pageable);
+
+    @Modifying
+    @Query("UPDATE ItemBookingPointer p SET p.validUntil = :now, p.version = p.version + 1 WHERE p.itemId = :itemId")
+    int markStale(@Param("itemId") Long itemId, @Param("now") LocalDateTime now);
+}
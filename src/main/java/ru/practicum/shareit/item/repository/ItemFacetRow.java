@@ -0,0 +1,9 @@
+package ru.practicum.shareit.item.repository;
+
+import lombok.Value;
+
+@Value
+public class ItemFacetRow {
+    Long ownerId;
+    Long count;
+}
@@ -0,0 +1,14 @@
+package ru.practicum.shareit.item.repository;
+
+import lombok.Value;
+
+@Value
+public class ItemFacetTotals {
+    public static final ItemFacetTotals EMPTY = new ItemFacetTotals(0L, 0L, 0L, 0L, 0L);
+
+    Long count;
+    Long withRequest;
+    Long createdSinceDay;
+    Long createdSinceWeek;
+    Long createdSinceMonth;
+}
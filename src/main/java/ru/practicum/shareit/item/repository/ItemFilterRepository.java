@@ -0,0 +1,21 @@
+package ru.practicum.shareit.item.repository;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import ru.practicum.shareit.item.dto.ItemSearchFilter;
+import ru.practicum.shareit.item.model.Item;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface ItemFilterRepository {
+
+    Slice<Item> findByFilter(String text, ItemSearchFilter filter, Pageable pageable);
+
+    long countByFilter(String text, ItemSearchFilter filter);
+
+    List<ItemFacetRow> countOwnerFacets(String text, ItemSearchFilter filter, int limit);
+
+    ItemFacetTotals countFacetTotals(String text, ItemSearchFilter filter,
+                                     LocalDateTime day, LocalDateTime week, LocalDateTime month);
+}
@@ -0,0 +1,106 @@
+package ru.practicum.shareit.item.repository;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import ru.practicum.shareit.booking.service.BookingIntervalIndex;
+import ru.practicum.shareit.item.dto.ItemSearchFilter;
+import ru.practicum.shareit.item.model.Item;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.TypedQuery;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class ItemFilterRepositoryImpl implements ItemFilterRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Slice<Item> findByFilter(String text, ItemSearchFilter filter, Pageable pageable) {
+        Map<String, Object> parameters = new HashMap<>();
+        String jpql = QueryUtils.applySorting("SELECT i FROM Item i " + where(text, filter, parameters),
+                pageable.getSort(), "i");
+        List<Item> items = bind(entityManager.createQuery(jpql, Item.class), parameters)
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize() + 1)
+                .getResultList();
+        boolean hasNext = items.size() > pageable.getPageSize();
+        return new SliceImpl<>(hasNext ? items.subList(0, pageable.getPageSize()) : items, pageable, hasNext);
+    }
+
+    @Override
+    public long countByFilter(String text, ItemSearchFilter filter) {
+        Map<String, Object> parameters = new HashMap<>();
+        String jpql = "SELECT COUNT(i) FROM Item i " + where(text, filter, parameters);
+        return bind(entityManager.createQuery(jpql, Long.class), parameters).getSingleResult();
+    }
+
+    @Override
+    public List<ItemFacetRow> countOwnerFacets(String text, ItemSearchFilter filter, int limit) {
+        Map<String, Object> parameters = new HashMap<>();
+        String jpql = "SELECT NEW ru.practicum.shareit.item.repository.ItemFacetRow(i.owner.id, COUNT(i)) " +
+                "FROM Item i " + where(text, filter, parameters) +
+                "GROUP BY i.owner.id ORDER BY COUNT(i) DESC, i.owner.id";
+        return bind(entityManager.createQuery(jpql, ItemFacetRow.class), parameters)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    @Override
+    public ItemFacetTotals countFacetTotals(String text, ItemSearchFilter filter,
+                                            LocalDateTime day, LocalDateTime week, LocalDateTime month) {
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("day", day);
+        parameters.put("week", week);
+        parameters.put("month", month);
+        // SUM по пустой выборке возвращает NULL
+        String jpql = "SELECT NEW ru.practicum.shareit.item.repository.ItemFacetTotals(COUNT(i), " +
+                "COALESCE(SUM(CASE WHEN i.request.id IS NULL THEN 0 ELSE 1 END), 0), " +
+                "COALESCE(SUM(CASE WHEN i.created >= :day THEN 1 ELSE 0 END), 0), " +
+                "COALESCE(SUM(CASE WHEN i.created >= :week THEN 1 ELSE 0 END), 0), " +
+                "COALESCE(SUM(CASE WHEN i.created >= :month THEN 1 ELSE 0 END), 0)) " +
+                "FROM Item i " + where(text, filter, parameters);
+        return bind(entityManager.createQuery(jpql, ItemFacetTotals.class), parameters).getSingleResult();
+    }
+
+    // условия добавляются только для заданных полей фильтра, чтобы не передавать в запрос null-параметры
+    private static String where(String text, ItemSearchFilter filter, Map<String, Object> parameters) {
+        StringBuilder where = new StringBuilder("WHERE (LOWER(i.name) LIKE LOWER(concat('%', :text, '%')) " +
+                "OR LOWER(i.description) LIKE LOWER(concat('%', :text, '%'))) AND i.available = true ");
+        parameters.put("text", text);
+        if (filter.getOwnerId() != null) {
+            where.append("AND i.owner.id = :ownerId ");
+            parameters.put("ownerId", filter.getOwnerId());
+        }
+        if (filter.getHasRequest() != null) {
+            where.append(filter.getHasRequest() ? "AND i.request IS NOT NULL " : "AND i.request IS NULL ");
+        }
+        if (filter.getCreatedFrom() != null) {
+            where.append("AND i.created >= :createdFrom ");
+            parameters.put("createdFrom", filter.getCreatedFrom());
+        }
+        if (filter.getCreatedTo() != null) {
+            where.append("AND i.created < :createdTo ");
+            parameters.put("createdTo", filter.getCreatedTo());
+        }
+        if (filter.getStart() != null && filter.getEnd() != null) {
+            where.append("AND NOT EXISTS (SELECT b.id FROM Booking b WHERE b.item = i " +
+                    "AND b.status IN :activeStatuses AND b.start < :end AND b.end > :start) ");
+            parameters.put("activeStatuses", BookingIntervalIndex.ACTIVE_STATUSES);
+            parameters.put("start", filter.getStart());
+            parameters.put("end", filter.getEnd());
+        }
+        return where.toString();
+    }
+
+    private static <T> TypedQuery<T> bind(TypedQuery<T> query, Map<String, Object> parameters) {
+        parameters.forEach(query::setParameter);
+        return query;
+    }
+}
@@ -1,21 +1,77 @@
 package ru.practicum.shareit.item.repository;
 
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import ru.practicum.shareit.item.model.Item;
 
-public interface ItemRepository extends JpaRepository<Item, Long> {
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 
-    Page<Item> findAllByOwnerId(Long ownerId, Pageable pageable);
+public interface ItemRepository extends JpaRepository<Item, Long>, ItemFilterRepository {
+
+    Slice<Item> findAllByOwnerId(Long ownerId, Pageable pageable);
 
     @Query("SELECT i FROM Item i " +
             "WHERE (LOWER(i.name) LIKE LOWER(concat('%', :text, '%')) " +
             "OR LOWER(i.description) LIKE LOWER(concat('%', :text, '%'))) " +
             "AND i.available = true")
-    Page<Item> findBySubstring(@Param("text") String text, Pageable pageable);
+    Slice<Item> findBySubstring(@Param("text") String text, Pageable pageable);
+
+    @Query("SELECT i.id FROM Item i " +
+            "WHERE (LOWER(i.name) LIKE LOWER(concat('%', :text, '%')) " +
+            "OR LOWER(i.description) LIKE LOWER(concat('%', :text, '%'))) " +
+            "AND i.available = true")
+    Slice<Long> findIdsBySubstring(@Param("text") String text, Pageable pageable);
+
+    // требует schema-postgres-fulltext.sql; совпадения по словам идут первыми, подстроки ищутся через pg_trgm
+    @Query(value = "SELECT i.* FROM items i " +
+            "WHERE i.available = true " +
+            "AND (i.search_vector @@ plainto_tsquery('simple', :text) " +
+            "OR i.name ILIKE concat('%', :text, '%') OR i.description ILIKE concat('%', :text, '%')) " +
+            "ORDER BY ts_rank(i.search_vector, plainto_tsquery('simple', :text)) DESC, i.id " +
+            "LIMIT :limit OFFSET :offset", nativeQuery = true)
+    List<Item> findByFullText(@Param("text") String text, @Param("limit") int limit, @Param("offset") long offset);
+
+    @Query(value = "SELECT COUNT(*) FROM items i " +
+            "WHERE i.available = true " +
+            "AND (i.search_vector @@ plainto_tsquery('simple', :text) " +
+            "OR i.name ILIKE concat('%', :text, '%') OR i.description ILIKE concat('%', :text, '%'))",
+            nativeQuery = true)
+    long countByFullText(@Param("text") String text);
+
+    List<ItemSearchView> findByAvailableTrueAndIdGreaterThanOrderByIdAsc(Long afterId, Pageable pageable);
+
+    Optional<ItemSearchView> findSearchViewById(Long id);
+
+    @Query("SELECT i.id AS id, i.name AS name, i.description AS description, i.available AS available, " +
+            "i.owner.id AS ownerId, i.request.id AS requestId " +
+            "FROM Item i WHERE i.request.id IN :requestIds ORDER BY i.id")
+    List<RequestItemView> findRequestItemViews(@Param("requestIds") Collection<Long> requestIds);
+
+    @Query("SELECT i.id AS id, i.name AS name, i.description AS description, i.available AS available, " +
+            "i.owner.id AS ownerId, r.id AS requestId " +
+            "FROM Item i LEFT JOIN i.request r WHERE i.id = :id")
+    Optional<RequestItemView> findRequestItemViewById(@Param("id") Long id);
+
+    @Query("SELECT i FROM Item i " +
+            "WHERE LOWER(i.name) LIKE CONCAT(LOWER(:prefix), '%') AND i.available = true " +
+            "ORDER BY LOWER(i.name), i.id")
+    List<Item> findByNamePrefix(@Param("prefix") String prefix, Pageable pageable);
+
+    long countByOwnerId(Long ownerId);
+
+    @Query("SELECT COUNT(i) FROM Item i " +
+            "WHERE (LOWER(i.name) LIKE LOWER(concat('%', :text, '%')) " +
+            "OR LOWER(i.description) LIKE LOWER(concat('%', :text, '%'))) " +
+            "AND i.available = true")
+    long countBySubstring(@Param("text") String text);
+
+    @Query("SELECT i.owner.id FROM Item i WHERE i.id = :itemId")
+    Optional<Long> findOwnerIdById(@Param("itemId") Long itemId);
 
     @Query("SELECT COUNT(i) > 0 FROM Item i WHERE i.id = :itemId AND i.owner.id = :ownerId")
     boolean isItemBelongOwner(@Param("itemId") Long itemId, @Param("ownerId") Long ownerId);
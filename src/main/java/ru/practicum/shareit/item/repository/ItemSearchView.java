@@ -0,0 +1,10 @@
+package ru.practicum.shareit.item.repository;
+
+public interface ItemSearchView {
+
+    Long getId();
+
+    String getName();
+
+    String getDescription();
+}
@@ -0,0 +1,16 @@
+package ru.practicum.shareit.item.repository;
+
+public interface RequestItemView {
+
+    Long getId();
+
+    String getName();
+
+    String getDescription();
+
+    Boolean getAvailable();
+
+    Long getOwnerId();
+
+    Long getRequestId();
+}
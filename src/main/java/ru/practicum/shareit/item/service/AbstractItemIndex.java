@@ -0,0 +1,123 @@
+package ru.practicum.shareit.item.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.PageRequest;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.repository.ItemSearchView;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+@Slf4j
+public abstract class AbstractItemIndex {
+
+    private final ItemRepository itemRepository;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Set<Long> changedDuringBuild = new HashSet<>();
+    private boolean building;
+    private volatile boolean ready;
+
+    @Value("${shareit.item.index.batch-size:1000}")
+    private int batchSize;
+
+    protected AbstractItemIndex(ItemRepository itemRepository) {
+        this.itemRepository = itemRepository;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void build() {
+        if (!isEnabled()) {
+            return;
+        }
+        write(() -> {
+            clear();
+            changedDuringBuild.clear();
+            building = true;
+            ready = false;
+        });
+        try {
+            long afterId = 0;
+            List<ItemSearchView> batch;
+            do {
+                batch = itemRepository.findByAvailableTrueAndIdGreaterThanOrderByIdAsc(afterId,
+                        PageRequest.of(0, batchSize));
+                List<ItemSearchView> loaded = batch;
+                // строки, изменённые во время построения, уже проиндексированы в актуальном состоянии
+                write(() -> loaded.stream()
+                        .filter(view -> !changedDuringBuild.contains(view.getId()))
+                        .forEach(view -> add(view.getId(), view.getName(), view.getDescription())));
+                if (!batch.isEmpty()) {
+                    afterId = batch.get(batch.size() - 1).getId();
+                }
+            } while (batch.size() == batchSize);
+        } catch (DataAccessException e) {
+            log.error("Could not build {}, falling back to the database", getClass().getSimpleName(), e);
+            write(() -> building = false);
+            return;
+        }
+        write(() -> {
+            changedDuringBuild.clear();
+            building = false;
+            ready = true;
+            log.info("{} built: {} items", getClass().getSimpleName(), size());
+        });
+    }
+
+    public void index(Item item) {
+        if (!isEnabled()) {
+            return;
+        }
+        write(() -> {
+            if (building) {
+                changedDuringBuild.add(item.getId());
+            }
+            remove(item.getId());
+            if (Boolean.TRUE.equals(item.getAvailable())) {
+                add(item.getId(), item.getName(), item.getDescription());
+            }
+        });
+    }
+
+    protected boolean isEnabled() {
+        return true;
+    }
+
+    protected abstract void clear();
+
+    protected abstract void add(Long itemId, String name, String description);
+
+    protected abstract void remove(Long itemId);
+
+    protected abstract int size();
+
+    protected <T> T read(Supplier<T> action) {
+        lock.readLock().lock();
+        try {
+            return action.get();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void write(Runnable action) {
+        lock.writeLock().lock();
+        try {
+            action.run();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package ru.practicum.shareit.item.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.event.BookingChangedEvent;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.Status;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.item.event.ItemChangedEvent;
+import ru.practicum.shareit.item.model.BookingSnapshot;
+import ru.practicum.shareit.item.model.ItemBookingPointer;
+import ru.practicum.shareit.item.repository.ItemBookingPointerRepository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Service
+public class ItemBookingPointerService {
+
+    private static final int REFRESH_ATTEMPTS = 3;
+
+    private final ItemBookingPointerRepository pointerRepository;
+    private final BookingRepository bookingRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${shareit.item.booking-pointers.batch-size:500}")
+    private int batchSize;
+
+    public ItemBookingPointerService(ItemBookingPointerRepository pointerRepository,
+                                     BookingRepository bookingRepository,
+                                     PlatformTransactionManager transactionManager) {
+        this.pointerRepository = pointerRepository;
+        this.bookingRepository = bookingRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    // чтение ничего не пишет: недостающие и устаревшие строки считаются на лету, а пишут их слушатели и планировщик
+    public Map<Long, ItemBookingPointer> getPointers(Collection<Long> itemIds) {
+        if (itemIds.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        LocalDateTime now = LocalDateTime.now();
+        Map<Long, ItemBookingPointer> pointers = new HashMap<>();
+        for (ItemBookingPointer pointer : pointerRepository.findAllById(itemIds)) {
+            if (!pointer.isStaleAt(now)) {
+                pointers.put(pointer.getItemId(), pointer);
+            }
+        }
+        List<Long> outdated = itemIds.stream()
+                .filter(itemId -> !pointers.containsKey(itemId))
+                .distinct()
+                .collect(Collectors.toList());
+        if (!outdated.isEmpty()) {
+            pointers.putAll(compute(outdated, now, new HashMap<>()));
+        }
+        return pointers;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onItemChanged(ItemChangedEvent event) {
+        if (event.getType() == ItemChangedEvent.Type.CREATED && tryRefresh(List.of(event.getItemId())) == null) {
+            log.warn("Could not create booking pointers of item {}", event.getItemId());
+        }
+    }
+
+    // должен отработать раньше инвалидации ItemViewCache
+    @Order(Ordered.LOWEST_PRECEDENCE - 1)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookingChanged(BookingChangedEvent event) {
+        Booking booking = event.getBooking();
+        if (booking.getStatus() != Status.APPROVED) {
+            return;
+        }
+        Long itemId = booking.getItem().getId();
+        for (int attempt = 1; attempt <= REFRESH_ATTEMPTS; attempt++) {
+            if (tryRefresh(List.of(itemId)) != null) {
+                return;
+            }
+        }
+        log.warn("Could not refresh booking pointers of item {} after {} attempts, marking them stale",
+                itemId, REFRESH_ATTEMPTS);
+        transactionTemplate.executeWithoutResult(status -> pointerRepository.markStale(itemId, LocalDateTime.now()));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        int created = 0;
+        List<Long> missing;
+        do {
+            missing = pointerRepository.findItemIdsWithoutPointers(PageRequest.of(0, batchSize));
+            if (missing.isEmpty() || tryRefresh(missing) == null) {
+                break;
+            }
+            created += missing.size();
+        } while (missing.size() == batchSize);
+        if (created > 0) {
+            log.info("Created booking pointers for {} items", created);
+        }
+    }
+
+    @Scheduled(initialDelayString = "${shareit.item.booking-pointers.refresh-delay:60000}",
+            fixedDelayString = "${shareit.item.booking-pointers.refresh-delay:60000}")
+    public void refreshExpired() {
+        int refreshed = 0;
+        List<Long> expired;
+        do {
+            expired = pointerRepository.findExpiredItemIds(LocalDateTime.now(), PageRequest.of(0, batchSize));
+            if (expired.isEmpty() || tryRefresh(expired) == null) {
+                break;
+            }
+            refreshed += expired.size();
+        } while (expired.size() == batchSize);
+        if (refreshed > 0) {
+            log.info("Refreshed {} expired item booking pointers", refreshed);
+        }
+    }
+
+    private Map<Long, ItemBookingPointer> tryRefresh(List<Long> itemIds) {
+        try {
+            return transactionTemplate.execute(status -> {
+                Map<Long, ItemBookingPointer> existing = pointerRepository.findAllById(itemIds).stream()
+                        .collect(Collectors.toMap(ItemBookingPointer::getItemId, Function.identity()));
+                Map<Long, ItemBookingPointer> pointers = compute(itemIds, LocalDateTime.now(), existing);
+                pointerRepository.saveAll(pointers.values());
+                return pointers;
+            });
+        } catch (ConcurrencyFailureException | DataIntegrityViolationException e) {
+            log.debug("Booking pointers of items {} were updated concurrently", itemIds);
+            return null;
+        }
+    }
+
+    private Map<Long, ItemBookingPointer> compute(Collection<Long> itemIds, LocalDateTime now,
+                                                  Map<Long, ItemBookingPointer> existing) {
+        Map<Long, Booking> lastBookings = byItemId(
+                bookingRepository.findLastBookingsByItemIds(itemIds, Status.APPROVED, now));
+        Map<Long, Booking> nextBookings = byItemId(
+                bookingRepository.findNextBookingsByItemIds(itemIds, Status.APPROVED, now));
+        Map<Long, ItemBookingPointer> pointers = new HashMap<>();
+        for (Long itemId : itemIds) {
+            ItemBookingPointer pointer = existing.getOrDefault(itemId, new ItemBookingPointer(itemId));
+            BookingSnapshot next = toSnapshot(nextBookings.get(itemId));
+            pointer.setLastBooking(toSnapshot(lastBookings.get(itemId)));
+            pointer.setNextBooking(next);
+            pointer.setValidUntil(next != null ? next.getStart() : null);
+            pointers.put(itemId, pointer);
+        }
+        return pointers;
+    }
+
+    // при совпадении времени у нескольких бронирований берём бронирование с меньшим id
+    private Map<Long, Booking> byItemId(List<Booking> bookings) {
+        return bookings.stream()
+                .collect(Collectors.toMap(booking -> booking.getItem().getId(), Function.identity(),
+                        (first, second) -> first.getId() < second.getId() ? first : second));
+    }
+
+    private BookingSnapshot toSnapshot(Booking booking) {
+        if (booking == null) {
+            return null;
+        }
+        return new BookingSnapshot(booking.getId(), booking.getBooker().getId(), booking.getStart(), booking.getEnd());
+    }
+}
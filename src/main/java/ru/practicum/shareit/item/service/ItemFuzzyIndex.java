@@ -0,0 +1,254 @@
+package ru.practicum.shareit.item.service;
+
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.util.Transliteration;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.ObjIntConsumer;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+@Component
+public class ItemFuzzyIndex extends AbstractItemIndex {
+
+    private static final Pattern WORD_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private final TrieNode vocabulary = new TrieNode();
+    private final Map<String, Set<Long>> itemsByWord = new HashMap<>();
+    private final Map<Long, Set<String>> wordsByItem = new HashMap<>();
+
+    public ItemFuzzyIndex(ItemRepository itemRepository) {
+        super(itemRepository);
+    }
+
+    public List<Long> findIds(String text, long offset, int limit) {
+        return read(() -> rank(text).stream()
+                .skip(offset)
+                .limit(limit)
+                .collect(Collectors.toList()));
+    }
+
+    public long count(String text) {
+        return read(() -> (long) rank(text).size());
+    }
+
+    @Override
+    protected void clear() {
+        vocabulary.clear();
+        itemsByWord.clear();
+        wordsByItem.clear();
+    }
+
+    @Override
+    protected void add(Long itemId, String name, String description) {
+        Set<String> words = new HashSet<>(words(name));
+        wordsByItem.put(itemId, words);
+        for (String word : words) {
+            itemsByWord.computeIfAbsent(word, key -> {
+                vocabulary.add(key);
+                return new HashSet<>();
+            }).add(itemId);
+        }
+    }
+
+    @Override
+    protected void remove(Long itemId) {
+        Set<String> words = wordsByItem.remove(itemId);
+        if (words == null) {
+            return;
+        }
+        for (String word : words) {
+            Set<Long> items = itemsByWord.get(word);
+            items.remove(itemId);
+            if (items.isEmpty()) {
+                itemsByWord.remove(word);
+                vocabulary.remove(word);
+            }
+        }
+    }
+
+    @Override
+    protected int size() {
+        return wordsByItem.size();
+    }
+
+    int vocabularySize() {
+        return read(() -> vocabulary.size() - 1);
+    }
+
+    private List<Long> rank(String text) {
+        List<String> queryWords = words(text);
+        if (queryWords.isEmpty()) {
+            return Collections.emptyList();
+        }
+        Map<Long, Integer> distances = null;
+        for (String queryWord : queryWords) {
+            Map<Long, Integer> best = new HashMap<>();
+            search(queryWord, maxDistance(queryWord), (word, distance) -> {
+                for (Long itemId : itemsByWord.get(word)) {
+                    best.merge(itemId, distance, Math::min);
+                }
+            });
+            if (distances == null) {
+                distances = best;
+            } else {
+                distances.keySet().retainAll(best.keySet());
+                distances.replaceAll((itemId, distance) -> distance + best.get(itemId));
+            }
+            if (distances.isEmpty()) {
+                return Collections.emptyList();
+            }
+        }
+        return distances.entrySet().stream()
+                .sorted(Map.Entry.<Long, Integer>comparingByValue().thenComparing(Map.Entry.comparingByKey()))
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toList());
+    }
+
+    // как fuzziness AUTO в Elasticsearch: короткие слова должны совпадать точно
+    static int maxDistance(String word) {
+        if (word.length() <= 2) {
+            return 0;
+        }
+        return word.length() <= 5 ? 1 : 2;
+    }
+
+    static List<String> words(String text) {
+        if (text == null) {
+            return Collections.emptyList();
+        }
+        return Arrays.stream(WORD_SEPARATOR.split(text.toLowerCase(Locale.ROOT)))
+                .filter(word -> !word.isEmpty())
+                .map(Transliteration::toLatin)
+                .distinct()
+                .collect(Collectors.toList());
+    }
+
+    // обход префиксного дерева со строкой матрицы Левенштейна на каждый узел, то есть автомат Левенштейна
+    // над словарём: ветка отсекается, как только минимум строки превысил допустимое расстояние
+    private void search(String query, int maxDistance, ObjIntConsumer<String> consumer) {
+        int[] firstRow = new int[query.length() + 1];
+        for (int i = 0; i < firstRow.length; i++) {
+            firstRow[i] = i;
+        }
+        for (int i = 0; i < vocabulary.letters.length; i++) {
+            search(vocabulary.children[i], vocabulary.letters[i], query, firstRow, maxDistance, consumer);
+        }
+    }
+
+    private void search(TrieNode node, char letter, String query, int[] previousRow, int maxDistance,
+                        ObjIntConsumer<String> consumer) {
+        int[] row = new int[previousRow.length];
+        row[0] = previousRow[0] + 1;
+        int rowMin = row[0];
+        for (int i = 1; i < row.length; i++) {
+            int substitution = previousRow[i - 1] + (query.charAt(i - 1) == letter ? 0 : 1);
+            row[i] = Math.min(substitution, Math.min(previousRow[i], row[i - 1]) + 1);
+            rowMin = Math.min(rowMin, row[i]);
+        }
+        int distance = row[row.length - 1];
+        if (distance <= maxDistance && node.word != null) {
+            consumer.accept(node.word, distance);
+        }
+        if (rowMin <= maxDistance) {
+            for (int i = 0; i < node.letters.length; i++) {
+                search(node.children[i], node.letters[i], query, row, maxDistance, consumer);
+            }
+        }
+    }
+
+    // дети хранятся в отсортированных массивах: на миллионах узлов HashMap на узел слишком дорог по памяти
+    private static class TrieNode {
+
+        private static final char[] NO_LETTERS = new char[0];
+        private static final TrieNode[] NO_CHILDREN = new TrieNode[0];
+
+        private char[] letters = NO_LETTERS;
+        private TrieNode[] children = NO_CHILDREN;
+        private String word;
+
+        void clear() {
+            letters = NO_LETTERS;
+            children = NO_CHILDREN;
+        }
+
+        void add(String word) {
+            TrieNode node = this;
+            for (int i = 0; i < word.length(); i++) {
+                node = node.childOrCreate(word.charAt(i));
+            }
+            node.word = word;
+        }
+
+        void remove(String word) {
+            remove(word, 0);
+        }
+
+        int size() {
+            int size = 1;
+            for (TrieNode child : children) {
+                size += child.size();
+            }
+            return size;
+        }
+
+        // опустевшие ветки вырезаются на обратном ходу, иначе дерево растёт с каждым переименованием
+        private boolean remove(String removed, int depth) {
+            if (depth == removed.length()) {
+                word = null;
+            } else {
+                int position = Arrays.binarySearch(letters, removed.charAt(depth));
+                if (position < 0) {
+                    return false;
+                }
+                if (children[position].remove(removed, depth + 1)) {
+                    removeChild(position);
+                }
+            }
+            return word == null && letters.length == 0;
+        }
+
+        private void removeChild(int position) {
+            if (letters.length == 1) {
+                clear();
+                return;
+            }
+            char[] shrunkLetters = new char[letters.length - 1];
+            TrieNode[] shrunkChildren = new TrieNode[children.length - 1];
+            System.arraycopy(letters, 0, shrunkLetters, 0, position);
+            System.arraycopy(children, 0, shrunkChildren, 0, position);
+            System.arraycopy(letters, position + 1, shrunkLetters, position, letters.length - position - 1);
+            System.arraycopy(children, position + 1, shrunkChildren, position, children.length - position - 1);
+            letters = shrunkLetters;
+            children = shrunkChildren;
+        }
+
+        private TrieNode childOrCreate(char letter) {
+            int position = Arrays.binarySearch(letters, letter);
+            if (position >= 0) {
+                return children[position];
+            }
+            int insertAt = -position - 1;
+            char[] grownLetters = new char[letters.length + 1];
+            TrieNode[] grownChildren = new TrieNode[children.length + 1];
+            System.arraycopy(letters, 0, grownLetters, 0, insertAt);
+            System.arraycopy(children, 0, grownChildren, 0, insertAt);
+            System.arraycopy(letters, insertAt, grownLetters, insertAt + 1, letters.length - insertAt);
+            System.arraycopy(children, insertAt, grownChildren, insertAt + 1, children.length - insertAt);
+            TrieNode created = new TrieNode();
+            grownLetters[insertAt] = letter;
+            grownChildren[insertAt] = created;
+            letters = grownLetters;
+            children = grownChildren;
+            return created;
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package ru.practicum.shareit.item.service;
+
+public enum ItemSearchBackend {
+    MEMORY,
+    LIKE,
+    FULLTEXT
+}
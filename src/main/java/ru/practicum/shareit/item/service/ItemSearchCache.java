@@ -0,0 +1,87 @@
+package ru.practicum.shareit.item.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.util.VersionedLoader;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+@Component
+public class ItemSearchCache {
+
+    public static final String CACHE_NAME = "itemSearch";
+
+    private final Cache<Key, Entry> pages;
+    private final Timer savedTime;
+    private final VersionedLoader versionedLoader = new VersionedLoader();
+
+    public ItemSearchCache(@Value("${shareit.item.search-cache.ttl:10m}") Duration ttl,
+                           @Value("${shareit.item.search-cache.max-size:10000}") long maxSize,
+                           MeterRegistry meterRegistry) {
+        this.pages = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, pages, CACHE_NAME);
+        this.savedTime = Timer.builder("shareit.item.search-cache.saved")
+                .description("Database time saved by search cache hits")
+                .register(meterRegistry);
+    }
+
+    public Slice<Long> getIds(String text, Pageable pageable, Supplier<Slice<Long>> loader) {
+        Key key = new Key(text.toLowerCase(Locale.ROOT), pageable.getOffset(), pageable.getPageSize(),
+                pageable.getSort().toString());
+        Entry cached = pages.getIfPresent(key);
+        if (cached != null) {
+            savedTime.record(cached.getLoadNanos(), TimeUnit.NANOSECONDS);
+            return new SliceImpl<>(cached.getIds(), pageable, cached.isHasNext());
+        }
+        long started = System.nanoTime();
+        return versionedLoader.load(loader, loaded -> pages.put(key, new Entry(List.copyOf(loaded.getContent()),
+                loaded.hasNext(), System.nanoTime() - started)));
+    }
+
+    public void evictMatching(String... texts) {
+        List<String> lowercase = Arrays.stream(texts)
+                .filter(Objects::nonNull)
+                .map(text -> text.toLowerCase(Locale.ROOT))
+                .collect(Collectors.toList());
+        versionedLoader.invalidate(() -> pages.asMap().keySet()
+                .removeIf(key -> lowercase.stream().anyMatch(text -> text.contains(key.getText()))));
+    }
+
+    public void evictAll() {
+        versionedLoader.invalidate(pages::invalidateAll);
+    }
+
+    @lombok.Value
+    static class Key {
+        String text;
+        long offset;
+        int size;
+        String sort;
+    }
+
+    @lombok.Value
+    static class Entry {
+        List<Long> ids;
+        boolean hasNext;
+        long loadNanos;
+    }
+}
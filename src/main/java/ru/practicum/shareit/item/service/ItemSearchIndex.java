@@ -0,0 +1,140 @@
+package ru.practicum.shareit.item.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+@Component
+public class ItemSearchIndex extends AbstractItemIndex {
+
+    private static final int GRAM_LENGTH = 3;
+
+    private final NavigableMap<Long, Document> documents = new TreeMap<>();
+    private final Map<String, NavigableSet<Long>> postings = new HashMap<>();
+
+    @Value("${shareit.item.search.backend:MEMORY}")
+    private ItemSearchBackend backend;
+
+    public ItemSearchIndex(ItemRepository itemRepository) {
+        super(itemRepository);
+    }
+
+    public List<Long> findIds(String text, long offset, int limit) {
+        return read(() -> matches(normalize(text))
+                .skip(offset)
+                .limit(limit)
+                .collect(Collectors.toList()));
+    }
+
+    public long count(String text) {
+        return read(() -> matches(normalize(text)).count());
+    }
+
+    @Override
+    protected boolean isEnabled() {
+        return backend == ItemSearchBackend.MEMORY;
+    }
+
+    @Override
+    protected void clear() {
+        documents.clear();
+        postings.clear();
+    }
+
+    @Override
+    protected void add(Long itemId, String name, String description) {
+        Document document = new Document(normalize(name), normalize(description));
+        documents.put(itemId, document);
+        for (String gram : document.trigrams()) {
+            postings.computeIfAbsent(gram, key -> new TreeSet<>()).add(itemId);
+        }
+    }
+
+    @Override
+    protected void remove(Long itemId) {
+        Document document = documents.remove(itemId);
+        if (document == null) {
+            return;
+        }
+        for (String gram : document.trigrams()) {
+            NavigableSet<Long> ids = postings.get(gram);
+            ids.remove(itemId);
+            if (ids.isEmpty()) {
+                postings.remove(gram);
+            }
+        }
+    }
+
+    @Override
+    protected int size() {
+        return documents.size();
+    }
+
+    // обход самого короткого списка по возрастанию id позволяет остановиться, как только набрана страница
+    private Stream<Long> matches(String query) {
+        Set<String> grams = trigrams(query, new HashSet<>());
+        Stream<Long> candidates;
+        if (grams.isEmpty()) {
+            candidates = documents.keySet().stream();
+        } else {
+            List<NavigableSet<Long>> lists = new ArrayList<>();
+            for (String gram : grams) {
+                NavigableSet<Long> ids = postings.get(gram);
+                if (ids == null) {
+                    return Stream.empty();
+                }
+                lists.add(ids);
+            }
+            lists.sort(Comparator.comparingInt(Set::size));
+            List<NavigableSet<Long>> others = lists.subList(1, lists.size());
+            candidates = lists.get(0).stream()
+                    .filter(id -> others.stream().allMatch(ids -> ids.contains(id)));
+        }
+        return candidates.filter(id -> documents.get(id).contains(query));
+    }
+
+    private static String normalize(String text) {
+        return text == null ? "" : text.toLowerCase(Locale.ROOT);
+    }
+
+    private static Set<String> trigrams(String text, Set<String> grams) {
+        for (int i = 0; i + GRAM_LENGTH <= text.length(); i++) {
+            grams.add(text.substring(i, i + GRAM_LENGTH));
+        }
+        return grams;
+    }
+
+    private static class Document {
+
+        private final String name;
+        private final String description;
+
+        Document(String name, String description) {
+            this.name = name;
+            this.description = description;
+        }
+
+        boolean contains(String query) {
+            return name.contains(query) || description.contains(query);
+        }
+
+        Set<String> trigrams() {
+            return ItemSearchIndex.trigrams(description, ItemSearchIndex.trigrams(name, new HashSet<>()));
+        }
+    }
+}
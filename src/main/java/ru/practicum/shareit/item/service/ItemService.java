@@ -1,11 +1,18 @@
 package ru.practicum.shareit.item.service;
 
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.FreeSlotDto;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemSearchFilter;
+import ru.practicum.shareit.item.dto.ItemSearchResultDto;
+import ru.practicum.shareit.item.dto.ItemSuggestionDto;
 import ru.practicum.shareit.item.model.Item;
 
+import java.time.LocalDateTime;
+import java.util.List;
+
 public interface ItemService {
 
     Item createItem(ItemDto itemDto, Long userId);
@@ -14,9 +21,31 @@ public interface ItemService {
 
     ItemDto getItemById(Long itemId, Long userId);
 
-    Page<ItemDto> getAllItemsWithBookingDetails(Long ownerId, Pageable pageable);
+    List<FreeSlotDto> getFreeSlots(Long itemId, LocalDateTime from, LocalDateTime to);
+
+    Slice<ItemDto> getAllItemsWithBookingDetails(Long ownerId, Pageable pageable);
+
+    Slice<ItemDto> getItemsBySubstring(String text, Pageable pageable);
+
+    Slice<ItemDto> getItemsByFilter(String text, ItemSearchFilter filter, Pageable pageable);
+
+    ItemSearchResultDto searchItemsWithFacets(String text, ItemSearchFilter filter, Pageable pageable);
+
+    Slice<ItemDto> getItemsByFuzzyText(String text, Pageable pageable);
+
+    Slice<ItemDto> getItemsByStemmedText(String text, Pageable pageable);
+
+    List<ItemSuggestionDto> suggestItems(String prefix, int size);
+
+    long countItemsByOwner(Long ownerId);
+
+    long countItemsBySubstring(String text);
+
+    long countItemsByFilter(String text, ItemSearchFilter filter);
+
+    long countItemsByFuzzyText(String text);
 
-    Page<ItemDto> getItemsBySubstring(String text, Pageable pageable);
+    long countItemsByStemmedText(String text);
 
     boolean isItemPresent(long itemId);
 
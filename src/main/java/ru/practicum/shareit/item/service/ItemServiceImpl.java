@@ -2,29 +2,56 @@ package ru.practicum.shareit.item.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.Page;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.stereotype.Service;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingMapper;
-import ru.practicum.shareit.booking.model.Status;
+import ru.practicum.shareit.booking.repository.BookingIntervalView;
 import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.service.BookingIntervalIndex;
+import ru.practicum.shareit.booking.service.BookingSlotIndex;
 import ru.practicum.shareit.exception.*;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.CommentMapper;
+import ru.practicum.shareit.item.dto.FacetCountDto;
+import ru.practicum.shareit.item.dto.FreeSlotDto;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemFacetsDto;
 import ru.practicum.shareit.item.dto.ItemMapper;
+import ru.practicum.shareit.item.dto.ItemSearchFilter;
+import ru.practicum.shareit.item.dto.ItemSearchResultDto;
+import ru.practicum.shareit.item.dto.ItemSuggestionDto;
+import ru.practicum.shareit.item.event.ItemChangedEvent;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemBookingPointer;
 import ru.practicum.shareit.item.repository.CommentRepository;
+import ru.practicum.shareit.item.repository.ItemFacetRow;
+import ru.practicum.shareit.item.repository.ItemFacetTotals;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.repository.ItemSearchView;
+import ru.practicum.shareit.request.event.ItemRequestChangedEvent;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.request.repository.ItemRequestRepository;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.util.CountEstimateCache;
+import ru.practicum.shareit.util.DatabasePlatform;
+import ru.practicum.shareit.util.IdentityCache;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -32,6 +59,10 @@ import java.util.stream.Collectors;
 @Slf4j
 public class ItemServiceImpl implements ItemService {
 
+    private static final int MAX_SUGGESTIONS = 50;
+    private static final int MAX_OWNER_FACETS = 10;
+    private static final int FREE_CHECK_BATCH_SIZE = 1000;
+
     private final ItemRepository itemRepository;
     private final BookingRepository bookingRepository;
     private final ItemMapper itemMapper;
@@ -40,20 +71,49 @@ public class ItemServiceImpl implements ItemService {
     private final CommentMapper commentMapper;
     private final UserRepository userRepository;
     private final ItemRequestRepository itemRequestRepository;
+    private final CountEstimateCache countEstimateCache;
+    private final ItemBookingPointerService itemBookingPointerService;
+    private final ItemViewCache itemViewCache;
+    private final IdentityCache identityCache;
+    private final ItemSearchIndex itemSearchIndex;
+    private final ItemSuggestIndex itemSuggestIndex;
+    private final ItemFuzzyIndex itemFuzzyIndex;
+    private final ItemStemIndex itemStemIndex;
+    private final ItemSearchCache itemSearchCache;
+    private final BookingSlotIndex bookingSlotIndex;
+    private final ApplicationEventPublisher eventPublisher;
+    private final DatabasePlatform databasePlatform;
+
+    @Value("${shareit.item.search.backend:MEMORY}")
+    private ItemSearchBackend searchBackend;
 
     @Override
     public Item createItem(ItemDto itemDto, Long userId) {
-        User owner = userRepository.findById(userId)
-                .orElseThrow(UserNotFoundException::new);
-        Item item = itemMapper.toItem(itemDto, owner);
+        if (!identityCache.userExists(userId)) {
+            throw new UserNotFoundException();
+        }
+        Item item = itemMapper.toItem(itemDto, userRepository.getReferenceById(userId));
         // указан ли requestId и существует ли такой запрос
+        ItemRequest itemRequest = null;
         if (itemDto.getRequestId() != null) {
-            ItemRequest itemRequest = itemRequestRepository.findById(itemDto.getRequestId())
+            itemRequest = itemRequestRepository.findById(itemDto.getRequestId())
                     .orElseThrow(ItemRequestNotFoundException::new);
             item.setRequest(itemRequest);
             log.info("Item linked with request id: {}", itemDto.getRequestId());
         }
-        return itemRepository.save(item);
+        Item savedItem = itemRepository.save(item);
+        identityCache.itemSaved(savedItem.getId(), userId);
+        evictSearchPages(savedItem.getName(), savedItem.getDescription());
+        itemSearchIndex.index(savedItem);
+        itemSuggestIndex.index(savedItem);
+        itemFuzzyIndex.index(savedItem);
+        itemStemIndex.index(savedItem);
+        if (itemRequest != null) {
+            eventPublisher.publishEvent(new ItemRequestChangedEvent(itemRequest.getId(),
+                    ItemRequestChangedEvent.Type.ITEM_ADDED));
+        }
+        eventPublisher.publishEvent(new ItemChangedEvent(savedItem.getId(), ItemChangedEvent.Type.CREATED));
+        return savedItem;
     }
 
     @Override
@@ -64,63 +124,314 @@ public class ItemServiceImpl implements ItemService {
         if (!isItemBelongOwner(itemId, userId)) {
             throw new UnauthorizedAccessException();
         }
-        User user = userRepository.findById(userId)
-                .orElseThrow(UserNotFoundException::new);
-        Item item = itemMapper.toItem(itemDto, user);
-        return itemMapper.toItemDto(itemRepository.save(item));
+        // владелец подтверждён проверкой выше, поэтому достаточно ссылки без загрузки
+        Item item = itemMapper.toItem(itemDto, userRepository.getReferenceById(userId));
+        // прежние название и описание нужны, чтобы сбросить поиски, которым вещь перестала соответствовать
+        Optional<ItemSearchView> previous = itemRepository.findSearchViewById(itemId);
+        Item savedItem = itemRepository.save(item);
+        evictSearchPages(previous.map(ItemSearchView::getName).orElse(null),
+                previous.map(ItemSearchView::getDescription).orElse(null),
+                savedItem.getName(), savedItem.getDescription());
+        itemSearchIndex.index(savedItem);
+        itemSuggestIndex.index(savedItem);
+        itemFuzzyIndex.index(savedItem);
+        itemStemIndex.index(savedItem);
+        ItemDto updatedItem = itemMapper.toItemDto(savedItem);
+        eventPublisher.publishEvent(new ItemChangedEvent(itemId, ItemChangedEvent.Type.UPDATED));
+        return updatedItem;
+    }
+
+    // кэш страниц читается, только пока индекс не готов; при готовом индексе незачем перебирать ключи,
+    // достаточно сбросить оставшееся с периода до построения
+    private void evictSearchPages(String... texts) {
+        if (itemSearchIndex.isReady()) {
+            itemSearchCache.evictAll();
+        } else {
+            itemSearchCache.evictMatching(texts);
+        }
     }
 
     @Override
     public ItemDto getItemById(Long itemId, Long userId) {
-        Item item = itemRepository.findById(itemId)
+        Long ownerId = identityCache.findItemOwnerId(itemId)
                 .orElseThrow(ItemNotFoundException::new);
-        boolean isOwner = item.getOwner().getId().equals(userId);
+        boolean isOwner = ownerId.equals(userId);
+        return itemViewCache.getView(itemId, isOwner, () -> assembleItemView(itemId, isOwner));
+    }
 
-        LocalDateTime now = LocalDateTime.now();
-        log.info(now.toString());
+    private ItemViewCache.View assembleItemView(Long itemId, boolean isOwner) {
+        Item item = itemRepository.findById(itemId)
+                .orElseThrow(ItemNotFoundException::new);
         BookingDto lastBooking = null;
         BookingDto nextBooking = null;
+        LocalDateTime validUntil = null;
         if (isOwner) {
-            lastBooking = bookingRepository.findFirstByItemIdAndStatusAndStartBeforeOrderByEndDesc(item.getId(), Status.APPROVED, now)
-                    .map(bookingMapper::toBookingDto).orElse(null);
-            nextBooking = bookingRepository.findFirstByItemIdAndStatusAndStartAfterOrderByStartAsc(item.getId(), Status.APPROVED, now)
-                    .map(bookingMapper::toBookingDto).orElse(null);
+            ItemBookingPointer pointer = itemBookingPointerService.getPointers(List.of(itemId)).get(itemId);
+            lastBooking = bookingMapper.toBookingDto(pointer.getLastBooking(), item);
+            nextBooking = bookingMapper.toBookingDto(pointer.getNextBooking(), item);
+            validUntil = pointer.getValidUntil();
         }
         List<CommentDto> comments = commentRepository.findByItemId(itemId)
                 .stream()
                 .map(commentMapper::toCommentDto)
                 .collect(Collectors.toList());
-        return itemMapper.toItemDto(item, lastBooking, nextBooking, comments);
+        return new ItemViewCache.View(itemMapper.toItemDto(item, lastBooking, nextBooking, comments), validUntil);
     }
 
     @Override
-    public Page<ItemDto> getAllItemsWithBookingDetails(Long ownerId, Pageable pageable) {
-        LocalDateTime now = LocalDateTime.now();
-        Page<Item> itemsPage = itemRepository.findAllByOwnerId(ownerId, pageable);
+    public List<FreeSlotDto> getFreeSlots(Long itemId, LocalDateTime from, LocalDateTime to) {
+        if (!to.isAfter(from)) {
+            throw new IllegalArgumentException("Parameter 'to' must be after 'from'.");
+        }
+        if (!isItemPresent(itemId)) {
+            throw new ItemNotFoundException();
+        }
+        List<BookingIntervalView> bookings = bookingRepository
+                .findAllByItemIdAndStatusInAndEndAfterAndStartBeforeOrderByStartAsc(itemId,
+                        BookingIntervalIndex.ACTIVE_STATUSES, from, to);
+        // интервалы отсортированы по началу, поэтому свободные окна находятся за один проход
+        List<FreeSlotDto> slots = new ArrayList<>();
+        LocalDateTime cursor = from;
+        for (BookingIntervalView booking : bookings) {
+            if (booking.getStart().isAfter(cursor)) {
+                slots.add(new FreeSlotDto(cursor, booking.getStart()));
+            }
+            if (booking.getEnd().isAfter(cursor)) {
+                cursor = booking.getEnd();
+            }
+        }
+        if (to.isAfter(cursor)) {
+            slots.add(new FreeSlotDto(cursor, to));
+        }
+        return slots;
+    }
+
+    @Override
+    public Slice<ItemDto> getAllItemsWithBookingDetails(Long ownerId, Pageable pageable) {
+        Slice<Item> itemsPage = itemRepository.findAllByOwnerId(ownerId, pageable);
+        Map<Long, ItemBookingPointer> pointers = itemBookingPointerService.getPointers(
+                itemsPage.map(Item::getId).getContent());
         return itemsPage.map(item -> {
             ItemDto itemDto = itemMapper.toItemDto(item);
-            bookingRepository.findFirstByItemIdAndStatusAndStartBeforeOrderByEndDesc(
-                            item.getId(), Status.APPROVED, now)
-                    .ifPresent(booking -> itemDto.setLastBooking(bookingMapper.toBookingDto(booking)));
-
-            bookingRepository.findFirstByItemIdAndStatusAndStartAfterOrderByStartAsc(
-                            item.getId(), Status.APPROVED, now)
-                    .ifPresent(booking -> itemDto.setNextBooking(bookingMapper.toBookingDto(booking)));
+            ItemBookingPointer pointer = pointers.get(item.getId());
+            itemDto.setLastBooking(bookingMapper.toBookingDto(pointer.getLastBooking(), item));
+            itemDto.setNextBooking(bookingMapper.toBookingDto(pointer.getNextBooking(), item));
             return itemDto;
         });
     }
 
     @Override
-    public Page<ItemDto> getItemsBySubstring(String text, Pageable pageable) {
+    public Slice<ItemDto> getItemsBySubstring(String text, Pageable pageable) {
+        if (text == null || text.trim().isEmpty()) {
+            return new SliceImpl<>(Collections.emptyList());
+        }
+        if (isFullTextSearch()) {
+            // порядок задаёт релевантность, поэтому сортировка из pageable не применяется
+            List<Item> items = itemRepository.findByFullText(text, pageable.getPageSize() + 1, pageable.getOffset());
+            boolean hasNext = items.size() > pageable.getPageSize();
+            return new SliceImpl<>(items.stream()
+                    .limit(pageable.getPageSize())
+                    .map(itemMapper::toItemDto)
+                    .collect(Collectors.toList()), pageable, hasNext);
+        }
+        if (!itemSearchIndex.isReady()) {
+            Slice<Long> ids = itemSearchCache.getIds(text, pageable,
+                    () -> itemRepository.findIdsBySubstring(text, pageable));
+            return loadPage(ids.getContent(), pageable, ids.hasNext());
+        }
+        // индекс отдаёт id по возрастанию, как и сортировка страницы в контроллере
+        return loadPage(itemSearchIndex.findIds(text, pageable.getOffset(), pageable.getPageSize() + 1), pageable);
+    }
+
+    @Override
+    public Slice<ItemDto> getItemsByFilter(String text, ItemSearchFilter filter, Pageable pageable) {
+        validateWindow(filter);
         if (text == null || text.trim().isEmpty()) {
-            return Page.empty();
+            return new SliceImpl<>(Collections.emptyList());
+        }
+        if (isSlotIndexApplicable(filter)) {
+            List<Long> free = findFreeIds(text, filter, pageable.getOffset() + pageable.getPageSize() + 1);
+            return loadPage(free.subList((int) Math.min(pageable.getOffset(), free.size()), free.size()), pageable);
         }
-        return itemRepository.findBySubstring(text, pageable)
+        return itemRepository.findByFilter(text, filter, pageable)
                 .map(itemMapper::toItemDto);
     }
 
+    @Override
+    public ItemSearchResultDto searchItemsWithFacets(String text, ItemSearchFilter filter, Pageable pageable) {
+        Slice<ItemDto> page = getItemsByFilter(text, filter, pageable);
+        ItemFacetTotals totals = ItemFacetTotals.EMPTY;
+        List<ItemFacetRow> owners = Collections.emptyList();
+        if (text != null && !text.trim().isEmpty()) {
+            LocalDateTime now = LocalDateTime.now();
+            totals = itemRepository.countFacetTotals(text, filter, now.minusDays(1), now.minusWeeks(1),
+                    now.minusMonths(1));
+            owners = itemRepository.countOwnerFacets(text, filter, MAX_OWNER_FACETS);
+        }
+        return new ItemSearchResultDto(page.getContent(), page.hasNext(), toFacets(totals, owners));
+    }
+
+    private static void validateWindow(ItemSearchFilter filter) {
+        if (!filter.hasWindow()) {
+            return;
+        }
+        if (filter.getStart() == null || filter.getEnd() == null) {
+            throw new IllegalArgumentException("Parameters 'start' and 'end' must be given together.");
+        }
+        if (!filter.getEnd().isAfter(filter.getStart())) {
+            throw new IllegalArgumentException("Parameter 'end' must be after 'start'.");
+        }
+    }
+
+    private static ItemFacetsDto toFacets(ItemFacetTotals totals, List<ItemFacetRow> rows) {
+        long total = totals.getCount();
+        List<FacetCountDto> owners = rows.stream()
+                .map(row -> new FacetCountDto(String.valueOf(row.getOwnerId()), row.getCount()))
+                .collect(Collectors.toList());
+        List<FacetCountDto> hasRequest = List.of(
+                new FacetCountDto("true", totals.getWithRequest()),
+                new FacetCountDto("false", total - totals.getWithRequest()));
+        List<FacetCountDto> created = List.of(
+                new FacetCountDto("last_day", totals.getCreatedSinceDay()),
+                new FacetCountDto("last_week", totals.getCreatedSinceWeek() - totals.getCreatedSinceDay()),
+                new FacetCountDto("last_month", totals.getCreatedSinceMonth() - totals.getCreatedSinceWeek()),
+                new FacetCountDto("older", total - totals.getCreatedSinceMonth()));
+        return new ItemFacetsDto(total, owners, hasRequest, created);
+    }
+
+    @Override
+    public Slice<ItemDto> getItemsByFuzzyText(String text, Pageable pageable) {
+        if (text == null || text.trim().isEmpty()) {
+            return new SliceImpl<>(Collections.emptyList());
+        }
+        if (!itemFuzzyIndex.isReady()) {
+            return getItemsBySubstring(text, pageable);
+        }
+        // порядок задаёт расстояние редактирования, поэтому сортировка из pageable не применяется
+        return loadPage(itemFuzzyIndex.findIds(text, pageable.getOffset(), pageable.getPageSize() + 1), pageable);
+    }
+
+    @Override
+    public Slice<ItemDto> getItemsByStemmedText(String text, Pageable pageable) {
+        if (text == null || text.trim().isEmpty()) {
+            return new SliceImpl<>(Collections.emptyList());
+        }
+        if (!itemStemIndex.isReady()) {
+            return getItemsBySubstring(text, pageable);
+        }
+        return loadPage(itemStemIndex.findIds(text, pageable.getOffset(), pageable.getPageSize() + 1), pageable);
+    }
+
+    private Slice<ItemDto> loadPage(List<Long> ids, Pageable pageable) {
+        boolean hasNext = ids.size() > pageable.getPageSize();
+        return loadPage(hasNext ? ids.subList(0, pageable.getPageSize()) : ids, pageable, hasNext);
+    }
+
+    private Slice<ItemDto> loadPage(List<Long> pageIds, Pageable pageable, boolean hasNext) {
+        Map<Long, Item> items = itemRepository.findAllById(pageIds).stream()
+                .collect(Collectors.toMap(Item::getId, Function.identity()));
+        List<ItemDto> content = pageIds.stream()
+                .map(items::get)
+                .filter(Objects::nonNull)
+                .map(itemMapper::toItemDto)
+                .collect(Collectors.toList());
+        return new SliceImpl<>(content, pageable, hasNext);
+    }
+
+    @Override
+    public long countItemsByFilter(String text, ItemSearchFilter filter) {
+        validateWindow(filter);
+        if (text == null || text.trim().isEmpty()) {
+            return 0;
+        }
+        if (isSlotIndexApplicable(filter)) {
+            return findFreeIds(text, filter, Long.MAX_VALUE).size();
+        }
+        return itemRepository.countByFilter(text, filter);
+    }
+
+    private boolean isSlotIndexApplicable(ItemSearchFilter filter) {
+        return filter.hasWindow() && !filter.hasItemConditions()
+                && itemSearchIndex.isReady() && bookingSlotIndex.isReady();
+    }
+
+    // кандидаты проверяются пачками, пока не наберётся нужное число свободных вещей
+    private List<Long> findFreeIds(String text, ItemSearchFilter filter, long limit) {
+        List<Long> candidates = itemSearchIndex.findIds(text, 0, Integer.MAX_VALUE);
+        List<Long> free = new ArrayList<>();
+        for (int from = 0; from < candidates.size() && free.size() < limit; from += FREE_CHECK_BATCH_SIZE) {
+            List<Long> batch = candidates.subList(from, Math.min(from + FREE_CHECK_BATCH_SIZE, candidates.size()));
+            free.addAll(bookingSlotIndex.findFree(batch, filter.getStart(), filter.getEnd()));
+        }
+        return free.size() > limit ? free.subList(0, (int) limit) : free;
+    }
+
+    @Override
+    public long countItemsByFuzzyText(String text) {
+        if (text == null || text.trim().isEmpty()) {
+            return 0;
+        }
+        if (!itemFuzzyIndex.isReady()) {
+            return countItemsBySubstring(text);
+        }
+        return itemFuzzyIndex.count(text);
+    }
+
+    @Override
+    public long countItemsByStemmedText(String text) {
+        if (text == null || text.trim().isEmpty()) {
+            return 0;
+        }
+        if (!itemStemIndex.isReady()) {
+            return countItemsBySubstring(text);
+        }
+        return itemStemIndex.count(text);
+    }
+
+    @Override
+    public List<ItemSuggestionDto> suggestItems(String prefix, int size) {
+        if (size <= 0) {
+            throw new InvalidPaginationParameterException("Parameter 'size' must be greater than zero.");
+        }
+        if (prefix == null || prefix.trim().isEmpty()) {
+            return Collections.emptyList();
+        }
+        int limit = Math.min(size, MAX_SUGGESTIONS);
+        if (itemSuggestIndex.isReady()) {
+            return itemSuggestIndex.suggest(prefix, limit);
+        }
+        return itemRepository.findByNamePrefix(prefix, PageRequest.of(0, limit)).stream()
+                .map(item -> new ItemSuggestionDto(item.getId(), item.getName()))
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public long countItemsByOwner(Long ownerId) {
+        return countEstimateCache.get("items:owner:" + ownerId, () -> itemRepository.countByOwnerId(ownerId));
+    }
+
+    @Override
+    public long countItemsBySubstring(String text) {
+        if (text == null || text.trim().isEmpty()) {
+            return 0;
+        }
+        if (isFullTextSearch()) {
+            return countEstimateCache.get("items:fulltext:" + text.toLowerCase(),
+                    () -> itemRepository.countByFullText(text));
+        }
+        if (itemSearchIndex.isReady()) {
+            return itemSearchIndex.count(text);
+        }
+        return countEstimateCache.get("items:search:" + text.toLowerCase(),
+                () -> itemRepository.countBySubstring(text));
+    }
+
+    private boolean isFullTextSearch() {
+        return searchBackend == ItemSearchBackend.FULLTEXT && databasePlatform.isPostgres();
+    }
+
     public boolean isItemPresent(long itemId) {
-        boolean isPresent = itemRepository.existsById(itemId);
+        boolean isPresent = identityCache.findItemOwnerId(itemId).isPresent();
         if (isPresent) {
             log.info("Found item with id: {}", itemId);
         } else {
@@ -130,7 +441,7 @@ public class ItemServiceImpl implements ItemService {
     }
 
     public boolean isItemBelongOwner(long itemId, long ownerId) {
-        boolean isBelong = itemRepository.isItemBelongOwner(itemId, ownerId);
+        boolean isBelong = identityCache.isItemOwnedBy(itemId, ownerId);
         if (isBelong) {
             log.info("Item with ID: {} belongs to the user with ID: {}", itemId, ownerId);
         } else {
@@ -150,6 +461,7 @@ public class ItemServiceImpl implements ItemService {
         Comment comment = commentMapper.toComment(commentDto, item, user);
         CommentDto newComment = commentMapper.toCommentDto(commentRepository.save(comment));
         newComment.setAuthorName(user.getName());
+        eventPublisher.publishEvent(new ItemChangedEvent(itemId, ItemChangedEvent.Type.COMMENTED));
         return newComment;
     }
 }
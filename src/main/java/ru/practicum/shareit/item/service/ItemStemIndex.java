@@ -0,0 +1,116 @@
+package ru.practicum.shareit.item.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.analysis.TextAnalyzer;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+@Component
+public class ItemStemIndex extends AbstractItemIndex {
+
+    private static final String INDEX_TAG = "stem";
+
+    private final TextAnalyzer analyzer;
+    private final Map<String, NavigableSet<Long>> postings = new HashMap<>();
+    private final Map<Long, Set<String>> termsByItem = new HashMap<>();
+    private final Timer queryTimer;
+    private long postingCount;
+
+    public ItemStemIndex(ItemRepository itemRepository, TextAnalyzer analyzer, MeterRegistry meterRegistry) {
+        super(itemRepository);
+        this.analyzer = analyzer;
+        this.queryTimer = Timer.builder("shareit.item.index.query")
+                .tag("index", INDEX_TAG)
+                .register(meterRegistry);
+        Gauge.builder("shareit.item.index.terms", this, index -> index.read(index.postings::size))
+                .tag("index", INDEX_TAG)
+                .register(meterRegistry);
+        Gauge.builder("shareit.item.index.postings", this, index -> index.read(() -> index.postingCount))
+                .tag("index", INDEX_TAG)
+                .register(meterRegistry);
+    }
+
+    public List<Long> findIds(String text, long offset, int limit) {
+        Set<String> terms = new LinkedHashSet<>(analyzer.analyze(text));
+        return queryTimer.record(() -> read(() -> matches(terms)
+                .skip(offset)
+                .limit(limit)
+                .collect(Collectors.toList())));
+    }
+
+    public long count(String text) {
+        Set<String> terms = new LinkedHashSet<>(analyzer.analyze(text));
+        return queryTimer.record(() -> read(() -> matches(terms).count()));
+    }
+
+    @Override
+    protected void clear() {
+        postings.clear();
+        termsByItem.clear();
+        postingCount = 0;
+    }
+
+    @Override
+    protected void add(Long itemId, String name, String description) {
+        Set<String> terms = new LinkedHashSet<>(analyzer.analyze(name));
+        terms.addAll(analyzer.analyze(description));
+        termsByItem.put(itemId, terms);
+        for (String term : terms) {
+            postings.computeIfAbsent(term, key -> new TreeSet<>()).add(itemId);
+        }
+        postingCount += terms.size();
+    }
+
+    @Override
+    protected void remove(Long itemId) {
+        Set<String> terms = termsByItem.remove(itemId);
+        if (terms == null) {
+            return;
+        }
+        for (String term : terms) {
+            NavigableSet<Long> ids = postings.get(term);
+            ids.remove(itemId);
+            if (ids.isEmpty()) {
+                postings.remove(term);
+            }
+        }
+        postingCount -= terms.size();
+    }
+
+    @Override
+    protected int size() {
+        return termsByItem.size();
+    }
+
+    private Stream<Long> matches(Set<String> terms) {
+        if (terms.isEmpty()) {
+            return Stream.empty();
+        }
+        List<NavigableSet<Long>> lists = new ArrayList<>();
+        for (String term : terms) {
+            NavigableSet<Long> ids = postings.get(term);
+            if (ids == null) {
+                return Stream.empty();
+            }
+            lists.add(ids);
+        }
+        lists.sort(Comparator.comparingInt(Set::size));
+        List<NavigableSet<Long>> others = lists.subList(1, lists.size());
+        return lists.get(0).stream()
+                .filter(id -> others.stream().allMatch(ids -> ids.contains(id)));
+    }
+}
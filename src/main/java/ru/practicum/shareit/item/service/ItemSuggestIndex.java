@@ -0,0 +1,79 @@
+package ru.practicum.shareit.item.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.dto.ItemSuggestionDto;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+@Component
+public class ItemSuggestIndex extends AbstractItemIndex {
+
+    private static final Comparator<Entry> ORDER = Comparator.comparing((Entry entry) -> entry.key)
+            .thenComparing(entry -> entry.itemId);
+
+    private final NavigableSet<Entry> entries = new ConcurrentSkipListSet<>(ORDER);
+    private final Map<Long, Entry> entriesByItem = new HashMap<>();
+
+    public ItemSuggestIndex(ItemRepository itemRepository) {
+        super(itemRepository);
+    }
+
+    public List<ItemSuggestionDto> suggest(String prefix, int limit) {
+        String key = normalize(prefix);
+        List<ItemSuggestionDto> suggestions = new ArrayList<>(limit);
+        for (Entry entry : entries.tailSet(new Entry(key, Long.MIN_VALUE, null), true)) {
+            if (suggestions.size() == limit || !entry.key.startsWith(key)) {
+                break;
+            }
+            suggestions.add(new ItemSuggestionDto(entry.itemId, entry.name));
+        }
+        return suggestions;
+    }
+
+    @Override
+    protected void clear() {
+        entries.clear();
+        entriesByItem.clear();
+    }
+
+    @Override
+    protected void add(Long itemId, String name, String description) {
+        Entry entry = new Entry(normalize(name), itemId, name);
+        entriesByItem.put(itemId, entry);
+        entries.add(entry);
+    }
+
+    @Override
+    protected void remove(Long itemId) {
+        Entry previous = entriesByItem.remove(itemId);
+        if (previous != null) {
+            entries.remove(previous);
+        }
+    }
+
+    @Override
+    protected int size() {
+        return entriesByItem.size();
+    }
+
+    private static String normalize(String text) {
+        return text == null ? "" : text.toLowerCase(Locale.ROOT);
+    }
+
+    @RequiredArgsConstructor
+    private static class Entry {
+
+        private final String key;
+        private final Long itemId;
+        private final String name;
+    }
+}
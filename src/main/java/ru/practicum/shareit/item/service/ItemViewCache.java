@@ -0,0 +1,132 @@
+package ru.practicum.shareit.item.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.event.BookingChangedEvent;
+import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.event.ItemChangedEvent;
+import ru.practicum.shareit.user.dto.UserDto;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+@Component
+public class ItemViewCache {
+
+    public static final String CACHE_NAME = "itemViews";
+
+    private final Cache<Key, View> views;
+
+    public ItemViewCache(@Value("${shareit.item.view-cache.ttl:5m}") Duration ttl,
+                         @Value("${shareit.item.view-cache.max-size:10000}") long maxSize,
+                         MeterRegistry meterRegistry) {
+        this.views = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new ViewExpiry(ttl))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, views, CACHE_NAME);
+    }
+
+    // загрузка идёт внутри compute, поэтому инвалидация во время загрузки дождётся её и удалит результат
+    public ItemDto getView(Long itemId, boolean owner, Supplier<View> loader) {
+        View view = views.get(new Key(itemId, owner), key -> {
+            View loaded = loader.get();
+            return new View(copy(loaded.getItem()), loaded.getValidUntil());
+        });
+        return copy(view.getItem());
+    }
+
+    public void evict(Long itemId) {
+        views.invalidate(new Key(itemId, true));
+        views.invalidate(new Key(itemId, false));
+    }
+
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onItemChanged(ItemChangedEvent event) {
+        evict(event.getItemId());
+    }
+
+    // бронирования видит только владелец; указатели к этому моменту уже обновлены ItemBookingPointerService
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookingChanged(BookingChangedEvent event) {
+        views.invalidate(new Key(event.getBooking().getItem().getId(), true));
+    }
+
+    private static ItemDto copy(ItemDto item) {
+        return new ItemDto(item.getId(), item.getName(), item.getDescription(), item.getAvailable(),
+                item.getOwnerId(), copy(item.getLastBooking()), copy(item.getNextBooking()),
+                item.getComments().stream()
+                        .map(comment -> new CommentDto(comment.getId(), comment.getText(), comment.getItemId(),
+                                comment.getAuthorId(), comment.getAuthorName(), comment.getCreated()))
+                        .collect(Collectors.toList()),
+                item.getRequestId());
+    }
+
+    private static BookingDto copy(BookingDto booking) {
+        if (booking == null) {
+            return null;
+        }
+        ItemDto item = booking.getItem();
+        UserDto booker = booking.getBooker();
+        return new BookingDto(booking.getId(), booking.getItemId(),
+                item == null ? null : copy(item),
+                booking.getOwnerId(), booking.getBookerId(),
+                booker == null ? null : new UserDto(booker.getId(), booker.getName(), booker.getEmail()),
+                booking.getStart(), booking.getEnd(), booking.getStatus());
+    }
+
+    @lombok.Value
+    public static class View {
+        ItemDto item;
+        LocalDateTime validUntil;
+    }
+
+    @lombok.Value
+    static class Key {
+        Long itemId;
+        boolean owner;
+    }
+
+    private static class ViewExpiry implements Expiry<Key, View> {
+
+        private final long ttlNanos;
+
+        ViewExpiry(Duration ttl) {
+            this.ttlNanos = ttl.toNanos();
+        }
+
+        @Override
+        public long expireAfterCreate(Key key, View view, long currentTime) {
+            if (view.getValidUntil() == null) {
+                return ttlNanos;
+            }
+            long untilNextBooking = Duration.between(LocalDateTime.now(), view.getValidUntil()).toNanos();
+            return Math.max(0, Math.min(ttlNanos, untilNextBooking));
+        }
+
+        @Override
+        public long expireAfterUpdate(Key key, View view, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, view, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(Key key, View view, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
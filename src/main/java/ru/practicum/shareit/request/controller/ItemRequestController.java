@@ -1,12 +1,21 @@
 package ru.practicum.shareit.request.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
+import ru.practicum.shareit.request.dto.RequestSuggestionDto;
 import ru.practicum.shareit.request.service.ItemRequestService;
+import ru.practicum.shareit.util.CountEstimateCache;
+import ru.practicum.shareit.util.CursorUtil;
 import ru.practicum.shareit.util.PageableUtil;
 
 import javax.validation.Valid;
@@ -19,7 +28,10 @@ import java.util.List;
 @RequestMapping(path = "/requests")
 public class ItemRequestController {
 
+    private static final int STREAM_BATCH_SIZE = 100;
+
     private final ItemRequestService itemRequestService;
+    private final ObjectMapper objectMapper;
 
     @PostMapping
     public ItemRequestDto addItemRequest(@Valid @RequestBody ItemRequestDto itemRequestDto,
@@ -34,16 +46,89 @@ public class ItemRequestController {
     }
 
     @GetMapping
-    public List<ItemRequestDto> getItemRequestsByUser(@RequestHeader("X-Sharer-User-Id") Long userId) {
-        return itemRequestService.getItemRequestsByUser(userId);
+    public ResponseEntity<List<ItemRequestDto>> getItemRequestsByUser(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                                      @PositiveOrZero @RequestParam(defaultValue = "0") int from,
+                                                      @Positive @RequestParam(defaultValue = "10") int size,
+                                                      @RequestParam(required = false) String after) {
+        Slice<ItemRequestDto> page;
+        if (after != null) {
+            page = toSlice(itemRequestService.getItemRequestsByUserAfter(userId, CursorUtil.decode(after), size + 1),
+                    size);
+        } else {
+            Pageable pageable = PageableUtil.createPageable(from, size, Sort.by(Sort.Direction.DESC, "id"));
+            page = itemRequestService.getItemRequestsByUser(userId, pageable);
+        }
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.hasNext()) {
+            response.header(CursorUtil.NEXT_CURSOR_HEADER,
+                    CursorUtil.encode(page.getContent().get(page.getNumberOfElements() - 1).getId()));
+        }
+        return response.body(page.getContent());
+    }
+
+    // первая пачка читается до начала ответа, чтобы ошибки вроде неизвестного пользователя вернулись статусом
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamItemRequestsByUser(
+            @RequestHeader("X-Sharer-User-Id") Long userId) {
+        List<ItemRequestDto> first = itemRequestService.getItemRequestsByUserAfter(userId, Long.MAX_VALUE,
+                STREAM_BATCH_SIZE);
+        StreamingResponseBody body = out -> {
+            List<ItemRequestDto> batch = first;
+            while (!batch.isEmpty()) {
+                for (ItemRequestDto request : batch) {
+                    out.write(objectMapper.writeValueAsBytes(request));
+                    out.write('\n');
+                }
+                out.flush();
+                if (batch.size() < STREAM_BATCH_SIZE) {
+                    break;
+                }
+                batch = itemRequestService.getItemRequestsByUserAfter(userId, batch.get(batch.size() - 1).getId(),
+                        STREAM_BATCH_SIZE);
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    @GetMapping("/suggestions")
+    public List<RequestSuggestionDto> getSuggestions(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                                     @PositiveOrZero @RequestParam(defaultValue = "0") int from,
+                                                     @Positive @RequestParam(defaultValue = "10") int size) {
+        return itemRequestService.getSuggestions(userId, PageableUtil.createPageable(from, size, Sort.unsorted()));
     }
 
     @GetMapping("/all")
-    public List<ItemRequestDto> getAllItemRequests(@RequestHeader("X-Sharer-User-Id") Long userId,
+    public ResponseEntity<List<ItemRequestDto>> getAllItemRequests(@RequestHeader("X-Sharer-User-Id") Long userId,
                                                    @PositiveOrZero @RequestParam(defaultValue = "0") int from,
-                                                   @Positive @RequestParam(defaultValue = "10") int size) {
-        Pageable pageable = PageableUtil.createPageable(from, size, Sort.by(Sort.Direction.DESC, "created"));
-        Page<ItemRequestDto> page = itemRequestService.getAllItemRequests(userId, pageable);
-        return page.getContent();
+                                                   @Positive @RequestParam(defaultValue = "10") int size,
+                                                   @RequestParam(defaultValue = "false") boolean total,
+                                                   @RequestParam(required = false) String after) {
+        Slice<ItemRequestDto> page;
+        if (after != null) {
+            page = toSlice(itemRequestService.getAllItemRequestsAfter(userId, CursorUtil.decode(after), size + 1),
+                    size);
+        } else {
+            Pageable pageable = PageableUtil.createPageable(from, size, Sort.by(Sort.Direction.DESC, "created"));
+            page = itemRequestService.getAllItemRequests(userId, pageable);
+        }
+        List<ItemRequestDto> requests = page.getContent();
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.hasNext()) {
+            response.header(CursorUtil.NEXT_CURSOR_HEADER,
+                    CursorUtil.encode(requests.get(requests.size() - 1).getId()));
+        }
+        if (total) {
+            response.header(CountEstimateCache.TOTAL_COUNT_HEADER,
+                    String.valueOf(itemRequestService.countItemRequests(userId)));
+        }
+        return response.body(requests);
+    }
+
+    // лишняя запись показывает, есть ли следующая страница
+    private static Slice<ItemRequestDto> toSlice(List<ItemRequestDto> requests, int size) {
+        boolean hasNext = requests.size() > size;
+        return new SliceImpl<>(hasNext ? requests.subList(0, size) : requests, PageRequest.of(0, size), hasNext);
     }
 }
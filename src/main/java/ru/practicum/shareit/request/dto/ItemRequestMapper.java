@@ -6,6 +6,7 @@ import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemMapper;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.request.repository.RequestSuggestionView;
 
 import java.time.LocalDateTime;
 import java.util.Collections;
@@ -19,6 +20,20 @@ public class ItemRequestMapper {
     private final ItemMapper itemMapper;
 
     public ItemRequestDto toItemRequestDto(ItemRequest itemRequest) {
+        if (itemRequest == null) {
+            return null;
+        }
+        List<Item> items = itemRequest.getItems();
+        if (items == null) {
+            return toItemRequestDto(itemRequest, Collections.emptyList());
+        }
+        return toItemRequestDto(itemRequest, items.stream()
+                .map(itemMapper::toItemDto)
+                .collect(Collectors.toList()));
+    }
+
+    // вещи передаются уже загруженными, чтобы не обходить ленивую коллекцию запроса
+    public ItemRequestDto toItemRequestDto(ItemRequest itemRequest, List<ItemDto> items) {
         if (itemRequest == null) {
             return null;
         }
@@ -27,18 +42,23 @@ public class ItemRequestMapper {
         dto.setDescription(itemRequest.getDescription());
         dto.setRequesterId(itemRequest.getRequester().getId());
         dto.setCreated(itemRequest.getCreated());
-        List<Item> items = itemRequest.getItems();
-        if (items != null) {
-            List<ItemDto> itemDtos = items.stream()
-                    .map(itemMapper::toItemDto)
-                    .collect(Collectors.toList());
-            dto.setItems(itemDtos);
-        } else {
-            dto.setItems(Collections.emptyList());
-        }
+        dto.setItems(items);
         return dto;
     }
 
+    public RequestSuggestionDto toRequestSuggestionDto(RequestSuggestionView view) {
+        if (view == null) {
+            return null;
+        }
+        ItemDto item = new ItemDto();
+        item.setId(view.getItemId());
+        item.setName(view.getItemName());
+        item.setDescription(view.getItemDescription());
+        item.setAvailable(view.getItemAvailable());
+        item.setOwnerId(view.getOwnerId());
+        return new RequestSuggestionDto(view.getId(), view.getRequestId(), item, view.getScore(), view.getCreated());
+    }
+
     public ItemRequest toItemRequest(ItemRequestDto itemRequestDto) {
         if (itemRequestDto == null) {
             return null;
@@ -0,0 +1,20 @@
+package ru.practicum.shareit.request.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import ru.practicum.shareit.item.dto.ItemDto;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RequestSuggestionDto {
+
+    private Long id;
+    private Long requestId;
+    private ItemDto item;
+    private Double score;
+    private LocalDateTime created;
+}
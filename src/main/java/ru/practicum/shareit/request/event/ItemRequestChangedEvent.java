@@ -0,0 +1,15 @@
+package ru.practicum.shareit.request.event;
+
+import lombok.Value;
+
+@Value
+public class ItemRequestChangedEvent {
+
+    Long requestId;
+    Type type;
+
+    public enum Type {
+        CREATED,
+        ITEM_ADDED
+    }
+}
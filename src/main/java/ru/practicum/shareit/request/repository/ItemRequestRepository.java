@@ -1,17 +1,39 @@
 package ru.practicum.shareit.request.repository;
 
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import ru.practicum.shareit.request.model.ItemRequest;
 
-import java.util.Collection;
+import java.util.List;
 
 public interface ItemRequestRepository extends JpaRepository<ItemRequest, Long> {
 
-    Collection<ItemRequest> findAllByRequesterId(Long userId);
+    @EntityGraph(attributePaths = "requester")
+    Slice<ItemRequest> findAllByRequesterId(Long userId, Pageable pageable);
 
-    @Query("SELECT ir FROM ItemRequest ir WHERE ir.requester.id <> :userId")
-    Page<ItemRequest> findAllExcludeUser(Long userId, Pageable pageable);
+    @EntityGraph(attributePaths = "requester")
+    List<ItemRequest> findAllByRequesterIdAndIdLessThan(Long userId, Long id, Pageable pageable);
+
+    @EntityGraph(attributePaths = "requester")
+    @Query("SELECT ir FROM ItemRequest ir ORDER BY ir.created DESC, ir.id DESC")
+    List<ItemRequest> findFeed(Pageable pageable);
+
+    // курсор ленты - id последнего запроса, его created берётся из той же строки
+    @EntityGraph(attributePaths = "requester")
+    @Query("SELECT ir FROM ItemRequest ir, ItemRequest c WHERE c.id = :afterId " +
+            "AND (ir.created < c.created OR (ir.created = c.created AND ir.id < c.id)) " +
+            "ORDER BY ir.created DESC, ir.id DESC")
+    List<ItemRequest> findFeedAfter(Long afterId, Pageable pageable);
+
+    // открытыми считаются запросы, на которые ещё не ответили ни одной вещью
+    @Query("SELECT ir.id AS id, ir.requester.id AS requesterId, ir.description AS description " +
+            "FROM ItemRequest ir WHERE ir.id > :afterId " +
+            "AND NOT EXISTS (SELECT i.id FROM Item i WHERE i.request = ir) ORDER BY ir.id")
+    List<OpenRequestView> findOpenRequestViews(Long afterId, Pageable pageable);
+
+    @Query("SELECT COUNT(ir) FROM ItemRequest ir WHERE ir.requester.id <> :userId")
+    long countAllExcludeUser(Long userId);
 }
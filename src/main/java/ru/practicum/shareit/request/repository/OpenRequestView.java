@@ -0,0 +1,10 @@
+package ru.practicum.shareit.request.repository;
+
+public interface OpenRequestView {
+
+    Long getId();
+
+    Long getRequesterId();
+
+    String getDescription();
+}
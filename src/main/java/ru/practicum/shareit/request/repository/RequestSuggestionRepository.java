@@ -0,0 +1,20 @@
+package ru.practicum.shareit.request.repository;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import ru.practicum.shareit.request.model.RequestSuggestion;
+
+import java.util.List;
+
+public interface RequestSuggestionRepository extends JpaRepository<RequestSuggestion, Long> {
+
+    boolean existsByRequestIdAndItemId(Long requestId, Long itemId);
+
+    @Query("SELECT s.id AS id, r.id AS requestId, i.id AS itemId, i.name AS itemName, " +
+            "i.description AS itemDescription, i.available AS itemAvailable, i.owner.id AS ownerId, " +
+            "s.score AS score, s.created AS created " +
+            "FROM RequestSuggestion s JOIN s.request r JOIN s.item i " +
+            "WHERE r.requester.id = :userId ORDER BY s.id DESC")
+    List<RequestSuggestionView> findViewsByRequesterId(Long userId, Pageable pageable);
+}
@@ -0,0 +1,24 @@
+package ru.practicum.shareit.request.repository;
+
+import java.time.LocalDateTime;
+
+public interface RequestSuggestionView {
+
+    Long getId();
+
+    Long getRequestId();
+
+    Long getItemId();
+
+    String getItemName();
+
+    String getItemDescription();
+
+    Boolean getItemAvailable();
+
+    Long getOwnerId();
+
+    Double getScore();
+
+    LocalDateTime getCreated();
+}
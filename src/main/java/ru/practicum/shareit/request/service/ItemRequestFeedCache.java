@@ -0,0 +1,104 @@
+package ru.practicum.shareit.request.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.event.ItemChangedEvent;
+import ru.practicum.shareit.request.dto.ItemRequestDto;
+import ru.practicum.shareit.request.event.ItemRequestChangedEvent;
+import ru.practicum.shareit.util.VersionedLoader;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+@Component
+public class ItemRequestFeedCache {
+
+    public static final String CACHE_NAME = "itemRequestFeed";
+
+    private static final String NEWEST = "newest";
+
+    private final Cache<String, List<ItemRequestDto>> heads;
+    private final int size;
+    private final VersionedLoader versionedLoader = new VersionedLoader();
+
+    public ItemRequestFeedCache(@Value("${shareit.request.feed-cache.ttl:30s}") Duration ttl,
+                                @Value("${shareit.request.feed-cache.size:100}") int size,
+                                MeterRegistry meterRegistry) {
+        this.heads = Caffeine.newBuilder()
+                .maximumSize(1)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        this.size = size;
+        CaffeineCacheMetrics.monitor(meterRegistry, heads, CACHE_NAME);
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public List<ItemRequestDto> getNewest(Supplier<List<ItemRequestDto>> loader) {
+        List<ItemRequestDto> cached = heads.getIfPresent(NEWEST);
+        if (cached != null) {
+            return copy(cached);
+        }
+        return copy(versionedLoader.load(() -> copy(loader.get()), loaded -> heads.put(NEWEST, loaded)));
+    }
+
+    public void evict() {
+        versionedLoader.invalidate(heads::invalidateAll);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onItemRequestChanged(ItemRequestChangedEvent event) {
+        evict();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onItemChanged(ItemChangedEvent event) {
+        if (event.getType() != ItemChangedEvent.Type.UPDATED) {
+            return;
+        }
+        // ленту, загружаемую во время обновления, нельзя проверить на эту вещь, поэтому версия растёт всегда
+        versionedLoader.invalidate(() -> {
+            if (containsItem(event.getItemId())) {
+                heads.invalidateAll();
+            }
+        });
+    }
+
+    private boolean containsItem(Long itemId) {
+        List<ItemRequestDto> cached = heads.getIfPresent(NEWEST);
+        return cached != null && cached.stream()
+                .flatMap(request -> request.getItems().stream())
+                .anyMatch(item -> itemId.equals(item.getId()));
+    }
+
+    private static List<ItemRequestDto> copy(List<ItemRequestDto> requests) {
+        return requests.stream()
+                .map(request -> new ItemRequestDto(request.getId(), request.getDescription(),
+                        request.getRequesterId(), request.getCreated(), request.getItems().stream()
+                        .map(ItemRequestFeedCache::copy)
+                        .collect(Collectors.toList())))
+                .collect(Collectors.toList());
+    }
+
+    private static ItemDto copy(ItemDto item) {
+        ItemDto copy = new ItemDto();
+        copy.setId(item.getId());
+        copy.setName(item.getName());
+        copy.setDescription(item.getDescription());
+        copy.setAvailable(item.getAvailable());
+        copy.setOwnerId(item.getOwnerId());
+        copy.setRequestId(item.getRequestId());
+        return copy;
+    }
+}
@@ -1,8 +1,9 @@
 package ru.practicum.shareit.request.service;
 
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
+import ru.practicum.shareit.request.dto.RequestSuggestionDto;
 
 import java.util.List;
 
@@ -10,9 +11,17 @@ public interface ItemRequestService {
 
     ItemRequestDto addItemRequest(ItemRequestDto itemRequestDto, Long userId);
 
-    List<ItemRequestDto> getItemRequestsByUser(Long userId);
+    Slice<ItemRequestDto> getItemRequestsByUser(Long userId, Pageable pageable);
 
-    Page<ItemRequestDto> getAllItemRequests(Long userId, Pageable pageable);
+    List<ItemRequestDto> getItemRequestsByUserAfter(Long userId, Long afterId, int size);
+
+    Slice<ItemRequestDto> getAllItemRequests(Long userId, Pageable pageable);
+
+    List<ItemRequestDto> getAllItemRequestsAfter(Long userId, Long afterId, int size);
+
+    long countItemRequests(Long userId);
 
     ItemRequestDto getItemRequestById(Long userId, Long requestId);
+
+    List<RequestSuggestionDto> getSuggestions(Long userId, Pageable pageable);
 }
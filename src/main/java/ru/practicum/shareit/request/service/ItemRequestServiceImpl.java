@@ -2,21 +2,38 @@ package ru.practicum.shareit.request.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.Page;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.exception.ItemRequestNotFoundException;
 import ru.practicum.shareit.exception.UserNotFoundException;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemMapper;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.repository.RequestItemView;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.dto.ItemRequestMapper;
+import ru.practicum.shareit.request.dto.RequestSuggestionDto;
+import ru.practicum.shareit.request.event.ItemRequestChangedEvent;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.request.repository.ItemRequestRepository;
+import ru.practicum.shareit.request.repository.RequestSuggestionRepository;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.util.CountEstimateCache;
+import ru.practicum.shareit.util.IdentityCache;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
@@ -24,9 +41,18 @@ import java.util.stream.Collectors;
 @Slf4j
 public class ItemRequestServiceImpl implements ItemRequestService {
 
+    private static final int FEED_BATCH_SIZE = 100;
+
     private final ItemRequestRepository itemRequestRepository;
     private final ItemRequestMapper itemRequestMapper;
     private final UserRepository userRepository;
+    private final RequestSuggestionRepository requestSuggestionRepository;
+    private final ItemRepository itemRepository;
+    private final ItemMapper itemMapper;
+    private final CountEstimateCache countEstimateCache;
+    private final IdentityCache identityCache;
+    private final ItemRequestFeedCache itemRequestFeedCache;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Transactional
     public ItemRequestDto addItemRequest(ItemRequestDto itemRequestDto, Long userId) {
@@ -36,30 +62,139 @@ public class ItemRequestServiceImpl implements ItemRequestService {
         itemRequest.setRequester(user);
         itemRequest.setCreated(LocalDateTime.now());
         itemRequest = itemRequestRepository.save(itemRequest);
+        eventPublisher.publishEvent(new ItemRequestChangedEvent(itemRequest.getId(),
+                ItemRequestChangedEvent.Type.CREATED));
         return itemRequestMapper.toItemRequestDto(itemRequest);
     }
 
     @Transactional(readOnly = true)
-    public List<ItemRequestDto> getItemRequestsByUser(Long userId) {
-        userRepository.findById(userId)
-                .orElseThrow(UserNotFoundException::new);
-        return itemRequestRepository.findAllByRequesterId(userId)
-                .stream()
-                .map(itemRequestMapper::toItemRequestDto)
-                .collect(Collectors.toList());
+    public Slice<ItemRequestDto> getItemRequestsByUser(Long userId, Pageable pageable) {
+        if (!identityCache.userExists(userId)) {
+            throw new UserNotFoundException();
+        }
+        Slice<ItemRequest> page = itemRequestRepository.findAllByRequesterId(userId, pageable);
+        return new SliceImpl<>(toItemRequestDtos(page.getContent()), pageable, page.hasNext());
+    }
+
+    @Transactional(readOnly = true)
+    public List<ItemRequestDto> getItemRequestsByUserAfter(Long userId, Long afterId, int size) {
+        if (!identityCache.userExists(userId)) {
+            throw new UserNotFoundException();
+        }
+        return toItemRequestDtos(itemRequestRepository.findAllByRequesterIdAndIdLessThan(userId, afterId,
+                PageRequest.of(0, size, Sort.by(Sort.Direction.DESC, "id"))));
+    }
+
+    @Transactional(readOnly = true)
+    public Slice<ItemRequestDto> getAllItemRequests(Long userId, Pageable pageable) {
+        // лишняя запись показывает, есть ли следующая страница
+        List<ItemRequestDto> requests = readFeed(userId, null, pageable.getOffset(), pageable.getPageSize() + 1);
+        boolean hasNext = requests.size() > pageable.getPageSize();
+        if (hasNext) {
+            requests = requests.subList(0, pageable.getPageSize());
+        }
+        return new SliceImpl<>(requests, pageable, hasNext);
+    }
+
+    @Transactional(readOnly = true)
+    public List<ItemRequestDto> getAllItemRequestsAfter(Long userId, Long afterId, int size) {
+        return readFeed(userId, afterId, 0, size);
     }
 
     @Transactional(readOnly = true)
-    public Page<ItemRequestDto> getAllItemRequests(Long userId, Pageable pageable) {
-        return itemRequestRepository.findAllExcludeUser(userId, pageable)
-                .map(itemRequestMapper::toItemRequestDto);
+    public long countItemRequests(Long userId) {
+        return countEstimateCache.get("requests:others:" + userId,
+                () -> itemRequestRepository.countAllExcludeUser(userId));
     }
 
     @Transactional(readOnly = true)
     public ItemRequestDto getItemRequestById(Long userId, Long requestId) {
-        userRepository.findById(userId).orElseThrow(UserNotFoundException::new);
+        if (!identityCache.userExists(userId)) {
+            throw new UserNotFoundException();
+        }
         ItemRequest itemRequest = itemRequestRepository.findById(requestId)
                 .orElseThrow(ItemRequestNotFoundException::new);
         return itemRequestMapper.toItemRequestDto(itemRequest);
     }
+
+    @Transactional(readOnly = true)
+    public List<RequestSuggestionDto> getSuggestions(Long userId, Pageable pageable) {
+        if (!identityCache.userExists(userId)) {
+            throw new UserNotFoundException();
+        }
+        return requestSuggestionRepository.findViewsByRequesterId(userId, pageable).stream()
+                .map(itemRequestMapper::toRequestSuggestionDto)
+                .collect(Collectors.toList());
+    }
+
+    // лента читается по индексу (created, id) без условия на автора, а свои запросы отбрасываются после чтения,
+    // поэтому начало ленты одинаково для всех и берётся из общего кэша
+    private List<ItemRequestDto> readFeed(Long userId, Long afterId, long skip, int limit) {
+        List<ItemRequestDto> result = new ArrayList<>();
+        long toSkip = skip;
+        Long cursor = afterId;
+        if (cursor == null) {
+            int headSize = itemRequestFeedCache.getSize();
+            List<ItemRequestDto> head = itemRequestFeedCache.getNewest(() -> toItemRequestDtos(
+                    itemRequestRepository.findFeed(PageRequest.of(0, headSize))));
+            for (ItemRequestDto request : head) {
+                if (userId.equals(request.getRequesterId())) {
+                    continue;
+                }
+                if (toSkip > 0) {
+                    toSkip--;
+                    continue;
+                }
+                result.add(request);
+                if (result.size() == limit) {
+                    return result;
+                }
+            }
+            if (head.size() < headSize) {
+                return result;
+            }
+            cursor = head.get(head.size() - 1).getId();
+        }
+        List<ItemRequest> selected = new ArrayList<>();
+        int batchSize = Math.max(limit, FEED_BATCH_SIZE);
+        while (result.size() + selected.size() < limit) {
+            List<ItemRequest> batch = itemRequestRepository.findFeedAfter(cursor, PageRequest.of(0, batchSize));
+            for (ItemRequest itemRequest : batch) {
+                if (userId.equals(itemRequest.getRequester().getId())) {
+                    continue;
+                }
+                if (toSkip > 0) {
+                    toSkip--;
+                    continue;
+                }
+                selected.add(itemRequest);
+                if (result.size() + selected.size() == limit) {
+                    break;
+                }
+            }
+            if (batch.size() < batchSize) {
+                break;
+            }
+            cursor = batch.get(batch.size() - 1).getId();
+        }
+        result.addAll(toItemRequestDtos(selected));
+        return result;
+    }
+
+    // вещи всех запросов страницы загружаются одним запросом, а не обходом ленивой коллекции каждого из них
+    private List<ItemRequestDto> toItemRequestDtos(Collection<ItemRequest> itemRequests) {
+        if (itemRequests.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<Long> requestIds = itemRequests.stream()
+                .map(ItemRequest::getId)
+                .collect(Collectors.toList());
+        Map<Long, List<ItemDto>> itemsByRequest = itemRepository.findRequestItemViews(requestIds).stream()
+                .collect(Collectors.groupingBy(RequestItemView::getRequestId,
+                        Collectors.mapping(itemMapper::toRequestItemDto, Collectors.toList())));
+        return itemRequests.stream()
+                .map(itemRequest -> itemRequestMapper.toItemRequestDto(itemRequest,
+                        itemsByRequest.getOrDefault(itemRequest.getId(), Collections.emptyList())))
+                .collect(Collectors.toList());
+    }
 }
@@ -0,0 +1,189 @@
+package ru.practicum.shareit.request.service;
+
+import lombok.Value;
+import org.roaringbitmap.IntIterator;
+import org.roaringbitmap.RoaringBitmap;
+import ru.practicum.shareit.item.analysis.TextAnalyzer;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// не потокобезопасен: RequestMatchingEngine обращается к нему только из своего рабочего потока
+public class RequestMatchIndex {
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final TextAnalyzer analyzer;
+    private final Map<Long, Integer> slotsByRequest = new HashMap<>();
+    private final Deque<Integer> freeSlots = new ArrayDeque<>();
+    private final Map<String, Integer> termIds = new HashMap<>();
+    private final Deque<Integer> freeTermIds = new ArrayDeque<>();
+    private final List<String> terms = new ArrayList<>();
+    private final List<RoaringBitmap> postings = new ArrayList<>();
+    private long[] requestIds = new long[INITIAL_CAPACITY];
+    private long[] requesterIds = new long[INITIAL_CAPACITY];
+    private int[][] termsBySlot = new int[INITIAL_CAPACITY][];
+    private int slotCount;
+    // рабочие массивы match переиспользуются между вызовами, веса терминов считаются один раз за вызов
+    private double[] covered = new double[INITIAL_CAPACITY];
+    private int[] touched = new int[INITIAL_CAPACITY];
+    private double[] weights = new double[INITIAL_CAPACITY];
+    private int[] weightStamps = new int[INITIAL_CAPACITY];
+    private int stamp;
+
+    public RequestMatchIndex(TextAnalyzer analyzer) {
+        this.analyzer = analyzer;
+    }
+
+    public void add(Long requestId, Long requesterId, String description) {
+        remove(requestId);
+        Set<String> requestTerms = new LinkedHashSet<>(analyzer.analyze(description));
+        if (requestTerms.isEmpty()) {
+            return;
+        }
+        int slot = freeSlots.isEmpty() ? slotCount++ : freeSlots.pop();
+        ensureSlotCapacity(slotCount);
+        int[] ids = new int[requestTerms.size()];
+        int i = 0;
+        for (String term : requestTerms) {
+            int termId = termId(term);
+            postings.get(termId).add(slot);
+            ids[i++] = termId;
+        }
+        slotsByRequest.put(requestId, slot);
+        requestIds[slot] = requestId;
+        requesterIds[slot] = requesterId;
+        termsBySlot[slot] = ids;
+    }
+
+    public void remove(Long requestId) {
+        Integer slot = slotsByRequest.remove(requestId);
+        if (slot == null) {
+            return;
+        }
+        for (int termId : termsBySlot[slot]) {
+            RoaringBitmap slots = postings.get(termId);
+            slots.remove(slot);
+            if (slots.isEmpty()) {
+                termIds.remove(terms.get(termId));
+                terms.set(termId, null);
+                freeTermIds.push(termId);
+            }
+        }
+        termsBySlot[slot] = null;
+        freeSlots.push(slot);
+    }
+
+    public void clear() {
+        slotsByRequest.clear();
+        freeSlots.clear();
+        termIds.clear();
+        freeTermIds.clear();
+        terms.clear();
+        postings.clear();
+        Arrays.fill(termsBySlot, null);
+        slotCount = 0;
+    }
+
+    public int size() {
+        return slotsByRequest.size();
+    }
+
+    public List<Match> match(Long ownerId, String name, String description, double minScore, int limit) {
+        Set<String> itemTerms = new LinkedHashSet<>(analyzer.analyze(name));
+        itemTerms.addAll(analyzer.analyze(description));
+        stamp++;
+        int touchedCount = 0;
+        for (String term : itemTerms) {
+            Integer termId = termIds.get(term);
+            if (termId == null) {
+                continue;
+            }
+            double weight = weight(termId);
+            IntIterator slots = postings.get(termId).getIntIterator();
+            while (slots.hasNext()) {
+                int slot = slots.next();
+                if (covered[slot] == 0) {
+                    touched[touchedCount++] = slot;
+                }
+                covered[slot] += weight;
+            }
+        }
+        List<Match> matches = new ArrayList<>();
+        for (int i = 0; i < touchedCount; i++) {
+            int slot = touched[i];
+            double share = covered[slot];
+            covered[slot] = 0;
+            if (ownerId != null && requesterIds[slot] == ownerId) {
+                continue;
+            }
+            double total = 0;
+            for (int termId : termsBySlot[slot]) {
+                total += weight(termId);
+            }
+            double score = share / total;
+            if (score >= minScore) {
+                matches.add(new Match(requestIds[slot], score));
+            }
+        }
+        matches.sort(Comparator.comparingDouble(Match::getScore).reversed()
+                .thenComparing(Match::getRequestId));
+        return matches.size() > limit ? new ArrayList<>(matches.subList(0, limit)) : matches;
+    }
+
+    private double weight(int termId) {
+        if (weightStamps[termId] != stamp) {
+            weightStamps[termId] = stamp;
+            weights[termId] = Math.log(1 + (double) slotsByRequest.size() / postings.get(termId).getCardinality());
+        }
+        return weights[termId];
+    }
+
+    private int termId(String term) {
+        Integer existing = termIds.get(term);
+        if (existing != null) {
+            return existing;
+        }
+        int termId;
+        if (freeTermIds.isEmpty()) {
+            termId = terms.size();
+            terms.add(term);
+            postings.add(new RoaringBitmap());
+            if (termId >= weights.length) {
+                weights = Arrays.copyOf(weights, weights.length * 2);
+                weightStamps = Arrays.copyOf(weightStamps, weightStamps.length * 2);
+            }
+        } else {
+            termId = freeTermIds.pop();
+            terms.set(termId, term);
+        }
+        termIds.put(term, termId);
+        return termId;
+    }
+
+    private void ensureSlotCapacity(int capacity) {
+        if (capacity <= requestIds.length) {
+            return;
+        }
+        int length = Math.max(capacity, requestIds.length * 2);
+        requestIds = Arrays.copyOf(requestIds, length);
+        requesterIds = Arrays.copyOf(requesterIds, length);
+        termsBySlot = Arrays.copyOf(termsBySlot, length);
+        covered = Arrays.copyOf(covered, length);
+        touched = Arrays.copyOf(touched, length);
+    }
+
+    @Value
+    public static class Match {
+        Long requestId;
+        double score;
+    }
+}
@@ -0,0 +1,178 @@
+package ru.practicum.shareit.request.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ru.practicum.shareit.item.analysis.TextAnalyzer;
+import ru.practicum.shareit.item.event.ItemChangedEvent;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.repository.RequestItemView;
+import ru.practicum.shareit.request.event.ItemRequestChangedEvent;
+import ru.practicum.shareit.request.model.RequestSuggestion;
+import ru.practicum.shareit.request.repository.ItemRequestRepository;
+import ru.practicum.shareit.request.repository.OpenRequestView;
+import ru.practicum.shareit.request.repository.RequestSuggestionRepository;
+
+import javax.annotation.PreDestroy;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+@Slf4j
+@Component
+public class RequestMatchingEngine {
+
+    private final ItemRequestRepository itemRequestRepository;
+    private final ItemRepository itemRepository;
+    private final RequestSuggestionRepository requestSuggestionRepository;
+    private final RequestMatchIndex index;
+    private final ThreadPoolExecutor executor;
+    private final Timer matchTimer;
+    private final Counter matchedItems;
+    private final Counter suggestions;
+    private final Counter dropped;
+    private volatile int openRequests;
+
+    @Value("${shareit.request.matching.enabled:true}")
+    private boolean enabled;
+
+    @Value("${shareit.request.matching.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${shareit.request.matching.min-score:0.5}")
+    private double minScore;
+
+    @Value("${shareit.request.matching.max-per-item:20}")
+    private int maxPerItem;
+
+    public RequestMatchingEngine(ItemRequestRepository itemRequestRepository, ItemRepository itemRepository,
+                                 RequestSuggestionRepository requestSuggestionRepository, TextAnalyzer analyzer,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${shareit.request.matching.queue-capacity:10000}") int queueCapacity) {
+        this.itemRequestRepository = itemRequestRepository;
+        this.itemRepository = itemRepository;
+        this.requestSuggestionRepository = requestSuggestionRepository;
+        this.index = new RequestMatchIndex(analyzer);
+        this.matchTimer = Timer.builder("shareit.request.matching.match").register(meterRegistry);
+        this.matchedItems = Counter.builder("shareit.request.matching.items").register(meterRegistry);
+        this.suggestions = Counter.builder("shareit.request.matching.suggestions").register(meterRegistry);
+        this.dropped = Counter.builder("shareit.request.matching.dropped").register(meterRegistry);
+        this.executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "request-matching");
+                    thread.setDaemon(true);
+                    return thread;
+                }, (runnable, pool) -> {
+                    dropped.increment();
+                    log.warn("Request matching queue is full, task dropped");
+                });
+        Gauge.builder("shareit.request.matching.queue", executor, pool -> pool.getQueue().size())
+                .register(meterRegistry);
+        Gauge.builder("shareit.request.matching.open-requests", this, engine -> engine.openRequests)
+                .register(meterRegistry);
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void build() {
+        submit(this::buildIndex);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onItemRequestChanged(ItemRequestChangedEvent event) {
+        Long requestId = event.getRequestId();
+        if (event.getType() == ItemRequestChangedEvent.Type.CREATED) {
+            submit(() -> openRequest(requestId));
+        } else {
+            submit(() -> closeRequest(requestId));
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onItemChanged(ItemChangedEvent event) {
+        if (event.getType() != ItemChangedEvent.Type.COMMENTED) {
+            Long itemId = event.getItemId();
+            submit(() -> matchItem(itemId));
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    void buildIndex() {
+        index.clear();
+        long afterId = 0;
+        List<OpenRequestView> batch;
+        do {
+            batch = itemRequestRepository.findOpenRequestViews(afterId, PageRequest.of(0, batchSize));
+            for (OpenRequestView view : batch) {
+                index.add(view.getId(), view.getRequesterId(), view.getDescription());
+                afterId = view.getId();
+            }
+        } while (batch.size() == batchSize);
+        openRequests = index.size();
+        log.info("RequestMatchIndex built: {} open requests", openRequests);
+    }
+
+    void openRequest(Long requestId) {
+        itemRequestRepository.findById(requestId).ifPresent(request ->
+                index.add(request.getId(), request.getRequester().getId(), request.getDescription()));
+        openRequests = index.size();
+    }
+
+    void closeRequest(Long requestId) {
+        index.remove(requestId);
+        openRequests = index.size();
+    }
+
+    void matchItem(Long itemId) {
+        Optional<RequestItemView> found = itemRepository.findRequestItemViewById(itemId);
+        if (found.isEmpty() || !Boolean.TRUE.equals(found.get().getAvailable())) {
+            return;
+        }
+        RequestItemView item = found.get();
+        List<RequestMatchIndex.Match> matches = matchTimer.record(() -> index.match(item.getOwnerId(),
+                item.getName(), item.getDescription(), minScore, maxPerItem));
+        matchedItems.increment();
+        for (RequestMatchIndex.Match match : matches) {
+            // повторное обновление вещи не должно дублировать уже записанные совпадения
+            if (match.getRequestId().equals(item.getRequestId())
+                    || requestSuggestionRepository.existsByRequestIdAndItemId(match.getRequestId(), itemId)) {
+                continue;
+            }
+            requestSuggestionRepository.save(new RequestSuggestion(null,
+                    itemRequestRepository.getReferenceById(match.getRequestId()),
+                    itemRepository.getReferenceById(itemId), match.getScore(), LocalDateTime.now()));
+            suggestions.increment();
+        }
+    }
+
+    private void submit(Runnable task) {
+        if (!enabled) {
+            return;
+        }
+        executor.execute(() -> {
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                log.error("Request matching task failed", e);
+            }
+        });
+    }
+}
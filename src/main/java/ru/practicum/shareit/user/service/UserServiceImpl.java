@@ -5,6 +5,7 @@ import org.springframework.stereotype.Service;
 import ru.practicum.shareit.exception.UserNotFoundException;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.util.IdentityCache;
 
 import java.util.List;
 
@@ -13,13 +14,16 @@ import java.util.List;
 public class UserServiceImpl implements UserService {
 
     private final UserRepository userRepository;
+    private final IdentityCache identityCache;
 
     @Override
     public User saveUser(User user) {
         if (user == null) {
             throw new IllegalArgumentException("User must not be null");
         }
-        return userRepository.save(user);
+        User savedUser = userRepository.save(user);
+        identityCache.userSaved(savedUser.getId());
+        return savedUser;
     }
 
     @Override
@@ -47,10 +51,11 @@ public class UserServiceImpl implements UserService {
         userRepository.findById(userId)
                 .orElseThrow(UserNotFoundException::new);
         userRepository.deleteById(userId);
+        identityCache.userDeleted(userId);
     }
 
     @Override
     public boolean isUserExist(long userId) {
-        return userRepository.existsById(userId);
+        return identityCache.userExists(userId);
     }
 }
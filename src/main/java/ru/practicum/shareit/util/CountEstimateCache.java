@@ -0,0 +1,29 @@
+package ru.practicum.shareit.util;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+@Component
+public class CountEstimateCache {
+
+    public static final String TOTAL_COUNT_HEADER = "X-Total-Count";
+
+    private final Cache<String, Long> counts;
+
+    public CountEstimateCache(@Value("${shareit.pagination.count-cache.ttl:30s}") Duration ttl,
+                              @Value("${shareit.pagination.count-cache.max-size:10000}") long maxSize) {
+        this.counts = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumSize(maxSize)
+                .build();
+    }
+
+    public long get(String key, Supplier<Long> counter) {
+        return counts.get(key, k -> counter.get());
+    }
+}
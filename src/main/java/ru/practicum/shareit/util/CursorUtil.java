@@ -0,0 +1,25 @@
+package ru.practicum.shareit.util;
+
+import ru.practicum.shareit.exception.InvalidPaginationParameterException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+public class CursorUtil {
+
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    public static String encode(Long id) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(String.valueOf(id).getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static Long decode(String cursor) {
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            return Long.parseLong(decoded);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidPaginationParameterException("Pagination cursor '" + cursor + "' is malformed.");
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package ru.practicum.shareit.util;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class DatabasePlatform {
+
+    private final DataSource dataSource;
+    private boolean postgres;
+
+    @PostConstruct
+    void detect() {
+        try (Connection connection = dataSource.getConnection()) {
+            String product = connection.getMetaData().getDatabaseProductName();
+            postgres = "PostgreSQL".equalsIgnoreCase(product);
+            log.info("Detected database platform: {}", product);
+        } catch (SQLException e) {
+            log.warn("Unable to detect database platform, falling back to portable SQL", e);
+        }
+    }
+
+    public boolean isPostgres() {
+        return postgres;
+    }
+}
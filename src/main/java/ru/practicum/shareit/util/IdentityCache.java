@@ -0,0 +1,93 @@
+package ru.practicum.shareit.util;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.function.Predicate;
+
+@Component
+public class IdentityCache {
+
+    private final UserRepository userRepository;
+    private final ItemRepository itemRepository;
+    private final Cache<Long, Boolean> users;
+    private final Cache<Long, Optional<Long>> itemOwners;
+
+    public IdentityCache(UserRepository userRepository,
+                         ItemRepository itemRepository,
+                         @Value("${shareit.identity-cache.ttl:10m}") Duration ttl,
+                         @Value("${shareit.identity-cache.negative-ttl:5s}") Duration negativeTtl,
+                         @Value("${shareit.identity-cache.max-size:100000}") long maxSize) {
+        this.userRepository = userRepository;
+        this.itemRepository = itemRepository;
+        this.users = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new AnswerExpiry<Boolean>(Boolean::booleanValue, ttl, negativeTtl))
+                .build();
+        this.itemOwners = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new AnswerExpiry<Optional<Long>>(Optional::isPresent, ttl, negativeTtl))
+                .build();
+    }
+
+    // кэшируются и отрицательные ответы, поэтому каждая запись, меняющая их, должна обновить кэш;
+    // запись на другом узле их не сбросит, поэтому они живут лишь несколько секунд
+    public boolean userExists(Long userId) {
+        return users.get(userId, userRepository::existsById);
+    }
+
+    public Optional<Long> findItemOwnerId(Long itemId) {
+        return itemOwners.get(itemId, itemRepository::findOwnerIdById);
+    }
+
+    public boolean isItemOwnedBy(Long itemId, Long userId) {
+        return findItemOwnerId(itemId).map(userId::equals).orElse(false);
+    }
+
+    public void userSaved(Long userId) {
+        users.put(userId, true);
+    }
+
+    public void userDeleted(Long userId) {
+        users.put(userId, false);
+    }
+
+    public void itemSaved(Long itemId, Long ownerId) {
+        itemOwners.put(itemId, Optional.of(ownerId));
+    }
+
+    private static class AnswerExpiry<V> implements Expiry<Long, V> {
+
+        private final Predicate<V> positive;
+        private final long ttlNanos;
+        private final long negativeTtlNanos;
+
+        AnswerExpiry(Predicate<V> positive, Duration ttl, Duration negativeTtl) {
+            this.positive = positive;
+            this.ttlNanos = ttl.toNanos();
+            this.negativeTtlNanos = negativeTtl.toNanos();
+        }
+
+        @Override
+        public long expireAfterCreate(Long key, V value, long currentTime) {
+            return positive.test(value) ? ttlNanos : negativeTtlNanos;
+        }
+
+        @Override
+        public long expireAfterUpdate(Long key, V value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(Long key, V value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
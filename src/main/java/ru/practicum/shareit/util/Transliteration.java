@@ -0,0 +1,38 @@
+package ru.practicum.shareit.util;
+
+import java.util.HashMap;
+import java.util.Map;
+
+public final class Transliteration {
+
+    private static final Map<Character, String> CYRILLIC_TO_LATIN = new HashMap<>();
+
+    static {
+        String[][] letters = {
+                {"а", "a"}, {"б", "b"}, {"в", "v"}, {"г", "g"}, {"д", "d"}, {"е", "e"}, {"ё", "e"},
+                {"ж", "zh"}, {"з", "z"}, {"и", "i"}, {"й", "y"}, {"к", "k"}, {"л", "l"}, {"м", "m"},
+                {"н", "n"}, {"о", "o"}, {"п", "p"}, {"р", "r"}, {"с", "s"}, {"т", "t"}, {"у", "u"},
+                {"ф", "f"}, {"х", "kh"}, {"ц", "ts"}, {"ч", "ch"}, {"ш", "sh"}, {"щ", "shch"},
+                {"ъ", ""}, {"ы", "y"}, {"ь", ""}, {"э", "e"}, {"ю", "yu"}, {"я", "ya"}};
+        for (String[] letter : letters) {
+            CYRILLIC_TO_LATIN.put(letter[0].charAt(0), letter[1]);
+        }
+    }
+
+    private Transliteration() {
+    }
+
+    public static String toLatin(String word) {
+        StringBuilder latin = new StringBuilder(word.length() + 4);
+        for (int i = 0; i < word.length(); i++) {
+            char c = word.charAt(i);
+            String replacement = CYRILLIC_TO_LATIN.get(c);
+            if (replacement != null) {
+                latin.append(replacement);
+            } else {
+                latin.append(c);
+            }
+        }
+        return latin.toString();
+    }
+}
@@ -0,0 +1,29 @@
+package ru.practicum.shareit.util;
+
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+public class VersionedLoader {
+
+    private long version;
+
+    public <T> T load(Supplier<T> loader, Consumer<T> store) {
+        long loadVersion;
+        synchronized (this) {
+            loadVersion = version;
+        }
+        T loaded = loader.get();
+        synchronized (this) {
+            // запись, завершившаяся во время загрузки, могла изменить результат, поэтому он не кэшируется
+            if (loadVersion == version) {
+                store.accept(loaded);
+            }
+        }
+        return loaded;
+    }
+
+    public synchronized void invalidate(Runnable eviction) {
+        version++;
+        eviction.run();
+    }
+}
@@ -0,0 +1,11 @@
+CREATE EXTENSION IF NOT EXISTS btree_gist;
+
+ALTER TABLE bookings ADD COLUMN IF NOT EXISTS period TSRANGE
+  GENERATED ALWAYS AS (tsrange(start, "end", '[)')) STORED;
+
+DO 'BEGIN
+  IF NOT EXISTS (SELECT 1 FROM pg_constraint WHERE conname = ''ex_booking_item_period'') THEN
+    ALTER TABLE bookings ADD CONSTRAINT ex_booking_item_period
+      EXCLUDE USING gist (item_id WITH =, period WITH &&) WHERE (status IN (''WAITING'', ''APPROVED''));
+  END IF;
+END';
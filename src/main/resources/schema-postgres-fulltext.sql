@@ -0,0 +1,11 @@
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+ALTER TABLE items ADD COLUMN IF NOT EXISTS search_vector TSVECTOR
+  GENERATED ALWAYS AS (setweight(to_tsvector('simple', coalesce(name, '')), 'A') ||
+                       setweight(to_tsvector('simple', coalesce(description, '')), 'B')) STORED;
+
+CREATE INDEX IF NOT EXISTS idx_item_search_vector ON items USING gin (search_vector);
+
+CREATE INDEX IF NOT EXISTS idx_item_name_trgm ON items USING gin (name gin_trgm_ops);
+
+CREATE INDEX IF NOT EXISTS idx_item_description_trgm ON items USING gin (description gin_trgm_ops);
@@ -12,10 +12,13 @@ CREATE TABLE IF NOT EXISTS items (
   description TEXT NOT NULL,
   available BOOLEAN NOT NULL,
   owner_id BIGINT NOT NULL,
+  created TIMESTAMP DEFAULT CURRENT_TIMESTAMP NOT NULL,
   CONSTRAINT pk_item PRIMARY KEY (id),
   CONSTRAINT fk_item_owner FOREIGN KEY (owner_id) REFERENCES users (id)
 );
 
+ALTER TABLE items ADD COLUMN IF NOT EXISTS created TIMESTAMP DEFAULT CURRENT_TIMESTAMP NOT NULL;
+
 CREATE TABLE IF NOT EXISTS bookings (
   id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
   start TIMESTAMP NOT NULL,
@@ -30,6 +33,30 @@ CREATE TABLE IF NOT EXISTS bookings (
   CONSTRAINT fk_booking_owner FOREIGN KEY (owner_id) REFERENCES users (id)
 );
 
+CREATE INDEX IF NOT EXISTS idx_booking_booker_id ON bookings (booker_id, id);
+
+CREATE INDEX IF NOT EXISTS idx_booking_owner_id ON bookings (owner_id, id);
+
+CREATE INDEX IF NOT EXISTS idx_booking_item_status_start ON bookings (item_id, status, start);
+
+CREATE TABLE IF NOT EXISTS item_booking_pointers (
+  item_id BIGINT NOT NULL,
+  last_booking_id BIGINT,
+  last_booker_id BIGINT,
+  last_start TIMESTAMP,
+  last_end TIMESTAMP,
+  next_booking_id BIGINT,
+  next_booker_id BIGINT,
+  next_start TIMESTAMP,
+  next_end TIMESTAMP,
+  valid_until TIMESTAMP,
+  version BIGINT NOT NULL,
+  CONSTRAINT pk_item_booking_pointer PRIMARY KEY (item_id),
+  CONSTRAINT fk_item_booking_pointer_item FOREIGN KEY (item_id) REFERENCES items (id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_item_booking_pointer_valid_until ON item_booking_pointers (valid_until);
+
 CREATE TABLE IF NOT EXISTS comments (
   id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
   text TEXT NOT NULL,
@@ -48,4 +75,18 @@ CREATE TABLE IF NOT EXISTS item_requests (
   created TIMESTAMP NOT NULL,
   CONSTRAINT pk_item_request PRIMARY KEY (id),
   CONSTRAINT fk_item_request_user FOREIGN KEY (requester_id) REFERENCES users (id)
-);
\ No newline at end of file
+);
+
+CREATE INDEX IF NOT EXISTS idx_item_request_created ON item_requests (created, id);
+
+CREATE TABLE IF NOT EXISTS request_suggestions (
+  id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+  request_id BIGINT NOT NULL,
+  item_id BIGINT NOT NULL,
+  score DOUBLE PRECISION NOT NULL,
+  created TIMESTAMP NOT NULL,
+  CONSTRAINT pk_request_suggestion PRIMARY KEY (id),
+  CONSTRAINT uq_request_suggestion UNIQUE (request_id, item_id),
+  CONSTRAINT fk_request_suggestion_request FOREIGN KEY (request_id) REFERENCES item_requests (id),
+  CONSTRAINT fk_request_suggestion_item FOREIGN KEY (item_id) REFERENCES items (id)
+);
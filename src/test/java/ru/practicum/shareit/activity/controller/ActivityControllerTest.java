@@ -0,0 +1,60 @@
+package ru.practicum.shareit.activity.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.practicum.shareit.activity.dto.ActivityEventDto;
+import ru.practicum.shareit.activity.service.ActivityStreamHub;
+import ru.practicum.shareit.exception.UserNotFoundException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(controllers = ActivityController.class)
+public class ActivityControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private ActivityStreamHub activityStreamHub;
+
+    @Test
+    void streamShouldWriteNamedEventsToTheOpenResponse() throws Exception {
+        SseEmitter emitter = new SseEmitter();
+        when(activityStreamHub.subscribe(1L)).thenReturn(emitter);
+
+        MvcResult result = mockMvc.perform(get("/events/stream")
+                        .header("X-Sharer-User-Id", 1L)
+                        .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        emitter.send(SseEmitter.event()
+                .name(ActivityEventDto.Type.BOOKING_CREATED.name())
+                .data(new ActivityEventDto(ActivityEventDto.Type.BOOKING_CREATED, 4L, 3L, null, null),
+                        MediaType.APPLICATION_JSON));
+
+        assertThat(result.getResponse().getContentType()).startsWith(MediaType.TEXT_EVENT_STREAM_VALUE);
+        assertThat(result.getResponse().getContentAsString())
+                .startsWith("event:BOOKING_CREATED\ndata:")
+                .contains("\"bookingId\":4");
+    }
+
+    @Test
+    void streamShouldReturnNotFoundForUnknownUser() throws Exception {
+        when(activityStreamHub.subscribe(99L)).thenThrow(new UserNotFoundException());
+
+        mockMvc.perform(get("/events/stream")
+                        .header("X-Sharer-User-Id", 99L)
+                        .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(status().isNotFound());
+    }
+}
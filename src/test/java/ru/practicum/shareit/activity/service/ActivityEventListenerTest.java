@@ -0,0 +1,89 @@
+package ru.practicum.shareit.activity.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.practicum.shareit.activity.dto.ActivityEventDto;
+import ru.practicum.shareit.booking.event.BookingChangedEvent;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.Status;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.request.event.ItemRequestChangedEvent;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.request.repository.ItemRequestRepository;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ActivityEventListenerTest {
+
+    @Mock
+    private ActivityStreamHub activityStreamHub;
+
+    @Mock
+    private ItemRequestRepository itemRequestRepository;
+
+    @InjectMocks
+    private ActivityEventListener activityEventListener;
+
+    @Test
+    void bookingEventShouldReachBookerAndOwner() {
+        User owner = new User(1L, "Owner", "owner@example.com");
+        User booker = new User(2L, "Booker", "booker@example.com");
+        Item item = new Item(3L, "Drill", "Cordless drill", true, owner, null);
+        Booking booking = new Booking(4L, item, owner, booker, LocalDateTime.now(), LocalDateTime.now().plusDays(1),
+                Status.APPROVED);
+        when(activityStreamHub.hasConnections()).thenReturn(true);
+
+        activityEventListener.onBookingChanged(new BookingChangedEvent(booking, BookingChangedEvent.Type.APPROVED));
+
+        ArgumentCaptor<ActivityEventDto> event = ArgumentCaptor.forClass(ActivityEventDto.class);
+        verify(activityStreamHub).publish(eq(2L), event.capture());
+        verify(activityStreamHub).publish(1L, event.getValue());
+        assertEquals(ActivityEventDto.Type.BOOKING_APPROVED, event.getValue().getType());
+        assertEquals(4L, event.getValue().getBookingId());
+        assertEquals(3L, event.getValue().getItemId());
+    }
+
+    @Test
+    void itemAddedToRequestShouldReachRequester() {
+        ItemRequest request = new ItemRequest(5L, "Need a drill", new User(6L, "Requester", "r@example.com"),
+                LocalDateTime.now(), null);
+        when(activityStreamHub.hasConnections()).thenReturn(true);
+        when(itemRequestRepository.findById(5L)).thenReturn(Optional.of(request));
+
+        activityEventListener.onItemRequestChanged(new ItemRequestChangedEvent(5L,
+                ItemRequestChangedEvent.Type.ITEM_ADDED));
+        activityEventListener.onItemRequestChanged(new ItemRequestChangedEvent(7L,
+                ItemRequestChangedEvent.Type.CREATED));
+
+        ArgumentCaptor<ActivityEventDto> event = ArgumentCaptor.forClass(ActivityEventDto.class);
+        verify(activityStreamHub).publish(eq(6L), event.capture());
+        assertEquals(ActivityEventDto.Type.REQUEST_ITEM_ADDED, event.getValue().getType());
+        assertEquals(5L, event.getValue().getRequestId());
+        verify(itemRequestRepository, never()).findById(7L);
+    }
+
+    @Test
+    void eventsShouldBeSkippedWithoutConnections() {
+        when(activityStreamHub.hasConnections()).thenReturn(false);
+
+        activityEventListener.onItemRequestChanged(new ItemRequestChangedEvent(5L,
+                ItemRequestChangedEvent.Type.ITEM_ADDED));
+        activityEventListener.onBookingChanged(new BookingChangedEvent(new Booking(),
+                BookingChangedEvent.Type.CREATED));
+
+        verify(activityStreamHub, never()).publish(anyLong(), any());
+        verifyNoInteractions(itemRequestRepository);
+    }
+}
@@ -0,0 +1,238 @@
+package ru.practicum.shareit.activity.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.practicum.shareit.activity.dto.ActivityEventDto;
+import ru.practicum.shareit.exception.UserNotFoundException;
+import ru.practicum.shareit.util.IdentityCache;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class ActivityStreamHubTest {
+
+    @Mock
+    private IdentityCache identityCache;
+
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final List<RecordingEmitter> emitters = new CopyOnWriteArrayList<>();
+
+    private ActivityStreamHub hub;
+
+    @BeforeEach
+    void setUp() {
+        hub = createHub(2, Duration.ofMinutes(1), 16);
+    }
+
+    @AfterEach
+    void tearDown() {
+        hub.shutdown();
+    }
+
+    @Test
+    void publishShouldReachEveryConnectionOfTheUserOnly() {
+        when(identityCache.userExists(anyLong())).thenReturn(true);
+        hub.subscribe(1L);
+        hub.subscribe(1L);
+        hub.subscribe(2L);
+
+        hub.publish(1L, event(ActivityEventDto.Type.BOOKING_CREATED, 10L));
+        hub.publish(3L, event(ActivityEventDto.Type.BOOKING_CREATED, 11L));
+
+        awaitTrue(() -> emitters.get(0).events.size() == 1 && emitters.get(1).events.size() == 1);
+        assertEquals(10L, emitters.get(0).events.get(0).getBookingId());
+        assertTrue(emitters.get(2).events.isEmpty());
+        assertEquals(3, hub.getConnectionCount());
+    }
+
+    @Test
+    void slowClientShouldLoseOldestEventsAndBeToldAboutIt() throws InterruptedException {
+        when(identityCache.userExists(1L)).thenReturn(true);
+        hub.subscribe(1L);
+        RecordingEmitter emitter = emitters.get(0);
+        emitter.blockSends();
+
+        hub.publish(1L, event(ActivityEventDto.Type.BOOKING_CREATED, 1L));
+        assertTrue(emitter.sendStarted.await(5, TimeUnit.SECONDS));
+        for (long bookingId = 2; bookingId <= 5; bookingId++) {
+            hub.publish(1L, event(ActivityEventDto.Type.BOOKING_APPROVED, bookingId));
+        }
+        emitter.release.countDown();
+
+        awaitTrue(() -> emitter.events.size() == 4);
+        assertEquals(ActivityEventDto.Type.EVENTS_DROPPED, emitter.events.get(1).getType());
+        assertEquals(List.of(1L, 4L, 5L), List.of(emitter.events.get(0).getBookingId(),
+                emitter.events.get(2).getBookingId(), emitter.events.get(3).getBookingId()));
+        assertEquals(2.0, meterRegistry.get("shareit.activity.dropped").counter().count());
+    }
+
+    @Test
+    void failedSendShouldDropConnection() {
+        when(identityCache.userExists(1L)).thenReturn(true);
+        hub.subscribe(1L);
+        emitters.get(0).failSends();
+
+        hub.publish(1L, event(ActivityEventDto.Type.BOOKING_REJECTED, 1L));
+
+        awaitTrue(() -> hub.getConnectionCount() == 0);
+        assertFalse(hub.hasConnections());
+    }
+
+    @Test
+    void stalledSendShouldNotHoldBackOtherUsers() {
+        hub.shutdown();
+        hub = createHub(1, Duration.ofMillis(200), 16);
+        when(identityCache.userExists(anyLong())).thenReturn(true);
+        hub.subscribe(1L);
+        hub.subscribe(2L);
+        RecordingEmitter stuck = emitters.get(0);
+        stuck.blockSends();
+
+        hub.publish(1L, event(ActivityEventDto.Type.BOOKING_CREATED, 1L));
+        hub.publish(2L, event(ActivityEventDto.Type.BOOKING_CREATED, 2L));
+
+        awaitTrue(() -> emitters.get(1).events.size() == 1);
+        assertEquals(1, hub.getConnectionCount());
+        assertEquals(1.0, meterRegistry.get("shareit.activity.stalled").counter().count());
+        stuck.release.countDown();
+        awaitTrue(() -> stuck.failed);
+    }
+
+    @Test
+    void manyStalledSendsShouldNotGrowSenderPoolPastLimit() throws InterruptedException {
+        hub.shutdown();
+        meterRegistry = new SimpleMeterRegistry();
+        hub = createHub(1, Duration.ofMillis(100), 2);
+        when(identityCache.userExists(anyLong())).thenReturn(true);
+        for (long userId = 1; userId <= 5; userId++) {
+            hub.subscribe(userId);
+            emitters.get((int) userId - 1).blockSends();
+        }
+        hub.subscribe(6L);
+
+        for (long userId = 1; userId <= 6; userId++) {
+            hub.publish(userId, event(ActivityEventDto.Type.BOOKING_CREATED, userId));
+        }
+        awaitTrue(() -> meterRegistry.get("shareit.activity.stalled").counter().count() == 3.0);
+        Thread.sleep(300);
+
+        assertEquals(3.0, meterRegistry.get("shareit.activity.senders").gauge().value());
+        assertEquals(3.0, meterRegistry.get("shareit.activity.stalled").counter().count());
+        assertEquals(3, hub.getConnectionCount());
+        emitters.forEach(emitter -> emitter.release.countDown());
+        awaitTrue(() -> emitters.get(5).events.size() == 1);
+        awaitTrue(() -> emitters.subList(0, 3).stream().allMatch(emitter -> emitter.failed));
+    }
+
+    @Test
+    void heartbeatShouldPingIdleConnections() {
+        when(identityCache.userExists(1L)).thenReturn(true);
+        hub.subscribe(1L);
+
+        hub.heartbeat();
+
+        awaitTrue(() -> emitters.get(0).comments == 1);
+        assertTrue(emitters.get(0).events.isEmpty());
+    }
+
+    @Test
+    void subscribeShouldRejectUnknownUser() {
+        when(identityCache.userExists(99L)).thenReturn(false);
+
+        assertThrows(UserNotFoundException.class, () -> hub.subscribe(99L));
+        assertTrue(emitters.isEmpty());
+    }
+
+    private ActivityStreamHub createHub(int senderThreads, Duration sendTimeout, int maxStalledSenders) {
+        return new ActivityStreamHub(identityCache, meterRegistry, 2, Duration.ofMinutes(1), senderThreads,
+                sendTimeout, maxStalledSenders) {
+            @Override
+            protected SseEmitter createEmitter(long timeoutMillis) {
+                RecordingEmitter emitter = new RecordingEmitter();
+                emitters.add(emitter);
+                return emitter;
+            }
+        };
+    }
+
+    private ActivityEventDto event(ActivityEventDto.Type type, Long bookingId) {
+        return new ActivityEventDto(type, bookingId, 1L, null, null);
+    }
+
+    private void awaitTrue(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "condition not met in time");
+            Thread.onSpinWait();
+        }
+    }
+
+    private static class RecordingEmitter extends SseEmitter {
+
+        private final List<ActivityEventDto> events = new CopyOnWriteArrayList<>();
+        private final CountDownLatch sendStarted = new CountDownLatch(1);
+        private final CountDownLatch release = new CountDownLatch(1);
+        private volatile boolean blocking;
+        private volatile boolean failing;
+        private volatile int comments;
+        private volatile boolean failed;
+
+        void blockSends() {
+            blocking = true;
+        }
+
+        void failSends() {
+            failing = true;
+        }
+
+        @Override
+        public void completeWithError(Throwable ex) {
+            failed = true;
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            if (failing) {
+                throw new IOException("Broken pipe");
+            }
+            sendStarted.countDown();
+            if (blocking) {
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            List<Object> parts = new ArrayList<>();
+            for (ResponseBodyEmitter.DataWithMediaType part : builder.build()) {
+                parts.add(part.getData());
+            }
+            parts.stream()
+                    .filter(ActivityEventDto.class::isInstance)
+                    .map(ActivityEventDto.class::cast)
+                    .forEach(events::add);
+            if (parts.stream().allMatch(String.class::isInstance)) {
+                comments++;
+            }
+        }
+    }
+}
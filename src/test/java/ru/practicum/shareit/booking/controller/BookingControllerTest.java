@@ -11,8 +11,10 @@ import org.springframework.test.web.servlet.MockMvc;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingMapper;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingState;
 import ru.practicum.shareit.booking.model.Status;
 import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.util.CursorUtil;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -21,6 +23,7 @@ import java.util.stream.Collectors;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -123,9 +126,9 @@ public class BookingControllerTest {
                     return dto;
                 })
                 .collect(Collectors.toList());
-        Page<BookingDto> pageDto = new PageImpl<>(bookingDtos);
+        Slice<BookingDto> pageDto = new SliceImpl<>(bookingDtos);
 
-        when(bookingService.getAllBookingsByBooker(eq(userId), eq(state), any(Pageable.class)))
+        when(bookingService.getAllBookingsByBooker(eq(userId), eq(BookingState.ALL), any(Pageable.class)))
                 .thenReturn(pageDto);
 
         mockMvc.perform(get("/bookings")
@@ -136,7 +139,7 @@ public class BookingControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.length()").value(bookingDtos.size()));
 
-        verify(bookingService).getAllBookingsByBooker(eq(userId), eq(state), any(Pageable.class));
+        verify(bookingService).getAllBookingsByBooker(eq(userId), eq(BookingState.ALL), any(Pageable.class));
     }
 
     @Test
@@ -151,9 +154,9 @@ public class BookingControllerTest {
         BookingDto bookingDto2 = new BookingDto();
         bookingDto2.setId(2L);
         List<BookingDto> bookingDtos = List.of(bookingDto1, bookingDto2);
-        Page<BookingDto> page = new PageImpl<>(bookingDtos, pageable, bookingDtos.size());
+        Slice<BookingDto> page = new SliceImpl<>(bookingDtos, pageable, false);
 
-        when(bookingService.getAllBookingsByOwner(eq(ownerId), eq(state), any(Pageable.class)))
+        when(bookingService.getAllBookingsByOwner(eq(ownerId), eq(BookingState.ALL), any(Pageable.class)))
                 .thenReturn(page);
 
         mockMvc.perform(get("/bookings/owner")
@@ -166,7 +169,7 @@ public class BookingControllerTest {
                 .andExpect(jsonPath("$[1].id").value(2L))
                 .andExpect(jsonPath("$.length()").value(bookingDtos.size()));
 
-        verify(bookingService).getAllBookingsByOwner(eq(ownerId), eq(state), any(Pageable.class));
+        verify(bookingService).getAllBookingsByOwner(eq(ownerId), eq(BookingState.ALL), any(Pageable.class));
     }
 
     @Test
@@ -178,4 +181,106 @@ public class BookingControllerTest {
                         .param("size", "0"))
                 .andExpect(status().isBadRequest());
     }
+
+    @Test
+    void getAllBookingsByOwnerWithCursorShouldSeekAndReturnNextCursor() throws Exception {
+        Long ownerId = 1L;
+        BookingDto bookingDto1 = new BookingDto();
+        bookingDto1.setId(9L);
+        BookingDto bookingDto2 = new BookingDto();
+        bookingDto2.setId(7L);
+
+        when(bookingService.getAllBookingsByOwnerAfter(ownerId, BookingState.ALL, 10L,
+                PageRequest.of(0, 2, Sort.by(Sort.Direction.DESC, "id"))))
+                .thenReturn(new SliceImpl<>(List.of(bookingDto1, bookingDto2), PageRequest.of(0, 2), true));
+
+        mockMvc.perform(get("/bookings/owner")
+                        .header("X-Sharer-User-Id", ownerId)
+                        .param("after", CursorUtil.encode(10L))
+                        .param("size", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(9L))
+                .andExpect(jsonPath("$[1].id").value(7L))
+                .andExpect(header().string(CursorUtil.NEXT_CURSOR_HEADER, CursorUtil.encode(7L)));
+
+        verify(bookingService, never()).getAllBookingsByOwner(any(), any(), any());
+    }
+
+    @Test
+    void getAllBookingsByBookerWithCursorShouldOmitNextCursorOnLastPage() throws Exception {
+        Long userId = 1L;
+        BookingDto bookingDto = new BookingDto();
+        bookingDto.setId(3L);
+
+        when(bookingService.getAllBookingsByBookerAfter(userId, BookingState.ALL, 4L,
+                PageRequest.of(0, 10, Sort.by(Sort.Direction.DESC, "id"))))
+                .thenReturn(new SliceImpl<>(List.of(bookingDto), PageRequest.of(0, 10), false));
+
+        mockMvc.perform(get("/bookings")
+                        .header("X-Sharer-User-Id", userId)
+                        .param("after", CursorUtil.encode(4L)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(header().doesNotExist(CursorUtil.NEXT_CURSOR_HEADER));
+    }
+
+    @Test
+    void getAllBookingsByOwnerShouldOmitNextCursorOnFullLastPage() throws Exception {
+        Long ownerId = 1L;
+        PageRequest pageable = PageRequest.of(0, 1, Sort.by(Sort.Direction.DESC, "id"));
+        BookingDto bookingDto = new BookingDto();
+        bookingDto.setId(5L);
+        when(bookingService.getAllBookingsByOwner(ownerId, BookingState.ALL, pageable))
+                .thenReturn(new SliceImpl<>(List.of(bookingDto), pageable, false));
+
+        mockMvc.perform(get("/bookings/owner")
+                        .header("X-Sharer-User-Id", ownerId)
+                        .param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(header().doesNotExist(CursorUtil.NEXT_CURSOR_HEADER));
+    }
+
+    @Test
+    void getAllBookingsByBookerWithMalformedCursorShouldReturnBadRequest() throws Exception {
+        mockMvc.perform(get("/bookings")
+                        .header("X-Sharer-User-Id", 1L)
+                        .param("after", "not a cursor"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void getAllBookingsByBookerShouldNormalizeStateAndPageCurrentBookingsAscending() throws Exception {
+        Long userId = 1L;
+        Sort ascending = Sort.by(Sort.Direction.ASC, "id");
+        when(bookingService.getAllBookingsByBooker(userId, BookingState.CURRENT, PageRequest.of(0, 10, ascending)))
+                .thenReturn(new SliceImpl<>(List.of()));
+        when(bookingService.getAllBookingsByBookerAfter(userId, BookingState.CURRENT, 4L,
+                PageRequest.of(0, 10, ascending)))
+                .thenReturn(new SliceImpl<>(List.of()));
+
+        mockMvc.perform(get("/bookings")
+                        .header("X-Sharer-User-Id", userId)
+                        .param("state", "current"))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/bookings")
+                        .header("X-Sharer-User-Id", userId)
+                        .param("state", "current")
+                        .param("after", CursorUtil.encode(4L)))
+                .andExpect(status().isOk());
+
+        verify(bookingService).getAllBookingsByBooker(userId, BookingState.CURRENT, PageRequest.of(0, 10, ascending));
+        verify(bookingService).getAllBookingsByBookerAfter(userId, BookingState.CURRENT, 4L,
+                PageRequest.of(0, 10, ascending));
+    }
+
+    @Test
+    void getAllBookingsByOwnerWithUnknownStateShouldReturnBadRequest() throws Exception {
+        mockMvc.perform(get("/bookings/owner")
+                        .header("X-Sharer-User-Id", 1L)
+                        .param("state", "UNSUPPORTED"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(bookingService);
+    }
 }
@@ -0,0 +1,113 @@
+package ru.practicum.shareit.booking.repository;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingMapper;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingState;
+import ru.practicum.shareit.booking.model.Status;
+import ru.practicum.shareit.booking.repository.BookingStateRepository.Party;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+public class BookingQueryCountTest {
+
+    private static final int BOOKINGS = 10;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    private final BookingMapper bookingMapper = new BookingMapper();
+
+    private User booker;
+    private User owner;
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        booker = entityManager.persist(new User(null, "Booker", "booker@example.com"));
+        owner = entityManager.persist(new User(null, "Owner", "owner@example.com"));
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < BOOKINGS; i++) {
+            User requester = entityManager.persist(new User(null, "Requester " + i, "requester" + i + "@example.com"));
+            ItemRequest request = entityManager.persist(new ItemRequest(null, "Need item " + i, requester, now, null));
+            Item item = entityManager.persist(new Item(null, "Item " + i, "Description", true, owner, request));
+            entityManager.persist(new Booking(null, item, owner, booker, now.plusDays(i + 1), now.plusDays(i + 2),
+                    Status.WAITING));
+        }
+        entityManager.flush();
+        entityManager.clear();
+        statistics = entityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void bookerPageShouldBeMappedWithSingleStatement() {
+        List<Booking> bookings = bookingRepository.findByState(Party.BOOKER, booker.getId(), BookingState.ALL,
+                LocalDateTime.now(), PageRequest.of(0, BOOKINGS, Sort.by(Sort.Direction.DESC, "id"))).getContent();
+
+        assertThat(toDtos(bookings)).hasSize(BOOKINGS);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void ownerPageShouldBeMappedWithSingleStatement() {
+        List<Booking> bookings = bookingRepository.findByState(Party.OWNER, owner.getId(), BookingState.WAITING,
+                LocalDateTime.now(), PageRequest.of(0, BOOKINGS, Sort.by(Sort.Direction.DESC, "id"))).getContent();
+
+        assertThat(toDtos(bookings)).hasSize(BOOKINGS);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void keysetPageShouldBeMappedWithSingleStatement() {
+        List<Booking> bookings = bookingRepository.findByStateAfter(Party.BOOKER, booker.getId(), BookingState.ALL,
+                LocalDateTime.now(), Long.MAX_VALUE, PageRequest.of(0, BOOKINGS, Sort.by(Sort.Direction.DESC, "id")))
+                .getContent();
+
+        assertThat(toDtos(bookings)).hasSize(BOOKINGS);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void lastAndNextBookingsForPageOfItemsShouldCostTwoStatements() {
+        List<Long> itemIds = entityManager.getEntityManager()
+                .createQuery("SELECT i.id FROM Item i", Long.class)
+                .getResultList();
+        statistics.clear();
+        LocalDateTime now = LocalDateTime.now();
+
+        List<Booking> last = bookingRepository.findLastBookingsByItemIds(itemIds, Status.WAITING, now);
+        List<Booking> next = bookingRepository.findNextBookingsByItemIds(itemIds, Status.WAITING, now);
+
+        assertThat(last).isEmpty();
+        assertThat(toDtos(next)).hasSize(BOOKINGS);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    }
+
+    private List<BookingDto> toDtos(List<Booking> bookings) {
+        return bookings.stream()
+                .map(bookingMapper::toBookingDto)
+                .collect(Collectors.toList());
+    }
+}
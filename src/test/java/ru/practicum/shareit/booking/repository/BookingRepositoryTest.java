@@ -5,11 +5,13 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingState;
 import ru.practicum.shareit.booking.model.Status;
+import ru.practicum.shareit.booking.repository.BookingStateRepository.Party;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.user.model.User;
 
@@ -104,7 +106,7 @@ public class BookingRepositoryTest {
     }
 
     @Test
-    public void findAllByBookerIdShouldReturnCorrectBookings() {
+    public void findByStateAllShouldReturnBookerBookings() {
         User booker = entityManager.persist(new User(null, "Booker Name", "booker@example.com"));
         Item item = entityManager.persist(new Item(null, "Item One", "Description",
                 true, booker, null));
@@ -117,14 +119,15 @@ public class BookingRepositoryTest {
         entityManager.flush();
 
         PageRequest pageRequest = PageRequest.of(0, 10, Sort.by("start").descending());
-        Page<Booking> bookings = bookingRepository.findAllByBookerId(booker.getId(), pageRequest);
+        Slice<Booking> bookings = bookingRepository.findByState(Party.BOOKER, booker.getId(), BookingState.ALL,
+                LocalDateTime.now(), pageRequest);
 
         assertThat(bookings.getContent()).hasSize(2);
         assertThat(bookings.getContent()).containsExactlyInAnyOrder(booking1, booking2);
     }
 
     @Test
-    public void findAllByBookerIdAndStatusShouldReturnCorrectBookings() {
+    public void findByStateWaitingShouldReturnBookerBookings() {
         User booker = entityManager.persist(new User(null, "Booker Name", "booker@example.com"));
         Item item = entityManager.persist(new Item(null, "Item One", "Description", true,
                 booker, null));
@@ -137,14 +140,15 @@ public class BookingRepositoryTest {
         entityManager.flush();
 
         PageRequest pageRequest = PageRequest.of(0, 10, Sort.by("start").descending());
-        Page<Booking> bookings = bookingRepository.findAllByBookerIdAndStatus(booker.getId(), Status.WAITING, pageRequest);
+        Slice<Booking> bookings = bookingRepository.findByState(Party.BOOKER, booker.getId(), BookingState.WAITING,
+                LocalDateTime.now(), pageRequest);
 
         assertThat(bookings.getContent()).hasSize(2);
         assertThat(bookings.getContent()).containsExactlyInAnyOrder(booking1, booking2);
     }
 
     @Test
-    public void findAllByBookerIdAndEndBeforeShouldReturnCorrectBookings() {
+    public void findByStatePastShouldReturnBookerBookings() {
         User booker = entityManager.persist(new User(null, "Booker Name", "booker@example.com"));
         Item item = entityManager.persist(new Item(null, "Item One", "Description",
                 true, booker, null));
@@ -159,14 +163,15 @@ public class BookingRepositoryTest {
         entityManager.flush();
 
         PageRequest pageRequest = PageRequest.of(0, 10, Sort.by("end").ascending());
-        Page<Booking> bookings = bookingRepository.findAllByBookerIdAndEndBefore(booker.getId(), now, pageRequest);
+        Slice<Booking> bookings = bookingRepository.findByState(Party.BOOKER, booker.getId(), BookingState.PAST,
+                now, pageRequest);
 
         assertThat(bookings.getContent()).containsExactly(bookingBefore);
         assertThat(bookings.getContent()).doesNotContain(bookingAfter);
     }
 
     @Test
-    public void findAllByBookerIdAndStartAfterShouldReturnCorrectBookings() {
+    public void findByStateFutureShouldReturnBookerBookings() {
         User booker = entityManager.persist(new User(null, "Booker Name", "booker@example.com"));
         Item item = entityManager.persist(new Item(null, "Item One", "Description",
                 true, booker, null));
@@ -181,14 +186,15 @@ public class BookingRepositoryTest {
         entityManager.flush();
 
         PageRequest pageRequest = PageRequest.of(0, 10, Sort.by("start").ascending());
-        Page<Booking> bookings = bookingRepository.findAllByBookerIdAndStartAfter(booker.getId(), now, pageRequest);
+        Slice<Booking> bookings = bookingRepository.findByState(Party.BOOKER, booker.getId(), BookingState.FUTURE,
+                now, pageRequest);
 
         assertThat(bookings.getContent()).containsExactly(bookingAfter);
         assertThat(bookings.getContent()).doesNotContain(bookingBefore);
     }
 
     @Test
-    public void findAllByBookerIdAndStartBeforeAndEndAfterShouldReturnCorrectBookings() {
+    public void findByStateCurrentShouldReturnBookerBookings() {
         User booker = entityManager.persist(new User(null, "Booker Name", "booker@example.com"));
         Item item = entityManager.persist(new Item(null, "Item One", "Description", true,
                 booker, null));
@@ -204,15 +210,15 @@ public class BookingRepositoryTest {
         entityManager.flush();
 
         PageRequest pageRequest = PageRequest.of(0, 10, Sort.by("id").ascending());
-        Page<Booking> bookings = bookingRepository.findAllByBookerIdAndStartBeforeAndEndAfter(booker.getId(),
-                end, start, pageRequest);
+        Slice<Booking> bookings = bookingRepository.findByState(Party.BOOKER, booker.getId(), BookingState.CURRENT,
+                LocalDateTime.now(), pageRequest);
 
         assertThat(bookings.getContent()).containsExactly(validBooking);
         assertThat(bookings.getContent()).doesNotContain(outOfRangeBooking);
     }
 
     @Test
-    public void findAllByOwnerIdShouldReturnCorrectBookings() {
+    public void findByStateAllShouldReturnOwnerBookings() {
         User owner = entityManager.persist(new User(null, "Owner Name", "owner@example.com"));
         Item item = entityManager.persist(new Item(null, "Item One", "Description",
                 true, owner, null));
@@ -226,14 +232,15 @@ public class BookingRepositoryTest {
         entityManager.flush();
 
         PageRequest pageRequest = PageRequest.of(0, 10, Sort.by("start").ascending());
-        Page<Booking> bookings = bookingRepository.findAllByOwnerId(owner.getId(), pageRequest);
+        Slice<Booking> bookings = bookingRepository.findByState(Party.OWNER, owner.getId(), BookingState.ALL,
+                LocalDateTime.now(), pageRequest);
 
         assertThat(bookings.getContent()).hasSize(2);
         assertThat(bookings.getContent()).containsExactlyInAnyOrder(booking1, booking2);
     }
 
     @Test
-    public void findAllByOwnerIdAndStatusShouldReturnCorrectBookings() {
+    public void findByStateRejectedShouldReturnOwnerBookings() {
         User owner = entityManager.persist(new User(null, "Owner Name", "owner@example.com"));
         Item item = entityManager.persist(new Item(null, "Item One", "Description",
                 true, owner, null));
@@ -247,14 +254,15 @@ public class BookingRepositoryTest {
         entityManager.flush();
 
         PageRequest pageRequest = PageRequest.of(0, 10, Sort.by("start").ascending());
-        Page<Booking> bookings = bookingRepository.findAllByOwnerIdAndStatus(owner.getId(), Status.APPROVED, pageRequest);
+        Slice<Booking> bookings = bookingRepository.findByState(Party.OWNER, owner.getId(), BookingState.REJECTED,
+                LocalDateTime.now(), pageRequest);
 
-        assertThat(bookings.getContent()).containsExactly(booking1);
-        assertThat(bookings.getContent()).doesNotContain(booking2);
+        assertThat(bookings.getContent()).containsExactly(booking2);
+        assertThat(bookings.getContent()).doesNotContain(booking1);
     }
 
     @Test
-    public void findAllByOwnerIdAndEndBeforeShouldReturnCorrectBookings() {
+    public void findByStatePastShouldReturnOwnerBookings() {
         User owner = entityManager.persist(new User(null, "Owner Name", "owner@example.com"));
         Item item = entityManager.persist(new Item(null, "Item One", "Description",
                 true, owner, null));
@@ -269,14 +277,15 @@ public class BookingRepositoryTest {
         entityManager.flush();
 
         PageRequest pageRequest = PageRequest.of(0, 10, Sort.by("end").ascending());
-        Page<Booking> bookings = bookingRepository.findAllByOwnerIdAndEndBefore(owner.getId(), now, pageRequest);
+        Slice<Booking> bookings = bookingRepository.findByState(Party.OWNER, owner.getId(), BookingState.PAST,
+                now, pageRequest);
 
         assertThat(bookings.getContent()).containsExactly(bookingBefore);
         assertThat(bookings.getContent()).doesNotContain(bookingAfter);
     }
 
     @Test
-    public void findAllByOwnerIdAndStartAfterShouldReturnCorrectBookings() {
+    public void findByStateFutureShouldReturnOwnerBookings() {
         User owner = entityManager.persist(new User(null, "Owner Name", "owner@example.com"));
         Item item = entityManager.persist(new Item(null, "Item One", "Description",
                 true, owner, null));
@@ -292,14 +301,15 @@ public class BookingRepositoryTest {
         entityManager.flush();
 
         PageRequest pageRequest = PageRequest.of(0, 10, Sort.by("start").ascending());
-        Page<Booking> bookings = bookingRepository.findAllByOwnerIdAndStartAfter(owner.getId(), now, pageRequest);
+        Slice<Booking> bookings = bookingRepository.findByState(Party.OWNER, owner.getId(), BookingState.FUTURE,
+                now, pageRequest);
 
         assertThat(bookings.getContent()).containsExactly(bookingAfter);
         assertThat(bookings.getContent()).doesNotContain(bookingBefore);
     }
 
     @Test
-    public void findAllByOwnerIdAndStartBeforeAndEndAfterShouldReturnCorrectBookings() {
+    public void findByStateCurrentShouldReturnOwnerBookings() {
         User owner = entityManager.persist(new User(null, "Owner Name", "owner@example.com"));
         Item item = entityManager.persist(new Item(null, "Item One", "Description",
                 true, owner, null));
@@ -318,35 +328,13 @@ public class BookingRepositoryTest {
         entityManager.flush();
 
         PageRequest pageRequest = PageRequest.of(0, 10, Sort.by("start").ascending());
-        Page<Booking> bookings = bookingRepository.findAllByOwnerIdAndStartBeforeAndEndAfter(owner.getId(),
-                start, end, pageRequest);
+        Slice<Booking> bookings = bookingRepository.findByState(Party.OWNER, owner.getId(), BookingState.CURRENT,
+                LocalDateTime.now(), pageRequest);
 
         assertThat(bookings.getContent()).containsExactly(validBooking);
         assertThat(bookings.getContent()).doesNotContain(outOfRangeBefore, outOfRangeAfter);
     }
 
-    @Test
-    public void findByItemIdAndEndAfterAndStartBeforeShouldReturnCorrectBookings() {
-        User user = entityManager.persist(new User(null, "User One", "user1@example.com"));
-        Item item = entityManager.persist(new Item(null, "Item One", "Description",
-                true, user, null));
-        LocalDateTime start = LocalDateTime.now().minusDays(1);
-        LocalDateTime end = LocalDateTime.now().plusDays(1);
-        Booking validBooking = new Booking(null, item, user, user, start.minusHours(1),
-                end.plusHours(1), Status.APPROVED);
-        Booking outOfRangeBooking = new Booking(null, item, user, user, end.plusHours(2),
-                end.plusHours(3), Status.APPROVED);
-
-        entityManager.persist(validBooking);
-        entityManager.persist(outOfRangeBooking);
-        entityManager.flush();
-
-        List<Booking> bookings = bookingRepository.findByItemIdAndEndAfterAndStartBefore(item.getId(), end, start);
-
-        assertThat(bookings).containsExactly(validBooking);
-        assertThat(bookings).doesNotContain(outOfRangeBooking);
-    }
-
     @Test
     public void findFirstByItemIdAndStatusAndStartBeforeOrderByEndDescShouldReturnBooking() {
         User user = new User(null, "Test Booker", "booker@example.com");
@@ -418,4 +406,143 @@ public class BookingRepositoryTest {
 
         assertThat(exists).isFalse();
     }
+
+    @Test
+    public void activeIntervalsInRangeShouldBeOrderedByStart() {
+        User user = entityManager.persist(new User(null, "User Two", "user2@example.com"));
+        Item item = entityManager.persist(new Item(null, "Item Two", "Description", true, user, null));
+        LocalDateTime from = LocalDateTime.of(2030, 6, 1, 0, 0);
+        Booking late = entityManager.persist(new Booking(null, item, user, user, from.plusHours(10),
+                from.plusHours(12), Status.APPROVED));
+        Booking early = entityManager.persist(new Booking(null, item, user, user, from.minusHours(2),
+                from.plusHours(1), Status.WAITING));
+        entityManager.persist(new Booking(null, item, user, user, from.plusHours(3), from.plusHours(4),
+                Status.CANCELED));
+        entityManager.persist(new Booking(null, item, user, user, from.plusDays(2), from.plusDays(3),
+                Status.APPROVED));
+        entityManager.flush();
+
+        List<BookingIntervalView> intervals = bookingRepository
+                .findAllByItemIdAndStatusInAndEndAfterAndStartBeforeOrderByStartAsc(item.getId(),
+                        List.of(Status.WAITING, Status.APPROVED), from, from.plusDays(1));
+
+        assertThat(intervals).extracting(BookingIntervalView::getId).containsExactly(early.getId(), late.getId());
+    }
+
+    @Test
+    public void activeIntervalQueriesShouldIgnoreRejectedAndFinishedBookings() {
+        User user = entityManager.persist(new User(null, "User One", "user1@example.com"));
+        Item item = entityManager.persist(new Item(null, "Item One", "Description", true, user, null));
+        LocalDateTime now = LocalDateTime.now();
+        Booking waiting = new Booking(null, item, user, user, now.plusDays(1), now.plusDays(2), Status.WAITING);
+        Booking rejected = new Booking(null, item, user, user, now.plusDays(3), now.plusDays(4), Status.REJECTED);
+        Booking finished = new Booking(null, item, user, user, now.minusDays(3), now.minusDays(2), Status.APPROVED);
+        entityManager.persist(waiting);
+        entityManager.persist(rejected);
+        entityManager.persist(finished);
+        entityManager.flush();
+        List<Status> active = List.of(Status.WAITING, Status.APPROVED);
+
+        List<BookingIntervalView> intervals = bookingRepository.findAllByItemIdAndStatusInAndEndAfter(item.getId(),
+                active, now);
+
+        assertThat(intervals).extracting(BookingIntervalView::getId).containsExactly(waiting.getId());
+        assertThat(bookingRepository.existsByItemIdAndStatusInAndEndAfterAndStartBefore(item.getId(), active,
+                now.plusDays(3).plusHours(1), now.plusDays(3).plusHours(2))).isFalse();
+        assertThat(bookingRepository.existsByItemIdAndStatusInAndEndAfterAndStartBefore(item.getId(), active,
+                now.plusDays(1).plusHours(1), now.plusDays(3))).isTrue();
+    }
+
+    @Test
+    public void findByStateAfterShouldSeekPastCursor() {
+        User owner = entityManager.persist(new User(null, "Owner", "owner@example.com"));
+        User booker = entityManager.persist(new User(null, "Booker", "booker@example.com"));
+        Item item = entityManager.persist(new Item(null, "Item One", "Description", true, owner, null));
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        Booking first = entityManager.persist(new Booking(null, item, owner, booker, start, start.plusHours(1),
+                Status.WAITING));
+        Booking second = entityManager.persist(new Booking(null, item, owner, booker, start.plusDays(1),
+                start.plusDays(1).plusHours(1), Status.WAITING));
+        Booking third = entityManager.persist(new Booking(null, item, owner, booker, start.plusDays(2),
+                start.plusDays(2).plusHours(1), Status.WAITING));
+        entityManager.flush();
+        PageRequest pageRequest = PageRequest.of(0, 2, Sort.by(Sort.Direction.DESC, "id"));
+
+        LocalDateTime now = LocalDateTime.now();
+
+        Slice<Booking> firstPage = bookingRepository.findByStateAfter(Party.OWNER, owner.getId(), BookingState.ALL,
+                now, Long.MAX_VALUE, pageRequest);
+        Slice<Booking> secondPage = bookingRepository.findByStateAfter(Party.OWNER, owner.getId(), BookingState.ALL,
+                now, second.getId(), pageRequest);
+        Slice<Booking> ascending = bookingRepository.findByStateAfter(Party.OWNER, owner.getId(),
+                BookingState.WAITING, now, first.getId(), PageRequest.of(0, 2, Sort.by(Sort.Direction.ASC, "id")));
+
+        assertThat(firstPage.getContent()).containsExactly(third, second);
+        assertThat(firstPage.hasNext()).isTrue();
+        assertThat(secondPage.getContent()).containsExactly(first);
+        assertThat(secondPage.hasNext()).isFalse();
+        assertThat(ascending.getContent()).containsExactly(second, third);
+        assertThat(ascending.hasNext()).isFalse();
+        assertThat(bookingRepository.countByState(Party.OWNER, owner.getId(), BookingState.FUTURE, now))
+                .isEqualTo(3);
+        assertThat(bookingRepository.countByState(Party.BOOKER, booker.getId(), BookingState.REJECTED, now))
+                .isZero();
+    }
+
+    @Test
+    public void findLastAndNextBookingsByItemIdsShouldPickClosestApprovedBookingPerItem() {
+        User owner = entityManager.persist(new User(null, "Owner", "owner@example.com"));
+        User booker = entityManager.persist(new User(null, "Booker", "booker@example.com"));
+        Item drill = entityManager.persist(new Item(null, "Drill", "Description", true, owner, null));
+        Item saw = entityManager.persist(new Item(null, "Saw", "Description", true, owner, null));
+        LocalDateTime now = LocalDateTime.now();
+        entityManager.persist(new Booking(null, drill, owner, booker, now.minusDays(5), now.minusDays(4),
+                Status.APPROVED));
+        Booking drillLast = entityManager.persist(new Booking(null, drill, owner, booker, now.minusDays(2),
+                now.minusDays(1), Status.APPROVED));
+        entityManager.persist(new Booking(null, drill, owner, booker, now.minusDays(1), now.minusHours(1),
+                Status.REJECTED));
+        Booking drillNext = entityManager.persist(new Booking(null, drill, owner, booker, now.plusDays(1),
+                now.plusDays(2), Status.APPROVED));
+        entityManager.persist(new Booking(null, drill, owner, booker, now.plusDays(3), now.plusDays(4),
+                Status.APPROVED));
+        Booking sawNext = entityManager.persist(new Booking(null, saw, owner, booker, now.plusDays(2),
+                now.plusDays(3), Status.APPROVED));
+        entityManager.flush();
+        List<Long> itemIds = List.of(drill.getId(), saw.getId());
+
+        List<Booking> last = bookingRepository.findLastBookingsByItemIds(itemIds, Status.APPROVED, now);
+        List<Booking> next = bookingRepository.findNextBookingsByItemIds(itemIds, Status.APPROVED, now);
+
+        assertThat(last).containsExactly(drillLast);
+        assertThat(next).containsExactlyInAnyOrder(drillNext, sawNext);
+    }
+
+    @Test
+    public void slotQueriesShouldSkipInactiveAndFinishedBookings() {
+        User user = entityManager.persist(new User(null, "User Three", "user3@example.com"));
+        Item drill = entityManager.persist(new Item(null, "Drill", "Description", true, user, null));
+        Item saw = entityManager.persist(new Item(null, "Saw", "Description", true, user, null));
+        LocalDateTime now = LocalDateTime.now();
+        Booking drillActive = entityManager.persist(new Booking(null, drill, user, user, now.plusDays(1),
+                now.plusDays(2), Status.APPROVED));
+        Booking sawActive = entityManager.persist(new Booking(null, saw, user, user, now.plusDays(3),
+                now.plusDays(4), Status.WAITING));
+        entityManager.persist(new Booking(null, saw, user, user, now.plusDays(1), now.plusDays(2), Status.REJECTED));
+        entityManager.persist(new Booking(null, drill, user, user, now.minusDays(2), now.minusDays(1),
+                Status.APPROVED));
+        entityManager.flush();
+        List<Status> active = List.of(Status.WAITING, Status.APPROVED);
+
+        List<BookingSlotView> first = bookingRepository.findSlotViews(active, now, 0L, PageRequest.of(0, 1));
+        List<BookingSlotView> rest = bookingRepository.findSlotViews(active, now, first.get(0).getId(),
+                PageRequest.of(0, 10));
+        List<Long> booked = bookingRepository.findBookedItemIds(List.of(drill.getId(), saw.getId()), active,
+                now.plusDays(1).plusHours(1), now.plusDays(1).plusHours(2));
+
+        assertThat(first).extracting(BookingSlotView::getId).containsExactly(drillActive.getId());
+        assertThat(first).extracting(BookingSlotView::getItemId).containsExactly(drill.getId());
+        assertThat(rest).extracting(BookingSlotView::getId).containsExactly(sawActive.getId());
+        assertThat(booked).containsExactly(drill.getId());
+    }
 }
@@ -0,0 +1,114 @@
+package ru.practicum.shareit.booking.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.exception.OverlappingBookingsException;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Slf4j
+@SpringBootTest(properties = "logging.level.ru.practicum.shareit.booking.service.BookingServiceImpl=WARN")
+public class BookingConcurrencyStressTest {
+
+    private static final int THREADS = 16;
+    private static final int ITEMS = 50;
+    private static final int SLOTS = 8;
+    private static final int BOOKERS = 4;
+
+    @Autowired
+    private BookingService bookingService;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void concurrentBookingsShouldNeverOverlap() throws Exception {
+        User owner = userRepository.save(new User(null, "Stress Owner", "stress-owner@example.com"));
+        List<User> bookers = new ArrayList<>();
+        for (int i = 0; i < BOOKERS; i++) {
+            bookers.add(userRepository.save(new User(null, "Stress Booker " + i, "stress-booker" + i + "@example.com")));
+        }
+        List<Item> items = new ArrayList<>();
+        for (int i = 0; i < ITEMS; i++) {
+            items.add(itemRepository.save(new Item(null, "Stress Item " + i, "Description", true, owner, null)));
+        }
+
+        LocalDateTime base = LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.HOURS);
+        List<Callable<Boolean>> attempts = new ArrayList<>();
+        for (Item item : items) {
+            for (int slot = 0; slot < SLOTS; slot++) {
+                for (int b = 0; b < BOOKERS; b++) {
+                    LocalDateTime start = base.plusHours(slot * 2L).plusMinutes(b * 5L);
+                    BookingDto dto = new BookingDto();
+                    dto.setItemId(item.getId());
+                    dto.setStart(start);
+                    dto.setEnd(start.plusHours(1));
+                    Long bookerId = bookers.get(b).getId();
+                    attempts.add(() -> tryBook(dto, bookerId));
+                }
+            }
+        }
+        Collections.shuffle(attempts);
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        long startedAt = System.nanoTime();
+        List<Future<Boolean>> results = executor.invokeAll(attempts);
+        double seconds = (System.nanoTime() - startedAt) / 1_000_000_000.0;
+        executor.shutdown();
+
+        int created = 0;
+        for (Future<Boolean> result : results) {
+            if (result.get()) {
+                created++;
+            }
+        }
+        log.info("Booking stress test: {} attempts, {} created in {} s ({} attempts/sec, {} bookings/sec)",
+                attempts.size(), created, String.format("%.2f", seconds),
+                String.format("%.0f", attempts.size() / seconds), String.format("%.0f", created / seconds));
+
+        assertThat(created).isEqualTo(ITEMS * SLOTS);
+        for (Item item : items) {
+            List<Booking> bookings = bookingRepository.findAll().stream()
+                    .filter(booking -> booking.getItem().getId().equals(item.getId()))
+                    .sorted(Comparator.comparing(Booking::getStart))
+                    .collect(Collectors.toList());
+            assertThat(bookings).hasSize(SLOTS);
+            for (int i = 1; i < bookings.size(); i++) {
+                assertThat(bookings.get(i).getStart()).isAfterOrEqualTo(bookings.get(i - 1).getEnd());
+            }
+        }
+    }
+
+    private boolean tryBook(BookingDto dto, Long bookerId) {
+        try {
+            bookingService.createBooking(dto, bookerId);
+            return true;
+        } catch (OverlappingBookingsException e) {
+            return false;
+        }
+    }
+}
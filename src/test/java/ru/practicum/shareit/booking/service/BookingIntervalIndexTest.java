@@ -0,0 +1,168 @@
+package ru.practicum.shareit.booking.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.practicum.shareit.booking.event.BookingChangedEvent;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.Status;
+import ru.practicum.shareit.booking.repository.BookingIntervalView;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.item.model.Item;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class BookingIntervalIndexTest {
+
+    @Mock
+    private BookingRepository bookingRepository;
+
+    @InjectMocks
+    private BookingIntervalIndex bookingIntervalIndex;
+
+    private LocalDateTime base;
+
+    @BeforeEach
+    void setUp() {
+        base = LocalDateTime.now().plusDays(1).withNano(0);
+    }
+
+    @Test
+    void hasOverlapShouldLoadItemOnceAndAnswerFromMemory() {
+        when(bookingRepository.findAllByItemIdAndStatusInAndEndAfter(eq(1L), anyCollection(), any()))
+                .thenReturn(List.of(interval(10L, base, base.plusHours(2)),
+                        interval(11L, base.plusHours(5), base.plusHours(6))));
+
+        assertTrue(bookingIntervalIndex.hasOverlap(1L, base.plusHours(1), base.plusHours(3)));
+        assertFalse(bookingIntervalIndex.hasOverlap(1L, base.plusHours(2), base.plusHours(5)));
+        assertTrue(bookingIntervalIndex.hasOverlap(1L, base.plusHours(4), base.plusHours(7)));
+        assertFalse(bookingIntervalIndex.hasOverlap(1L, base.plusHours(6), base.plusHours(8)));
+
+        verify(bookingRepository, times(1)).findAllByItemIdAndStatusInAndEndAfter(eq(1L), anyCollection(), any());
+    }
+
+    @Test
+    void hasOverlapShouldDetectLongIntervalCoveringLaterShortOnes() {
+        when(bookingRepository.findAllByItemIdAndStatusInAndEndAfter(eq(1L), anyCollection(), any()))
+                .thenReturn(List.of(interval(10L, base, base.plusDays(10)),
+                        interval(11L, base.plusHours(1), base.plusHours(2))));
+
+        assertTrue(bookingIntervalIndex.hasOverlap(1L, base.plusDays(5), base.plusDays(6)));
+    }
+
+    @Test
+    void onBookingChangedShouldAddCreatedAndRemoveRejectedBookings() {
+        when(bookingRepository.findAllByItemIdAndStatusInAndEndAfter(eq(1L), anyCollection(), any()))
+                .thenReturn(Collections.emptyList());
+        assertFalse(bookingIntervalIndex.hasOverlap(1L, base, base.plusHours(1)));
+
+        Booking booking = booking(20L, base, base.plusHours(1), Status.WAITING);
+        bookingIntervalIndex.onBookingChanged(new BookingChangedEvent(booking, BookingChangedEvent.Type.CREATED));
+        assertTrue(bookingIntervalIndex.hasOverlap(1L, base, base.plusHours(1)));
+
+        booking.setStatus(Status.REJECTED);
+        bookingIntervalIndex.onBookingChanged(new BookingChangedEvent(booking, BookingChangedEvent.Type.REJECTED));
+        assertFalse(bookingIntervalIndex.hasOverlap(1L, base, base.plusHours(1)));
+    }
+
+    @Test
+    void hasOverlapShouldUseRepositoryForWindowsStartingBeforeLoad() {
+        when(bookingRepository.findAllByItemIdAndStatusInAndEndAfter(eq(1L), anyCollection(), any()))
+                .thenReturn(Collections.emptyList());
+        LocalDateTime past = LocalDateTime.now().minusDays(2);
+        when(bookingRepository.existsByItemIdAndStatusInAndEndAfterAndStartBefore(eq(1L), anyCollection(),
+                eq(past), eq(past.plusDays(1)))).thenReturn(true);
+
+        assertTrue(bookingIntervalIndex.hasOverlap(1L, past, past.plusDays(1)));
+    }
+
+    @Test
+    void reconcileShouldPreferRepositoryAnswerOnMismatch() {
+        bookingIntervalIndex.setReconcile(true);
+        when(bookingRepository.findAllByItemIdAndStatusInAndEndAfter(eq(1L), anyCollection(), any()))
+                .thenReturn(Collections.emptyList());
+        when(bookingRepository.existsByItemIdAndStatusInAndEndAfterAndStartBefore(eq(1L), anyCollection(),
+                eq(base), eq(base.plusHours(1)))).thenReturn(true);
+
+        assertTrue(bookingIntervalIndex.hasOverlap(1L, base, base.plusHours(1)));
+        assertTrue(bookingIntervalIndex.hasOverlap(1L, base, base.plusHours(1)));
+
+        verify(bookingRepository, times(2)).findAllByItemIdAndStatusInAndEndAfter(eq(1L), anyCollection(), any());
+    }
+
+    @Test
+    void addShouldDropEndedIntervals() {
+        BookingIntervalIndex.ItemIntervals intervals = new BookingIntervalIndex.ItemIntervals(base);
+        intervals.add(10L, base.plusHours(1), base.plusHours(2), base);
+        intervals.add(11L, base.plusHours(3), base.plusDays(2), base);
+
+        intervals.add(12L, base.plusHours(5), base.plusHours(6), base.plusHours(4));
+        intervals.add(13L, base.plusHours(1), base.plusHours(3), base.plusHours(4));
+
+        assertEquals(2, intervals.size());
+        assertEquals(base.plusHours(4), intervals.getCoveredFrom());
+        assertTrue(intervals.overlaps(base.plusDays(1), base.plusDays(1).plusHours(1)));
+        assertFalse(intervals.overlaps(base.plusDays(2), base.plusDays(3)));
+    }
+
+    @Test
+    void onBookingChangedShouldDropItemWithoutActiveBookings() {
+        when(bookingRepository.findAllByItemIdAndStatusInAndEndAfter(eq(1L), anyCollection(), any()))
+                .thenReturn(List.of(interval(10L, base, base.plusHours(2))))
+                .thenReturn(Collections.emptyList());
+        assertTrue(bookingIntervalIndex.hasOverlap(1L, base, base.plusHours(1)));
+
+        bookingIntervalIndex.onBookingChanged(new BookingChangedEvent(booking(10L, base, base.plusHours(2),
+                Status.REJECTED), BookingChangedEvent.Type.REJECTED));
+        assertFalse(bookingIntervalIndex.hasOverlap(1L, base, base.plusHours(1)));
+
+        verify(bookingRepository, times(2)).findAllByItemIdAndStatusInAndEndAfter(eq(1L), anyCollection(), any());
+    }
+
+    private Booking booking(Long id, LocalDateTime start, LocalDateTime end, Status status) {
+        Item item = new Item();
+        item.setId(1L);
+        Booking booking = new Booking();
+        booking.setId(id);
+        booking.setItem(item);
+        booking.setStart(start);
+        booking.setEnd(end);
+        booking.setStatus(status);
+        return booking;
+    }
+
+    private BookingIntervalView interval(Long id, LocalDateTime start, LocalDateTime end) {
+        return new BookingIntervalView() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public LocalDateTime getStart() {
+                return start;
+            }
+
+            @Override
+            public LocalDateTime getEnd() {
+                return end;
+            }
+        };
+    }
+}
@@ -2,27 +2,41 @@ package ru.practicum.shareit.booking.service;
 
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.data.domain.Sort;
+import org.springframework.test.util.ReflectionTestUtils;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingMapper;
+import ru.practicum.shareit.booking.event.BookingChangedEvent;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingState;
 import ru.practicum.shareit.booking.model.Status;
 import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.repository.BookingStateRepository.Party;
 import ru.practicum.shareit.exception.BookingNotFoundException;
 import ru.practicum.shareit.exception.ItemNotAvailableException;
+import ru.practicum.shareit.exception.OverlappingBookingsException;
 import ru.practicum.shareit.exception.UnauthorizedAccessException;
 import ru.practicum.shareit.exception.UserNotFoundException;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemRepository;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.util.CountEstimateCache;
+import ru.practicum.shareit.util.DatabasePlatform;
+import ru.practicum.shareit.util.IdentityCache;
 
+import java.sql.SQLException;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
@@ -31,6 +45,9 @@ import java.util.Optional;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -45,6 +62,18 @@ public class BookingServiceImplTest {
     private UserRepository userRepository;
     @Mock
     private ItemRepository itemRepository;
+    @Mock
+    private BookingIntervalIndex bookingIntervalIndex;
+    @Mock
+    private ItemBookingLock itemBookingLock;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    @Mock
+    private DatabasePlatform databasePlatform;
+    @Mock
+    private IdentityCache identityCache;
+    @Spy
+    private CountEstimateCache countEstimateCache = new CountEstimateCache(Duration.ofMinutes(1), 100);
 
     @InjectMocks
     private BookingServiceImpl bookingService;
@@ -78,7 +107,128 @@ public class BookingServiceImplTest {
 
         assertNotNull(savedBooking);
         assertEquals(Status.WAITING, savedBooking.getStatus());
-        verify(bookingRepository).save(booking);
+        InOrder inOrder = inOrder(itemBookingLock, bookingIntervalIndex, bookingRepository);
+        inOrder.verify(itemBookingLock).lock(1L);
+        inOrder.verify(bookingIntervalIndex).hasOverlap(1L, null, null);
+        inOrder.verify(bookingRepository).save(booking);
+        verify(eventPublisher).publishEvent(new BookingChangedEvent(booking, BookingChangedEvent.Type.CREATED));
+    }
+
+    @Test
+    void createBookingWithOverlappingBookingShouldThrowException() {
+        BookingDto bookingDto = new BookingDto();
+        bookingDto.setStart(LocalDateTime.now().plusDays(1));
+        bookingDto.setEnd(LocalDateTime.now().plusDays(2));
+        bookingDto.setItemId(1L);
+
+        User booker = new User(1L, "Booker", "booker@example.com");
+        User owner = new User(2L, "Owner", "owner@example.com");
+        Item item = new Item();
+        item.setId(1L);
+        item.setOwner(owner);
+        item.setAvailable(true);
+
+        Booking booking = new Booking();
+        booking.setBooker(booker);
+        booking.setItem(item);
+        booking.setStart(bookingDto.getStart());
+        booking.setEnd(bookingDto.getEnd());
+
+        when(userRepository.findById(1L)).thenReturn(Optional.of(booker));
+        when(itemRepository.findById(1L)).thenReturn(Optional.of(item));
+        when(bookingMapper.toBooking(any(), any(), any(), any())).thenReturn(booking);
+        when(bookingIntervalIndex.hasOverlap(1L, bookingDto.getStart(), bookingDto.getEnd())).thenReturn(true);
+
+        assertThrows(OverlappingBookingsException.class, () -> bookingService.createBooking(bookingDto, 1L));
+        verify(bookingRepository, never()).save(any());
+        verify(eventPublisher, never()).publishEvent(any(Object.class));
+    }
+
+    @Test
+    void createBookingUnderDatabaseLockShouldCheckOverlapsInRepository() {
+        BookingDto bookingDto = new BookingDto();
+        bookingDto.setStart(LocalDateTime.now().plusDays(1));
+        bookingDto.setEnd(LocalDateTime.now().plusDays(2));
+        bookingDto.setItemId(1L);
+
+        User booker = new User(1L, "Booker", "booker@example.com");
+        User owner = new User(2L, "Owner", "owner@example.com");
+        Item item = new Item();
+        item.setId(1L);
+        item.setOwner(owner);
+        item.setAvailable(true);
+
+        Booking booking = new Booking();
+        booking.setBooker(booker);
+        booking.setItem(item);
+        booking.setStart(bookingDto.getStart());
+        booking.setEnd(bookingDto.getEnd());
+
+        when(userRepository.findById(1L)).thenReturn(Optional.of(booker));
+        when(itemRepository.findById(1L)).thenReturn(Optional.of(item));
+        when(bookingMapper.toBooking(any(), any(), any(), any())).thenReturn(booking);
+        when(itemBookingLock.isDatabaseLock()).thenReturn(true);
+        when(bookingRepository.existsByItemIdAndStatusInAndEndAfterAndStartBefore(1L,
+                BookingIntervalIndex.ACTIVE_STATUSES, bookingDto.getStart(), bookingDto.getEnd())).thenReturn(true);
+
+        assertThrows(OverlappingBookingsException.class, () -> bookingService.createBooking(bookingDto, 1L));
+        InOrder inOrder = inOrder(itemBookingLock, bookingRepository);
+        inOrder.verify(itemBookingLock).lock(1L);
+        inOrder.verify(bookingRepository).existsByItemIdAndStatusInAndEndAfterAndStartBefore(1L,
+                BookingIntervalIndex.ACTIVE_STATUSES, bookingDto.getStart(), bookingDto.getEnd());
+        verify(bookingIntervalIndex, never()).hasOverlap(any(), any(), any());
+        verify(bookingRepository, never()).save(any());
+    }
+
+    @Test
+    void createBookingInConstraintModeShouldMapExclusionViolation() {
+        ReflectionTestUtils.setField(bookingService, "exclusionConstraint", true);
+        BookingDto bookingDto = new BookingDto();
+        bookingDto.setItemId(1L);
+
+        User booker = new User(1L, "Booker", "booker@example.com");
+        User owner = new User(2L, "Owner", "owner@example.com");
+        Item item = new Item();
+        item.setId(1L);
+        item.setOwner(owner);
+        item.setAvailable(true);
+        Booking booking = new Booking();
+        booking.setBooker(booker);
+
+        when(userRepository.findById(1L)).thenReturn(Optional.of(booker));
+        when(itemRepository.findById(1L)).thenReturn(Optional.of(item));
+        when(bookingMapper.toBooking(any(), any(), any(), any())).thenReturn(booking);
+        when(databasePlatform.isPostgres()).thenReturn(true);
+        when(bookingRepository.save(booking)).thenThrow(new DataIntegrityViolationException("conflict",
+                new SQLException("conflicting key value violates exclusion constraint", "23P01")));
+
+        assertThrows(OverlappingBookingsException.class, () -> bookingService.createBooking(bookingDto, 1L));
+        verify(itemBookingLock, never()).lock(any());
+        verify(bookingIntervalIndex, never()).hasOverlap(any(), any(), any());
+    }
+
+    @Test
+    void createBookingInConstraintModeShouldRethrowOtherViolations() {
+        ReflectionTestUtils.setField(bookingService, "exclusionConstraint", true);
+        BookingDto bookingDto = new BookingDto();
+        bookingDto.setItemId(1L);
+
+        User booker = new User(1L, "Booker", "booker@example.com");
+        Item item = new Item();
+        item.setId(1L);
+        item.setOwner(new User(2L, "Owner", "owner@example.com"));
+        item.setAvailable(true);
+        Booking booking = new Booking();
+        booking.setBooker(booker);
+
+        when(userRepository.findById(1L)).thenReturn(Optional.of(booker));
+        when(itemRepository.findById(1L)).thenReturn(Optional.of(item));
+        when(bookingMapper.toBooking(any(), any(), any(), any())).thenReturn(booking);
+        when(databasePlatform.isPostgres()).thenReturn(true);
+        when(bookingRepository.save(booking)).thenThrow(new DataIntegrityViolationException("fk",
+                new SQLException("foreign key violation", "23503")));
+
+        assertThrows(DataIntegrityViolationException.class, () -> bookingService.createBooking(bookingDto, 1L));
     }
 
     @Test
@@ -113,6 +263,7 @@ public class BookingServiceImplTest {
         assertNotNull(updatedBooking);
         assertEquals(Status.APPROVED, updatedBooking.getStatus());
         verify(bookingRepository).save(booking);
+        verify(eventPublisher).publishEvent(new BookingChangedEvent(booking, BookingChangedEvent.Type.APPROVED));
     }
 
     @Test
@@ -191,19 +342,19 @@ public class BookingServiceImplTest {
         PageRequest pageable = PageRequest.of(page, size, sort);
         Booking booking1 = new Booking();
         Booking booking2 = new Booking();
-        Page<Booking> bookings = new PageImpl<>(Arrays.asList(booking1, booking2));
+        Slice<Booking> bookings = new SliceImpl<>(Arrays.asList(booking1, booking2));
 
-        when(userRepository.existsById(bookerId)).thenReturn(true); // Ensures the user exists
-        when(bookingRepository.findAllByBookerId(bookerId, pageable)).thenReturn(bookings);
+        when(identityCache.userExists(bookerId)).thenReturn(true); // Ensures the user exists
+        when(bookingRepository.findByState(eq(Party.BOOKER), eq(bookerId), eq(BookingState.ALL), any(LocalDateTime.class), eq(pageable))).thenReturn(bookings);
         when(bookingMapper.toBookingDto(booking1)).thenReturn(new BookingDto());
         when(bookingMapper.toBookingDto(booking2)).thenReturn(new BookingDto());
 
-        Page<BookingDto> result = bookingService.getAllBookingsByBooker(bookerId, "ALL", pageable);
+        Slice<BookingDto> result = bookingService.getAllBookingsByBooker(bookerId, BookingState.ALL, pageable);
 
         assertNotNull(result);
         assertEquals(2, result.getContent().size());
-        verify(bookingRepository).findAllByBookerId(bookerId, pageable);
-        verify(userRepository).existsById(bookerId);
+        verify(bookingRepository).findByState(eq(Party.BOOKER), eq(bookerId), eq(BookingState.ALL), any(LocalDateTime.class), eq(pageable));
+        verify(identityCache).userExists(bookerId);
     }
 
     @Test
@@ -211,17 +362,17 @@ public class BookingServiceImplTest {
         Long bookerId = 1L;
         PageRequest pageable = PageRequest.of(0, 10, Sort.by("id").descending());
         Booking booking1 = new Booking();
-        Page<Booking> bookings = new PageImpl<>(List.of(booking1));
+        Slice<Booking> bookings = new SliceImpl<>(List.of(booking1));
 
-        when(userRepository.existsById(bookerId)).thenReturn(true);
-        when(bookingRepository.findAllByBookerIdAndStartAfter(eq(bookerId), any(LocalDateTime.class), eq(pageable))).thenReturn(bookings);
+        when(identityCache.userExists(bookerId)).thenReturn(true);
+        when(bookingRepository.findByState(eq(Party.BOOKER), eq(bookerId), eq(BookingState.FUTURE), any(LocalDateTime.class), eq(pageable))).thenReturn(bookings);
         when(bookingMapper.toBookingDto(any(Booking.class))).thenReturn(new BookingDto());
 
-        Page<BookingDto> result = bookingService.getAllBookingsByBooker(bookerId, "FUTURE", pageable);
+        Slice<BookingDto> result = bookingService.getAllBookingsByBooker(bookerId, BookingState.FUTURE, pageable);
 
         assertNotNull(result);
         assertEquals(1, result.getContent().size());
-        verify(bookingRepository).findAllByBookerIdAndStartAfter(eq(bookerId), any(LocalDateTime.class), eq(pageable));
+        verify(bookingRepository).findByState(eq(Party.BOOKER), eq(bookerId), eq(BookingState.FUTURE), any(LocalDateTime.class), eq(pageable));
     }
 
     @Test
@@ -229,9 +380,9 @@ public class BookingServiceImplTest {
         Long bookerId = 1L;
         PageRequest pageable = PageRequest.of(0, 10, Sort.by("id").descending());
 
-        when(userRepository.existsById(bookerId)).thenReturn(false);
+        when(identityCache.userExists(bookerId)).thenReturn(false);
 
-        assertThrows(UserNotFoundException.class, () -> bookingService.getAllBookingsByBooker(bookerId, "ALL", pageable));
+        assertThrows(UserNotFoundException.class, () -> bookingService.getAllBookingsByBooker(bookerId, BookingState.ALL, pageable));
     }
 
     @Test
@@ -240,17 +391,17 @@ public class BookingServiceImplTest {
         PageRequest pageable = PageRequest.of(0, 10, Sort.by("id").descending());
         Booking booking1 = new Booking();
         booking1.setStatus(Status.WAITING);
-        Page<Booking> bookings = new PageImpl<>(List.of(booking1));
+        Slice<Booking> bookings = new SliceImpl<>(List.of(booking1));
 
-        when(userRepository.existsById(bookerId)).thenReturn(true);
-        when(bookingRepository.findAllByBookerIdAndStatus(bookerId, Status.WAITING, pageable)).thenReturn(bookings);
+        when(identityCache.userExists(bookerId)).thenReturn(true);
+        when(bookingRepository.findByState(eq(Party.BOOKER), eq(bookerId), eq(BookingState.WAITING), any(LocalDateTime.class), eq(pageable))).thenReturn(bookings);
         when(bookingMapper.toBookingDto(any())).thenReturn(new BookingDto());
 
-        Page<BookingDto> result = bookingService.getAllBookingsByBooker(bookerId, "WAITING", pageable);
+        Slice<BookingDto> result = bookingService.getAllBookingsByBooker(bookerId, BookingState.WAITING, pageable);
 
         assertNotNull(result);
         assertEquals(1, result.getContent().size());
-        verify(bookingRepository).findAllByBookerIdAndStatus(bookerId, Status.WAITING, pageable);
+        verify(bookingRepository).findByState(eq(Party.BOOKER), eq(bookerId), eq(BookingState.WAITING), any(LocalDateTime.class), eq(pageable));
     }
 
     @Test
@@ -258,18 +409,18 @@ public class BookingServiceImplTest {
         Long bookerId = 1L;
         PageRequest pageable = PageRequest.of(0, 10, Sort.by("id").descending());
         Booking booking1 = new Booking();
-        Page<Booking> bookings = new PageImpl<>(List.of(booking1));
+        Slice<Booking> bookings = new SliceImpl<>(List.of(booking1));
 
-        when(userRepository.existsById(bookerId)).thenReturn(true);
-        when(bookingRepository.findAllByBookerIdAndEndBefore(eq(bookerId), any(LocalDateTime.class), eq(pageable)))
+        when(identityCache.userExists(bookerId)).thenReturn(true);
+        when(bookingRepository.findByState(eq(Party.BOOKER), eq(bookerId), eq(BookingState.PAST), any(LocalDateTime.class), eq(pageable)))
                 .thenReturn(bookings);
         when(bookingMapper.toBookingDto(any())).thenReturn(new BookingDto());
 
-        Page<BookingDto> result = bookingService.getAllBookingsByBooker(bookerId, "PAST", pageable);
+        Slice<BookingDto> result = bookingService.getAllBookingsByBooker(bookerId, BookingState.PAST, pageable);
 
         assertNotNull(result);
         assertEquals(1, result.getContent().size());
-        verify(bookingRepository).findAllByBookerIdAndEndBefore(eq(bookerId), any(LocalDateTime.class), eq(pageable));
+        verify(bookingRepository).findByState(eq(Party.BOOKER), eq(bookerId), eq(BookingState.PAST), any(LocalDateTime.class), eq(pageable));
     }
 
     @Test
@@ -277,20 +428,18 @@ public class BookingServiceImplTest {
         Long bookerId = 1L;
         PageRequest pageable = PageRequest.of(0, 10, Sort.by("id").descending());
         Booking booking1 = new Booking();
-        Page<Booking> bookings = new PageImpl<>(List.of(booking1));
+        Slice<Booking> bookings = new SliceImpl<>(List.of(booking1));
 
-        when(userRepository.existsById(bookerId)).thenReturn(true);
-        when(bookingRepository.findAllByBookerIdAndStartBeforeAndEndAfter(eq(bookerId), any(LocalDateTime.class),
-                any(LocalDateTime.class), eq(pageable)))
+        when(identityCache.userExists(bookerId)).thenReturn(true);
+        when(bookingRepository.findByState(eq(Party.BOOKER), eq(bookerId), eq(BookingState.CURRENT), any(LocalDateTime.class), eq(pageable)))
                 .thenReturn(bookings);
         when(bookingMapper.toBookingDto(any())).thenReturn(new BookingDto());
 
-        Page<BookingDto> result = bookingService.getAllBookingsByBooker(bookerId, "CURRENT", pageable);
+        Slice<BookingDto> result = bookingService.getAllBookingsByBooker(bookerId, BookingState.CURRENT, pageable);
 
         assertNotNull(result);
         assertEquals(1, result.getContent().size());
-        verify(bookingRepository).findAllByBookerIdAndStartBeforeAndEndAfter(eq(bookerId), any(LocalDateTime.class),
-                any(LocalDateTime.class), eq(pageable));
+        verify(bookingRepository).findByState(eq(Party.BOOKER), eq(bookerId), eq(BookingState.CURRENT), any(LocalDateTime.class), eq(pageable));
     }
 
     @Test
@@ -299,17 +448,17 @@ public class BookingServiceImplTest {
         PageRequest pageable = PageRequest.of(0, 10, Sort.by("id").descending());
         Booking booking1 = new Booking();
         booking1.setStatus(Status.WAITING);
-        Page<Booking> bookings = new PageImpl<>(List.of(booking1));
+        Slice<Booking> bookings = new SliceImpl<>(List.of(booking1));
 
-        when(userRepository.existsById(ownerId)).thenReturn(true);
-        when(bookingRepository.findAllByOwnerIdAndStatus(ownerId, Status.WAITING, pageable)).thenReturn(bookings);
+        when(identityCache.userExists(ownerId)).thenReturn(true);
+        when(bookingRepository.findByState(eq(Party.OWNER), eq(ownerId), eq(BookingState.WAITING), any(LocalDateTime.class), eq(pageable))).thenReturn(bookings);
         when(bookingMapper.toBookingDto(any())).thenReturn(new BookingDto());
 
-        Page<BookingDto> result = bookingService.getAllBookingsByOwner(ownerId, "WAITING", pageable);
+        Slice<BookingDto> result = bookingService.getAllBookingsByOwner(ownerId, BookingState.WAITING, pageable);
 
         assertNotNull(result);
         assertEquals(1, result.getContent().size());
-        verify(bookingRepository).findAllByOwnerIdAndStatus(ownerId, Status.WAITING, pageable);
+        verify(bookingRepository).findByState(eq(Party.OWNER), eq(ownerId), eq(BookingState.WAITING), any(LocalDateTime.class), eq(pageable));
     }
 
 
@@ -318,17 +467,17 @@ public class BookingServiceImplTest {
         Long ownerId = 1L;
         PageRequest pageable = PageRequest.of(0, 10, Sort.by("id").descending());
         Booking booking1 = new Booking();
-        Page<Booking> bookings = new PageImpl<>(List.of(booking1));
+        Slice<Booking> bookings = new SliceImpl<>(List.of(booking1));
 
-        when(userRepository.existsById(ownerId)).thenReturn(true);
-        when(bookingRepository.findAllByOwnerIdAndStatus(ownerId, Status.REJECTED, pageable)).thenReturn(bookings);
+        when(identityCache.userExists(ownerId)).thenReturn(true);
+        when(bookingRepository.findByState(eq(Party.OWNER), eq(ownerId), eq(BookingState.REJECTED), any(LocalDateTime.class), eq(pageable))).thenReturn(bookings);
         when(bookingMapper.toBookingDto(any(Booking.class))).thenReturn(new BookingDto());
 
-        Page<BookingDto> result = bookingService.getAllBookingsByOwner(ownerId, "REJECTED", pageable);
+        Slice<BookingDto> result = bookingService.getAllBookingsByOwner(ownerId, BookingState.REJECTED, pageable);
 
         assertNotNull(result);
         assertEquals(1, result.getContent().size());
-        verify(bookingRepository).findAllByOwnerIdAndStatus(ownerId, Status.REJECTED, pageable);
+        verify(bookingRepository).findByState(eq(Party.OWNER), eq(ownerId), eq(BookingState.REJECTED), any(LocalDateTime.class), eq(pageable));
     }
 
     @Test
@@ -336,9 +485,9 @@ public class BookingServiceImplTest {
         Long ownerId = 1L;
         PageRequest pageable = PageRequest.of(0, 10, Sort.by("id").descending());
 
-        when(userRepository.existsById(ownerId)).thenReturn(false);
+        when(identityCache.userExists(ownerId)).thenReturn(false);
 
-        assertThrows(UserNotFoundException.class, () -> bookingService.getAllBookingsByOwner(ownerId, "ALL", pageable));
+        assertThrows(UserNotFoundException.class, () -> bookingService.getAllBookingsByOwner(ownerId, BookingState.ALL, pageable));
     }
 
     @Test
@@ -346,18 +495,17 @@ public class BookingServiceImplTest {
         Long ownerId = 1L;
         PageRequest pageable = PageRequest.of(0, 10, Sort.by("id").descending());
         Booking booking1 = new Booking();
-        Page<Booking> bookings = new PageImpl<>(List.of(booking1));
+        Slice<Booking> bookings = new SliceImpl<>(List.of(booking1));
 
-        when(userRepository.existsById(ownerId)).thenReturn(true);
-        when(bookingRepository.findAllByOwnerIdAndEndBefore(eq(ownerId), any(LocalDateTime.class),
-                eq(pageable))).thenReturn(bookings);
+        when(identityCache.userExists(ownerId)).thenReturn(true);
+        when(bookingRepository.findByState(eq(Party.OWNER), eq(ownerId), eq(BookingState.PAST), any(LocalDateTime.class), eq(pageable))).thenReturn(bookings);
         when(bookingMapper.toBookingDto(any())).thenReturn(new BookingDto());
 
-        Page<BookingDto> result = bookingService.getAllBookingsByOwner(ownerId, "PAST", pageable);
+        Slice<BookingDto> result = bookingService.getAllBookingsByOwner(ownerId, BookingState.PAST, pageable);
 
         assertNotNull(result);
         assertEquals(1, result.getContent().size());
-        verify(bookingRepository).findAllByOwnerIdAndEndBefore(eq(ownerId), any(LocalDateTime.class), eq(pageable));
+        verify(bookingRepository).findByState(eq(Party.OWNER), eq(ownerId), eq(BookingState.PAST), any(LocalDateTime.class), eq(pageable));
     }
 
     @Test
@@ -365,18 +513,69 @@ public class BookingServiceImplTest {
         Long ownerId = 1L;
         PageRequest pageable = PageRequest.of(0, 10, Sort.by("id").descending());
         Booking booking1 = new Booking();
-        Page<Booking> bookings = new PageImpl<>(List.of(booking1));
+        Slice<Booking> bookings = new SliceImpl<>(List.of(booking1));
 
-        when(userRepository.existsById(ownerId)).thenReturn(true);
-        when(bookingRepository.findAllByOwnerIdAndStartBeforeAndEndAfter(eq(ownerId), any(LocalDateTime.class),
-                any(LocalDateTime.class), eq(pageable))).thenReturn(bookings);
+        when(identityCache.userExists(ownerId)).thenReturn(true);
+        when(bookingRepository.findByState(eq(Party.OWNER), eq(ownerId), eq(BookingState.CURRENT), any(LocalDateTime.class), eq(pageable))).thenReturn(bookings);
         when(bookingMapper.toBookingDto(any())).thenReturn(new BookingDto());
 
-        Page<BookingDto> result = bookingService.getAllBookingsByOwner(ownerId, "CURRENT", pageable);
+        Slice<BookingDto> result = bookingService.getAllBookingsByOwner(ownerId, BookingState.CURRENT, pageable);
 
         assertNotNull(result);
         assertEquals(1, result.getContent().size());
-        verify(bookingRepository).findAllByOwnerIdAndStartBeforeAndEndAfter(eq(ownerId), any(LocalDateTime.class),
-                any(LocalDateTime.class), eq(pageable));
+        verify(bookingRepository).findByState(eq(Party.OWNER), eq(ownerId), eq(BookingState.CURRENT), any(LocalDateTime.class), eq(pageable));
+    }
+
+    @Test
+    void getAllBookingsByBookerAfterWithCurrentStateShouldSeekAscending() {
+        Long bookerId = 1L;
+        PageRequest pageable = PageRequest.of(0, 5, Sort.by(Sort.Direction.ASC, "id"));
+        Booking booking1 = new Booking();
+
+        when(identityCache.userExists(bookerId)).thenReturn(true);
+        when(bookingRepository.findByStateAfter(eq(Party.BOOKER), eq(bookerId), eq(BookingState.CURRENT),
+                any(LocalDateTime.class), eq(3L), eq(pageable)))
+                .thenReturn(new SliceImpl<>(List.of(booking1), pageable, true));
+        when(bookingMapper.toBookingDto(booking1)).thenReturn(new BookingDto());
+
+        Slice<BookingDto> result = bookingService.getAllBookingsByBookerAfter(bookerId, BookingState.CURRENT, 3L,
+                pageable);
+
+        assertEquals(1, result.getNumberOfElements());
+        assertTrue(result.hasNext());
+    }
+
+    @Test
+    void getAllBookingsByOwnerAfterWithWaitingStateShouldSeekDescending() {
+        Long ownerId = 1L;
+        PageRequest pageable = PageRequest.of(0, 5, Sort.by(Sort.Direction.DESC, "id"));
+        Booking booking1 = new Booking();
+
+        when(identityCache.userExists(ownerId)).thenReturn(true);
+        when(bookingRepository.findByStateAfter(eq(Party.OWNER), eq(ownerId), eq(BookingState.WAITING),
+                any(LocalDateTime.class), eq(30L), eq(pageable)))
+                .thenReturn(new SliceImpl<>(List.of(booking1), pageable, false));
+        when(bookingMapper.toBookingDto(booking1)).thenReturn(new BookingDto());
+
+        Slice<BookingDto> result = bookingService.getAllBookingsByOwnerAfter(ownerId, BookingState.WAITING, 30L,
+                pageable);
+
+        assertEquals(1, result.getNumberOfElements());
+        assertFalse(result.hasNext());
+    }
+
+    @Test
+    void countBookingsByBookerShouldCacheCountPerState() {
+        when(bookingRepository.countByState(eq(Party.BOOKER), eq(1L), eq(BookingState.WAITING),
+                any(LocalDateTime.class))).thenReturn(3L);
+        when(bookingRepository.countByState(eq(Party.BOOKER), eq(1L), eq(BookingState.ALL),
+                any(LocalDateTime.class))).thenReturn(10L);
+
+        assertEquals(3L, bookingService.countBookingsByBooker(1L, BookingState.WAITING));
+        assertEquals(3L, bookingService.countBookingsByBooker(1L, BookingState.WAITING));
+        assertEquals(10L, bookingService.countBookingsByBooker(1L, BookingState.ALL));
+
+        verify(bookingRepository, times(1)).countByState(eq(Party.BOOKER), eq(1L), eq(BookingState.WAITING),
+                any(LocalDateTime.class));
     }
 }
@@ -0,0 +1,138 @@
+package ru.practicum.shareit.booking.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+import ru.practicum.shareit.booking.event.BookingChangedEvent;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.Status;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.item.model.Item;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.when;
+
+@Slf4j
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BookingSlotIndexBenchmark {
+
+    private static final int HORIZON_HOURS = 24 * 90;
+    private static final int MAX_BOOKING_HOURS = 72;
+
+    @Param("50000")
+    private int items;
+
+    @Param("20")
+    private int bookingsPerItem;
+
+    private BookingSlotIndex slotIndex;
+    private List<Long> itemIds;
+    private List<List<Booking>> bookingsByItem;
+    private LocalDateTime windowStart;
+    private LocalDateTime windowEnd;
+    private long unknownItems;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        BookingRepository bookingRepository = Mockito.mock(BookingRepository.class);
+        when(bookingRepository.findSlotViews(anyCollection(), any(), anyLong(), any())).thenReturn(List.of());
+        // граничные вещи проверяются тем же пересечением, что и в базе, иначе они засчитывались бы свободными
+        when(bookingRepository.findBookedItemIds(anyCollection(), anyCollection(), any(), any()))
+                .thenAnswer(invocation -> {
+                    Collection<Long> unknown = invocation.getArgument(0);
+                    unknownItems = unknown.size();
+                    return unknown.stream()
+                            .filter(itemId -> isBusy(bookingsByItem.get((int) (itemId - 1)),
+                                    invocation.getArgument(2), invocation.getArgument(3)))
+                            .collect(Collectors.toList());
+                });
+        slotIndex = new BookingSlotIndex(bookingRepository, new SimpleMeterRegistry());
+        slotIndex.setEnabled(true);
+        ReflectionTestUtils.setField(slotIndex, "batchSize", 1000);
+        slotIndex.build();
+
+        Random random = new Random(42);
+        LocalDateTime base = LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.HOURS);
+        itemIds = new ArrayList<>(items);
+        bookingsByItem = new ArrayList<>(items);
+        long bookingId = 0;
+        for (long itemId = 1; itemId <= items; itemId++) {
+            Item item = new Item();
+            item.setId(itemId);
+            List<Booking> bookings = new ArrayList<>(bookingsPerItem);
+            for (int i = 0; i < bookingsPerItem; i++) {
+                LocalDateTime start = base.plusHours(random.nextInt(HORIZON_HOURS)).plusMinutes(random.nextInt(60));
+                LocalDateTime end = start.plusHours(1 + random.nextInt(MAX_BOOKING_HOURS));
+                Booking booking = new Booking(++bookingId, item, null, null, start, end, Status.APPROVED);
+                bookings.add(booking);
+                slotIndex.onBookingChanged(new BookingChangedEvent(booking, BookingChangedEvent.Type.APPROVED));
+            }
+            itemIds.add(itemId);
+            bookingsByItem.add(bookings);
+        }
+        // окно не по границе часа, как у настоящих запросов: граничные вещи уходят в базу
+        windowStart = base.plusDays(30).plusMinutes(30);
+        windowEnd = windowStart.plusDays(2);
+        if (!slotIndex().equals(perBookingScan())) {
+            throw new IllegalStateException("Slot index and per-booking scan disagree");
+        }
+        long bytes = slotIndex.getFootprintBytes();
+        log.info("BookingSlotIndex footprint: {} bytes for {} items with {} bookings each, {} bytes per item; "
+                        + "{} of {} items ({}%) left to the database",
+                bytes, items, bookingsPerItem, bytes / items, unknownItems, items, unknownItems * 100.0 / items);
+    }
+
+    @Benchmark
+    public List<Long> slotIndex() {
+        return slotIndex.findFree(itemIds, windowStart, windowEnd);
+    }
+
+    @Benchmark
+    public List<Long> perBookingScan() {
+        List<Long> free = new ArrayList<>();
+        for (List<Booking> bookings : bookingsByItem) {
+            if (!isBusy(bookings, windowStart, windowEnd)) {
+                free.add(bookings.get(0).getItem().getId());
+            }
+        }
+        return free;
+    }
+
+    private static boolean isBusy(List<Booking> bookings, LocalDateTime start, LocalDateTime end) {
+        for (Booking booking : bookings) {
+            if (booking.getStart().isBefore(end) && booking.getEnd().isAfter(start)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,38 @@
+package ru.practicum.shareit.booking.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Collection;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Slf4j
+@EnabledIfSystemProperty(named = "shareit.benchmark", matches = "true")
+public class BookingSlotIndexBenchmarkTest {
+
+    @Test
+    void measureFindFreeOverFleet() throws RunnerException {
+        // surefire запускает тесты из jar с манифестом, а форку JMH нужен полный classpath
+        String testClassPath = System.getProperty("surefire.test.class.path");
+        if (testClassPath != null) {
+            System.setProperty("java.class.path", testClassPath);
+        }
+        Options options = new OptionsBuilder()
+                .include(BookingSlotIndexBenchmark.class.getName() + "\\.")
+                .param("items", System.getProperty("shareit.benchmark.items", "50000"))
+                .build();
+
+        Collection<RunResult> results = new Runner(options).run();
+
+        assertThat(results).hasSize(2);
+        results.forEach(result -> log.info("{}: {} ms per query",
+                result.getParams().getBenchmark(), result.getPrimaryResult().getScore()));
+    }
+}
@@ -0,0 +1,202 @@
+package ru.practicum.shareit.booking.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+import ru.practicum.shareit.booking.event.BookingChangedEvent;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.Status;
+import ru.practicum.shareit.booking.repository.BookingIntervalView;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.repository.BookingSlotView;
+import ru.practicum.shareit.item.model.Item;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class BookingSlotIndexTest {
+
+    @Mock
+    private BookingRepository bookingRepository;
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private BookingSlotIndex slotIndex;
+
+    private LocalDateTime base;
+
+    @BeforeEach
+    void setUp() {
+        slotIndex = new BookingSlotIndex(bookingRepository, meterRegistry);
+        slotIndex.setEnabled(true);
+        ReflectionTestUtils.setField(slotIndex, "batchSize", 100);
+        base = LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.HOURS);
+    }
+
+    @Test
+    void findFreeShouldAnswerHourAlignedWindowsFromBitmaps() {
+        build(slot(10L, 1L, base, base.plusHours(2)), slot(11L, 2L, base.plusHours(5), base.plusHours(6)));
+
+        assertEquals(List.of(3L, 2L), slotIndex.findFree(List.of(3L, 1L, 2L), base.plusHours(1), base.plusHours(3)));
+        assertEquals(List.of(1L, 2L, 3L), slotIndex.findFree(List.of(1L, 2L, 3L), base.plusHours(2),
+                base.plusHours(5)));
+        assertEquals(List.of(3L), slotIndex.findFree(List.of(1L, 2L, 3L), base.minusHours(1), base.plusDays(1)));
+
+        verify(bookingRepository, never()).findBookedItemIds(anyCollection(), anyCollection(), any(), any());
+        assertEquals(3, meterRegistry.get("shareit.booking.slot-index.query").timer().count());
+    }
+
+    @Test
+    void findFreeShouldCheckOnlyBoundarySlotsInRepository() {
+        build(slot(10L, 1L, base.plusMinutes(10), base.plusMinutes(50)),
+                slot(11L, 2L, base.minusHours(3), base.plusHours(3)));
+        when(bookingRepository.findBookedItemIds(eq(List.of(1L)), anyCollection(), eq(base.plusMinutes(50)),
+                eq(base.plusHours(2)))).thenReturn(Collections.emptyList());
+
+        assertEquals(List.of(1L), slotIndex.findFree(List.of(1L, 2L), base.plusMinutes(50), base.plusHours(2)));
+        assertEquals(List.of(1L), slotIndex.findFree(List.of(1L, 2L), base.plusHours(1), base.plusHours(2)));
+
+        verify(bookingRepository, times(1)).findBookedItemIds(anyCollection(), anyCollection(), any(), any());
+    }
+
+    @Test
+    void findFreeShouldUseRepositoryForWindowsStartingBeforeBuild() {
+        build();
+        LocalDateTime past = LocalDateTime.now().minusDays(2);
+        when(bookingRepository.findBookedItemIds(eq(List.of(1L, 2L)), anyCollection(), eq(past),
+                eq(past.plusDays(1)))).thenReturn(List.of(2L));
+
+        assertEquals(List.of(1L), slotIndex.findFree(List.of(1L, 2L), past, past.plusDays(1)));
+    }
+
+    @Test
+    void onBookingChangedShouldAddCreatedAndRebuildItemAfterRejection() {
+        build();
+        Booking booking = booking(20L, base, base.plusHours(1), Status.WAITING);
+        slotIndex.onBookingChanged(new BookingChangedEvent(booking, BookingChangedEvent.Type.CREATED));
+
+        assertEquals(List.of(), slotIndex.findFree(List.of(1L), base, base.plusHours(1)));
+        assertTrue(slotIndex.getFootprintBytes() > 0);
+
+        booking.setStatus(Status.REJECTED);
+        when(bookingRepository.findAllByItemIdAndStatusInAndEndAfter(eq(1L), anyCollection(), any()))
+                .thenReturn(Collections.emptyList());
+        slotIndex.onBookingChanged(new BookingChangedEvent(booking, BookingChangedEvent.Type.REJECTED));
+
+        assertEquals(List.of(1L), slotIndex.findFree(List.of(1L), base, base.plusHours(1)));
+        assertEquals(0, slotIndex.getFootprintBytes());
+        assertEquals(0, meterRegistry.get("shareit.booking.slot-index.items").gauge().value());
+    }
+
+    @Test
+    void onBookingChangedShouldReloadItemOutsideWriteLock() {
+        build(slot(10L, 1L, base, base.plusHours(1)));
+        ReentrantReadWriteLock lock = (ReentrantReadWriteLock) ReflectionTestUtils.getField(slotIndex, "lock");
+        when(bookingRepository.findAllByItemIdAndStatusInAndEndAfter(eq(1L), anyCollection(), any()))
+                .thenAnswer(invocation -> {
+                    assertFalse(lock.isWriteLocked());
+                    return Collections.emptyList();
+                });
+
+        slotIndex.onBookingChanged(new BookingChangedEvent(booking(10L, base, base.plusHours(1), Status.REJECTED),
+                BookingChangedEvent.Type.REJECTED));
+
+        assertEquals(List.of(1L), slotIndex.findFree(List.of(1L), base, base.plusHours(1)));
+    }
+
+    @Test
+    void onBookingChangedShouldRetryReloadWhenItemChangesMeanwhile() {
+        build(slot(10L, 1L, base, base.plusHours(1)));
+        Booking created = booking(11L, base.plusHours(3), base.plusHours(4), Status.WAITING);
+        when(bookingRepository.findAllByItemIdAndStatusInAndEndAfter(eq(1L), anyCollection(), any()))
+                .thenAnswer(invocation -> {
+                    slotIndex.onBookingChanged(new BookingChangedEvent(created, BookingChangedEvent.Type.CREATED));
+                    return Collections.emptyList();
+                })
+                .thenReturn(List.of(interval(created)));
+
+        slotIndex.onBookingChanged(new BookingChangedEvent(booking(10L, base, base.plusHours(1), Status.REJECTED),
+                BookingChangedEvent.Type.REJECTED));
+
+        assertEquals(List.of(1L), slotIndex.findFree(List.of(1L), base, base.plusHours(1)));
+        assertEquals(List.of(), slotIndex.findFree(List.of(1L), base.plusHours(3), base.plusHours(4)));
+        verify(bookingRepository, times(2)).findAllByItemIdAndStatusInAndEndAfter(eq(1L), anyCollection(), any());
+    }
+
+    @Test
+    void buildShouldDoNothingWhenDisabled() {
+        slotIndex.setEnabled(false);
+
+        slotIndex.build();
+
+        assertFalse(slotIndex.isReady());
+        verifyNoInteractions(bookingRepository);
+    }
+
+    private void build(BookingSlotView... views) {
+        when(bookingRepository.findSlotViews(anyCollection(), any(), anyLong(), any(Pageable.class)))
+                .thenReturn(List.of(views));
+        slotIndex.build();
+        assertTrue(slotIndex.isReady());
+    }
+
+    private Booking booking(Long id, LocalDateTime start, LocalDateTime end, Status status) {
+        Item item = new Item();
+        item.setId(1L);
+        Booking booking = new Booking();
+        booking.setId(id);
+        booking.setItem(item);
+        booking.setStart(start);
+        booking.setEnd(end);
+        booking.setStatus(status);
+        return booking;
+    }
+
+    private BookingIntervalView interval(Booking booking) {
+        BookingIntervalView view = mock(BookingIntervalView.class);
+        when(view.getStart()).thenReturn(booking.getStart());
+        when(view.getEnd()).thenReturn(booking.getEnd());
+        return view;
+    }
+
+    private BookingSlotView slot(Long id, Long itemId, LocalDateTime start, LocalDateTime end) {
+        return new BookingSlotView() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public Long getItemId() {
+                return itemId;
+            }
+
+            @Override
+            public LocalDateTime getStart() {
+                return start;
+            }
+
+            @Override
+            public LocalDateTime getEnd() {
+                return end;
+            }
+        };
+    }
+}
@@ -0,0 +1,78 @@
+package ru.practicum.shareit.booking.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.util.DatabasePlatform;
+
+import javax.persistence.EntityManager;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@ExtendWith(MockitoExtension.class)
+public class ItemBookingLockTest {
+
+    @Mock
+    private EntityManager entityManager;
+    @Mock
+    private DatabasePlatform databasePlatform;
+
+    @InjectMocks
+    private ItemBookingLock itemBookingLock;
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void lockWithoutTransactionShouldThrowException() {
+        assertThrows(IllegalStateException.class, () -> itemBookingLock.lock(1L));
+    }
+
+    @Test
+    void lockShouldBlockSameItemUntilTransactionCompletes() throws Exception {
+        TransactionSynchronizationManager.initSynchronization();
+        itemBookingLock.lock(1L);
+
+        CompletableFuture<Void> sameItem = CompletableFuture.runAsync(() -> lockInOwnTransaction(1L));
+        assertThrows(TimeoutException.class, () -> sameItem.get(200, TimeUnit.MILLISECONDS));
+
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+        }
+        sameItem.get(5, TimeUnit.SECONDS);
+        assertTrue(sameItem.isDone());
+    }
+
+    @Test
+    void lockShouldNotBlockUnrelatedItem() throws Exception {
+        TransactionSynchronizationManager.initSynchronization();
+        itemBookingLock.lock(1L);
+
+        CompletableFuture.runAsync(() -> lockInOwnTransaction(2L)).get(5, TimeUnit.SECONDS);
+    }
+
+    private void lockInOwnTransaction(Long itemId) {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            itemBookingLock.lock(itemId);
+            for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+                synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+            }
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package ru.practicum.shareit.item.analysis;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class TextAnalyzerTest {
+
+    private final TextAnalyzer analyzer = new TextAnalyzer(List.of(new StopWordFilter(), new StemmingFilter()));
+
+    @Test
+    void analyzeShouldReduceRussianWordFormsToTheSameStem() {
+        assertEquals(analyzer.analyze("дрель"), analyzer.analyze("дрели"));
+        assertEquals(analyzer.analyze("дрель"), analyzer.analyze("Дрелью"));
+        assertEquals(analyzer.analyze("ударная"), analyzer.analyze("ударной"));
+        assertEquals(List.of("палатк"), analyzer.analyze("палатки"));
+    }
+
+    @Test
+    void analyzeShouldReduceEnglishWordFormsToTheSameStem() {
+        assertEquals(List.of("drill"), analyzer.analyze("Drills"));
+        assertEquals(List.of("drill"), analyzer.analyze("drilling"));
+        assertEquals(List.of("connect"), analyzer.analyze("connections"));
+        assertEquals(List.of("ladder"), analyzer.analyze("ladders"));
+    }
+
+    @Test
+    void analyzeShouldDropStopWordsAndKeepNumbers() {
+        assertEquals(List.of("дрел", "аккумулятор", "18v"), analyzer.analyze("Дрель с аккумулятором, 18V"));
+        assertEquals(List.of("tent", "famili"), analyzer.analyze("a tent for the family"));
+        assertEquals(List.of(), analyzer.analyze("и на the"));
+        assertEquals(List.of(), analyzer.analyze(null));
+    }
+
+    @Test
+    void analyzeShouldTreatYoAsYe() {
+        assertEquals(analyzer.analyze("щетка"), analyzer.analyze("щётка"));
+    }
+}
@@ -11,20 +11,31 @@ import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
 import ru.practicum.shareit.exception.ItemNotFoundException;
 import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.FacetCountDto;
+import ru.practicum.shareit.item.dto.FreeSlotDto;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemFacetsDto;
 import ru.practicum.shareit.item.dto.ItemMapper;
 import ru.practicum.shareit.item.dto.ItemPatchDto;
+import ru.practicum.shareit.item.dto.ItemSearchFilter;
+import ru.practicum.shareit.item.dto.ItemSearchResultDto;
+import ru.practicum.shareit.item.dto.ItemSuggestionDto;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.service.ItemService;
 
+import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
 
+import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.when;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -155,7 +166,7 @@ public class ItemControllerTest {
         item2.setDescription("Sharp tool");
         item2.setAvailable(true);
         List<ItemDto> items = Arrays.asList(item1, item2);
-        Page<ItemDto> pageResult = new PageImpl<>(items);
+        Slice<ItemDto> pageResult = new SliceImpl<>(items);
 
         when(itemService.getAllItemsWithBookingDetails(1L, PageRequest.of(page, size, Sort.by("name").descending())))
                 .thenReturn(pageResult);
@@ -175,7 +186,7 @@ public class ItemControllerTest {
     void getAllItemsByOwnerShouldReturnEmptyList() throws Exception {
         int page = 0;
         int size = 10;
-        Page<ItemDto> pageResult = new PageImpl<>(List.of());
+        Slice<ItemDto> pageResult = new SliceImpl<>(List.of());
 
         when(itemService.getAllItemsWithBookingDetails(1L, PageRequest.of(page, size, Sort.by("name").descending())))
                 .thenReturn(pageResult);
@@ -191,7 +202,7 @@ public class ItemControllerTest {
     @Test
     void getItemsBySubstringShouldReturnItemsWhenValidSubstringProvided() throws Exception {
         List<ItemDto> items = List.of(new ItemDto());
-        Page<ItemDto> page = new PageImpl<>(items);
+        Slice<ItemDto> page = new SliceImpl<>(items);
         when(itemService.getItemsBySubstring(eq("test"), any(Pageable.class))).thenReturn(page);
 
         mockMvc.perform(get("/items/search")
@@ -200,9 +211,35 @@ public class ItemControllerTest {
                 .andExpect(jsonPath("$[0]").exists());
     }
 
+    @Test
+    void getItemsBySubstringShouldReturnTotalCountWhenRequested() throws Exception {
+        when(itemService.getItemsBySubstring(eq("test"), any(Pageable.class)))
+                .thenReturn(new SliceImpl<>(List.of(new ItemDto())));
+        when(itemService.countItemsBySubstring("test")).thenReturn(42L);
+
+        mockMvc.perform(get("/items/search")
+                        .param("text", "test")
+                        .param("total", "true"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Total-Count", "42"));
+    }
+
+    @Test
+    void getItemsBySubstringShouldNotCountByDefault() throws Exception {
+        when(itemService.getItemsBySubstring(eq("test"), any(Pageable.class)))
+                .thenReturn(new SliceImpl<>(List.of(new ItemDto())));
+
+        mockMvc.perform(get("/items/search")
+                        .param("text", "test"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("X-Total-Count"));
+
+        verify(itemService, never()).countItemsBySubstring(any());
+    }
+
     @Test
     void getItemsBySubstringShouldReturnEmptyListWhenNoItemsFound() throws Exception {
-        Page<ItemDto> page = new PageImpl<>(List.of());
+        Slice<ItemDto> page = new SliceImpl<>(List.of());
         when(itemService.getItemsBySubstring(eq("empty"), any(Pageable.class))).thenReturn(page);
 
         mockMvc.perform(get("/items/search")
@@ -211,6 +248,133 @@ public class ItemControllerTest {
                 .andExpect(jsonPath("$").isEmpty());
     }
 
+    @Test
+    void getItemsBySubstringShouldUseFuzzySearchWhenRequested() throws Exception {
+        when(itemService.getItemsByFuzzyText(eq("dril"), any(Pageable.class)))
+                .thenReturn(new SliceImpl<>(List.of(new ItemDto())));
+        when(itemService.countItemsByFuzzyText("dril")).thenReturn(3L);
+
+        mockMvc.perform(get("/items/search")
+                        .param("text", "dril")
+                        .param("fuzzy", "true")
+                        .param("total", "true"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Total-Count", "3"));
+
+        verify(itemService, never()).getItemsBySubstring(any(), any());
+    }
+
+    @Test
+    void getItemsBySubstringShouldUseStemmedSearchWhenRequested() throws Exception {
+        when(itemService.getItemsByStemmedText(eq("дрели"), any(Pageable.class)))
+                .thenReturn(new SliceImpl<>(List.of(new ItemDto())));
+        when(itemService.countItemsByStemmedText("дрели")).thenReturn(2L);
+
+        mockMvc.perform(get("/items/search")
+                        .param("text", "дрели")
+                        .param("stemmed", "true")
+                        .param("total", "true"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Total-Count", "2"));
+
+        verify(itemService, never()).getItemsBySubstring(any(), any());
+    }
+
+    @Test
+    void getItemsBySubstringShouldRejectFiltersInFuzzyOrStemmedMode() throws Exception {
+        mockMvc.perform(get("/items/search")
+                        .param("text", "дрель")
+                        .param("fuzzy", "true")
+                        .param("start", "2030-06-01T10:00:00")
+                        .param("end", "2030-06-01T18:00:00"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/items/search")
+                        .param("text", "дрель")
+                        .param("stemmed", "true")
+                        .param("ownerId", "2"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(itemService);
+    }
+
+    @Test
+    void getItemsBySubstringShouldApplyFilters() throws Exception {
+        ItemSearchFilter filter = new ItemSearchFilter(2L, true, LocalDateTime.of(2024, 1, 1, 0, 0), null, null, null);
+        when(itemService.getItemsByFilter(eq("drill"), eq(filter), any(Pageable.class)))
+                .thenReturn(new SliceImpl<>(List.of(new ItemDto())));
+
+        mockMvc.perform(get("/items/search")
+                        .param("text", "drill")
+                        .param("ownerId", "2")
+                        .param("hasRequest", "true")
+                        .param("createdFrom", "2024-01-01T00:00:00"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)));
+
+        verify(itemService, never()).getItemsBySubstring(any(), any());
+    }
+
+    @Test
+    void getItemsBySubstringShouldPassBookingWindow() throws Exception {
+        ItemSearchFilter filter = new ItemSearchFilter(null, null, null, null,
+                LocalDateTime.of(2030, 6, 1, 10, 0), LocalDateTime.of(2030, 6, 1, 18, 0));
+        when(itemService.getItemsByFilter(eq("drill"), eq(filter), any(Pageable.class)))
+                .thenReturn(new SliceImpl<>(List.of()));
+
+        mockMvc.perform(get("/items/search")
+                        .param("text", "drill")
+                        .param("start", "2030-06-01T10:00:00")
+                        .param("end", "2030-06-01T18:00:00"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(0)));
+    }
+
+    @Test
+    void searchItemsWithFacetsShouldReturnPageAndFacets() throws Exception {
+        ItemFacetsDto facets = new ItemFacetsDto(3, List.of(new FacetCountDto("2", 3)),
+                List.of(new FacetCountDto("true", 1), new FacetCountDto("false", 2)), List.of());
+        when(itemService.searchItemsWithFacets(eq("drill"), eq(new ItemSearchFilter()), any(Pageable.class)))
+                .thenReturn(new ItemSearchResultDto(List.of(new ItemDto()), true, facets));
+
+        mockMvc.perform(get("/items/search")
+                        .param("text", "drill")
+                        .param("facets", "true"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items", hasSize(1)))
+                .andExpect(jsonPath("$.hasNext", is(true)))
+                .andExpect(jsonPath("$.facets.total", is(3)))
+                .andExpect(jsonPath("$.facets.owners[0].value", is("2")))
+                .andExpect(jsonPath("$.facets.hasRequest[1].count", is(2)));
+    }
+
+    @Test
+    void getFreeSlotsShouldReturnSlots() throws Exception {
+        LocalDateTime from = LocalDateTime.of(2030, 6, 1, 10, 0);
+        LocalDateTime to = LocalDateTime.of(2030, 6, 1, 18, 0);
+        when(itemService.getFreeSlots(3L, from, to))
+                .thenReturn(List.of(new FreeSlotDto(from.plusHours(2), to)));
+
+        mockMvc.perform(get("/items/3/availability")
+                        .param("from", "2030-06-01T10:00:00")
+                        .param("to", "2030-06-01T18:00:00"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].start", is("2030-06-01T12:00:00")))
+                .andExpect(jsonPath("$[0].end", is("2030-06-01T18:00:00")));
+    }
+
+    @Test
+    void suggestItemsShouldReturnSuggestions() throws Exception {
+        when(itemService.suggestItems("dr", 5)).thenReturn(List.of(new ItemSuggestionDto(3L, "Drill")));
+
+        mockMvc.perform(get("/items/suggest")
+                        .param("prefix", "dr")
+                        .param("size", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id", is(3)))
+                .andExpect(jsonPath("$[0].name", is("Drill")));
+    }
+
     @Test
     void addCommentShouldCreateCommentWhenValidRequest() throws Exception {
         CommentDto commentDto = new CommentDto();
@@ -0,0 +1,83 @@
+package ru.practicum.shareit.item.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import ru.practicum.shareit.item.model.BookingSnapshot;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemBookingPointer;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+public class ItemBookingPointerRepositoryTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private ItemBookingPointerRepository pointerRepository;
+
+    @Test
+    public void saveShouldPersistSnapshotsAndVersion() {
+        User owner = entityManager.persist(new User(null, "Owner", "owner@example.com"));
+        Item item = entityManager.persist(new Item(null, "Drill", "Description", true, owner, null));
+        LocalDateTime start = LocalDateTime.now().plusDays(1).withNano(0);
+        ItemBookingPointer pointer = new ItemBookingPointer(item.getId());
+        pointer.setNextBooking(new BookingSnapshot(10L, owner.getId(), start, start.plusHours(2)));
+        pointer.setValidUntil(start);
+
+        pointerRepository.saveAndFlush(pointer);
+        entityManager.clear();
+        ItemBookingPointer found = pointerRepository.findById(item.getId()).orElseThrow();
+
+        assertThat(found.getLastBooking()).isNull();
+        assertThat(found.getNextBooking()).isEqualTo(pointer.getNextBooking());
+        assertThat(found.getVersion()).isZero();
+    }
+
+    @Test
+    public void findExpiredItemIdsShouldReturnRowsPastTheirValidity() {
+        User owner = entityManager.persist(new User(null, "Owner", "owner@example.com"));
+        Item expired = entityManager.persist(new Item(null, "Drill", "Description", true, owner, null));
+        Item valid = entityManager.persist(new Item(null, "Saw", "Description", true, owner, null));
+        Item idle = entityManager.persist(new Item(null, "Axe", "Description", true, owner, null));
+        LocalDateTime now = LocalDateTime.now();
+        ItemBookingPointer expiredPointer = new ItemBookingPointer(expired.getId());
+        expiredPointer.setValidUntil(now.minusMinutes(1));
+        ItemBookingPointer validPointer = new ItemBookingPointer(valid.getId());
+        validPointer.setValidUntil(now.plusMinutes(1));
+        pointerRepository.save(expiredPointer);
+        pointerRepository.save(validPointer);
+        pointerRepository.save(new ItemBookingPointer(idle.getId()));
+        entityManager.flush();
+
+        assertThat(pointerRepository.findExpiredItemIds(now, PageRequest.of(0, 10)))
+                .containsExactly(expired.getId());
+    }
+
+    @Test
+    public void markStaleShouldExpireRowAndBumpVersion() {
+        User owner = entityManager.persist(new User(null, "Owner", "owner@example.com"));
+        Item item = entityManager.persist(new Item(null, "Drill", "Description", true, owner, null));
+        Item missing = entityManager.persist(new Item(null, "Saw", "Description", true, owner, null));
+        LocalDateTime now = LocalDateTime.now().withNano(0);
+        ItemBookingPointer pointer = new ItemBookingPointer(item.getId());
+        pointer.setValidUntil(now.plusDays(1));
+        pointerRepository.saveAndFlush(pointer);
+
+        assertThat(pointerRepository.findItemIdsWithoutPointers(PageRequest.of(0, 10)))
+                .containsExactly(missing.getId());
+        assertThat(pointerRepository.markStale(item.getId(), now)).isEqualTo(1);
+        entityManager.clear();
+
+        ItemBookingPointer stale = pointerRepository.findById(item.getId()).orElseThrow();
+        assertThat(stale.isStaleAt(now)).isTrue();
+        assertThat(stale.getVersion()).isEqualTo(1L);
+    }
+}
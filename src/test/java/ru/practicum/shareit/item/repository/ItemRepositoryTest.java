@@ -5,14 +5,21 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.Status;
+import ru.practicum.shareit.item.dto.ItemSearchFilter;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -173,7 +180,7 @@ public class ItemRepositoryTest {
         entityManager.flush();
 
         Pageable pageable = PageRequest.of(0, 10);
-        Page<Item> items = itemRepository.findAllByOwnerId(savedOwner.getId(), pageable);
+        Slice<Item> items = itemRepository.findAllByOwnerId(savedOwner.getId(), pageable);
 
         assertThat(items).isNotNull();
         assertThat(items.getContent().size()).isEqualTo(2);
@@ -204,13 +211,172 @@ public class ItemRepositoryTest {
         entityManager.flush();
 
         Pageable pageable = PageRequest.of(0, 10);
-        Page<Item> items = itemRepository.findBySubstring("1", pageable);
+        Slice<Item> items = itemRepository.findBySubstring("1", pageable);
 
         assertThat(items).isNotNull();
         assertThat(items.getContent().size()).isEqualTo(1);
         assertThat(items.getContent().get(0)).isEqualTo(item1);
     }
 
+    @Test
+    public void findIdsBySubstringShouldReturnMatchingAvailableIdsInPageOrder() {
+        User savedOwner = entityManager.persist(new User(null, "Owner", "ids@example.com"));
+        Item drill = entityManager.persist(new Item(null, "Drill", "Cordless", true, savedOwner, null));
+        entityManager.persist(new Item(null, "Hammer", "Heavy", true, savedOwner, null));
+        entityManager.persist(new Item(null, "Old drill", "Broken", false, savedOwner, null));
+        Item bits = entityManager.persist(new Item(null, "Bits", "For any DRILL", true, savedOwner, null));
+        entityManager.flush();
+
+        Slice<Long> firstPage = itemRepository.findIdsBySubstring("drill",
+                PageRequest.of(0, 1, Sort.by("id").ascending()));
+        Optional<ItemSearchView> view = itemRepository.findSearchViewById(bits.getId());
+
+        assertThat(firstPage.getContent()).containsExactly(drill.getId());
+        assertThat(firstPage.hasNext()).isTrue();
+        assertThat(view).isPresent();
+        assertThat(view.get().getDescription()).isEqualTo("For any DRILL");
+    }
+
+    @Test
+    public void findByFilterShouldApplyOnlyGivenConditions() {
+        User owner = entityManager.persist(new User(null, "Owner", "filter@example.com"));
+        User other = entityManager.persist(new User(null, "Other", "other-filter@example.com"));
+        ItemRequest request = entityManager.persist(new ItemRequest(null, "Need a drill", other,
+                LocalDateTime.now(), null));
+        Item requested = entityManager.persist(new Item(null, "Drill", "Cordless", true, owner, request));
+        Item plain = entityManager.persist(new Item(null, "Drill", "Corded", true, owner, null));
+        Item foreign = entityManager.persist(new Item(null, "Drill", "Hammer drill", true, other, null));
+        entityManager.flush();
+        Pageable pageable = PageRequest.of(0, 10, Sort.by("id").ascending());
+
+        Slice<Item> byOwner = itemRepository.findByFilter("drill",
+                new ItemSearchFilter(owner.getId(), null, null, null, null, null), pageable);
+        Slice<Item> withoutRequest = itemRepository.findByFilter("drill",
+                new ItemSearchFilter(null, false, null, null, null, null),
+                PageRequest.of(0, 1, Sort.by("id").ascending()));
+        long createdLater = itemRepository.countByFilter("drill",
+                new ItemSearchFilter(null, null, LocalDateTime.now().plusDays(1), null, null, null));
+
+        assertThat(byOwner.getContent()).containsExactly(requested, plain);
+        assertThat(withoutRequest.getContent()).containsExactly(plain);
+        assertThat(withoutRequest.hasNext()).isTrue();
+        assertThat(createdLater).isZero();
+        assertThat(foreign.getCreated()).isNotNull();
+    }
+
+    @Test
+    public void findByFilterShouldSkipItemsWithActiveBookingsInWindow() {
+        User owner = entityManager.persist(new User(null, "Owner", "window@example.com"));
+        User booker = entityManager.persist(new User(null, "Booker", "window-booker@example.com"));
+        Item approved = entityManager.persist(new Item(null, "Drill", "Booked", true, owner, null));
+        Item rejected = entityManager.persist(new Item(null, "Drill", "Rejected", true, owner, null));
+        Item adjacent = entityManager.persist(new Item(null, "Drill", "Booked before", true, owner, null));
+        Item waiting = entityManager.persist(new Item(null, "Drill", "Waiting", true, owner, null));
+        LocalDateTime start = LocalDateTime.of(2030, 6, 1, 10, 0);
+        LocalDateTime end = LocalDateTime.of(2030, 6, 1, 18, 0);
+        entityManager.persist(new Booking(null, approved, owner, booker, start.minusHours(2), start.plusHours(1),
+                Status.APPROVED));
+        entityManager.persist(new Booking(null, rejected, owner, booker, start, end, Status.REJECTED));
+        entityManager.persist(new Booking(null, adjacent, owner, booker, start.minusDays(1), start,
+                Status.APPROVED));
+        entityManager.persist(new Booking(null, waiting, owner, booker, end.minusHours(1), end.plusHours(1),
+                Status.WAITING));
+        entityManager.flush();
+        ItemSearchFilter filter = new ItemSearchFilter(null, null, null, null, start, end);
+
+        Slice<Item> free = itemRepository.findByFilter("drill", filter,
+                PageRequest.of(0, 10, Sort.by("id").ascending()));
+
+        assertThat(free.getContent()).containsExactly(rejected, adjacent);
+        assertThat(itemRepository.countByFilter("drill", filter)).isEqualTo(2);
+    }
+
+    @Test
+    public void countFacetsShouldLimitOwnersAndTotalAllMatches() {
+        User owner = entityManager.persist(new User(null, "Owner", "facets@example.com"));
+        User other = entityManager.persist(new User(null, "Other", "other-facets@example.com"));
+        ItemRequest request = entityManager.persist(new ItemRequest(null, "Need a tent", other,
+                LocalDateTime.now(), null));
+        entityManager.persist(new Item(null, "Tent", "Two person", true, owner, request));
+        entityManager.persist(new Item(null, "Tent", "Family", true, owner, null));
+        entityManager.persist(new Item(null, "Tent", "Old", false, owner, null));
+        entityManager.persist(new Item(null, "Tent", "Light", true, other, null));
+        entityManager.flush();
+        LocalDateTime now = LocalDateTime.now();
+
+        List<ItemFacetRow> owners = itemRepository.countOwnerFacets("tent", new ItemSearchFilter(), 2);
+        List<ItemFacetRow> top = itemRepository.countOwnerFacets("tent", new ItemSearchFilter(), 1);
+        ItemFacetTotals totals = itemRepository.countFacetTotals("tent", new ItemSearchFilter(),
+                now.minusDays(1), now.minusWeeks(1), now.minusMonths(1));
+        ItemFacetTotals none = itemRepository.countFacetTotals("boat", new ItemSearchFilter(),
+                now.minusDays(1), now.minusWeeks(1), now.minusMonths(1));
+
+        assertThat(owners).containsExactly(new ItemFacetRow(owner.getId(), 2L), new ItemFacetRow(other.getId(), 1L));
+        assertThat(top).containsExactly(new ItemFacetRow(owner.getId(), 2L));
+        assertThat(totals).isEqualTo(new ItemFacetTotals(3L, 1L, 3L, 3L, 3L));
+        assertThat(none).isEqualTo(ItemFacetTotals.EMPTY);
+    }
+
+    @Test
+    public void countBySubstringShouldMatchSearchFilter() {
+        User owner = new User();
+        owner.setName("Owner");
+        owner.setEmail("counter@example.com");
+        User savedOwner = entityManager.persist(owner);
+
+        Item available = new Item();
+        available.setName("Drill");
+        available.setAvailable(true);
+        available.setDescription("Cordless drill");
+        available.setOwner(savedOwner);
+
+        Item unavailable = new Item();
+        unavailable.setName("Hammer drill");
+        unavailable.setAvailable(false);
+        unavailable.setDescription("Heavy");
+        unavailable.setOwner(savedOwner);
+
+        entityManager.persist(available);
+        entityManager.persist(unavailable);
+        entityManager.flush();
+
+        assertThat(itemRepository.countBySubstring("DRILL")).isEqualTo(1);
+        assertThat(itemRepository.countByOwnerId(savedOwner.getId())).isEqualTo(2);
+    }
+
+    @Test
+    public void findAvailableItemsAfterIdShouldReturnSearchViewsInIdOrder() {
+        User owner = entityManager.persist(new User(null, "Owner", "index@example.com"));
+        Item first = entityManager.persist(new Item(null, "Drill", "Cordless drill", true, owner, null));
+        entityManager.persist(new Item(null, "Saw", "Broken saw", false, owner, null));
+        Item third = entityManager.persist(new Item(null, "Axe", "Sharp axe", true, owner, null));
+        Item fourth = entityManager.persist(new Item(null, "Ladder", "Tall ladder", true, owner, null));
+        entityManager.flush();
+
+        List<ItemSearchView> firstBatch = itemRepository.findByAvailableTrueAndIdGreaterThanOrderByIdAsc(0L,
+                PageRequest.of(0, 2));
+        List<ItemSearchView> secondBatch = itemRepository.findByAvailableTrueAndIdGreaterThanOrderByIdAsc(
+                firstBatch.get(1).getId(), PageRequest.of(0, 2));
+
+        assertThat(firstBatch).extracting(ItemSearchView::getId).containsExactly(first.getId(), third.getId());
+        assertThat(firstBatch.get(0).getDescription()).isEqualTo("Cordless drill");
+        assertThat(secondBatch).extracting(ItemSearchView::getId).containsExactly(fourth.getId());
+    }
+
+    @Test
+    public void findByNamePrefixShouldMatchAvailableItemsIgnoringCase() {
+        User owner = entityManager.persist(new User(null, "Owner", "prefix@example.com"));
+        Item drill = entityManager.persist(new Item(null, "drill", "Cordless", true, owner, null));
+        Item hammerDrill = entityManager.persist(new Item(null, "Drill press", "Heavy", true, owner, null));
+        entityManager.persist(new Item(null, "Drill stand", "Broken", false, owner, null));
+        entityManager.persist(new Item(null, "Hammer drill", "Heavy", true, owner, null));
+        entityManager.flush();
+
+        List<Item> items = itemRepository.findByNamePrefix("DR", PageRequest.of(0, 10));
+
+        assertThat(items).containsExactly(drill, hammerDrill);
+    }
+
     @Test
     public void isItemBelongOwnerShouldReturnTrueWhenOwnerMatches() {
         User owner = new User();
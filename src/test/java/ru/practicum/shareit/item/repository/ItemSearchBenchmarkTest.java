@@ -0,0 +1,95 @@
+package ru.practicum.shareit.item.repository;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Slf4j
+@EnabledIfSystemProperty(named = "shareit.benchmark.jdbc-url", matches = ".+")
+@DataJpaTest(properties = {
+        "spring.datasource.url=${shareit.benchmark.jdbc-url}",
+        "spring.datasource.username=${shareit.benchmark.username:postgres}",
+        "spring.datasource.password=${shareit.benchmark.password:}",
+        "spring.jpa.hibernate.ddl-auto=update",
+        "spring.jpa.defer-datasource-initialization=true",
+        "spring.sql.init.mode=always",
+        "spring.sql.init.schema-locations=classpath:schema.sql,classpath:schema-postgres-fulltext.sql"})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class ItemSearchBenchmarkTest {
+
+    private static final int ITEMS = Integer.getInteger("shareit.benchmark.items", 1_000_000);
+    private static final int WARMUP = 5;
+    private static final int RUNS = 30;
+    private static final List<String> QUERIES = List.of("drill", "cordless drill", "amer", "kayak 42");
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void seed() {
+        Long seeded = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM items", Long.class);
+        if (seeded != null && seeded >= ITEMS) {
+            return;
+        }
+        jdbcTemplate.update("INSERT INTO users (name, email) VALUES ('Benchmark', 'benchmark@example.com') " +
+                "ON CONFLICT DO NOTHING");
+        Long ownerId = jdbcTemplate.queryForObject("SELECT id FROM users WHERE email = 'benchmark@example.com'",
+                Long.class);
+        // таблицы создаёт Hibernate раньше schema.sql, поэтому у created нет значения по умолчанию
+        jdbcTemplate.update("INSERT INTO items (name, description, available, owner_id, created) " +
+                "SELECT (ARRAY['Drill', 'Hammer', 'Saw', 'Ladder', 'Tent', 'Kayak', 'Camera', 'Bike'])[1 + g % 8] " +
+                "|| ' ' || g, " +
+                "(ARRAY['cordless', 'heavy', 'compact', 'folding', 'waterproof'])[1 + g % 5] || ' ' || md5(g::text), " +
+                "g % 10 <> 0, ?, now() " +
+                "FROM generate_series(?, ?) g", ownerId, seeded + 1, (long) ITEMS);
+        jdbcTemplate.execute("ANALYZE items");
+    }
+
+    @Test
+    void compareLikeAndFullTextSearch() {
+        PageRequest page = PageRequest.of(0, 10, Sort.by("id").ascending());
+        for (String query : QUERIES) {
+            double like = medianMillis(() -> itemRepository.findBySubstring(query, page).getContent());
+            double fullText = medianMillis(() -> itemRepository.findByFullText(query, 10, 0));
+            double likeCount = medianMillis(() -> List.of(itemRepository.countBySubstring(query)));
+            double fullTextCount = medianMillis(() -> List.of(itemRepository.countByFullText(query)));
+            log.info("'{}' over {} items: page LIKE {} ms, FULLTEXT {} ms; count LIKE {} ms, FULLTEXT {} ms",
+                    query, ITEMS, like, fullText, likeCount, fullTextCount);
+        }
+        assertThat(itemRepository.countByFullText("drill")).isGreaterThanOrEqualTo(
+                itemRepository.countBySubstring("drill"));
+    }
+
+    private double medianMillis(Supplier<List<?>> search) {
+        for (int i = 0; i < WARMUP; i++) {
+            search.get();
+        }
+        double[] millis = new double[RUNS];
+        for (int i = 0; i < RUNS; i++) {
+            long started = System.nanoTime();
+            search.get();
+            millis[i] = (System.nanoTime() - started) / 1_000_000.0;
+        }
+        Arrays.sort(millis);
+        return millis[RUNS / 2];
+    }
+}
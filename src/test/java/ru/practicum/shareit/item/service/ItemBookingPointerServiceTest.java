@@ -0,0 +1,182 @@
+package ru.practicum.shareit.item.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import ru.practicum.shareit.booking.event.BookingChangedEvent;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.Status;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.item.event.ItemChangedEvent;
+import ru.practicum.shareit.item.model.BookingSnapshot;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemBookingPointer;
+import ru.practicum.shareit.item.repository.ItemBookingPointerRepository;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ItemBookingPointerServiceTest {
+
+    @Mock
+    private ItemBookingPointerRepository pointerRepository;
+    @Mock
+    private BookingRepository bookingRepository;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private ItemBookingPointerService pointerService;
+
+    private final Item item = new Item(1L, "Drill", "Cordless drill", true, new User(2L, "Owner", "o@example.com"),
+            null);
+    private final User booker = new User(3L, "Booker", "b@example.com");
+
+    @BeforeEach
+    void setUp() {
+        pointerService = new ItemBookingPointerService(pointerRepository, bookingRepository, transactionManager);
+        ReflectionTestUtils.setField(pointerService, "batchSize", 2);
+    }
+
+    @Test
+    void getPointersShouldNotQueryBookingsWhenRowIsFresh() {
+        ItemBookingPointer pointer = new ItemBookingPointer(1L);
+        pointer.setValidUntil(LocalDateTime.now().plusDays(1));
+        when(pointerRepository.findAllById(List.of(1L))).thenReturn(List.of(pointer));
+
+        Map<Long, ItemBookingPointer> pointers = pointerService.getPointers(List.of(1L));
+
+        assertSame(pointer, pointers.get(1L));
+        verifyNoInteractions(bookingRepository);
+        verify(pointerRepository, never()).saveAll(any());
+    }
+
+    @Test
+    void getPointersShouldComputeMissingRowWithoutWriting() {
+        LocalDateTime now = LocalDateTime.now();
+        Booking tiedLater = booking(7L, now.minusDays(2), now.minusDays(1));
+        Booking tiedEarlier = booking(5L, now.minusDays(3), now.minusDays(1));
+        Booking next = booking(9L, now.plusDays(1), now.plusDays(2));
+        when(pointerRepository.findAllById(List.of(1L))).thenReturn(List.of());
+        when(bookingRepository.findLastBookingsByItemIds(eq(List.of(1L)), eq(Status.APPROVED), any()))
+                .thenReturn(List.of(tiedLater, tiedEarlier));
+        when(bookingRepository.findNextBookingsByItemIds(eq(List.of(1L)), eq(Status.APPROVED), any()))
+                .thenReturn(List.of(next));
+
+        ItemBookingPointer pointer = pointerService.getPointers(List.of(1L)).get(1L);
+
+        assertEquals(5L, pointer.getLastBooking().getBookingId());
+        assertEquals(3L, pointer.getLastBooking().getBookerId());
+        assertEquals(9L, pointer.getNextBooking().getBookingId());
+        assertEquals(next.getStart(), pointer.getValidUntil());
+        verify(pointerRepository, never()).saveAll(any());
+        verifyNoInteractions(transactionManager);
+    }
+
+    @Test
+    void getPointersShouldRecomputeExpiredRowWithoutWriting() {
+        ItemBookingPointer expired = new ItemBookingPointer(1L);
+        expired.setVersion(4L);
+        expired.setNextBooking(new BookingSnapshot(9L, 3L, LocalDateTime.now().minusHours(1), LocalDateTime.now()));
+        expired.setValidUntil(LocalDateTime.now().minusHours(1));
+        when(pointerRepository.findAllById(List.of(1L))).thenReturn(List.of(expired));
+
+        ItemBookingPointer pointer = pointerService.getPointers(List.of(1L)).get(1L);
+
+        assertNotSame(expired, pointer);
+        assertNull(pointer.getNextBooking());
+        assertNull(pointer.getValidUntil());
+        assertEquals(9L, expired.getNextBooking().getBookingId());
+        verify(pointerRepository, never()).saveAll(any());
+    }
+
+    @Test
+    void onItemChangedShouldCreateRowForNewItem() {
+        when(pointerRepository.findAllById(List.of(1L))).thenReturn(List.of());
+
+        pointerService.onItemChanged(new ItemChangedEvent(1L, ItemChangedEvent.Type.CREATED));
+        pointerService.onItemChanged(new ItemChangedEvent(1L, ItemChangedEvent.Type.UPDATED));
+
+        verify(pointerRepository, times(1)).saveAll(anyCollection());
+    }
+
+    @Test
+    void onBookingChangedShouldIgnoreBookingsThatAreNotApproved() {
+        Booking waiting = booking(1L, LocalDateTime.now().plusDays(1), LocalDateTime.now().plusDays(2));
+        waiting.setStatus(Status.WAITING);
+
+        pointerService.onBookingChanged(new BookingChangedEvent(waiting, BookingChangedEvent.Type.CREATED));
+
+        verifyNoInteractions(pointerRepository, bookingRepository);
+    }
+
+    @Test
+    void onBookingChangedShouldRetryRefreshOnConflict() {
+        Booking approved = booking(1L, LocalDateTime.now().plusDays(1), LocalDateTime.now().plusDays(2));
+        when(pointerRepository.saveAll(anyCollection()))
+                .thenThrow(new OptimisticLockingFailureException("conflict"))
+                .thenReturn(List.of());
+
+        pointerService.onBookingChanged(new BookingChangedEvent(approved, BookingChangedEvent.Type.APPROVED));
+
+        verify(pointerRepository, times(2)).saveAll(anyCollection());
+        verify(pointerRepository, never()).markStale(any(), any());
+    }
+
+    @Test
+    void onBookingChangedShouldMarkRowStaleWhenRetriesAreExhausted() {
+        Booking approved = booking(1L, LocalDateTime.now().plusDays(1), LocalDateTime.now().plusDays(2));
+        when(pointerRepository.saveAll(anyCollection())).thenThrow(new OptimisticLockingFailureException("conflict"));
+
+        pointerService.onBookingChanged(new BookingChangedEvent(approved, BookingChangedEvent.Type.APPROVED));
+
+        verify(pointerRepository, times(3)).saveAll(anyCollection());
+        verify(pointerRepository).markStale(eq(1L), any(LocalDateTime.class));
+    }
+
+    @Test
+    void backfillShouldCreateRowsForItemsWithoutThem() {
+        when(pointerRepository.findItemIdsWithoutPointers(any(Pageable.class)))
+                .thenReturn(List.of(1L, 2L))
+                .thenReturn(List.of(3L));
+
+        pointerService.backfill();
+
+        verify(pointerRepository).findAllById(List.of(1L, 2L));
+        verify(pointerRepository).findAllById(List.of(3L));
+        verify(pointerRepository, times(2)).saveAll(anyCollection());
+    }
+
+    @Test
+    void refreshExpiredShouldWalkExpiredRowsInBatches() {
+        when(pointerRepository.findExpiredItemIds(any(LocalDateTime.class), any(Pageable.class)))
+                .thenReturn(List.of(1L, 2L))
+                .thenReturn(List.of(3L));
+
+        pointerService.refreshExpired();
+
+        verify(pointerRepository, times(2)).findExpiredItemIds(any(LocalDateTime.class), any(Pageable.class));
+        verify(pointerRepository).findAllById(List.of(1L, 2L));
+        verify(pointerRepository).findAllById(List.of(3L));
+        verify(bookingRepository, times(2)).findNextBookingsByItemIds(anyList(), eq(Status.APPROVED), any());
+    }
+
+    private Booking booking(Long id, LocalDateTime start, LocalDateTime end) {
+        return new Booking(id, item, item.getOwner(), booker, start, end, Status.APPROVED);
+    }
+}
@@ -0,0 +1,90 @@
+package ru.practicum.shareit.item.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.mockito.Mockito;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Slf4j
+@EnabledIfSystemProperty(named = "shareit.benchmark", matches = "true")
+public class ItemFuzzyIndexBenchmarkTest {
+
+    private static final int ITEMS = Integer.getInteger("shareit.benchmark.items", 200_000);
+    private static final int WORDS = Integer.getInteger("shareit.benchmark.words", 50_000);
+    private static final int WARMUP = 200;
+    private static final int RUNS = 1_000;
+    private static final String LETTERS = "abcdefghijklmnopqrstuvwxyz";
+
+    @Test
+    void compareTrieWithBruteForce() {
+        Random random = new Random(42);
+        ItemFuzzyIndex index = new ItemFuzzyIndex(Mockito.mock(ItemRepository.class));
+        Set<String> vocabulary = new HashSet<>();
+        while (vocabulary.size() < WORDS) {
+            vocabulary.add(word(random));
+        }
+        List<String> generated = new ArrayList<>(vocabulary);
+        Set<String> used = new HashSet<>();
+        for (long id = 1; id <= ITEMS; id++) {
+            String name = generated.get(random.nextInt(WORDS)) + " " + generated.get(random.nextInt(WORDS));
+            used.addAll(ItemFuzzyIndex.words(name));
+            index.index(new Item(id, name, "Description", true, null, null));
+        }
+        List<String> words = new ArrayList<>(used);
+        List<String> queries = new ArrayList<>();
+        for (int i = 0; i < WARMUP + RUNS; i++) {
+            queries.add(misspell(words.get(random.nextInt(words.size())), random));
+        }
+
+        double[] indexed = new double[RUNS];
+        double[] bruteForce = new double[RUNS];
+        for (int i = 0; i < WARMUP + RUNS; i++) {
+            String query = queries.get(i);
+            long started = System.nanoTime();
+            List<Long> found = index.findIds(query, 0, 10);
+            long indexedNanos = System.nanoTime() - started;
+            started = System.nanoTime();
+            long matches = words.stream()
+                    .filter(word -> ItemFuzzyIndexTest.levenshtein(query, word) <= ItemFuzzyIndex.maxDistance(query))
+                    .count();
+            long bruteForceNanos = System.nanoTime() - started;
+            if (i >= WARMUP) {
+                indexed[i - WARMUP] = indexedNanos / 1_000_000.0;
+                bruteForce[i - WARMUP] = bruteForceNanos / 1_000_000.0;
+                assertThat(found.isEmpty()).isEqualTo(matches == 0);
+            }
+        }
+        Arrays.sort(indexed);
+        Arrays.sort(bruteForce);
+        log.info("Fuzzy search over {} items, {} words: trie p50 {} ms, p99 {} ms; brute force p50 {} ms, p99 {} ms",
+                ITEMS, words.size(), indexed[RUNS / 2], indexed[RUNS * 99 / 100],
+                bruteForce[RUNS / 2], bruteForce[RUNS * 99 / 100]);
+    }
+
+    private String word(Random random) {
+        StringBuilder word = new StringBuilder();
+        int length = 4 + random.nextInt(7);
+        for (int i = 0; i < length; i++) {
+            word.append(LETTERS.charAt(random.nextInt(LETTERS.length())));
+        }
+        return word.toString();
+    }
+
+    private String misspell(String word, Random random) {
+        StringBuilder misspelled = new StringBuilder(word);
+        int position = random.nextInt(word.length());
+        misspelled.setCharAt(position, LETTERS.charAt(random.nextInt(LETTERS.length())));
+        return misspelled.toString();
+    }
+}
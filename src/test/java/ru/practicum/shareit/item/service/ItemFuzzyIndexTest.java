@@ -0,0 +1,131 @@
+package ru.practicum.shareit.item.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ItemFuzzyIndexTest {
+
+    @Mock
+    private ItemRepository itemRepository;
+
+    @InjectMocks
+    private ItemFuzzyIndex fuzzyIndex;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(fuzzyIndex, "batchSize", 100);
+        when(itemRepository.findByAvailableTrueAndIdGreaterThanOrderByIdAsc(any(), any(Pageable.class)))
+                .thenReturn(List.of());
+        fuzzyIndex.build();
+    }
+
+    @Test
+    void findIdsShouldRankByEditDistance() {
+        fuzzyIndex.index(item(1L, "Screwdriver set"));
+        fuzzyIndex.index(item(2L, "Screwdrivers"));
+        fuzzyIndex.index(item(3L, "Hammer"));
+
+        assertEquals(List.of(1L, 2L), fuzzyIndex.findIds("screwdrivr", 0, 10));
+        assertEquals(List.of(2L), fuzzyIndex.findIds("screwdrivr", 1, 10));
+    }
+
+    @Test
+    void findIdsShouldMatchTransliteratedNames() {
+        fuzzyIndex.index(item(1L, "Дрель ударная"));
+        fuzzyIndex.index(item(2L, "Drill"));
+
+        assertEquals(List.of(1L), fuzzyIndex.findIds("drel", 0, 10));
+        assertEquals(List.of(1L), fuzzyIndex.findIds("дрел", 0, 10));
+    }
+
+    @Test
+    void findIdsShouldRequireEveryQueryWordAndSumDistances() {
+        fuzzyIndex.index(item(1L, "Cordless drill"));
+        fuzzyIndex.index(item(2L, "Cordles dril"));
+        fuzzyIndex.index(item(3L, "Drill press"));
+
+        assertEquals(List.of(1L, 2L), fuzzyIndex.findIds("cordless drill", 0, 10));
+        assertEquals(2, fuzzyIndex.count("cordles drill"));
+    }
+
+    @Test
+    void findIdsShouldNotTolerateTyposInShortWords() {
+        fuzzyIndex.index(item(1L, "Saw"));
+
+        assertEquals(List.of(), fuzzyIndex.findIds("sa", 0, 10));
+        assertEquals(List.of(1L), fuzzyIndex.findIds("sow", 0, 10));
+    }
+
+    @Test
+    void indexShouldForgetRenamedAndUnavailableItems() {
+        fuzzyIndex.index(item(1L, "Drill"));
+        fuzzyIndex.index(item(1L, "Ladder"));
+        assertEquals(0, fuzzyIndex.count("dril"));
+
+        Item unavailable = item(1L, "Ladder");
+        unavailable.setAvailable(false);
+        fuzzyIndex.index(unavailable);
+        assertEquals(0, fuzzyIndex.count("lader"));
+    }
+
+    @Test
+    void indexShouldPruneTrieBranchesOfRemovedWords() {
+        fuzzyIndex.index(item(1L, "Drill"));
+        fuzzyIndex.index(item(2L, "Drills"));
+        assertEquals(6, fuzzyIndex.vocabularySize());
+
+        fuzzyIndex.index(item(2L, "Saw"));
+        assertEquals(8, fuzzyIndex.vocabularySize());
+
+        fuzzyIndex.index(item(1L, "Sawdust"));
+        assertEquals(7, fuzzyIndex.vocabularySize());
+        assertEquals(List.of(2L), fuzzyIndex.findIds("saw", 0, 10));
+        assertEquals(List.of(1L), fuzzyIndex.findIds("sawdst", 0, 10));
+    }
+
+    @Test
+    void levenshteinShouldCountInsertionsDeletionsAndSubstitutions() {
+        assertEquals(0, levenshtein("drill", "drill"));
+        assertEquals(1, levenshtein("dril", "drill"));
+        assertEquals(3, levenshtein("kitten", "sitting"));
+        assertEquals(4, levenshtein("", "saw!"));
+    }
+
+    static int levenshtein(String first, String second) {
+        int[] previous = new int[second.length() + 1];
+        int[] current = new int[second.length() + 1];
+        for (int j = 0; j <= second.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= first.length(); i++) {
+            current[0] = i;
+            for (int j = 1; j <= second.length(); j++) {
+                int substitution = previous[j - 1] + (first.charAt(i - 1) == second.charAt(j - 1) ? 0 : 1);
+                current[j] = Math.min(substitution, Math.min(previous[j], current[j - 1]) + 1);
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[second.length()];
+    }
+
+    private Item item(Long id, String name) {
+        return new Item(id, name, "Description", true, null, null);
+    }
+}
@@ -0,0 +1,108 @@
+package ru.practicum.shareit.item.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ItemSearchCacheTest {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ItemSearchCache searchCache = new ItemSearchCache(Duration.ofMinutes(1), 100, meterRegistry);
+    private final PageRequest firstPage = PageRequest.of(0, 2, Sort.by("id"));
+
+    @Test
+    void getIdsShouldCacheByLowercaseTextAndPageWindow() {
+        AtomicInteger loads = new AtomicInteger();
+        Supplier<Slice<Long>> loader = () -> {
+            loads.incrementAndGet();
+            return new SliceImpl<>(List.of(1L, 2L), firstPage, true);
+        };
+
+        searchCache.getIds("Drill", firstPage, loader);
+        Slice<Long> cached = searchCache.getIds("drill", firstPage, loader);
+        searchCache.getIds("drill", PageRequest.of(1, 2, Sort.by("id")), loader);
+
+        assertEquals(List.of(1L, 2L), cached.getContent());
+        assertTrue(cached.hasNext());
+        assertEquals(2, loads.get());
+        assertEquals(1, meterRegistry.get("shareit.item.search-cache.saved").timer().count());
+    }
+
+    @Test
+    void evictMatchingShouldDropOnlyQueriesContainedInTheText() {
+        AtomicInteger loads = new AtomicInteger();
+        Supplier<Slice<Long>> loader = () -> {
+            loads.incrementAndGet();
+            return new SliceImpl<>(List.of());
+        };
+        searchCache.getIds("drill", firstPage, loader);
+        searchCache.getIds("tent", firstPage, loader);
+
+        searchCache.evictMatching("Cordless DRILL", null);
+        searchCache.getIds("drill", firstPage, loader);
+        searchCache.getIds("tent", firstPage, loader);
+
+        assertEquals(3, loads.get());
+    }
+
+    @Test
+    void evictMatchingShouldDropQueriesMatchingOnlyThePreviousName() {
+        AtomicInteger loads = new AtomicInteger();
+        Supplier<Slice<Long>> loader = () -> {
+            loads.incrementAndGet();
+            return new SliceImpl<>(List.of(1L));
+        };
+        searchCache.getIds("drill", firstPage, loader);
+        searchCache.getIds("ladder", firstPage, loader);
+        searchCache.getIds("tent", firstPage, loader);
+
+        searchCache.evictMatching("Drill", "Cordless", "Ladder", "Folding");
+        searchCache.getIds("drill", firstPage, loader);
+        searchCache.getIds("ladder", firstPage, loader);
+        searchCache.getIds("tent", firstPage, loader);
+
+        assertEquals(5, loads.get());
+    }
+
+    @Test
+    void evictAllShouldDropEveryPage() {
+        AtomicInteger loads = new AtomicInteger();
+        Supplier<Slice<Long>> loader = () -> {
+            loads.incrementAndGet();
+            return new SliceImpl<>(List.of(1L));
+        };
+        searchCache.getIds("drill", firstPage, loader);
+
+        searchCache.evictAll();
+        searchCache.getIds("drill", firstPage, loader);
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void getIdsShouldNotCacheResultLoadedDuringWrite() {
+        AtomicInteger loads = new AtomicInteger();
+        Supplier<Slice<Long>> loader = () -> {
+            if (loads.incrementAndGet() == 1) {
+                searchCache.evictMatching("unrelated");
+            }
+            return new SliceImpl<>(List.of(1L));
+        };
+
+        searchCache.getIds("drill", firstPage, loader);
+        searchCache.getIds("drill", firstPage, loader);
+
+        assertEquals(2, loads.get());
+    }
+}
@@ -0,0 +1,153 @@
+package ru.practicum.shareit.item.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.repository.ItemSearchView;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ItemSearchIndexTest {
+
+    @Mock
+    private ItemRepository itemRepository;
+
+    @InjectMocks
+    private ItemSearchIndex searchIndex;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(searchIndex, "backend", ItemSearchBackend.MEMORY);
+        ReflectionTestUtils.setField(searchIndex, "batchSize", 2);
+    }
+
+    @Test
+    void buildShouldLoadAvailableItemsInBatches() {
+        when(itemRepository.findByAvailableTrueAndIdGreaterThanOrderByIdAsc(eq(0L), any(Pageable.class)))
+                .thenReturn(List.of(view(1L, "Drill", "Cordless drill"), view(2L, "Saw", "Hand saw")));
+        when(itemRepository.findByAvailableTrueAndIdGreaterThanOrderByIdAsc(eq(2L), any(Pageable.class)))
+                .thenReturn(List.of(view(5L, "Hammer drill", "Heavy")));
+
+        searchIndex.build();
+
+        assertTrue(searchIndex.isReady());
+        assertEquals(List.of(1L, 5L), searchIndex.findIds("DRILL", 0, 10));
+        assertEquals(2, searchIndex.count("drill"));
+    }
+
+    @Test
+    void findIdsShouldRequireExactSubstringNotJustSharedTrigrams() {
+        build(item(1L, "abcd", "xyz"), item(2L, "bcd abc", "xyz"));
+
+        assertEquals(List.of(1L), searchIndex.findIds("abcd", 0, 10));
+        assertEquals(List.of(), searchIndex.findIds("abcxyz", 0, 10));
+    }
+
+    @Test
+    void findIdsShouldPageInIdOrder() {
+        build(item(3L, "Drill", "d"), item(1L, "Drill", "d"), item(2L, "Drill", "d"));
+
+        assertEquals(List.of(1L, 2L), searchIndex.findIds("drill", 0, 2));
+        assertEquals(List.of(3L), searchIndex.findIds("drill", 2, 2));
+    }
+
+    @Test
+    void findIdsShouldScanTextForQueriesShorterThanTrigram() {
+        build(item(1L, "Пила", "Ручная"), item(2L, "Drill", "Cordless"));
+
+        assertEquals(List.of(1L), searchIndex.findIds("пи", 0, 10));
+        assertEquals(List.of(2L), searchIndex.findIds("LL", 0, 10));
+    }
+
+    @Test
+    void indexShouldReplaceAndRemoveUnavailableItems() {
+        build(item(1L, "Drill", "Cordless"));
+
+        searchIndex.index(item(1L, "Saw", "Cordless"));
+        assertEquals(List.of(), searchIndex.findIds("drill", 0, 10));
+        assertEquals(List.of(1L), searchIndex.findIds("saw", 0, 10));
+
+        Item unavailable = item(1L, "Saw", "Cordless");
+        unavailable.setAvailable(false);
+        searchIndex.index(unavailable);
+        assertEquals(0, searchIndex.count("saw"));
+    }
+
+    @Test
+    void buildShouldKeepIndexNotReadyWhenDatabaseFails() {
+        when(itemRepository.findByAvailableTrueAndIdGreaterThanOrderByIdAsc(any(), any(Pageable.class)))
+                .thenThrow(new DataAccessResourceFailureException("down"));
+
+        searchIndex.build();
+
+        assertFalse(searchIndex.isReady());
+    }
+
+    @Test
+    void buildShouldDoNothingForOtherBackends() {
+        ReflectionTestUtils.setField(searchIndex, "backend", ItemSearchBackend.FULLTEXT);
+
+        searchIndex.build();
+
+        assertFalse(searchIndex.isReady());
+        verifyNoInteractions(itemRepository);
+    }
+
+    @Test
+    void indexShouldKeepIndexEmptyForOtherBackends() {
+        ReflectionTestUtils.setField(searchIndex, "backend", ItemSearchBackend.LIKE);
+        searchIndex.build();
+
+        searchIndex.index(item(1L, "Drill", "Cordless drill"));
+
+        assertFalse(searchIndex.isReady());
+        assertEquals(0, searchIndex.size());
+        assertEquals(0, searchIndex.count("drill"));
+    }
+
+    private void build(Item... items) {
+        when(itemRepository.findByAvailableTrueAndIdGreaterThanOrderByIdAsc(any(), any(Pageable.class)))
+                .thenReturn(List.of());
+        searchIndex.build();
+        for (Item item : items) {
+            searchIndex.index(item);
+        }
+    }
+
+    private Item item(Long id, String name, String description) {
+        return new Item(id, name, description, true, null, null);
+    }
+
+    private ItemSearchView view(Long id, String name, String description) {
+        return new ItemSearchView() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public String getName() {
+                return name;
+            }
+
+            @Override
+            public String getDescription() {
+                return description;
+            }
+        };
+    }
+}
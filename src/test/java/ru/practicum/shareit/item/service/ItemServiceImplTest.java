@@ -1,36 +1,62 @@
 package ru.practicum.shareit.item.service;
 
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import lombok.extern.slf4j.Slf4j;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.util.ReflectionTestUtils;
+import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingMapper;
 import ru.practicum.shareit.booking.model.Status;
+import ru.practicum.shareit.booking.repository.BookingIntervalView;
 import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.service.BookingIntervalIndex;
+import ru.practicum.shareit.booking.service.BookingSlotIndex;
 import ru.practicum.shareit.exception.*;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.CommentMapper;
+import ru.practicum.shareit.item.dto.FacetCountDto;
+import ru.practicum.shareit.item.dto.FreeSlotDto;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemFacetsDto;
+import ru.practicum.shareit.item.dto.ItemSearchFilter;
+import ru.practicum.shareit.item.dto.ItemSuggestionDto;
 import ru.practicum.shareit.item.dto.ItemMapper;
+import ru.practicum.shareit.item.event.ItemChangedEvent;
+import ru.practicum.shareit.item.model.BookingSnapshot;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemBookingPointer;
 import ru.practicum.shareit.item.repository.CommentRepository;
+import ru.practicum.shareit.item.repository.ItemFacetRow;
+import ru.practicum.shareit.item.repository.ItemFacetTotals;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.repository.ItemSearchView;
+import ru.practicum.shareit.request.event.ItemRequestChangedEvent;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.request.repository.ItemRequestRepository;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.util.CountEstimateCache;
+import ru.practicum.shareit.util.DatabasePlatform;
+import ru.practicum.shareit.util.IdentityCache;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -56,6 +82,31 @@ public class ItemServiceImplTest {
     private BookingMapper bookingMapper;
     @Mock
     private CommentMapper commentMapper;
+    @Mock
+    private ItemBookingPointerService itemBookingPointerService;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    @Mock
+    private IdentityCache identityCache;
+    @Mock
+    private ItemSearchIndex itemSearchIndex;
+    @Mock
+    private DatabasePlatform databasePlatform;
+    @Mock
+    private ItemSuggestIndex itemSuggestIndex;
+    @Mock
+    private ItemFuzzyIndex itemFuzzyIndex;
+    @Mock
+    private ItemStemIndex itemStemIndex;
+    @Mock
+    private BookingSlotIndex bookingSlotIndex;
+    @Spy
+    private ItemViewCache itemViewCache = new ItemViewCache(Duration.ofMinutes(1), 100, new SimpleMeterRegistry());
+    @Spy
+    private ItemSearchCache itemSearchCache = new ItemSearchCache(Duration.ofMinutes(1), 100,
+            new SimpleMeterRegistry());
+    @Spy
+    private CountEstimateCache countEstimateCache = new CountEstimateCache(Duration.ofMinutes(1), 100);
     @InjectMocks
     private ItemServiceImpl itemService;
 
@@ -67,8 +118,12 @@ public class ItemServiceImplTest {
         user.setId(1L);
         Item item = new Item();
         ItemRequest itemRequest = new ItemRequest();
+        itemRequest.setId(1L);
+
+        item.setId(5L);
 
-        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+        when(identityCache.userExists(1L)).thenReturn(true);
+        when(userRepository.getReferenceById(1L)).thenReturn(user);
         when(itemMapper.toItem(itemDto, user)).thenReturn(item);
         when(itemRequestRepository.findById(1L)).thenReturn(Optional.of(itemRequest));
         when(itemRepository.save(item)).thenReturn(item);
@@ -78,16 +133,25 @@ public class ItemServiceImplTest {
         assertNotNull(result);
         assertEquals(itemRequest, result.getRequest());
         verify(itemRepository).save(item);
+        verify(identityCache).itemSaved(5L, 1L);
+        verify(itemSearchIndex).index(item);
+        verify(itemSuggestIndex).index(item);
+        verify(itemFuzzyIndex).index(item);
+        verify(itemStemIndex).index(item);
+        verify(eventPublisher).publishEvent(new ItemRequestChangedEvent(1L, ItemRequestChangedEvent.Type.ITEM_ADDED));
+        verify(eventPublisher).publishEvent(new ItemChangedEvent(5L, ItemChangedEvent.Type.CREATED));
+        verify(userRepository, never()).findById(anyLong());
     }
 
     @Test
     public void testCreateItemWithNonExistentUser() {
         ItemDto itemDto = new ItemDto();
-        when(userRepository.findById(anyLong())).thenThrow(UserNotFoundException.class);
+        when(identityCache.userExists(anyLong())).thenReturn(false);
 
         assertThrows(UserNotFoundException.class, () -> {
             itemService.createItem(itemDto, 1L);
         });
+        verify(itemRepository, never()).save(any());
     }
 
     @Test
@@ -97,7 +161,8 @@ public class ItemServiceImplTest {
 
         User user = new User();
         user.setId(1L);
-        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+        when(identityCache.userExists(1L)).thenReturn(true);
+        when(userRepository.getReferenceById(1L)).thenReturn(user);
         when(itemRequestRepository.findById(1L)).thenThrow(ItemRequestNotFoundException.class);
 
         assertThrows(ItemRequestNotFoundException.class, () -> {
@@ -105,6 +170,36 @@ public class ItemServiceImplTest {
         });
     }
 
+    @Test
+    public void testGetFreeSlotsMergesOverlappingBookings() {
+        LocalDateTime from = LocalDateTime.of(2030, 6, 1, 8, 0);
+        LocalDateTime to = from.plusHours(12);
+        List<BookingIntervalView> bookings = List.of(
+                interval(from.minusHours(1), from.plusHours(1)),
+                interval(from.plusHours(3), from.plusHours(6)),
+                interval(from.plusHours(4), from.plusHours(5)),
+                interval(from.plusHours(6), from.plusHours(7)));
+        when(identityCache.findItemOwnerId(1L)).thenReturn(Optional.of(2L));
+        when(bookingRepository.findAllByItemIdAndStatusInAndEndAfterAndStartBeforeOrderByStartAsc(1L,
+                BookingIntervalIndex.ACTIVE_STATUSES, from, to)).thenReturn(bookings);
+
+        List<FreeSlotDto> slots = itemService.getFreeSlots(1L, from, to);
+
+        assertEquals(List.of(
+                new FreeSlotDto(from.plusHours(1), from.plusHours(3)),
+                new FreeSlotDto(from.plusHours(7), to)), slots);
+    }
+
+    @Test
+    public void testGetFreeSlotsValidatesRangeAndItem() {
+        LocalDateTime from = LocalDateTime.of(2030, 6, 1, 8, 0);
+        when(identityCache.findItemOwnerId(1L)).thenReturn(Optional.empty());
+
+        assertThrows(IllegalArgumentException.class, () -> itemService.getFreeSlots(1L, from, from));
+        assertThrows(ItemNotFoundException.class, () -> itemService.getFreeSlots(1L, from, from.plusDays(1)));
+        verifyNoInteractions(bookingRepository);
+    }
+
     @Test
     public void testUpdateItemSuccess() {
         Long itemId = 1L;
@@ -113,9 +208,9 @@ public class ItemServiceImplTest {
         Item item = new Item();
         User user = new User();
 
-        when(itemRepository.existsById(itemId)).thenReturn(true);
-        when(itemRepository.isItemBelongOwner(itemId, userId)).thenReturn(true);
-        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+        when(identityCache.findItemOwnerId(itemId)).thenReturn(Optional.of(userId));
+        when(identityCache.isItemOwnedBy(itemId, userId)).thenReturn(true);
+        when(userRepository.getReferenceById(userId)).thenReturn(user);
         when(itemMapper.toItem(itemDto, user)).thenReturn(item);
         when(itemRepository.save(item)).thenReturn(item);
         when(itemMapper.toItemDto(item)).thenReturn(itemDto);
@@ -124,11 +219,61 @@ public class ItemServiceImplTest {
 
         assertNotNull(result);
         verify(itemRepository).save(item);
+        verify(eventPublisher).publishEvent(new ItemChangedEvent(itemId, ItemChangedEvent.Type.UPDATED));
+    }
+
+    @Test
+    public void testUpdateItemEvictsSearchesMatchingPreviousText() {
+        User owner = new User(1L, "Owner", "owner@example.com");
+        Item drill = new Item(1L, "Drill", "Cordless", true, owner, null);
+        Item ladder = new Item(1L, "Ladder", "Folding", true, owner, null);
+        ItemDto itemDto = new ItemDto();
+        Pageable pageable = PageRequest.of(0, 10);
+        ItemSearchView previous = mock(ItemSearchView.class);
+        when(previous.getName()).thenReturn("Drill");
+        when(previous.getDescription()).thenReturn("Cordless");
+        when(itemRepository.findIdsBySubstring("dril", pageable))
+                .thenReturn(new SliceImpl<>(List.of(1L)))
+                .thenReturn(new SliceImpl<>(List.of()));
+        when(itemRepository.findAllById(List.of(1L))).thenReturn(List.of(drill));
+        when(itemRepository.findAllById(List.of())).thenReturn(List.of());
+        when(identityCache.findItemOwnerId(1L)).thenReturn(Optional.of(1L));
+        when(identityCache.isItemOwnedBy(1L, 1L)).thenReturn(true);
+        when(userRepository.getReferenceById(1L)).thenReturn(owner);
+        when(itemMapper.toItem(itemDto, owner)).thenReturn(ladder);
+        when(itemRepository.findSearchViewById(1L)).thenReturn(Optional.of(previous));
+        when(itemRepository.save(ladder)).thenReturn(ladder);
+
+        assertEquals(1, itemService.getItemsBySubstring("dril", pageable).getNumberOfElements());
+        assertEquals(1, itemService.getItemsBySubstring("DRIL", pageable).getNumberOfElements());
+        itemService.updateItem(itemDto, 1L, 1L);
+
+        assertEquals(0, itemService.getItemsBySubstring("dril", pageable).getNumberOfElements());
+        verify(itemRepository, times(2)).findIdsBySubstring("dril", pageable);
+    }
+
+    @Test
+    public void testUpdateItemSkipsSearchCacheScanWhenIndexIsReady() {
+        User owner = new User(1L, "Owner", "owner@example.com");
+        Item ladder = new Item(1L, "Ladder", "Folding", true, owner, null);
+        ItemDto itemDto = new ItemDto();
+        when(itemSearchIndex.isReady()).thenReturn(true);
+        when(identityCache.findItemOwnerId(1L)).thenReturn(Optional.of(1L));
+        when(identityCache.isItemOwnedBy(1L, 1L)).thenReturn(true);
+        when(userRepository.getReferenceById(1L)).thenReturn(owner);
+        when(itemMapper.toItem(itemDto, owner)).thenReturn(ladder);
+        when(itemRepository.findSearchViewById(1L)).thenReturn(Optional.empty());
+        when(itemRepository.save(ladder)).thenReturn(ladder);
+
+        itemService.updateItem(itemDto, 1L, 1L);
+
+        verify(itemSearchCache).evictAll();
+        verify(itemSearchCache, never()).evictMatching(any(), any(), any(), any());
     }
 
     @Test
     public void testUpdateItemNotFound() {
-        when(itemRepository.existsById(anyLong())).thenReturn(false);
+        when(identityCache.findItemOwnerId(anyLong())).thenReturn(Optional.empty());
 
         assertThrows(ItemNotFoundException.class, () -> {
             itemService.updateItem(new ItemDto(), 1L, 1L);
@@ -137,8 +282,8 @@ public class ItemServiceImplTest {
 
     @Test
     public void testUpdateItemUnauthorized() {
-        when(itemRepository.existsById(anyLong())).thenReturn(true);
-        when(itemRepository.isItemBelongOwner(anyLong(), anyLong())).thenReturn(false);
+        when(identityCache.findItemOwnerId(anyLong())).thenReturn(Optional.of(2L));
+        when(identityCache.isItemOwnedBy(anyLong(), anyLong())).thenReturn(false);
 
         assertThrows(UnauthorizedAccessException.class, () -> {
             itemService.updateItem(new ItemDto(), 1L, 1L);
@@ -158,11 +303,10 @@ public class ItemServiceImplTest {
         expectedItemDto.setId(itemId);
         expectedItemDto.setOwnerId(owner.getId());
 
+        when(identityCache.findItemOwnerId(itemId)).thenReturn(Optional.of(userId));
         when(itemRepository.findById(itemId)).thenReturn(Optional.of(item));
-        lenient().when(bookingRepository.findFirstByItemIdAndStatusAndStartBeforeOrderByEndDesc(eq(itemId), eq(Status.APPROVED), any(LocalDateTime.class)))
-                .thenReturn(Optional.empty());
-        lenient().when(bookingRepository.findFirstByItemIdAndStatusAndStartAfterOrderByStartAsc(eq(itemId), eq(Status.APPROVED), any(LocalDateTime.class)))
-                .thenReturn(Optional.empty());
+        when(itemBookingPointerService.getPointers(List.of(itemId)))
+                .thenReturn(Map.of(itemId, new ItemBookingPointer(itemId)));
         when(commentRepository.findByItemId(itemId)).thenReturn(new ArrayList<>());
         lenient().when(commentMapper.toCommentDto(any())).thenReturn(new CommentDto());
         when(itemMapper.toItemDto(eq(item), any(), any(), any())).thenReturn(expectedItemDto);
@@ -175,15 +319,41 @@ public class ItemServiceImplTest {
         assertNull(result.getLastBooking());
         assertNull(result.getNextBooking());
         verify(commentRepository).findByItemId(itemId);
+        verifyNoInteractions(bookingRepository);
+    }
+
+    @Test
+    public void testGetItemByIdServesRepeatedReadsFromCache() {
+        Long itemId = 1L;
+        User owner = new User(1L, "Owner", "owner@example.com");
+        Item item = new Item(itemId, "Drill", "Cordless drill", true, owner, null);
+        ItemDto itemDto = new ItemDto();
+        itemDto.setId(itemId);
+
+        when(identityCache.findItemOwnerId(itemId)).thenReturn(Optional.of(owner.getId()));
+        when(itemRepository.findById(itemId)).thenReturn(Optional.of(item));
+        when(commentRepository.findByItemId(itemId)).thenReturn(new ArrayList<>());
+        when(itemMapper.toItemDto(eq(item), any(), any(), any())).thenReturn(itemDto);
+
+        ItemDto first = itemService.getItemById(itemId, 2L);
+        first.setName("changed by caller");
+        ItemDto second = itemService.getItemById(itemId, 3L);
+
+        assertNull(second.getName());
+        verify(identityCache, times(2)).findItemOwnerId(itemId);
+        verify(itemRepository, times(1)).findById(itemId);
+        verify(commentRepository, times(1)).findByItemId(itemId);
+        verifyNoInteractions(itemBookingPointerService);
     }
 
     @Test
     public void testGetItemByIdNotFound() {
         Long itemId = 1L;
         Long userId = 1L;
-        when(itemRepository.findById(itemId)).thenThrow(new ItemNotFoundException());
+        when(identityCache.findItemOwnerId(itemId)).thenReturn(Optional.empty());
 
         assertThrows(ItemNotFoundException.class, () -> itemService.getItemById(itemId, userId));
+        verify(itemRepository, never()).findById(anyLong());
     }
 
     @Test
@@ -195,13 +365,18 @@ public class ItemServiceImplTest {
         Item item2 = new Item();
         item2.setId(2L);
         List<Item> items = List.of(item1, item2);
-        Page<Item> page = new PageImpl<>(items);
+        Slice<Item> page = new SliceImpl<>(items);
+
+        ItemBookingPointer pointer1 = new ItemBookingPointer(1L);
+        pointer1.setLastBooking(new BookingSnapshot(5L, 3L, LocalDateTime.now().minusDays(2),
+                LocalDateTime.now().minusDays(1)));
+        BookingDto lastDto = new BookingDto();
+        lastDto.setId(5L);
 
         when(itemRepository.findAllByOwnerId(ownerId, pageable)).thenReturn(page);
-        when(bookingRepository.findFirstByItemIdAndStatusAndStartBeforeOrderByEndDesc(anyLong(), eq(Status.APPROVED), any(LocalDateTime.class)))
-                .thenReturn(Optional.empty());
-        when(bookingRepository.findFirstByItemIdAndStatusAndStartAfterOrderByStartAsc(anyLong(), eq(Status.APPROVED), any(LocalDateTime.class)))
-                .thenReturn(Optional.empty());
+        when(itemBookingPointerService.getPointers(List.of(1L, 2L)))
+                .thenReturn(Map.of(1L, pointer1, 2L, new ItemBookingPointer(2L)));
+        when(bookingMapper.toBookingDto(pointer1.getLastBooking(), item1)).thenReturn(lastDto);
         when(itemMapper.toItemDto(any(Item.class))).thenAnswer(invocation -> {
             Item item = invocation.getArgument(0);
             ItemDto dto = new ItemDto();
@@ -209,12 +384,13 @@ public class ItemServiceImplTest {
             return dto;
         });
 
-        Page<ItemDto> resultPage = itemService.getAllItemsWithBookingDetails(ownerId, pageable);
+        Slice<ItemDto> resultPage = itemService.getAllItemsWithBookingDetails(ownerId, pageable);
 
         assertNotNull(resultPage);
         assertEquals(2, resultPage.getContent().size());
-        verify(bookingRepository, times(2)).findFirstByItemIdAndStatusAndStartBeforeOrderByEndDesc(anyLong(), eq(Status.APPROVED), any(LocalDateTime.class));
-        verify(bookingRepository, times(2)).findFirstByItemIdAndStatusAndStartAfterOrderByStartAsc(anyLong(), eq(Status.APPROVED), any(LocalDateTime.class));
+        assertEquals(lastDto, resultPage.getContent().get(0).getLastBooking());
+        assertNull(resultPage.getContent().get(1).getLastBooking());
+        verifyNoInteractions(bookingRepository);
         verify(itemMapper, times(2)).toItemDto(any(Item.class));
     }
 
@@ -222,19 +398,252 @@ public class ItemServiceImplTest {
     public void testGetAllItemsWithBookingDetailsEmpty() {
         Long ownerId = 1L;
         Pageable pageable = PageRequest.of(0, 10);
-        Page<Item> page = Page.empty(pageable);
+        Slice<Item> page = new SliceImpl<>(List.of(), pageable, false);
 
         when(itemRepository.findAllByOwnerId(ownerId, pageable)).thenReturn(page);
 
-        Page<ItemDto> resultPage = itemService.getAllItemsWithBookingDetails(ownerId, pageable);
+        Slice<ItemDto> resultPage = itemService.getAllItemsWithBookingDetails(ownerId, pageable);
         assertTrue(resultPage.isEmpty());
     }
 
+    @Test
+    public void testCountItemsBySubstringBlankText() {
+        assertEquals(0, itemService.countItemsBySubstring(" "));
+        verify(itemRepository, never()).countBySubstring(any());
+    }
+
+    @Test
+    public void testCountItemsBySubstringIsCaseInsensitivelyCached() {
+        when(itemRepository.countBySubstring("Drill")).thenReturn(2L);
+
+        assertEquals(2L, itemService.countItemsBySubstring("Drill"));
+        assertEquals(2L, itemService.countItemsBySubstring("drill"));
+        verify(itemRepository, times(1)).countBySubstring(anyString());
+    }
+
+    @Test
+    public void testGetItemsBySubstringUsesIndexWhenReady() {
+        User owner = new User(1L, "Owner", "owner@example.com");
+        Item first = new Item(3L, "Drill", "Cordless drill", true, owner, null);
+        Item second = new Item(7L, "Hammer drill", "Heavy", true, owner, null);
+        Pageable pageable = PageRequest.of(0, 2, Sort.by("id").ascending());
+        when(itemSearchIndex.isReady()).thenReturn(true);
+        when(itemSearchIndex.findIds("drill", 0, 3)).thenReturn(List.of(3L, 7L, 9L));
+        when(itemRepository.findAllById(List.of(3L, 7L))).thenReturn(List.of(second, first));
+        when(itemMapper.toItemDto(any(Item.class))).thenAnswer(invocation -> {
+            ItemDto dto = new ItemDto();
+            dto.setId(invocation.<Item>getArgument(0).getId());
+            return dto;
+        });
+
+        Slice<ItemDto> result = itemService.getItemsBySubstring("drill", pageable);
+
+        assertEquals(List.of(3L, 7L), result.map(ItemDto::getId).getContent());
+        assertTrue(result.hasNext());
+        verify(itemRepository, never()).findIdsBySubstring(any(), any());
+    }
+
+    @Test
+    public void testGetItemsBySubstringUsesFullTextQueryOnPostgres() {
+        ReflectionTestUtils.setField(itemService, "searchBackend", ItemSearchBackend.FULLTEXT);
+        User owner = new User(1L, "Owner", "owner@example.com");
+        Item best = new Item(7L, "Drill", "Drill", true, owner, null);
+        Item other = new Item(3L, "Hammer drill", "Heavy", true, owner, null);
+        when(databasePlatform.isPostgres()).thenReturn(true);
+        when(itemRepository.findByFullText("drill", 3, 2L)).thenReturn(List.of(best, other));
+        when(itemMapper.toItemDto(any(Item.class))).thenAnswer(invocation -> {
+            ItemDto dto = new ItemDto();
+            dto.setId(invocation.<Item>getArgument(0).getId());
+            return dto;
+        });
+
+        Slice<ItemDto> result = itemService.getItemsBySubstring("drill", PageRequest.of(1, 2));
+
+        assertEquals(List.of(7L, 3L), result.map(ItemDto::getId).getContent());
+        assertFalse(result.hasNext());
+        verifyNoInteractions(itemSearchIndex);
+    }
+
+    @Test
+    public void testGetItemsBySubstringFallsBackToLikeWhenFullTextIsNotAvailable() {
+        ReflectionTestUtils.setField(itemService, "searchBackend", ItemSearchBackend.FULLTEXT);
+        Pageable pageable = PageRequest.of(0, 2);
+        when(databasePlatform.isPostgres()).thenReturn(false);
+        when(itemRepository.findIdsBySubstring("drill", pageable)).thenReturn(new SliceImpl<>(List.of()));
+
+        itemService.getItemsBySubstring("drill", pageable);
+
+        verify(itemRepository, never()).findByFullText(any(), anyInt(), anyLong());
+    }
+
+    @Test
+    public void testSuggestItemsCapsLimitAndUsesIndexWhenReady() {
+        when(itemSuggestIndex.isReady()).thenReturn(true);
+        when(itemSuggestIndex.suggest("dr", 50)).thenReturn(List.of(new ItemSuggestionDto(1L, "Drill")));
+
+        assertEquals(1, itemService.suggestItems("dr", 1000).size());
+        verify(itemRepository, never()).findByNamePrefix(any(), any());
+    }
+
+    @Test
+    public void testSuggestItemsFallsBackToRepositoryBeforeIndexIsBuilt() {
+        when(itemRepository.findByNamePrefix("dr", PageRequest.of(0, 5)))
+                .thenReturn(List.of(new Item(1L, "Drill", "Cordless", true, null, null)));
+
+        List<ItemSuggestionDto> result = itemService.suggestItems("dr", 5);
+
+        assertEquals(List.of(new ItemSuggestionDto(1L, "Drill")), result);
+    }
+
+    @Test
+    public void testSuggestItemsRejectsNonPositiveSizeAndIgnoresBlankPrefix() {
+        assertThrows(InvalidPaginationParameterException.class, () -> itemService.suggestItems("dr", 0));
+        assertTrue(itemService.suggestItems(" ", 5).isEmpty());
+        verifyNoInteractions(itemSuggestIndex);
+    }
+
+    @Test
+    public void testGetItemsByFuzzyTextKeepsDistanceOrder() {
+        User owner = new User(1L, "Owner", "owner@example.com");
+        Item exact = new Item(9L, "Drill", "Cordless", true, owner, null);
+        Item close = new Item(2L, "Drills", "Heavy", true, owner, null);
+        when(itemFuzzyIndex.isReady()).thenReturn(true);
+        when(itemFuzzyIndex.findIds("drill", 0, 11)).thenReturn(List.of(9L, 2L));
+        when(itemRepository.findAllById(List.of(9L, 2L))).thenReturn(List.of(close, exact));
+        when(itemMapper.toItemDto(any(Item.class))).thenAnswer(invocation -> {
+            ItemDto dto = new ItemDto();
+            dto.setId(invocation.<Item>getArgument(0).getId());
+            return dto;
+        });
+
+        Slice<ItemDto> result = itemService.getItemsByFuzzyText("drill", PageRequest.of(0, 10));
+
+        assertEquals(List.of(9L, 2L), result.map(ItemDto::getId).getContent());
+        assertFalse(result.hasNext());
+    }
+
+    @Test
+    public void testGetItemsByFuzzyTextFallsBackToSubstringSearchBeforeIndexIsBuilt() {
+        Pageable pageable = PageRequest.of(0, 10);
+        when(itemRepository.findIdsBySubstring("drill", pageable)).thenReturn(new SliceImpl<>(List.of()));
+        when(itemRepository.countBySubstring("drill")).thenReturn(0L);
+
+        itemService.getItemsByFuzzyText("drill", pageable);
+        itemService.countItemsByFuzzyText("drill");
+
+        verify(itemFuzzyIndex, never()).findIds(any(), anyLong(), anyInt());
+        verify(itemFuzzyIndex, never()).count(any());
+    }
+
+    @Test
+    public void testGetItemsByStemmedTextUsesIndexWhenReady() {
+        User owner = new User(1L, "Owner", "owner@example.com");
+        Item drill = new Item(4L, "Дрель", "Ударная", true, owner, null);
+        when(itemStemIndex.isReady()).thenReturn(true);
+        when(itemStemIndex.findIds("дрели", 0, 11)).thenReturn(List.of(4L));
+        when(itemStemIndex.count("дрели")).thenReturn(1L);
+        when(itemRepository.findAllById(List.of(4L))).thenReturn(List.of(drill));
+        when(itemMapper.toItemDto(drill)).thenReturn(new ItemDto());
+
+        Slice<ItemDto> result = itemService.getItemsByStemmedText("дрели", PageRequest.of(0, 10));
+
+        assertEquals(1, result.getNumberOfElements());
+        assertEquals(1, itemService.countItemsByStemmedText("дрели"));
+        verify(itemRepository, never()).findIdsBySubstring(any(), any());
+    }
+
+    @Test
+    public void testGetItemsByStemmedTextFallsBackToSubstringSearchBeforeIndexIsBuilt() {
+        Pageable pageable = PageRequest.of(0, 10);
+        when(itemRepository.findIdsBySubstring("дрели", pageable)).thenReturn(new SliceImpl<>(List.of()));
+
+        itemService.getItemsByStemmedText("дрели", pageable);
+
+        verify(itemStemIndex, never()).findIds(any(), anyLong(), anyInt());
+        assertTrue(itemService.getItemsByStemmedText(" ", pageable).isEmpty());
+    }
+
+    @Test
+    public void testSearchItemsWithFacetsCombinesTotalsAndTopOwners() {
+        ItemSearchFilter filter = new ItemSearchFilter(null, null, null, null, null, null);
+        Pageable pageable = PageRequest.of(0, 10);
+        when(itemRepository.findByFilter("tent", filter, pageable)).thenReturn(new SliceImpl<>(List.of()));
+        when(itemRepository.countFacetTotals(eq("tent"), eq(filter), any(), any(), any()))
+                .thenReturn(new ItemFacetTotals(9L, 3L, 3L, 4L, 7L));
+        when(itemRepository.countOwnerFacets("tent", filter, 10)).thenReturn(List.of(
+                new ItemFacetRow(3L, 5L),
+                new ItemFacetRow(4L, 2L),
+                new ItemFacetRow(7L, 2L)));
+
+        ItemFacetsDto facets = itemService.searchItemsWithFacets("tent", filter, pageable).getFacets();
+
+        assertEquals(9, facets.getTotal());
+        assertEquals(List.of(new FacetCountDto("3", 5), new FacetCountDto("4", 2), new FacetCountDto("7", 2)),
+                facets.getOwners());
+        assertEquals(List.of(new FacetCountDto("true", 3), new FacetCountDto("false", 6)), facets.getHasRequest());
+        assertEquals(List.of(new FacetCountDto("last_day", 3), new FacetCountDto("last_week", 1),
+                new FacetCountDto("last_month", 3), new FacetCountDto("older", 2)), facets.getCreated());
+        verify(itemRepository, never()).countByFilter(any(), any());
+    }
+
+    @Test
+    public void testGetItemsByFilterRejectsIncompleteOrInvertedWindow() {
+        LocalDateTime start = LocalDateTime.of(2030, 6, 1, 10, 0);
+        ItemSearchFilter openEnded = new ItemSearchFilter(null, null, null, null, start, null);
+        ItemSearchFilter inverted = new ItemSearchFilter(null, null, null, null, start, start.minusHours(1));
+
+        assertThrows(IllegalArgumentException.class,
+                () -> itemService.getItemsByFilter("drill", openEnded, PageRequest.of(0, 10)));
+        assertThrows(IllegalArgumentException.class, () -> itemService.countItemsByFilter("drill", inverted));
+        verifyNoInteractions(itemRepository);
+    }
+
+    @Test
+    public void testGetItemsByFilterUsesSlotIndexForWindowOnlyFilter() {
+        LocalDateTime start = LocalDateTime.of(2030, 6, 1, 10, 0);
+        ItemSearchFilter filter = new ItemSearchFilter(null, null, null, null, start, start.plusHours(3));
+        User owner = new User(1L, "Owner", "owner@example.com");
+        Item tent = new Item(3L, "Tent", "Family tent", true, owner, null);
+        when(itemSearchIndex.isReady()).thenReturn(true);
+        when(bookingSlotIndex.isReady()).thenReturn(true);
+        when(itemSearchIndex.findIds("tent", 0, Integer.MAX_VALUE)).thenReturn(List.of(1L, 2L, 3L));
+        when(bookingSlotIndex.findFree(List.of(1L, 2L, 3L), start, start.plusHours(3))).thenReturn(List.of(1L, 3L));
+        when(itemRepository.findAllById(List.of(3L))).thenReturn(List.of(tent));
+        when(itemMapper.toItemDto(tent)).thenReturn(new ItemDto());
+
+        Slice<ItemDto> result = itemService.getItemsByFilter("tent", filter, PageRequest.of(1, 1));
+
+        assertEquals(1, result.getNumberOfElements());
+        assertFalse(result.hasNext());
+        assertEquals(2, itemService.countItemsByFilter("tent", filter));
+        verify(itemRepository, never()).findByFilter(any(), any(), any());
+        verify(itemRepository, never()).countByFilter(any(), any());
+    }
+
+    @Test
+    public void testSearchItemsWithFacetsBlankText() {
+        ItemFacetsDto facets = itemService.searchItemsWithFacets(" ", new ItemSearchFilter(), PageRequest.of(0, 10))
+                .getFacets();
+
+        assertEquals(0, facets.getTotal());
+        verify(itemRepository, never()).countFacetTotals(any(), any(), any(), any(), any());
+        verify(itemRepository, never()).countOwnerFacets(any(), any(), anyInt());
+    }
+
+    @Test
+    public void testCountItemsBySubstringUsesIndexWhenReady() {
+        when(itemSearchIndex.isReady()).thenReturn(true);
+        when(itemSearchIndex.count("drill")).thenReturn(4L);
+
+        assertEquals(4L, itemService.countItemsBySubstring("drill"));
+        verify(itemRepository, never()).countBySubstring(any());
+    }
+
     @Test
     public void testIsItemBelongOwnerTrue() {
         long itemId = 1L;
         long ownerId = 1L;
-        when(itemRepository.isItemBelongOwner(itemId, ownerId)).thenReturn(true);
+        when(identityCache.isItemOwnedBy(itemId, ownerId)).thenReturn(true);
 
         boolean result = itemService.isItemBelongOwner(itemId, ownerId);
 
@@ -245,7 +654,7 @@ public class ItemServiceImplTest {
     public void testIsItemBelongOwnerFalse() {
         long itemId = 1L;
         long ownerId = 1L;
-        when(itemRepository.isItemBelongOwner(itemId, ownerId)).thenReturn(false);
+        when(identityCache.isItemOwnedBy(itemId, ownerId)).thenReturn(false);
 
         boolean result = itemService.isItemBelongOwner(itemId, ownerId);
 
@@ -322,4 +731,11 @@ public class ItemServiceImplTest {
 
         assertThrows(InvalidCommentException.class, () -> itemService.addComment(itemId, commentDto));
     }
+
+    private static BookingIntervalView interval(LocalDateTime start, LocalDateTime end) {
+        BookingIntervalView interval = mock(BookingIntervalView.class);
+        when(interval.getStart()).thenReturn(start);
+        when(interval.getEnd()).thenReturn(end);
+        return interval;
+    }
 }
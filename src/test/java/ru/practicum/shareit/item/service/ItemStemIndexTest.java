@@ -0,0 +1,86 @@
+package ru.practicum.shareit.item.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+import ru.practicum.shareit.item.analysis.StemmingFilter;
+import ru.practicum.shareit.item.analysis.StopWordFilter;
+import ru.practicum.shareit.item.analysis.TextAnalyzer;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ItemStemIndexTest {
+
+    @Mock
+    private ItemRepository itemRepository;
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private ItemStemIndex stemIndex;
+
+    @BeforeEach
+    void setUp() {
+        TextAnalyzer analyzer = new TextAnalyzer(List.of(new StopWordFilter(), new StemmingFilter()));
+        stemIndex = new ItemStemIndex(itemRepository, analyzer, meterRegistry);
+        ReflectionTestUtils.setField(stemIndex, "batchSize", 100);
+        when(itemRepository.findByAvailableTrueAndIdGreaterThanOrderByIdAsc(any(), any(Pageable.class)))
+                .thenReturn(List.of());
+        stemIndex.build();
+    }
+
+    @Test
+    void findIdsShouldMatchOtherWordForms() {
+        stemIndex.index(item(1L, "Дрель", "Ударная дрель с кейсом"));
+        stemIndex.index(item(2L, "Cordless drills", "Two batteries"));
+        stemIndex.index(item(3L, "Лестница", "Складная"));
+
+        assertEquals(List.of(1L), stemIndex.findIds("дрели", 0, 10));
+        assertEquals(List.of(1L), stemIndex.findIds("кейс", 0, 10));
+        assertEquals(List.of(2L), stemIndex.findIds("drill battery", 0, 10));
+    }
+
+    @Test
+    void findIdsShouldRequireEveryTermAndPageInIdOrder() {
+        stemIndex.index(item(3L, "Дрель", "Аккумуляторная"));
+        stemIndex.index(item(1L, "Дрели", "Аккумуляторные"));
+        stemIndex.index(item(2L, "Дрель", "Сетевая"));
+
+        assertEquals(List.of(1L, 2L, 3L), stemIndex.findIds("дрель", 0, 10));
+        assertEquals(List.of(3L), stemIndex.findIds("аккумуляторная дрель", 1, 10));
+        assertEquals(2, stemIndex.count("дрель аккумуляторная"));
+        assertEquals(0, stemIndex.count("и с на"));
+    }
+
+    @Test
+    void indexShouldForgetRenamedAndUnavailableItemsAndReportFootprint() {
+        stemIndex.index(item(1L, "Drill", "Heavy"));
+        stemIndex.index(item(1L, "Ladder", "Folding"));
+        assertEquals(0, stemIndex.count("drill"));
+
+        Item unavailable = item(1L, "Ladder", "Folding");
+        unavailable.setAvailable(false);
+        stemIndex.index(unavailable);
+
+        assertEquals(0, stemIndex.count("ladder"));
+        assertEquals(0, meterRegistry.get("shareit.item.index.terms").gauge().value());
+        assertEquals(0, meterRegistry.get("shareit.item.index.postings").gauge().value());
+        assertEquals(2, meterRegistry.get("shareit.item.index.query").timer().count());
+    }
+
+    private static Item item(Long id, String name, String description) {
+        return new Item(id, name, description, true, null, null);
+    }
+}
@@ -0,0 +1,121 @@
+package ru.practicum.shareit.item.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+import ru.practicum.shareit.item.dto.ItemSuggestionDto;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.repository.ItemSearchView;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ItemSuggestIndexTest {
+
+    @Mock
+    private ItemRepository itemRepository;
+
+    @InjectMocks
+    private ItemSuggestIndex suggestIndex;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(suggestIndex, "batchSize", 2);
+    }
+
+    @Test
+    void buildShouldLoadAvailableItemsInBatches() {
+        when(itemRepository.findByAvailableTrueAndIdGreaterThanOrderByIdAsc(eq(0L), any(Pageable.class)))
+                .thenReturn(List.of(view(1L, "Drill"), view(2L, "Saw")));
+        when(itemRepository.findByAvailableTrueAndIdGreaterThanOrderByIdAsc(eq(2L), any(Pageable.class)))
+                .thenReturn(List.of(view(5L, "drill press")));
+
+        suggestIndex.build();
+
+        assertTrue(suggestIndex.isReady());
+        assertEquals(List.of(new ItemSuggestionDto(1L, "Drill"), new ItemSuggestionDto(5L, "drill press")),
+                suggestIndex.suggest("DR", 10));
+    }
+
+    @Test
+    void suggestShouldReturnPrefixMatchesInNameOrderUpToLimit() {
+        build(item(1L, "Saw"), item(2L, "Drill"), item(3L, "Drill"), item(4L, "Drum"), item(5L, "Dryer"));
+
+        assertEquals(List.of(2L, 3L), ids(suggestIndex.suggest("dr", 2)));
+        assertEquals(List.of(4L), ids(suggestIndex.suggest("dru", 10)));
+        assertEquals(List.of(), ids(suggestIndex.suggest("drz", 10)));
+    }
+
+    @Test
+    void indexShouldRenameAndRemoveUnavailableItems() {
+        build(item(1L, "Drill"));
+
+        suggestIndex.index(item(1L, "Saw"));
+        assertEquals(List.of(), ids(suggestIndex.suggest("dr", 10)));
+        assertEquals(List.of(1L), ids(suggestIndex.suggest("s", 10)));
+
+        Item unavailable = item(1L, "Saw");
+        unavailable.setAvailable(false);
+        suggestIndex.index(unavailable);
+        assertEquals(List.of(), ids(suggestIndex.suggest("s", 10)));
+    }
+
+    @Test
+    void buildShouldKeepIndexNotReadyWhenDatabaseFails() {
+        when(itemRepository.findByAvailableTrueAndIdGreaterThanOrderByIdAsc(any(), any(Pageable.class)))
+                .thenThrow(new DataAccessResourceFailureException("down"));
+
+        suggestIndex.build();
+
+        assertFalse(suggestIndex.isReady());
+    }
+
+    private void build(Item... items) {
+        when(itemRepository.findByAvailableTrueAndIdGreaterThanOrderByIdAsc(any(), any(Pageable.class)))
+                .thenReturn(List.of());
+        suggestIndex.build();
+        for (Item item : items) {
+            suggestIndex.index(item);
+        }
+    }
+
+    private List<Long> ids(List<ItemSuggestionDto> suggestions) {
+        return suggestions.stream().map(ItemSuggestionDto::getId).collect(Collectors.toList());
+    }
+
+    private Item item(Long id, String name) {
+        return new Item(id, name, "Description", true, null, null);
+    }
+
+    private ItemSearchView view(Long id, String name) {
+        return new ItemSearchView() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public String getName() {
+                return name;
+            }
+
+            @Override
+            public String getDescription() {
+                return "Description";
+            }
+        };
+    }
+}
@@ -0,0 +1,103 @@
+package ru.practicum.shareit.item.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.event.BookingChangedEvent;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.event.ItemChangedEvent;
+import ru.practicum.shareit.item.model.Item;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ItemViewCacheTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private ItemViewCache cache;
+    private AtomicInteger loads;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new ItemViewCache(Duration.ofMinutes(5), 100, meterRegistry);
+        loads = new AtomicInteger();
+    }
+
+    @Test
+    void getViewShouldLoadOncePerRoleAndRecordHitsAndMisses() {
+        cache.getView(1L, true, () -> view(null));
+        cache.getView(1L, true, () -> view(null));
+        cache.getView(1L, false, () -> view(null));
+
+        assertEquals(2, loads.get());
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", ItemViewCache.CACHE_NAME)
+                .tag("result", "hit").functionCounter().count());
+        assertEquals(2.0, meterRegistry.get("cache.gets").tag("cache", ItemViewCache.CACHE_NAME)
+                .tag("result", "miss").functionCounter().count());
+    }
+
+    @Test
+    void getViewShouldReturnIndependentCopies() {
+        ItemDto first = cache.getView(1L, true, () -> view(null));
+        first.getNextBooking().setId(99L);
+        first.getComments().clear();
+
+        ItemDto second = cache.getView(1L, true, () -> view(null));
+
+        assertEquals(10L, second.getNextBooking().getId());
+        assertTrue(second.getComments().isEmpty());
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void ownerViewShouldExpireWhenNextBookingStarts() {
+        cache.getView(1L, true, () -> view(LocalDateTime.now().minusSeconds(1)));
+        cache.getView(1L, true, () -> view(LocalDateTime.now().minusSeconds(1)));
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void onItemChangedShouldEvictBothRoles() {
+        cache.getView(1L, true, () -> view(null));
+        cache.getView(1L, false, () -> view(null));
+
+        cache.onItemChanged(new ItemChangedEvent(1L, ItemChangedEvent.Type.COMMENTED));
+        cache.getView(1L, true, () -> view(null));
+        cache.getView(1L, false, () -> view(null));
+
+        assertEquals(4, loads.get());
+    }
+
+    @Test
+    void onBookingChangedShouldEvictOnlyOwnerView() {
+        Item item = new Item();
+        item.setId(1L);
+        Booking booking = new Booking();
+        booking.setItem(item);
+        cache.getView(1L, true, () -> view(null));
+        cache.getView(1L, false, () -> view(null));
+
+        cache.onBookingChanged(new BookingChangedEvent(booking, BookingChangedEvent.Type.CREATED));
+        cache.getView(1L, true, () -> view(null));
+        cache.getView(1L, false, () -> view(null));
+
+        assertEquals(3, loads.get());
+    }
+
+    private ItemViewCache.View view(LocalDateTime validUntil) {
+        loads.incrementAndGet();
+        ItemDto item = new ItemDto();
+        item.setId(1L);
+        BookingDto next = new BookingDto();
+        next.setId(10L);
+        item.setNextBooking(next);
+        return new ItemViewCache.View(item, validUntil);
+    }
+}
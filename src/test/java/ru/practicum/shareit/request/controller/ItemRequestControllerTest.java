@@ -6,23 +6,32 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import ru.practicum.shareit.exception.ItemRequestNotFoundException;
+import ru.practicum.shareit.exception.UserNotFoundException;
+import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
+import ru.practicum.shareit.request.dto.RequestSuggestionDto;
 import ru.practicum.shareit.request.service.ItemRequestService;
+import ru.practicum.shareit.util.CursorUtil;
+import ru.practicum.shareit.util.PageableUtil;
 
 import java.util.List;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
-import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
-import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(controllers = ItemRequestController.class)
 public class ItemRequestControllerTest {
@@ -103,30 +112,110 @@ public class ItemRequestControllerTest {
                 new ItemRequestDto(1L, "Need a camera", userId, null, null),
                 new ItemRequestDto(2L, "Looking for a laptop", userId, null, null)
         );
-        when(itemRequestService.getItemRequestsByUser(userId)).thenReturn(itemRequestDtos);
+        when(itemRequestService.getItemRequestsByUser(eq(userId), any(Pageable.class)))
+                .thenReturn(new SliceImpl<>(itemRequestDtos));
 
         mockMvc.perform(get("/requests")
                         .header("X-Sharer-User-Id", userId))
                 .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(CursorUtil.NEXT_CURSOR_HEADER))
                 .andExpect(jsonPath("$[0].id").value(1))
                 .andExpect(jsonPath("$[0].description").value("Need a camera"))
                 .andExpect(jsonPath("$[1].id").value(2))
                 .andExpect(jsonPath("$[1].description").value("Looking for a laptop"));
 
-        verify(itemRequestService).getItemRequestsByUser(userId);
+        verify(itemRequestService).getItemRequestsByUser(userId,
+                PageableUtil.createPageable(0, 10, Sort.by(Sort.Direction.DESC, "id")));
     }
 
     @Test
     void getItemRequestsByUserShouldReturnEmptyListWhenNoRequests() throws Exception {
         Long userId = 1L;
-        when(itemRequestService.getItemRequestsByUser(userId)).thenReturn(List.of());
+        when(itemRequestService.getItemRequestsByUser(eq(userId), any(Pageable.class)))
+                .thenReturn(new SliceImpl<>(List.of()));
 
         mockMvc.perform(get("/requests")
                         .header("X-Sharer-User-Id", userId))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$").isEmpty());
 
-        verify(itemRequestService).getItemRequestsByUser(userId);
+        verify(itemRequestService).getItemRequestsByUser(eq(userId), any(Pageable.class));
+    }
+
+    @Test
+    void getItemRequestsByUserShouldFollowCursorAndReturnNextOne() throws Exception {
+        Long userId = 1L;
+        when(itemRequestService.getItemRequestsByUserAfter(userId, 9L, 3)).thenReturn(List.of(
+                new ItemRequestDto(8L, "Need a tent", userId, null, null),
+                new ItemRequestDto(5L, "Need a stove", userId, null, null),
+                new ItemRequestDto(2L, "Need a lamp", userId, null, null)));
+
+        mockMvc.perform(get("/requests")
+                        .header("X-Sharer-User-Id", userId)
+                        .param("size", "2")
+                        .param("after", CursorUtil.encode(9L)))
+                .andExpect(status().isOk())
+                .andExpect(header().string(CursorUtil.NEXT_CURSOR_HEADER, CursorUtil.encode(5L)))
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[1].id").value(5));
+
+        verify(itemRequestService, never()).getItemRequestsByUser(any(), any());
+    }
+
+    @Test
+    void getItemRequestsByUserShouldOmitNextCursorOnFullLastPage() throws Exception {
+        Long userId = 1L;
+        Pageable pageable = PageableUtil.createPageable(0, 1, Sort.by(Sort.Direction.DESC, "id"));
+        when(itemRequestService.getItemRequestsByUser(userId, pageable)).thenReturn(new SliceImpl<>(
+                List.of(new ItemRequestDto(8L, "Need a tent", userId, null, null)), pageable, false));
+        when(itemRequestService.getItemRequestsByUserAfter(userId, 9L, 2)).thenReturn(List.of(
+                new ItemRequestDto(8L, "Need a tent", userId, null, null)));
+
+        mockMvc.perform(get("/requests")
+                        .header("X-Sharer-User-Id", userId)
+                        .param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(CursorUtil.NEXT_CURSOR_HEADER));
+        mockMvc.perform(get("/requests")
+                        .header("X-Sharer-User-Id", userId)
+                        .param("size", "1")
+                        .param("after", CursorUtil.encode(9L)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(header().doesNotExist(CursorUtil.NEXT_CURSOR_HEADER));
+    }
+
+    @Test
+    void streamItemRequestsByUserShouldWriteOneJsonObjectPerLine() throws Exception {
+        Long userId = 1L;
+        when(itemRequestService.getItemRequestsByUserAfter(userId, Long.MAX_VALUE, 100)).thenReturn(List.of(
+                new ItemRequestDto(8L, "Need a tent", userId, null, List.of()),
+                new ItemRequestDto(5L, "Need a stove", userId, null, List.of())));
+
+        MvcResult result = mockMvc.perform(get("/requests")
+                        .header("X-Sharer-User-Id", userId)
+                        .accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String[] lines = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString().split("\n");
+        assertEquals(2, lines.length);
+        assertEquals(8L, objectMapper.readValue(lines[0], ItemRequestDto.class).getId());
+        assertEquals("Need a stove", objectMapper.readValue(lines[1], ItemRequestDto.class).getDescription());
+    }
+
+    @Test
+    void streamItemRequestsByUserShouldReturnNotFoundBeforeStreaming() throws Exception {
+        when(itemRequestService.getItemRequestsByUserAfter(99L, Long.MAX_VALUE, 100))
+                .thenThrow(new UserNotFoundException());
+
+        mockMvc.perform(get("/requests")
+                        .header("X-Sharer-User-Id", 99L)
+                        .accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(status().isNotFound());
     }
 
     @Test
@@ -137,7 +226,7 @@ public class ItemRequestControllerTest {
                 new ItemRequestDto(1L, "Need a camera", 2L, null, null),
                 new ItemRequestDto(2L, "Looking for a laptop", 3L, null, null)
         );
-        Page<ItemRequestDto> page = new PageImpl<>(itemRequestDtos);
+        Slice<ItemRequestDto> page = new SliceImpl<>(itemRequestDtos);
 
         when(itemRequestService.getAllItemRequests(eq(userId), any(Pageable.class))).thenReturn(page);
 
@@ -160,7 +249,7 @@ public class ItemRequestControllerTest {
         int from = 0, size = 1;
         List<ItemRequestDto> itemRequestDtos = List.of(new ItemRequestDto(1L,
                 "Need a camera", 2L, null, null));
-        Page<ItemRequestDto> page = new PageImpl<>(itemRequestDtos);
+        Slice<ItemRequestDto> page = new SliceImpl<>(itemRequestDtos);
 
         when(itemRequestService.getAllItemRequests(eq(userId), any(Pageable.class))).thenReturn(page);
 
@@ -176,4 +265,42 @@ public class ItemRequestControllerTest {
 
         verify(itemRequestService).getAllItemRequests(eq(userId), any(Pageable.class));
     }
+
+    @Test
+    void getAllItemRequestsShouldFollowCursorAndReturnNextOne() throws Exception {
+        Long userId = 1L;
+        when(itemRequestService.getAllItemRequestsAfter(userId, 9L, 3)).thenReturn(List.of(
+                new ItemRequestDto(7L, "Need a tent", 2L, null, null),
+                new ItemRequestDto(4L, "Need a stove", 3L, null, null),
+                new ItemRequestDto(2L, "Need a lamp", 3L, null, null)));
+
+        mockMvc.perform(get("/requests/all")
+                        .header("X-Sharer-User-Id", userId)
+                        .param("size", "2")
+                        .param("after", CursorUtil.encode(9L)))
+                .andExpect(status().isOk())
+                .andExpect(header().string(CursorUtil.NEXT_CURSOR_HEADER, CursorUtil.encode(4L)))
+                .andExpect(jsonPath("$[1].id").value(4));
+
+        verify(itemRequestService, never()).getAllItemRequests(any(), any());
+    }
+
+    @Test
+    void getSuggestionsShouldReturnRequesterSuggestions() throws Exception {
+        Long userId = 1L;
+        ItemDto item = new ItemDto();
+        item.setId(5L);
+        item.setName("Drill");
+        when(itemRequestService.getSuggestions(userId, PageRequest.of(1, 2))).thenReturn(List.of(
+                new RequestSuggestionDto(3L, 7L, item, 0.8, null)));
+
+        mockMvc.perform(get("/requests/suggestions")
+                        .header("X-Sharer-User-Id", userId)
+                        .param("from", "2")
+                        .param("size", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].requestId").value(7))
+                .andExpect(jsonPath("$[0].item.name").value("Drill"))
+                .andExpect(jsonPath("$[0].score").value(0.8));
+    }
 }
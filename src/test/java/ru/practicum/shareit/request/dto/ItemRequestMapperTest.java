@@ -55,6 +55,20 @@ public class ItemRequestMapperTest {
         assertEquals(itemDto, dto.getItems().get(0));
     }
 
+    @Test
+    public void toItemRequestDtoWithLoadedItemsShouldNotTouchRequestItems() {
+        User user = new User(1L, "Requester User", "requester@example.com");
+        ItemRequest itemRequest = new ItemRequest(1L, "Need a laptop", user, LocalDateTime.now(), null);
+        ItemDto itemDto = new ItemDto();
+        itemDto.setId(5L);
+
+        ItemRequestDto dto = itemRequestMapper.toItemRequestDto(itemRequest, List.of(itemDto));
+
+        assertEquals(1L, dto.getRequesterId());
+        assertEquals(List.of(itemDto), dto.getItems());
+        assertNull(itemRequestMapper.toItemRequestDto(null, List.of()));
+    }
+
     @Test
     public void toItemRequestShouldConvertFromDto() {
         ItemRequestDto dto = new ItemRequestDto(1L, "Need a laptop", 1L,
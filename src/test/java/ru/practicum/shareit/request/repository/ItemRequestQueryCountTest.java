@@ -0,0 +1,121 @@
+package ru.practicum.shareit.request.repository;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import ru.practicum.shareit.item.dto.ItemMapper;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.request.dto.ItemRequestDto;
+import ru.practicum.shareit.request.dto.ItemRequestMapper;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.request.service.ItemRequestFeedCache;
+import ru.practicum.shareit.request.service.ItemRequestServiceImpl;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.util.IdentityCache;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+public class ItemRequestQueryCountTest {
+
+    private static final int REQUESTS = 10;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private ItemRequestRepository itemRequestRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RequestSuggestionRepository requestSuggestionRepository;
+
+    private final IdentityCache identityCache = Mockito.mock(IdentityCache.class);
+
+    private ItemRequestServiceImpl itemRequestService;
+    private User viewer;
+    private User requester;
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        ItemMapper itemMapper = new ItemMapper();
+        itemRequestService = new ItemRequestServiceImpl(itemRequestRepository, new ItemRequestMapper(itemMapper),
+                userRepository, requestSuggestionRepository, itemRepository, itemMapper, null, identityCache,
+                new ItemRequestFeedCache(Duration.ofMinutes(1), REQUESTS, new SimpleMeterRegistry()),
+                Mockito.mock(ApplicationEventPublisher.class));
+        viewer = entityManager.persist(new User(null, "Viewer", "viewer@example.com"));
+        requester = entityManager.persist(new User(null, "Requester", "requester@example.com"));
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < REQUESTS; i++) {
+            User owner = entityManager.persist(new User(null, "Owner " + i, "owner" + i + "@example.com"));
+            ItemRequest request = entityManager.persist(new ItemRequest(null, "Need item " + i, requester,
+                    now.minusHours(i), null));
+            entityManager.persist(new Item(null, "Item " + i, "Description", true, owner, request));
+            entityManager.persist(new Item(null, "Spare " + i, "Description", true, owner, request));
+        }
+        entityManager.flush();
+        entityManager.clear();
+        statistics = entityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void requesterListShouldLoadItemsWithOneStatement() {
+        when(identityCache.userExists(requester.getId())).thenReturn(true);
+
+        List<ItemRequestDto> requests = itemRequestService.getItemRequestsByUser(requester.getId(),
+                PageRequest.of(0, REQUESTS, Sort.by(Sort.Direction.DESC, "id"))).getContent();
+
+        assertThat(requests).hasSize(REQUESTS);
+        assertThat(requests).allSatisfy(request -> assertThat(request.getItems()).hasSize(2));
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    }
+
+    @Test
+    void othersPageShouldLoadItemsWithOneStatement() {
+        List<ItemRequestDto> requests = itemRequestService.getAllItemRequests(viewer.getId(),
+                PageRequest.of(0, REQUESTS, Sort.by(Sort.Direction.DESC, "created"))).getContent();
+
+        assertThat(requests).hasSize(REQUESTS);
+        assertThat(requests).allSatisfy(request -> assertThat(request.getItems())
+                .extracting(item -> item.getRequestId())
+                .containsOnly(request.getId()));
+        // голова ленты и её вещи читаются один раз, затем хвост ленты проверяется одним запросом
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(3);
+    }
+
+    @Test
+    void othersPageShouldBeServedFromSharedFeedHead() {
+        itemRequestService.getAllItemRequests(viewer.getId(), PageRequest.of(0, 5));
+        statistics.clear();
+
+        List<ItemRequestDto> requests = itemRequestService.getAllItemRequests(requester.getId(),
+                PageRequest.of(0, 5)).getContent();
+
+        assertThat(requests).isEmpty();
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+}
@@ -6,13 +6,12 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
 import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.user.model.User;
-import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Sort;
 
 import java.time.LocalDateTime;
-import java.util.Collection;
+import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -74,7 +73,8 @@ public class ItemRequestRepositoryTest {
         entityManager.persist(itemRequest1);
         entityManager.persist(itemRequest2);
 
-        Collection<ItemRequest> foundItemRequests = itemRequestRepository.findAllByRequesterId(user.getId());
+        List<ItemRequest> foundItemRequests = itemRequestRepository.findAllByRequesterId(user.getId(),
+                PageRequest.of(0, 10)).getContent();
 
         assertThat(foundItemRequests).hasSize(2);
         assertThat(foundItemRequests).extracting("description").containsExactlyInAnyOrder(
@@ -113,7 +113,8 @@ public class ItemRequestRepositoryTest {
 
         entityManager.flush();
 
-        Collection<ItemRequest> requests = itemRequestRepository.findAllByRequesterId(user.getId());
+        List<ItemRequest> requests = itemRequestRepository.findAllByRequesterId(user.getId(),
+                PageRequest.of(0, 10)).getContent();
 
         assertThat(requests).hasSize(2);
         assertThat(requests).extracting(ItemRequest::getDescription).containsExactlyInAnyOrder(
@@ -121,26 +122,43 @@ public class ItemRequestRepositoryTest {
     }
 
     @Test
-    public void findAllExcludeUserShouldReturnRequestsExcludingSpecificUser() {
-        User user = new User(null, "Requester User", "requester@example.com");
-        entityManager.persist(user);
-        User otherUser = new User(null, "Other User", "other@example.com");
-        entityManager.persist(otherUser);
+    public void findAllByRequesterIdAndIdLessThanShouldWalkNewestFirst() {
+        User user = entityManager.persist(new User(null, "Requester User", "requester@example.com"));
+        ItemRequest first = entityManager.persist(new ItemRequest(null, "Need a bike", user, LocalDateTime.now(),
+                null));
+        ItemRequest second = entityManager.persist(new ItemRequest(null, "Need a helmet", user, LocalDateTime.now(),
+                null));
+        ItemRequest third = entityManager.persist(new ItemRequest(null, "Need a lock", user, LocalDateTime.now(),
+                null));
+        entityManager.flush();
+        PageRequest newestFirst = PageRequest.of(0, 2, Sort.by(Sort.Direction.DESC, "id"));
 
-        entityManager.persist(new ItemRequest(null, "Need a bike", user, LocalDateTime.now(), null));
-        ItemRequest otherRequest1 = new ItemRequest(null, "Need a helmet", otherUser,
-                LocalDateTime.now(), null);
-        ItemRequest otherRequest2 = new ItemRequest(null, "Need a camera", otherUser,
-                LocalDateTime.now(), null);
-        entityManager.persist(otherRequest1);
-        entityManager.persist(otherRequest2);
+        List<ItemRequest> page = itemRequestRepository.findAllByRequesterIdAndIdLessThan(user.getId(), Long.MAX_VALUE,
+                newestFirst);
+        List<ItemRequest> next = itemRequestRepository.findAllByRequesterIdAndIdLessThan(user.getId(),
+                page.get(1).getId(), newestFirst);
+
+        assertThat(page).containsExactly(third, second);
+        assertThat(next).containsExactly(first);
+    }
 
+    @Test
+    public void feedShouldOrderByCreatedAndContinueBehindCursorOnTies() {
+        User user = new User(null, "Requester User", "requester@example.com");
+        entityManager.persist(user);
+        LocalDateTime created = LocalDateTime.of(2024, 5, 1, 12, 0);
+        ItemRequest oldest = entityManager.persist(new ItemRequest(null, "Need a bike", user,
+                created.minusDays(1), null));
+        ItemRequest tiedFirst = entityManager.persist(new ItemRequest(null, "Need a helmet", user, created, null));
+        ItemRequest tiedSecond = entityManager.persist(new ItemRequest(null, "Need a camera", user, created, null));
+        ItemRequest newest = entityManager.persist(new ItemRequest(null, "Need a tent", user,
+                created.plusDays(1), null));
         entityManager.flush();
 
-        Pageable pageable = PageRequest.of(0, 10);
-        Page<ItemRequest> page = itemRequestRepository.findAllExcludeUser(user.getId(), pageable);
+        List<ItemRequest> head = itemRequestRepository.findFeed(PageRequest.of(0, 2));
+        List<ItemRequest> next = itemRequestRepository.findFeedAfter(head.get(1).getId(), PageRequest.of(0, 10));
 
-        assertThat(page).hasSize(2);
-        assertThat(page.getContent()).containsExactlyInAnyOrder(otherRequest1, otherRequest2);
+        assertThat(head).containsExactly(newest, tiedSecond);
+        assertThat(next).containsExactly(tiedFirst, oldest);
     }
 }
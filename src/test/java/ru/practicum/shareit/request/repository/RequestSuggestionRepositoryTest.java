@@ -0,0 +1,77 @@
+package ru.practicum.shareit.request.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.request.model.RequestSuggestion;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+public class RequestSuggestionRepositoryTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private RequestSuggestionRepository requestSuggestionRepository;
+
+    @Autowired
+    private ItemRequestRepository itemRequestRepository;
+
+    @Test
+    public void findOpenRequestViewsShouldSkipAnsweredRequests() {
+        User requester = entityManager.persist(new User(null, "Requester", "requester@example.com"));
+        User owner = entityManager.persist(new User(null, "Owner", "owner@example.com"));
+        ItemRequest answered = entityManager.persist(new ItemRequest(null, "Need a drill", requester,
+                LocalDateTime.now(), null));
+        ItemRequest open = entityManager.persist(new ItemRequest(null, "Need a tent", requester,
+                LocalDateTime.now(), null));
+        entityManager.persist(new Item(null, "Drill", "Cordless drill", true, owner, answered));
+        entityManager.flush();
+
+        List<OpenRequestView> views = itemRequestRepository.findOpenRequestViews(0L, PageRequest.of(0, 10));
+
+        assertThat(views).extracting(OpenRequestView::getId).containsExactly(open.getId());
+        assertThat(views.get(0).getRequesterId()).isEqualTo(requester.getId());
+        assertThat(views.get(0).getDescription()).isEqualTo("Need a tent");
+        assertThat(itemRequestRepository.findOpenRequestViews(open.getId(), PageRequest.of(0, 10))).isEmpty();
+    }
+
+    @Test
+    public void findViewsByRequesterIdShouldReturnNewestSuggestionsWithItems() {
+        User requester = entityManager.persist(new User(null, "Requester", "requester@example.com"));
+        User other = entityManager.persist(new User(null, "Other", "other@example.com"));
+        User owner = entityManager.persist(new User(null, "Owner", "owner@example.com"));
+        ItemRequest request = entityManager.persist(new ItemRequest(null, "Need a drill", requester,
+                LocalDateTime.now(), null));
+        ItemRequest otherRequest = entityManager.persist(new ItemRequest(null, "Need a drill", other,
+                LocalDateTime.now(), null));
+        Item drill = entityManager.persist(new Item(null, "Drill", "Cordless drill", true, owner, null));
+        Item hammerDrill = entityManager.persist(new Item(null, "Hammer drill", "Heavy", true, owner, null));
+        entityManager.persist(new RequestSuggestion(null, request, drill, 0.7, LocalDateTime.now()));
+        entityManager.persist(new RequestSuggestion(null, request, hammerDrill, 0.6, LocalDateTime.now()));
+        entityManager.persist(new RequestSuggestion(null, otherRequest, drill, 0.7, LocalDateTime.now()));
+        entityManager.flush();
+
+        List<RequestSuggestionView> views = requestSuggestionRepository.findViewsByRequesterId(requester.getId(),
+                PageRequest.of(0, 10));
+
+        assertThat(views).extracting(RequestSuggestionView::getItemId)
+                .containsExactly(hammerDrill.getId(), drill.getId());
+        assertThat(views.get(0).getRequestId()).isEqualTo(request.getId());
+        assertThat(views.get(0).getItemName()).isEqualTo("Hammer drill");
+        assertThat(views.get(0).getOwnerId()).isEqualTo(owner.getId());
+        assertThat(views.get(0).getScore()).isEqualTo(0.6);
+        assertThat(requestSuggestionRepository.existsByRequestIdAndItemId(request.getId(), drill.getId())).isTrue();
+        assertThat(requestSuggestionRepository.existsByRequestIdAndItemId(request.getId(), 999L)).isFalse();
+    }
+}
@@ -0,0 +1,99 @@
+package ru.practicum.shareit.request.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.event.ItemChangedEvent;
+import ru.practicum.shareit.request.dto.ItemRequestDto;
+import ru.practicum.shareit.request.event.ItemRequestChangedEvent;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ItemRequestFeedCacheTest {
+
+    private ItemRequestFeedCache cache;
+    private AtomicInteger loads;
+
+    @BeforeEach
+    void setUp() {
+        cache = new ItemRequestFeedCache(Duration.ofMinutes(1), 10, new SimpleMeterRegistry());
+        loads = new AtomicInteger();
+    }
+
+    @Test
+    void getNewestShouldLoadOnceAndReturnIndependentCopies() {
+        List<ItemRequestDto> first = cache.getNewest(this::head);
+        first.get(0).setDescription("Changed");
+        first.get(0).getItems().get(0).setName("Changed");
+
+        List<ItemRequestDto> second = cache.getNewest(this::head);
+
+        assertEquals("Need a drill", second.get(0).getDescription());
+        assertEquals("Drill", second.get(0).getItems().get(0).getName());
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void requestEventsShouldDropHead() {
+        cache.getNewest(this::head);
+        cache.onItemRequestChanged(new ItemRequestChangedEvent(2L, ItemRequestChangedEvent.Type.CREATED));
+        cache.getNewest(this::head);
+        cache.onItemRequestChanged(new ItemRequestChangedEvent(1L, ItemRequestChangedEvent.Type.ITEM_ADDED));
+        cache.getNewest(this::head);
+
+        assertEquals(3, loads.get());
+    }
+
+    @Test
+    void itemUpdateShouldDropHeadOnlyWhenItemIsInIt() {
+        cache.getNewest(this::head);
+
+        cache.onItemChanged(new ItemChangedEvent(99L, ItemChangedEvent.Type.UPDATED));
+        cache.onItemChanged(new ItemChangedEvent(10L, ItemChangedEvent.Type.COMMENTED));
+        cache.getNewest(this::head);
+        assertEquals(1, loads.get());
+
+        cache.onItemChanged(new ItemChangedEvent(10L, ItemChangedEvent.Type.UPDATED));
+        cache.getNewest(this::head);
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void headLoadedDuringWriteShouldNotBeCached() {
+        cache.getNewest(() -> {
+            cache.evict();
+            return head();
+        });
+        cache.getNewest(this::head);
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void headLoadedDuringItemUpdateShouldNotBeCached() {
+        cache.getNewest(() -> {
+            cache.onItemChanged(new ItemChangedEvent(10L, ItemChangedEvent.Type.UPDATED));
+            return head();
+        });
+        cache.getNewest(this::head);
+
+        assertEquals(2, loads.get());
+    }
+
+    private List<ItemRequestDto> head() {
+        loads.incrementAndGet();
+        ItemDto drill = new ItemDto();
+        drill.setId(10L);
+        drill.setName("Drill");
+        drill.setRequestId(1L);
+        List<ItemDto> items = new ArrayList<>();
+        items.add(drill);
+        return List.of(new ItemRequestDto(1L, "Need a drill", 2L, null, items));
+    }
+}
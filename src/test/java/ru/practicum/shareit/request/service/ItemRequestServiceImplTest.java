@@ -1,23 +1,38 @@
 package ru.practicum.shareit.request.service;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.*;
 import ru.practicum.shareit.exception.ItemRequestNotFoundException;
 import ru.practicum.shareit.exception.UserNotFoundException;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemMapper;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.repository.RequestItemView;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.dto.ItemRequestMapper;
+import ru.practicum.shareit.request.dto.RequestSuggestionDto;
+import ru.practicum.shareit.request.event.ItemRequestChangedEvent;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.request.repository.ItemRequestRepository;
+import ru.practicum.shareit.request.repository.RequestSuggestionRepository;
+import ru.practicum.shareit.request.repository.RequestSuggestionView;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.util.CountEstimateCache;
+import ru.practicum.shareit.util.IdentityCache;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -34,6 +49,28 @@ public class ItemRequestServiceImplTest {
     @Mock
     private ItemRequestMapper itemRequestMapper;
 
+    @Mock
+    private ItemRepository itemRepository;
+
+    @Mock
+    private RequestSuggestionRepository requestSuggestionRepository;
+
+    @Mock
+    private ItemMapper itemMapper;
+
+    @Mock
+    private IdentityCache identityCache;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Spy
+    private CountEstimateCache countEstimateCache = new CountEstimateCache(Duration.ofMinutes(1), 100);
+
+    @Spy
+    private ItemRequestFeedCache itemRequestFeedCache = new ItemRequestFeedCache(Duration.ofMinutes(1), 3,
+            new SimpleMeterRegistry());
+
     @InjectMocks
     private ItemRequestServiceImpl itemRequestService;
 
@@ -55,6 +92,7 @@ public class ItemRequestServiceImplTest {
         assertEquals("Need a camera", result.getDescription());
         verify(userRepository).findById(1L);
         verify(itemRequestRepository).save(itemRequest);
+        verify(eventPublisher).publishEvent(new ItemRequestChangedEvent(1L, ItemRequestChangedEvent.Type.CREATED));
     }
 
     @Test
@@ -72,56 +110,127 @@ public class ItemRequestServiceImplTest {
         List<ItemRequest> requests = List.of(new ItemRequest(1L, "Need a camera",
                 new User(userId, "User", "email"), LocalDateTime.now(), null));
 
-        when(userRepository.findById(userId)).thenReturn(Optional.of(new User(userId, "User", "email")));
-        when(itemRequestRepository.findAllByRequesterId(userId)).thenReturn(requests);
-        when(itemRequestMapper.toItemRequestDto(any())).thenAnswer(invocation -> {
+        when(identityCache.userExists(userId)).thenReturn(true);
+        Pageable pageable = PageRequest.of(0, 10);
+        when(itemRequestRepository.findAllByRequesterId(userId, pageable)).thenReturn(new SliceImpl<>(requests));
+        when(itemRepository.findRequestItemViews(List.of(1L))).thenReturn(List.of());
+        when(itemRequestMapper.toItemRequestDto(any(), anyList())).thenAnswer(invocation -> {
             ItemRequest ir = invocation.getArgument(0);
-            return new ItemRequestDto(ir.getId(), ir.getDescription(), ir.getRequester().getId(), ir.getCreated(), null);
+            return new ItemRequestDto(ir.getId(), ir.getDescription(), ir.getRequester().getId(), ir.getCreated(),
+                    invocation.getArgument(1));
         });
 
-        List<ItemRequestDto> result = itemRequestService.getItemRequestsByUser(userId);
+        List<ItemRequestDto> result = itemRequestService.getItemRequestsByUser(userId, pageable).getContent();
 
         assertNotNull(result);
         assertEquals(1, result.size());
         assertEquals("Need a camera", result.get(0).getDescription());
-        verify(userRepository).findById(userId);
-        verify(itemRequestRepository).findAllByRequesterId(userId);
+        verify(identityCache).userExists(userId);
+        verify(itemRequestRepository).findAllByRequesterId(userId, pageable);
     }
 
     @Test
     void getItemRequestsByUserShouldThrowExceptionWhenUserNotFound() {
         Long userId = 1L;
-        when(userRepository.findById(userId)).thenReturn(Optional.empty());
+        when(identityCache.userExists(userId)).thenReturn(false);
+
+        assertThrows(UserNotFoundException.class,
+                () -> itemRequestService.getItemRequestsByUser(userId, PageRequest.of(0, 10)));
+        assertThrows(UserNotFoundException.class,
+                () -> itemRequestService.getItemRequestsByUserAfter(userId, 5L, 10));
+        verifyNoInteractions(itemRequestRepository);
+    }
 
-        assertThrows(UserNotFoundException.class, () -> itemRequestService.getItemRequestsByUser(userId));
-        verify(userRepository).findById(userId);
-        verify(itemRequestRepository, never()).findAllByRequesterId(anyLong());
+    @Test
+    void getItemRequestsByUserAfterShouldReadNewestFirstBeforeCursor() {
+        Long userId = 1L;
+        ItemRequest request = new ItemRequest(4L, "Need a tent", new User(userId, "User", "email"),
+                LocalDateTime.now(), null);
+        ItemRequestDto requestDto = new ItemRequestDto(4L, "Need a tent", userId, null, List.of());
+        when(identityCache.userExists(userId)).thenReturn(true);
+        when(itemRequestRepository.findAllByRequesterIdAndIdLessThan(userId, 5L,
+                PageRequest.of(0, 2, Sort.by(Sort.Direction.DESC, "id")))).thenReturn(List.of(request));
+        when(itemRepository.findRequestItemViews(List.of(4L))).thenReturn(List.of());
+        when(itemRequestMapper.toItemRequestDto(request, List.of())).thenReturn(requestDto);
+
+        assertEquals(List.of(requestDto), itemRequestService.getItemRequestsByUserAfter(userId, 5L, 2));
     }
 
     @Test
-    void getAllItemRequestsShouldReturnPagedRequests() {
+    void getAllItemRequestsShouldSkipOwnRequestsAndServeHeadFromCache() {
         Long userId = 1L;
         Pageable pageable = PageRequest.of(0, 2, Sort.by("created").descending());
-        List<ItemRequest> itemRequests = List.of(
-                new ItemRequest(2L, "Need a laptop",
-                        new User(2L, "User Two", "email.two@example.com"), LocalDateTime.now(), null),
-                new ItemRequest(3L, "Looking for a GoPro",
-                        new User(3L, "User Three", "email.three@example.com"), LocalDateTime.now(), null)
-        );
-        Page<ItemRequest> page = new PageImpl<>(itemRequests, pageable, itemRequests.size());
-
-        when(itemRequestRepository.findAllExcludeUser(eq(userId), any(Pageable.class))).thenReturn(page);
-        when(itemRequestMapper.toItemRequestDto(any())).thenAnswer(invocation -> {
-            ItemRequest ir = invocation.getArgument(0);
-            return new ItemRequestDto(ir.getId(), ir.getDescription(), ir.getRequester().getId(), ir.getCreated(), null);
-        });
+        ItemRequest laptopRequest = request(2L, "Need a laptop", 2L);
+        ItemRequest ownRequest = request(4L, "Need a tent", userId);
+        ItemRequest goProRequest = request(3L, "Looking for a GoPro", 3L);
+        ItemRequest drillRequest = request(5L, "Need a drill", 2L);
+
+        RequestItemView laptop = mock(RequestItemView.class);
+        when(laptop.getRequestId()).thenReturn(2L);
+        ItemDto laptopDto = new ItemDto();
+        laptopDto.setId(10L);
+        when(itemRequestRepository.findFeed(PageRequest.of(0, 3)))
+                .thenReturn(List.of(laptopRequest, ownRequest, goProRequest));
+        when(itemRequestRepository.findFeedAfter(3L, PageRequest.of(0, 100))).thenReturn(List.of(drillRequest));
+        when(itemRepository.findRequestItemViews(List.of(2L, 4L, 3L))).thenReturn(List.of(laptop));
+        when(itemRepository.findRequestItemViews(List.of(5L))).thenReturn(List.of());
+        when(itemMapper.toRequestItemDto(laptop)).thenReturn(laptopDto);
+        stubRequestMapping();
+
+        Slice<ItemRequestDto> result = itemRequestService.getAllItemRequests(userId, pageable);
+        Slice<ItemRequestDto> repeated = itemRequestService.getAllItemRequests(userId, pageable);
+
+        assertEquals(List.of(2L, 3L), ids(result.getContent()));
+        assertTrue(result.hasNext());
+        assertEquals(List.of(laptopDto), result.getContent().get(0).getItems());
+        assertEquals(List.of(), result.getContent().get(1).getItems());
+        assertEquals(result.getContent(), repeated.getContent());
+        verify(itemRequestRepository, times(1)).findFeed(any(Pageable.class));
+        verify(itemRequestMapper, never()).toItemRequestDto(any());
+    }
 
-        Page<ItemRequestDto> result = itemRequestService.getAllItemRequests(userId, pageable);
+    @Test
+    void getAllItemRequestsAfterShouldReadFeedBehindCursor() {
+        Long userId = 1L;
+        when(itemRequestRepository.findFeedAfter(3L, PageRequest.of(0, 100)))
+                .thenReturn(List.of(request(6L, "Need a tent", userId), request(5L, "Need a drill", 2L)));
+        when(itemRepository.findRequestItemViews(List.of(5L))).thenReturn(List.of());
+        stubRequestMapping();
 
-        assertNotNull(result);
-        assertEquals(2, result.getContent().size());
-        assertEquals("Need a laptop", result.getContent().get(0).getDescription());
-        verify(itemRequestRepository).findAllExcludeUser(userId, pageable);
+        List<ItemRequestDto> result = itemRequestService.getAllItemRequestsAfter(userId, 3L, 2);
+
+        assertEquals(List.of(5L), ids(result));
+        verify(itemRequestRepository, never()).findFeed(any(Pageable.class));
+    }
+
+    @Test
+    void getSuggestionsShouldMapRequesterSuggestions() {
+        Pageable pageable = PageRequest.of(0, 10);
+        RequestSuggestionView view = mock(RequestSuggestionView.class);
+        RequestSuggestionDto dto = new RequestSuggestionDto(3L, 1L, new ItemDto(), 0.8, LocalDateTime.now());
+        when(identityCache.userExists(1L)).thenReturn(true);
+        when(requestSuggestionRepository.findViewsByRequesterId(1L, pageable)).thenReturn(List.of(view));
+        when(itemRequestMapper.toRequestSuggestionDto(view)).thenReturn(dto);
+
+        assertEquals(List.of(dto), itemRequestService.getSuggestions(1L, pageable));
+    }
+
+    @Test
+    void getSuggestionsShouldThrowExceptionWhenUserNotFound() {
+        when(identityCache.userExists(99L)).thenReturn(false);
+
+        assertThrows(UserNotFoundException.class, () -> itemRequestService.getSuggestions(99L, PageRequest.of(0, 10)));
+        verifyNoInteractions(requestSuggestionRepository);
+    }
+
+    @Test
+    void countItemRequestsShouldServeRepeatedRequestsFromCache() {
+        when(itemRequestRepository.countAllExcludeUser(1L)).thenReturn(7L);
+
+        assertEquals(7L, itemRequestService.countItemRequests(1L));
+        assertEquals(7L, itemRequestService.countItemRequests(1L));
+
+        verify(itemRequestRepository, times(1)).countAllExcludeUser(1L);
     }
 
     @Test
@@ -130,8 +239,7 @@ public class ItemRequestServiceImplTest {
         ItemRequest itemRequest = new ItemRequest(1L, "Need a camera",
                 new User(userId, "User One", "email.one@example.com"), LocalDateTime.now(), null);
 
-        when(userRepository.findById(userId)).thenReturn(Optional.of(new User(userId,
-                "User One", "email.one@example.com")));
+        when(identityCache.userExists(userId)).thenReturn(true);
         when(itemRequestRepository.findById(requestId)).thenReturn(Optional.of(itemRequest));
         when(itemRequestMapper.toItemRequestDto(itemRequest)).thenReturn(new ItemRequestDto(1L,
                 "Need a camera", userId, LocalDateTime.now(), null));
@@ -146,8 +254,7 @@ public class ItemRequestServiceImplTest {
     @Test
     void getItemRequestByIdShouldThrowExceptionWhenRequestNotFound() {
         Long userId = 1L, requestId = 99L;
-        when(userRepository.findById(userId)).thenReturn(Optional.of(new User(userId, "User One",
-                "email.one@example.com")));
+        when(identityCache.userExists(userId)).thenReturn(true);
         when(itemRequestRepository.findById(requestId)).thenReturn(Optional.empty());
 
         assertThrows(ItemRequestNotFoundException.class, () -> itemRequestService.getItemRequestById(userId, requestId));
@@ -157,10 +264,27 @@ public class ItemRequestServiceImplTest {
     @Test
     void getItemRequestByIdShouldThrowExceptionWhenUserNotFound() {
         Long userId = 99L, requestId = 1L;
-        when(userRepository.findById(userId)).thenReturn(Optional.empty());
+        when(identityCache.userExists(userId)).thenReturn(false);
 
         assertThrows(UserNotFoundException.class, () -> itemRequestService.getItemRequestById(userId, requestId));
-        verify(userRepository).findById(userId);
+        verify(identityCache).userExists(userId);
         verify(itemRequestRepository, never()).findById(any());
     }
+
+    private ItemRequest request(Long id, String description, Long requesterId) {
+        return new ItemRequest(id, description, new User(requesterId, "User " + requesterId,
+                "user" + requesterId + "@example.com"), LocalDateTime.now(), null);
+    }
+
+    private void stubRequestMapping() {
+        when(itemRequestMapper.toItemRequestDto(any(), anyList())).thenAnswer(invocation -> {
+            ItemRequest ir = invocation.getArgument(0);
+            return new ItemRequestDto(ir.getId(), ir.getDescription(), ir.getRequester().getId(), ir.getCreated(),
+                    invocation.getArgument(1));
+        });
+    }
+
+    private List<Long> ids(List<ItemRequestDto> requests) {
+        return requests.stream().map(ItemRequestDto::getId).collect(Collectors.toList());
+    }
 }
@@ -0,0 +1,73 @@
+package ru.practicum.shareit.request.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.practicum.shareit.item.analysis.StemmingFilter;
+import ru.practicum.shareit.item.analysis.StopWordFilter;
+import ru.practicum.shareit.item.analysis.TextAnalyzer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RequestMatchIndexBenchmark {
+
+    private static final String[] FILLER = {"нужна", "нужен", "ищу", "на", "выходные", "срочно", "недорого",
+            "need", "looking", "for", "weekend"};
+    private static final String[] TOOLS = {"дрель", "перфоратор", "лестница", "палатка", "шуруповерт", "пила",
+            "генератор", "болгарка", "drill", "ladder", "tent", "saw", "generator", "kayak", "projector",
+            "camera", "tripod", "sander", "compressor", "trailer"};
+    private static final String[] ADJECTIVES = {"ударная", "аккумуляторная", "большая", "складная", "cordless",
+            "heavy", "portable", "electric", "compact", "professional"};
+    private static final int ITEMS = 1024;
+
+    @Param("50000")
+    private int requests;
+
+    private RequestMatchIndex index;
+    private List<String[]> items;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        index = new RequestMatchIndex(new TextAnalyzer(List.of(new StopWordFilter(), new StemmingFilter())));
+        Random random = new Random(42);
+        for (long id = 1; id <= requests; id++) {
+            String description = pick(random, FILLER) + " " + pick(random, ADJECTIVES) + " "
+                    + pick(random, TOOLS) + " " + pick(random, FILLER);
+            index.add(id, (long) random.nextInt(requests / 10 + 1), description);
+        }
+        items = new ArrayList<>(ITEMS);
+        for (int i = 0; i < ITEMS; i++) {
+            String tool = pick(random, TOOLS);
+            items.add(new String[]{tool, pick(random, ADJECTIVES) + " " + tool + ", " + pick(random, ADJECTIVES)});
+        }
+    }
+
+    @Benchmark
+    public List<RequestMatchIndex.Match> matchItem() {
+        String[] item = items.get(next++ & (ITEMS - 1));
+        return index.match(-1L, item[0], item[1], 0.5, 20);
+    }
+
+    private static String pick(Random random, String[] words) {
+        return words[random.nextInt(words.length)];
+    }
+}
@@ -0,0 +1,38 @@
+package ru.practicum.shareit.request.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Collection;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Slf4j
+@EnabledIfSystemProperty(named = "shareit.benchmark", matches = "true")
+public class RequestMatchIndexBenchmarkTest {
+
+    @Test
+    void measureMatchThroughput() throws RunnerException {
+        // surefire запускает тесты из jar с манифестом, а форку JMH нужен полный classpath
+        String testClassPath = System.getProperty("surefire.test.class.path");
+        if (testClassPath != null) {
+            System.setProperty("java.class.path", testClassPath);
+        }
+        Options options = new OptionsBuilder()
+                .include(RequestMatchIndexBenchmark.class.getName() + "\\.")
+                .param("requests", System.getProperty("shareit.benchmark.requests", "50000"))
+                .build();
+
+        Collection<RunResult> results = new Runner(options).run();
+
+        assertThat(results).hasSize(1);
+        results.forEach(result -> log.info("{}: {} items per second",
+                result.getParams().getBenchmark(), result.getPrimaryResult().getScore()));
+    }
+}
@@ -0,0 +1,56 @@
+package ru.practicum.shareit.request.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.item.analysis.StemmingFilter;
+import ru.practicum.shareit.item.analysis.StopWordFilter;
+import ru.practicum.shareit.item.analysis.TextAnalyzer;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RequestMatchIndexTest {
+
+    private RequestMatchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new RequestMatchIndex(new TextAnalyzer(List.of(new StopWordFilter(), new StemmingFilter())));
+        index.add(1L, 10L, "Нужна дрель на выходные");
+        index.add(2L, 11L, "Нужна палатка");
+        index.add(3L, 12L, "Нужна лестница");
+        index.add(4L, 13L, "Need a cordless drill");
+    }
+
+    @Test
+    void matchShouldScoreRareTermsAboveCommonOnes() {
+        List<RequestMatchIndex.Match> matches = index.match(20L, "Дрель", "Ударная дрель, нужна всем", 0.1, 10);
+
+        assertEquals(List.of(1L, 2L, 3L), requestIds(matches));
+        assertTrue(matches.get(0).getScore() > 0.5);
+        assertTrue(matches.get(1).getScore() < 0.5);
+        assertEquals(List.of(1L), requestIds(index.match(20L, "Дрель", "Ударная дрель, нужна всем", 0.5, 10)));
+    }
+
+    @Test
+    void matchShouldSkipOwnRequestsAndApplyLimit() {
+        assertEquals(List.of(4L), requestIds(index.match(20L, "Drills", "Cordless drill with two batteries", 0.5, 10)));
+        assertEquals(List.of(), requestIds(index.match(13L, "Drills", "Cordless drill with two batteries", 0.5, 10)));
+        assertEquals(1, index.match(20L, "Нужна", "Нужна", 0.0, 1).size());
+    }
+
+    @Test
+    void removeShouldDropRequestFromPostings() {
+        index.remove(1L);
+        index.remove(99L);
+
+        assertEquals(3, index.size());
+        assertEquals(List.of(), requestIds(index.match(20L, "Дрель", "Ударная дрель", 0.1, 10)));
+    }
+
+    private List<Long> requestIds(List<RequestMatchIndex.Match> matches) {
+        return matches.stream().map(RequestMatchIndex.Match::getRequestId).collect(Collectors.toList());
+    }
+}
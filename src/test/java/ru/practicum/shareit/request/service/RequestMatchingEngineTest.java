@@ -0,0 +1,217 @@
+package ru.practicum.shareit.request.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+import ru.practicum.shareit.item.analysis.StemmingFilter;
+import ru.practicum.shareit.item.analysis.StopWordFilter;
+import ru.practicum.shareit.item.analysis.TextAnalyzer;
+import ru.practicum.shareit.item.event.ItemChangedEvent;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.repository.RequestItemView;
+import ru.practicum.shareit.request.event.ItemRequestChangedEvent;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.request.model.RequestSuggestion;
+import ru.practicum.shareit.request.repository.ItemRequestRepository;
+import ru.practicum.shareit.request.repository.OpenRequestView;
+import ru.practicum.shareit.request.repository.RequestSuggestionRepository;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class RequestMatchingEngineTest {
+
+    @Mock
+    private ItemRequestRepository itemRequestRepository;
+
+    @Mock
+    private ItemRepository itemRepository;
+
+    @Mock
+    private RequestSuggestionRepository requestSuggestionRepository;
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private RequestMatchingEngine engine;
+
+    @BeforeEach
+    void setUp() {
+        engine = new RequestMatchingEngine(itemRequestRepository, itemRepository, requestSuggestionRepository,
+                new TextAnalyzer(List.of(new StopWordFilter(), new StemmingFilter())), meterRegistry, 10);
+        engine.setEnabled(true);
+        ReflectionTestUtils.setField(engine, "batchSize", 2);
+        ReflectionTestUtils.setField(engine, "minScore", 0.5);
+        ReflectionTestUtils.setField(engine, "maxPerItem", 20);
+    }
+
+    @AfterEach
+    void tearDown() {
+        engine.shutdown();
+    }
+
+    @Test
+    void buildIndexShouldReadOpenRequestsInBatches() {
+        when(itemRequestRepository.findOpenRequestViews(0L, PageRequest.of(0, 2)))
+                .thenReturn(List.of(open(1L, 10L, "Нужна дрель"), open(2L, 11L, "Нужна палатка")));
+        when(itemRequestRepository.findOpenRequestViews(2L, PageRequest.of(0, 2)))
+                .thenReturn(List.of(open(3L, 12L, "Нужна лестница")));
+
+        engine.buildIndex();
+
+        assertEquals(3, meterRegistry.get("shareit.request.matching.open-requests").gauge().value());
+    }
+
+    @Test
+    void matchItemShouldRecordNewSuggestionsOnly() {
+        engine.buildIndex();
+        openRequest(1L, 10L, "Нужна дрель");
+        openRequest(2L, 11L, "Ищу ударную дрель");
+        openRequest(3L, 12L, "Нужна палатка");
+        when(itemRepository.findRequestItemViewById(5L))
+                .thenReturn(Optional.of(item(5L, "Дрель", "Ударная дрель", true, 20L, null)));
+        when(requestSuggestionRepository.existsByRequestIdAndItemId(1L, 5L)).thenReturn(true);
+        when(requestSuggestionRepository.existsByRequestIdAndItemId(2L, 5L)).thenReturn(false);
+        when(itemRequestRepository.getReferenceById(2L)).thenReturn(new ItemRequest());
+        when(itemRepository.getReferenceById(5L)).thenReturn(new Item());
+
+        engine.matchItem(5L);
+
+        ArgumentCaptor<RequestSuggestion> saved = ArgumentCaptor.forClass(RequestSuggestion.class);
+        verify(requestSuggestionRepository, times(1)).save(saved.capture());
+        assertTrue(saved.getValue().getScore() >= 0.5);
+        assertEquals(1.0, meterRegistry.get("shareit.request.matching.items").counter().count());
+        assertEquals(1.0, meterRegistry.get("shareit.request.matching.suggestions").counter().count());
+    }
+
+    @Test
+    void matchItemShouldSkipUnavailableItemsAndTheRequestItAnswers() {
+        engine.buildIndex();
+        openRequest(1L, 10L, "Нужна дрель");
+        when(itemRepository.findRequestItemViewById(5L))
+                .thenReturn(Optional.of(item(5L, "Дрель", "Ударная дрель", false, 20L, null)));
+        when(itemRepository.findRequestItemViewById(6L))
+                .thenReturn(Optional.of(item(6L, "Дрель", "Ударная дрель", true, 20L, 1L)));
+
+        engine.matchItem(5L);
+        engine.matchItem(6L);
+
+        verifyNoInteractions(requestSuggestionRepository);
+    }
+
+    @Test
+    void eventsShouldBeHandledOffTheCallingThread() {
+        ItemRequest request = new ItemRequest(1L, "Нужна дрель", new User(10L, "Requester", "r@example.com"),
+                LocalDateTime.now(), null);
+        when(itemRequestRepository.findById(1L)).thenReturn(Optional.of(request));
+        when(itemRepository.findRequestItemViewById(5L))
+                .thenReturn(Optional.of(item(5L, "Дрель", "Ударная дрель", true, 20L, null)));
+        when(itemRequestRepository.getReferenceById(1L)).thenReturn(request);
+        when(itemRepository.getReferenceById(5L)).thenReturn(new Item());
+
+        engine.onItemRequestChanged(new ItemRequestChangedEvent(1L, ItemRequestChangedEvent.Type.CREATED));
+        engine.onItemChanged(new ItemChangedEvent(5L, ItemChangedEvent.Type.CREATED));
+
+        verify(requestSuggestionRepository, timeout(5000)).save(any(RequestSuggestion.class));
+    }
+
+    @Test
+    void closedRequestShouldNotBeMatched() {
+        engine.buildIndex();
+        openRequest(1L, 10L, "Нужна дрель");
+        engine.closeRequest(1L);
+        when(itemRepository.findRequestItemViewById(5L))
+                .thenReturn(Optional.of(item(5L, "Дрель", "Ударная дрель", true, 20L, null)));
+
+        engine.matchItem(5L);
+
+        verifyNoInteractions(requestSuggestionRepository);
+        assertEquals(0, meterRegistry.get("shareit.request.matching.open-requests").gauge().value());
+    }
+
+    @Test
+    void disabledEngineShouldIgnoreEvents() {
+        engine.setEnabled(false);
+
+        engine.build();
+        engine.onItemChanged(new ItemChangedEvent(5L, ItemChangedEvent.Type.UPDATED));
+
+        verifyNoInteractions(itemRequestRepository, itemRepository, requestSuggestionRepository);
+    }
+
+    private void openRequest(Long id, Long requesterId, String description) {
+        when(itemRequestRepository.findById(id)).thenReturn(Optional.of(new ItemRequest(id, description,
+                new User(requesterId, "User " + requesterId, "user" + requesterId + "@example.com"),
+                LocalDateTime.now(), null)));
+        engine.openRequest(id);
+    }
+
+    private OpenRequestView open(Long id, Long requesterId, String description) {
+        return new OpenRequestView() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public Long getRequesterId() {
+                return requesterId;
+            }
+
+            @Override
+            public String getDescription() {
+                return description;
+            }
+        };
+    }
+
+    private RequestItemView item(Long id, String name, String description, boolean available, Long ownerId,
+                                 Long requestId) {
+        return new RequestItemView() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public String getName() {
+                return name;
+            }
+
+            @Override
+            public String getDescription() {
+                return description;
+            }
+
+            @Override
+            public Boolean getAvailable() {
+                return available;
+            }
+
+            @Override
+            public Long getOwnerId() {
+                return ownerId;
+            }
+
+            @Override
+            public Long getRequestId() {
+                return requestId;
+            }
+        };
+    }
+}
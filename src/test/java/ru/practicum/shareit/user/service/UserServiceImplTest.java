@@ -8,6 +8,7 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import ru.practicum.shareit.exception.UserNotFoundException;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.util.IdentityCache;
 
 import java.util.Arrays;
 import java.util.Collections;
@@ -23,6 +24,9 @@ public class UserServiceImplTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private IdentityCache identityCache;
+
     @InjectMocks
     private UserServiceImpl userService;
 
@@ -37,6 +41,7 @@ public class UserServiceImplTest {
         assertEquals(validUser.getName(), result.getName());
         assertEquals(validUser.getEmail(), result.getEmail());
         verify(userRepository).save(validUser);
+        verify(identityCache).userSaved(1L);
 
     }
 
@@ -159,27 +164,28 @@ public class UserServiceImplTest {
         when(userRepository.findById(userId)).thenReturn(Optional.of(user));
         userService.deleteUser(userId);
         verify(userRepository).deleteById(userId);
+        verify(identityCache).userDeleted(userId);
     }
 
     @Test
     void isUserExistWithExistingUserShouldReturnTrue() {
         Long userId = 1L;
-        when(userRepository.existsById(userId)).thenReturn(true);
+        when(identityCache.userExists(userId)).thenReturn(true);
 
         boolean result = userService.isUserExist(userId);
 
         assertTrue(result);
-        verify(userRepository).existsById(userId);
+        verify(identityCache).userExists(userId);
     }
 
     @Test
     void isUserExistWithNotExistingUserShouldReturnFalse() {
         Long userId = 99L;
-        when(userRepository.existsById(userId)).thenReturn(false);
+        when(identityCache.userExists(userId)).thenReturn(false);
 
         boolean result = userService.isUserExist(userId);
 
         assertFalse(result);
-        verify(userRepository).existsById(userId);
+        verify(identityCache).userExists(userId);
     }
 }
@@ -0,0 +1,109 @@
+package ru.practicum.shareit.util;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class IdentityCacheTest {
+
+    @Mock
+    private UserRepository userRepository;
+    @Mock
+    private ItemRepository itemRepository;
+
+    private IdentityCache identityCache;
+
+    @BeforeEach
+    void setUp() {
+        identityCache = new IdentityCache(userRepository, itemRepository, Duration.ofMinutes(1), Duration.ofMinutes(1),
+                100);
+    }
+
+    @Test
+    void userExistsShouldCacheBothAnswers() {
+        when(userRepository.existsById(1L)).thenReturn(true);
+        when(userRepository.existsById(2L)).thenReturn(false);
+
+        assertTrue(identityCache.userExists(1L));
+        assertTrue(identityCache.userExists(1L));
+        assertFalse(identityCache.userExists(2L));
+        assertFalse(identityCache.userExists(2L));
+
+        verify(userRepository).existsById(1L);
+        verify(userRepository).existsById(2L);
+    }
+
+    @Test
+    void userSavedAndDeletedShouldOverrideCachedAnswer() {
+        when(userRepository.existsById(1L)).thenReturn(false);
+        assertFalse(identityCache.userExists(1L));
+
+        identityCache.userSaved(1L);
+        assertTrue(identityCache.userExists(1L));
+
+        identityCache.userDeleted(1L);
+        assertFalse(identityCache.userExists(1L));
+        verify(userRepository).existsById(1L);
+    }
+
+    @Test
+    void isItemOwnedByShouldLoadOwnerOnce() {
+        when(itemRepository.findOwnerIdById(1L)).thenReturn(Optional.of(7L));
+
+        assertTrue(identityCache.isItemOwnedBy(1L, 7L));
+        assertFalse(identityCache.isItemOwnedBy(1L, 8L));
+
+        verify(itemRepository).findOwnerIdById(1L);
+    }
+
+    @Test
+    void itemSavedShouldReplaceCachedMissingItem() {
+        when(itemRepository.findOwnerIdById(1L)).thenReturn(Optional.empty());
+        assertTrue(identityCache.findItemOwnerId(1L).isEmpty());
+
+        identityCache.itemSaved(1L, 7L);
+
+        assertEquals(Optional.of(7L), identityCache.findItemOwnerId(1L));
+        verify(itemRepository).findOwnerIdById(1L);
+    }
+
+    @Test
+    void negativeAnswersShouldExpireBeforePositiveOnes() {
+        identityCache = new IdentityCache(userRepository, itemRepository, Duration.ofMinutes(1), Duration.ZERO, 100);
+        when(userRepository.existsById(1L)).thenReturn(true);
+        when(userRepository.existsById(2L)).thenReturn(false);
+        when(itemRepository.findOwnerIdById(3L)).thenReturn(Optional.empty());
+
+        assertTrue(identityCache.userExists(1L));
+        assertTrue(identityCache.userExists(1L));
+        assertFalse(identityCache.userExists(2L));
+        assertFalse(identityCache.userExists(2L));
+        assertTrue(identityCache.findItemOwnerId(3L).isEmpty());
+        assertTrue(identityCache.findItemOwnerId(3L).isEmpty());
+
+        verify(userRepository).existsById(1L);
+        verify(userRepository, times(2)).existsById(2L);
+        verify(itemRepository, times(2)).findOwnerIdById(3L);
+    }
+
+    @Test
+    void findItemOwnerIdShouldNotCacheFailedLookups() {
+        when(itemRepository.findOwnerIdById(1L))
+                .thenThrow(new IllegalStateException())
+                .thenReturn(Optional.of(7L));
+
+        assertThrows(IllegalStateException.class, () -> identityCache.findItemOwnerId(1L));
+        assertEquals(Optional.of(7L), identityCache.findItemOwnerId(1L));
+    }
+}
@@ -0,0 +1,15 @@
+package ru.practicum.shareit.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class TransliterationTest {
+
+    @Test
+    void toLatinShouldTransliterateRussianLettersAndKeepOthers() {
+        assertEquals("drel", Transliteration.toLatin("дрель"));
+        assertEquals("shchetka", Transliteration.toLatin("щётка"));
+        assertEquals("drill-2", Transliteration.toLatin("drill-2"));
+    }
+}
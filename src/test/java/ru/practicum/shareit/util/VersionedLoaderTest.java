@@ -0,0 +1,35 @@
+package ru.practicum.shareit.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class VersionedLoaderTest {
+
+    private final VersionedLoader versionedLoader = new VersionedLoader();
+    private final List<String> stored = new ArrayList<>();
+
+    @Test
+    void loadShouldStoreValueWhenNothingWasInvalidated() {
+        assertEquals("value", versionedLoader.load(() -> "value", stored::add));
+
+        assertEquals(List.of("value"), stored);
+    }
+
+    @Test
+    void loadShouldReturnButNotStoreValueInvalidatedDuringLoad() {
+        List<String> evicted = new ArrayList<>();
+
+        String loaded = versionedLoader.load(() -> {
+            versionedLoader.invalidate(() -> evicted.add("evicted"));
+            return "stale";
+        }, stored::add);
+
+        assertEquals("stale", loaded);
+        assertEquals(List.of("evicted"), evicted);
+        assertEquals(List.of(), stored);
+    }
+}